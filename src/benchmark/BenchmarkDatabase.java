@@ -0,0 +1,26 @@
+package benchmark;
+
+import java.sql.DriverManager;
+
+import dao.ConnectionProvider;
+import dao.jdbc.JdbcConnectionProvider;
+
+/**
+ * Builds the {@link ConnectionProvider} used by database benchmarks.
+ * <p>
+ * The target database is taken from the system properties {@code quizapp.jdbc.url},
+ * {@code quizapp.jdbc.user} and {@code quizapp.jdbc.password}; unset properties fall
+ * back to the values of {@link JdbcConnectionProvider}.
+ * </p>
+ */
+public final class BenchmarkDatabase {
+
+	private BenchmarkDatabase() {}
+
+	public static ConnectionProvider connectionProvider() {
+		String url = System.getProperty("quizapp.jdbc.url", JdbcConnectionProvider.URL);
+		String user = System.getProperty("quizapp.jdbc.user", JdbcConnectionProvider.USER);
+		String password = System.getProperty("quizapp.jdbc.password", JdbcConnectionProvider.PASSWORD);
+		return () -> DriverManager.getConnection(url, user, password);
+	}
+}
@@ -0,0 +1,76 @@
+package benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Timings of one {@link BenchmarkRunner} run: throughput, mean and percentile latency,
+ * and the bytes allocated per call.
+ */
+public final class BenchmarkResult {
+
+	private final String name;
+	private final long[] sortedSamples;
+	private final long totalNanos;
+	private final long allocatedBytes;
+
+	BenchmarkResult(String name, long[] samples, long totalNanos, long allocatedBytes) {
+		this.name = name;
+		this.sortedSamples = samples.clone();
+		Arrays.sort(this.sortedSamples);
+		this.totalNanos = totalNanos;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getIterations() {
+		return sortedSamples.length;
+	}
+
+	public double getOpsPerSecond() {
+		return totalNanos == 0 ? 0.0 : sortedSamples.length * 1e9 / totalNanos;
+	}
+
+	public double getMeanMicros() {
+		return sortedSamples.length == 0 ? 0.0 : totalNanos / 1e3 / sortedSamples.length;
+	}
+
+	/**
+	 * @param percentile value between 0 and 100
+	 * @return latency in microseconds below which {@code percentile} percent of the calls finished
+	 */
+	public double getPercentileMicros(double percentile) {
+		if (sortedSamples.length == 0) return 0.0;
+		int index = (int) Math.ceil(percentile / 100.0 * sortedSamples.length) - 1;
+		index = Math.max(0, Math.min(index, sortedSamples.length - 1));
+		return sortedSamples[index] / 1e3;
+	}
+
+	/**
+	 * @return bytes allocated by the measuring thread per call, or -1 if the JVM does not
+	 *         report thread allocations
+	 */
+	public double getBytesPerOp() {
+		if (allocatedBytes < 0) return -1;
+		return sortedSamples.length == 0 ? 0.0 : (double) allocatedBytes / sortedSamples.length;
+	}
+
+	/**
+	 * @return allocation rate in MB per second of measured time, or -1 if unknown
+	 */
+	public double getAllocatedMBPerSecond() {
+		if (allocatedBytes < 0) return -1;
+		return totalNanos == 0 ? 0.0 : allocatedBytes / 1_048_576.0 * 1e9 / totalNanos;
+	}
+
+	@Override
+	public String toString() {
+		String latency = String.format("%-44s %10d ops %12.1f ops/s   mean %9.2f us   p50 %9.2f us   p99 %9.2f us",
+			name, getIterations(), getOpsPerSecond(), getMeanMicros(),
+			getPercentileMicros(50), getPercentileMicros(99));
+		if (allocatedBytes < 0) return latency;
+		return latency + String.format("   alloc %12.0f B/op %9.1f MB/s", getBytesPerOp(), getAllocatedMBPerSecond());
+	}
+}
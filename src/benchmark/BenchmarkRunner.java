@@ -0,0 +1,62 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Minimal wall-clock benchmark loop shared by the benchmarks in this package.
+ * <p>
+ * Runs an operation for a number of warm-up iterations, then times every measured
+ * call individually so that mean and percentile latencies can be reported.
+ * The bytes allocated by the measuring thread are counted over the measured calls
+ * where the JVM supports it (HotSpot does), giving an allocation rate per call.
+ * </p>
+ * <p>
+ * This class is not meant to be instantiated.
+ * </p>
+ */
+public final class BenchmarkRunner {
+
+	private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+	private BenchmarkRunner() {}
+
+	/**
+	 * Runs {@code operation} {@code warmupIterations} times unmeasured, then
+	 * {@code measuredIterations} times measured.
+	 *
+	 * @param name label printed with the result
+	 * @param warmupIterations calls before measuring starts
+	 * @param measuredIterations timed calls
+	 * @param operation the code under test
+	 * @return the collected timings
+	 */
+	public static BenchmarkResult run(String name, int warmupIterations, int measuredIterations,
+			Runnable operation) {
+		for (int i = 0; i < warmupIterations; i++) {
+			operation.run();
+		}
+		long[] samples = new long[measuredIterations];
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		for (int i = 0; i < measuredIterations; i++) {
+			long t0 = System.nanoTime();
+			operation.run();
+			samples[i] = System.nanoTime() - t0;
+		}
+		long total = System.nanoTime() - start;
+		long allocated = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+		return new BenchmarkResult(name, samples, total, allocated);
+	}
+
+	/** @return the bytes allocated by the current thread so far, or -1 if the JVM cannot tell */
+	private static long allocatedBytes() {
+		return THREADS == null ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static com.sun.management.ThreadMXBean allocationCounter() {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)) return null;
+		if (!threads.isThreadAllocatedMemorySupported()) return null;
+		threads.setThreadAllocatedMemoryEnabled(true);
+		return threads;
+	}
+}
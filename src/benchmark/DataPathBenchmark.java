@@ -0,0 +1,168 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+import dao.ConnectionProvider;
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+import dao.jdbc.JdbcDAOFactoryProvider;
+import dao.memory.MemoryDAOFactoryProvider;
+import dao.schema.SchemaMigrator;
+import dto.QuestionLightDTO;
+import dto.SubjectLightDTO;
+import gui.model.SessionData;
+import gui.quizQuestions.QuizQuestionsInteractionHandler;
+import serviceLayer.DefaultQuizService;
+import serviceLayer.FakeQuizService;
+import serviceLayer.QuizService;
+
+/**
+ * Measures the whole read path of the question screen for growing dataset sizes: the
+ * DAO calls, the {@link QuizService} calls built on them, and the mapping of the
+ * subjects into the {@link SessionData} maps by
+ * {@link QuizQuestionsInteractionHandler#setInitMaps}, and the full-text search of
+ * {@link DefaultQuizService#searchQuestions}, once for a selective query and once for a
+ * word every question contains.
+ * <p>
+ * For every size the generated {@link QuestionBank} is grown to that many questions
+ * and each operation is run with {@link BenchmarkRunner}, which reports throughput,
+ * latency percentiles and allocated bytes per call. Lookups use random IDs, and each
+ * DAO call runs in its own unit-of-work, like the service calls do. Operations
+ * that read every question are run fewer times on large datasets so that one size
+ * finishes in seconds.
+ * </p>
+ * <p>
+ * By default the in-memory backend is measured. With {@code jdbc} as third argument
+ * the database configured through {@link BenchmarkDatabase} is used instead; its schema
+ * is created with {@link SchemaMigrator} and the question bank is inserted into it, so
+ * point it at an empty scratch database, e.g. an embedded one.
+ * </p>
+ * <p>
+ * Usage: {@code DataPathBenchmark [sizes] [iterations] [jdbc]}, where {@code sizes} is
+ * a comma separated list, default {@code 100,10000,100000,1000000}, and
+ * {@code iterations} the measured calls of the cheap operations, default 10,000.
+ * Run with a heap of about 2 GB for a million questions.
+ * </p>
+ */
+public class DataPathBenchmark {
+
+	private static final int[] DEFAULT_SIZES = { 100, 10_000, 100_000, 1_000_000 };
+	private static final int DEFAULT_ITERATIONS = 10_000;
+	private static final int PAGE_SIZE = 50;
+	// Operations reading every question get about this many rows per size.
+	private static final long FULL_SCAN_ROWS = 20_000_000L;
+
+	public static void main(String[] args) {
+		int[] sizes = args.length > 0 ? parseSizes(args[0]) : DEFAULT_SIZES;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+		boolean jdbc = args.length > 2 && args[2].equals("jdbc");
+
+		DAOFactoryProvider provider;
+		if (jdbc) {
+			ConnectionProvider connections = BenchmarkDatabase.connectionProvider();
+			new SchemaMigrator(connections).migrate();
+			provider = new JdbcDAOFactoryProvider(connections);
+		} else {
+			provider = new MemoryDAOFactoryProvider();
+		}
+
+		System.out.println("== FakeQuizService ==");
+		measureService(new FakeQuizService(), new int[] { QuizService.ALL_SUBJECTS }, iterations, iterations);
+
+		QuestionBank bank = new QuestionBank(provider);
+		for (int size : sizes) {
+			bank.growTo(size);
+			System.out.printf("%n== %,d questions, %s ==%n", size, jdbc ? "jdbc" : "memory");
+			measureSize(provider, bank, iterations);
+		}
+	}
+
+	private static void measureSize(DAOFactoryProvider provider, QuestionBank bank, int iterations) {
+		int scans = scanIterations(bank.getQuestions(), iterations);
+		int[] subjectIds = bank.getSubjectIds();
+		SplittableRandom random = new SplittableRandom(42);
+
+		int[] questionIds;
+		try (DAOFactory f = provider.open()) {
+			questionIds = f.questions().findAllLight().stream()
+				.mapToInt(QuestionLightDTO::getQuestionId).toArray();
+		}
+
+		measureDao(provider, "SubjectDAO.findById", iterations,
+			f -> f.subjects().findById(pick(random, subjectIds)));
+		measureDao(provider, "SubjectDAO.findAllLight", iterations,
+			f -> f.subjects().findAllLight());
+		measureDao(provider, "QuestionDAO.findById", iterations,
+			f -> f.questions().findById(pick(random, questionIds)));
+		measureDao(provider, "QuestionDAO.findBySubjectIdAfter", iterations,
+			f -> f.questions().findBySubjectIdAfter(pick(random, subjectIds), 0, PAGE_SIZE));
+		measureDao(provider, "QuestionDAO.findLightBySubjectIdAfter", iterations,
+			f -> f.questions().findLightBySubjectIdAfter(pick(random, subjectIds), 0, PAGE_SIZE));
+		measureDao(provider, "QuestionDAO.findAllLight", scans,
+			f -> f.questions().findAllLight());
+		measureDao(provider, "AnswerDAO.findByQuestionId", iterations,
+			f -> f.answers().findByQuestionId(pick(random, questionIds)));
+
+		DefaultQuizService service = new DefaultQuizService(provider);
+		measureService(service, subjectIds, iterations, scans);
+		// the first call builds the search index, within the warmup
+		measure("DefaultQuizService.searchQuestions", iterations,
+			() -> service.searchQuestions(Integer.toString(pick(random, questionIds)), QuizService.ALL_SUBJECTS,
+				PAGE_SIZE));
+		measure("DefaultQuizService.searchQuestions(every question)", scans,
+			() -> service.searchQuestions("Frage", QuizService.ALL_SUBJECTS, PAGE_SIZE));
+
+		List<SubjectLightDTO> subjectList = service.getSubjectLightList();
+		SessionData sessionData = new SessionData();
+		measure("setInitMaps", iterations,
+			() -> QuizQuestionsInteractionHandler.setInitMaps(sessionData, subjectList));
+	}
+
+	private static void measureService(QuizService service, int[] subjectIds, int iterations, int scans) {
+		String prefix = service.getClass().getSimpleName() + ".";
+		SplittableRandom random = new SplittableRandom(42);
+		measure(prefix + "getSubjectLightList", iterations,
+			() -> service.getSubjectLightList());
+		measure(prefix + "getQuestionPage", iterations,
+			() -> service.getQuestionPage(pick(random, subjectIds), 0, PAGE_SIZE));
+	}
+
+	/**
+	 * Runs every call of a DAO operation in its own unit-of-work, as the services do,
+	 * so that no call is answered from the identity map of an earlier one and no
+	 * factory grows over the run. Opening the factory is part of the latency.
+	 */
+	private static void measureDao(DAOFactoryProvider provider, String name, int iterations,
+			Consumer<DAOFactory> operation) {
+		measure(name, iterations, () -> {
+			try (DAOFactory f = provider.open()) {
+				operation.accept(f);
+			}
+		});
+	}
+
+	private static void measure(String name, int iterations, Runnable operation) {
+		System.out.println(BenchmarkRunner.run(name, Math.max(1, iterations / 10), iterations, operation));
+	}
+
+	/** @return how often to run an operation that reads all {@code questions} rows */
+	private static int scanIterations(int questions, int iterations) {
+		return (int) Math.max(5, Math.min(iterations, FULL_SCAN_ROWS / Math.max(1, questions)));
+	}
+
+	private static int pick(SplittableRandom random, int[] ids) {
+		return ids[random.nextInt(ids.length)];
+	}
+
+	private static int[] parseSizes(String arg) {
+		int[] sizes = Arrays.stream(arg.split(","))
+			.map(s -> s.trim().replace("_", ""))
+			.mapToInt(Integer::parseInt)
+			.toArray();
+		Arrays.sort(sizes);
+		return sizes;
+	}
+}
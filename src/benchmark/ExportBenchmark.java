@@ -0,0 +1,57 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import dao.DAOFactoryProvider;
+import dao.jdbc.JdbcDAOFactoryProvider;
+import dao.memory.MemoryDAOFactoryProvider;
+import dataExport.ExportFormat;
+import dataExport.ExportReport;
+import dataExport.QuestionExporter;
+
+/**
+ * Measures the throughput of {@link QuestionExporter} for every format, with and
+ * without gzip.
+ * <p>
+ * By default a generated question bank of {@code questions} questions with three
+ * answers each is exported from the in-memory backend, which shows the cost of the
+ * export itself. With {@code jdbc} as second argument the existing content of the
+ * database configured through {@link BenchmarkDatabase} is exported instead.
+ * Watch the heap with e.g. {@code -Xlog:gc}: it should stay flat regardless of size.
+ * </p>
+ * <p>
+ * Usage: {@code ExportBenchmark [questions] [jdbc]}, default 1,000,000 questions.
+ * </p>
+ */
+public class ExportBenchmark {
+
+	private static final int DEFAULT_QUESTIONS = 1_000_000;
+
+	public static void main(String[] args) throws IOException {
+		int questions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_QUESTIONS;
+		boolean jdbc = args.length > 1 && args[1].equals("jdbc");
+
+		DAOFactoryProvider provider;
+		if (jdbc) {
+			provider = new JdbcDAOFactoryProvider(BenchmarkDatabase.connectionProvider());
+		} else {
+			provider = new MemoryDAOFactoryProvider();
+			new QuestionBank(provider).growTo(questions);
+		}
+
+		QuestionExporter exporter = new QuestionExporter(provider);
+		Path dir = Files.createTempDirectory("quiz-export");
+		try {
+			for (String name : new String[] { "bank.csv", "bank.csv.gz", "bank.jsonl", "bank.jsonl.gz" }) {
+				Path file = dir.resolve(name);
+				ExportReport report = exporter.exportTo(file, ExportFormat.forFile(file));
+				System.out.printf("%-16s %s, %,.1f MB on disk%n", name, report, Files.size(file) / 1_048_576.0);
+				Files.delete(file);
+			}
+		} finally {
+			Files.deleteIfExists(dir);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package benchmark;
+
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+import dao.DataAccessException;
+import dao.jdbc.JdbcDAOFactory;
+import dao.jdbc.PooledConnectionProvider;
+import dao.jdbc.StatementCache;
+
+/**
+ * Measures the JOIN-based read paths of the Jdbc DAOs against a live database.
+ * <p>
+ * Besides latency it reports the statements executed per call, read from the
+ * {@link StatementCache} counters before and after the call; for these three reads it
+ * should be 1.00, one joined query each. Only the current code is measured: the
+ * per-level lookups the reads replaced are gone from the DAOs, so there is no baseline
+ * run to compare against. To compare, run the benchmark on a checkout from before the
+ * JOIN rewrite against the same database.
+ * </p>
+ * <p>
+ * Every call runs in a fresh {@link JdbcDAOFactory} on a pooled connection, like a
+ * service call does, so the identity map of the unit-of-work never answers it and
+ * every call reaches the database. The pool checkout is part of the latency.
+ * </p>
+ * <p>
+ * Usage: {@code JoinFetchBenchmark <questionId> <answerId> [iterations]}.
+ * See {@link BenchmarkDatabase} for the connection settings.
+ * </p>
+ */
+public class JoinFetchBenchmark {
+
+	private static final int DEFAULT_ITERATIONS = 2_000;
+
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: JoinFetchBenchmark <questionId> <answerId> [iterations]");
+			return;
+		}
+		int questionId = Integer.parseInt(args[0]);
+		int answerId = Integer.parseInt(args[1]);
+		int iterations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ITERATIONS;
+		int warmup = iterations / 10;
+
+		try (PooledConnectionProvider pool = new PooledConnectionProvider(BenchmarkDatabase.connectionProvider())) {
+			measure(pool, "AnswerDAO.findByQuestionId", warmup, iterations,
+				factory -> factory.answers().findByQuestionId(questionId));
+			measure(pool, "AnswerDAO.findById", warmup, iterations,
+				factory -> factory.answers().findById(answerId));
+			measure(pool, "QuestionDAO.findById", warmup, iterations,
+				factory -> factory.questions().findById(questionId));
+		}
+	}
+
+	private static void measure(PooledConnectionProvider pool, String name, int warmup, int iterations,
+			Consumer<JdbcDAOFactory> operation) {
+		long[] executed = new long[1];
+		BenchmarkResult result = BenchmarkRunner.run(name, warmup, iterations, () -> {
+			try (JdbcDAOFactory factory = new JdbcDAOFactory(pool.getConnection())) {
+				// the cache belongs to the pooled connection and counts earlier calls too
+				StatementCache cache = factory.getStatementCache();
+				long before = cache.getHits() + cache.getMisses();
+				operation.accept(factory);
+				executed[0] += cache.getHits() + cache.getMisses() - before;
+			} catch (SQLException e) {
+				throw new DataAccessException("benchmark connection failed", e);
+			}
+		});
+		System.out.println(result);
+		System.out.printf("%-44s %10.2f statements/op%n", "", (double) executed[0] / (warmup + iterations));
+	}
+}
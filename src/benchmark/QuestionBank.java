@@ -0,0 +1,82 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+import domain.Answer;
+import domain.Question;
+import domain.Subject;
+
+/**
+ * Generated question bank for benchmarks: {@value #SUBJECTS} subjects, questions spread
+ * evenly over them, {@value #ANSWERS_PER_QUESTION} answers per question.
+ * <p>
+ * {@link #growTo(int)} only inserts the questions that are missing, so a benchmark can
+ * step through increasing dataset sizes on one database.
+ * </p>
+ */
+final class QuestionBank {
+
+	static final int SUBJECTS = 100;
+	static final int ANSWERS_PER_QUESTION = 3;
+	private static final int INSERT_CHUNK = 10_000;
+
+	private final DAOFactoryProvider provider;
+	private Subject[] subjects;
+	private int questions;
+
+	QuestionBank(DAOFactoryProvider provider) {
+		this.provider = provider;
+	}
+
+	/** @return the number of questions inserted so far */
+	int getQuestions() {
+		return questions;
+	}
+
+	/** @return the IDs of the generated subjects; empty before the first {@link #growTo(int)} */
+	int[] getSubjectIds() {
+		if (subjects == null) return new int[0];
+		int[] ids = new int[subjects.length];
+		for (int i = 0; i < ids.length; i++) ids[i] = subjects[i].getSubjectId();
+		return ids;
+	}
+
+	/**
+	 * Inserts questions until the bank holds {@code total}, in transactions of
+	 * {@value #INSERT_CHUNK} questions.
+	 */
+	void growTo(int total) {
+		try (DAOFactory f = provider.open()) {
+			if (subjects == null) {
+				subjects = new Subject[SUBJECTS];
+				for (int i = 0; i < SUBJECTS; i++) {
+					subjects[i] = new Subject(0, "Thema " + i, "Beschreibung von Thema " + i);
+					subjects[i].setSubjectId(f.subjects().insert(subjects[i]));
+				}
+			}
+			for (int from = questions; from < total; from += INSERT_CHUNK) {
+				int to = Math.min(total, from + INSERT_CHUNK);
+				List<Question> chunk = new ArrayList<>(to - from);
+				List<Answer> answers = new ArrayList<>((to - from) * ANSWERS_PER_QUESTION);
+				for (int i = from; i < to; i++) {
+					Question q = new Question(0, "Frage " + i, "Was ergibt " + i + " + 1, \"ungefähr\"?",
+						subjects[i % SUBJECTS]);
+					for (int a = 0; a < ANSWERS_PER_QUESTION; a++) {
+						Answer answer = new Answer(0, Integer.toString(i + a), a == 0, q);
+						q.getAnswersList().add(answer);
+						answers.add(answer);
+					}
+					chunk.add(q);
+				}
+				f.begin();
+				f.questions().insertAll(chunk);
+				f.answers().insertAll(answers);
+				f.commit();
+				questions = to;
+			}
+		}
+	}
+}
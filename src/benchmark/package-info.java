@@ -0,0 +1,12 @@
+/**
+ * Stand-alone benchmark entry points for the data access layer.
+ * <p>
+ * Each benchmark class has a {@code main} method and prints its results to
+ * standard out. {@link benchmark.BenchmarkRunner} provides the shared
+ * warm-up/measure loop and {@link benchmark.BenchmarkDatabase} builds the
+ * {@code ConnectionProvider} for benchmarks that need a live database.
+ * {@link benchmark.DataPathBenchmark} covers the DAO and service read path
+ * for dataset sizes from a hundred to a million questions.
+ * </p>
+ */
+package benchmark;
@@ -8,6 +8,7 @@ public class OperationResult<T> {
 	private T data;
 	private List<String> errors;
 	private String message;
+	private boolean conflict;
 
 	private OperationResult(boolean success,T data, List<String> errors, String message) {
 		this.success = success;
@@ -35,6 +36,16 @@ public class OperationResult<T> {
 	public static <T> OperationResult<T> failure(List<String> errors) {
 		return new OperationResult<T>(false, null, errors, null);
 	}
+	
+	/**
+	 * A failure because someone else changed the data since it was loaded: the
+	 * caller's copy is stale and must be loaded again before another attempt.
+	 */
+	public static <T> OperationResult<T> conflict(List<String> errors) {
+		OperationResult<T> result = new OperationResult<T>(false, null, errors, null);
+		result.conflict = true;
+		return result;
+	}
 
 	public boolean isSuccess() {
 		return success;
@@ -52,4 +63,9 @@ public class OperationResult<T> {
 		return message;
 	}
 	
+	/** @return true if this failure was created by {@link #conflict(List)} */
+	public boolean isConflict() {
+		return conflict;
+	}
+	
 }
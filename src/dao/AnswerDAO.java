@@ -1,7 +1,9 @@
 package dao;
 
 import domain.Answer;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -19,6 +21,15 @@ public interface AnswerDAO {
     /** Fetch all answers belonging to a question. */
     List<Answer> findByQuestion(domain.Question parent);
 
+    /**
+     * Count the answers of each question of a subject with one grouped query, without
+     * reading any answer rows.
+     *
+     * @param subjectId subject ID
+     * @return number of answers by question ID; questions without answers are missing
+     */
+    Map<Integer, Integer> countByQuestionForSubjectId(int subjectId);
+
     /**
      * Insert a new answer.
      * @return generated primary key ID
@@ -26,11 +37,37 @@ public interface AnswerDAO {
     int insert(Answer answer);
 
     /**
-     * Update an existing answer.
-     * @return true if a row was updated
+     * Insert several answers in as few round trips as the driver allows.
+     * <p>The generated IDs are also written back to the given answers.</p>
+     *
+     * @param answers answers to insert; their parent questions must be persisted
+     * @return generated primary key IDs, in iteration order
+     */
+    int[] insertAll(Collection<Answer> answers);
+
+    /**
+     * Update an existing answer if its row still has the version the answer was read with,
+     * and advance the version of both. Only the columns of the fields changed since the
+     * answer was loaded are written; an unchanged answer is not written at all.
+     * @return true if a row was updated or nothing had changed, false if the row does not exist
+     * @throws dao.OptimisticLockException if the row was changed since the answer was read
      */
     boolean update(Answer answer);
 
+    /**
+     * Update several answers in as few round trips as the driver allows.
+     *
+     * Every row must still have the version its entity was read with; versions are
+     * advanced as rows are written, so roll back and reload after a conflict.
+     * Unchanged answers are skipped; the others go out in one batch per combination
+     * of changed columns.
+     *
+     * @param answers answers to update
+     * @return number of rows updated; rows that do not exist are skipped
+     * @throws dao.OptimisticLockException on the first row changed since it was read
+     */
+    int updateAll(Collection<Answer> answers);
+
     /**
      * Delete an answer by its primary key.
      *
@@ -38,6 +75,14 @@ public interface AnswerDAO {
      * @return true if a row was deleted, false otherwise
      */
     boolean delete(int id);
+
+    /**
+     * Delete several answers by primary key in as few round trips as the driver allows.
+     *
+     * @param ids answer IDs; IDs without a row are skipped
+     * @return number of rows deleted
+     */
+    int deleteAll(Collection<Integer> ids);
     
     /**
      * Delete all answers linked to a given question.
@@ -55,4 +100,14 @@ public interface AnswerDAO {
      * @return number of rows deleted (0 if none)
      */
     int deleteBySubjectId(int subjectId);
+
+    /**
+     * Delete the answers of those questions of a subject whose ID is at most
+     * {@code upToQuestionId}. Used to delete a large subject in bounded chunks.
+     *
+     * @param subjectId      subject ID
+     * @param upToQuestionId the highest question ID whose answers are deleted
+     * @return number of rows deleted (0 if none)
+     */
+    int deleteBySubjectIdUpTo(int subjectId, int upToQuestionId);
 }
@@ -14,7 +14,7 @@ public interface DAOFactory extends AutoCloseable {
     /** Roll back and restore autoCommit=true. */
     void rollback();
 
-    /** Always close the underlying Connection. */
+    /** Always release the underlying Connection (closed, or returned to its pool). */
     @Override
     void close();
 }
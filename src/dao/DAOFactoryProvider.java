@@ -1,6 +1,9 @@
 package dao;
 
-/** Creates a fresh DAOFactory (and Connection) per unit-of-work. */
+/**
+ * Creates a fresh DAOFactory per unit-of-work.
+ * <p>The underlying Connection may be borrowed from a pool; closing the factory releases it.</p>
+ */
 public interface DAOFactoryProvider {
     DAOFactory open();
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package dao;
+
+/**
+ * How deep an aggregate load of {@link domain.Subject}s goes.
+ * <p>Each level costs at most one additional query, however many subjects or
+ * questions are loaded. Children are attached to the SAME parent instances,
+ * so {@code question.getSubject()} and {@code answer.getQuestion()} point back
+ * into the loaded graph.</p>
+ */
+public enum FetchPlan {
+
+    /** Only the subject rows; {@code questionsList} stays empty. */
+    SUBJECT,
+
+    /** Subjects with their {@code questionsList} filled; answer lists stay empty. */
+    QUESTIONS,
+
+    /** Subjects, their questions, and each question's {@code answersList}. */
+    ANSWERS;
+
+    /** @return true if this plan loads at least as deep as {@code level} */
+    public boolean includes(FetchPlan level) {
+        return compareTo(level) >= 0;
+    }
+}
@@ -0,0 +1,48 @@
+package dao;
+
+/**
+ * Thrown by {@code update}/{@code updateAll} when the row was changed by someone else
+ * since the entity was read: its version in the database no longer matches
+ * {@code getVersion()} of the entity. Nothing of the conflicting row was written.
+ * <p>Roll back the transaction, reload the entity and let the user apply the change
+ * again.</p>
+ */
+public class OptimisticLockException extends DataAccessException {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String DEV_ERR_CONFLICT =
+        "%s %d was changed concurrently (expected version %d, found %d)";
+
+    private final String table;
+    private final int id;
+    private final int expectedVersion;
+    private final int actualVersion;
+
+    public OptimisticLockException(String table, int id, int expectedVersion, int actualVersion) {
+        super(String.format(DEV_ERR_CONFLICT, table, id, expectedVersion, actualVersion));
+        this.table = table;
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    /** @return the table of the conflicting row, e.g. {@code questions} */
+    public String getTable() {
+        return table;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /** @return the version the entity was read with */
+    public int getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    /** @return the version the row has now, or -1 if it was deleted */
+    public int getActualVersion() {
+        return actualVersion;
+    }
+}
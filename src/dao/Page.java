@@ -0,0 +1,70 @@
+package dao;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * One page of a keyset-paginated query, ordered by ascending ID.
+ * <p>Pages are addressed by "after ID X" instead of an offset, so the database seeks
+ * straight to the first row through the primary key index and the cost of a page does
+ * not grow with its depth. Pass {@link #FIRST} for the first page and
+ * {@link #getLastId()} of the previous page for the next one.</p>
+ *
+ * @param <T> the item type
+ */
+public final class Page<T> {
+
+    /** The {@code afterId} that addresses the first page. */
+    public static final int FIRST = 0;
+
+    /** The largest {@code limit} the DAOs serve; the extra row they fetch must still fit an int. */
+    public static final int MAX_LIMIT = 10_000;
+
+    private final List<T> items;
+    private final boolean hasNext;
+    private final int lastId;
+
+    public Page(List<T> items, boolean hasNext, int lastId) {
+        this.items = Collections.unmodifiableList(items);
+        this.hasNext = hasNext;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Builds a page from a query that fetched up to {@code limit + 1} rows: the extra row
+     * only tells whether another page follows and is dropped.
+     *
+     * @param fetched rows in ascending ID order, at most {@code limit + 1}
+     * @param afterId the {@code afterId} the rows were fetched with
+     * @param idOf    extracts the ID of an item
+     */
+    public static <T> Page<T> of(List<T> fetched, int limit, int afterId, ToIntFunction<T> idOf) {
+        boolean hasNext = fetched.size() > limit;
+        List<T> items = hasNext ? fetched.subList(0, limit) : fetched;
+        int lastId = items.isEmpty() ? afterId : idOf.applyAsInt(items.get(items.size() - 1));
+        return new Page<>(items, hasNext, lastId);
+    }
+
+    /** @return the items of this page, in ascending ID order */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /** @return true if at least one more item follows this page */
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /** @return the ID of the last item, to pass as {@code afterId} for the next page */
+    public int getLastId() {
+        return lastId;
+    }
+
+    /** Rejects page requests the DAOs cannot serve. */
+    public static void checkRequest(int afterId, int limit) {
+        if (afterId < 0) throw new IllegalArgumentException("afterId must not be negative");
+        if (limit <= 0) throw new IllegalArgumentException("limit must be positive");
+        if (limit > MAX_LIMIT) throw new IllegalArgumentException("limit must not exceed " + MAX_LIMIT);
+    }
+}
@@ -1,10 +1,15 @@
 package dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
 
 import domain.Question;
 import domain.Subject;
+import dto.QuestionLightDTO;
 
 /**
  * DAO for Question entities.
@@ -17,12 +22,93 @@ public interface QuestionDAO {
     /** Fetch all questions. */
     List<Question> findAll();
 
+    /**
+     * Fetch ID, title and subject ID of all questions, ordered by ID, without
+     * reading their content or building entities.
+     */
+    List<QuestionLightDTO> findAllLight();
+
+    /**
+     * Stream all questions, ordered by ID, without holding them all in memory.
+     * <p>Rows are fetched from the database as the stream is consumed. The stream holds
+     * an open cursor and must be closed, best with try-with-resources; it must be
+     * consumed before the unit-of-work is closed. Streamed questions are not kept by the
+     * unit-of-work, so a later lookup may return a different instance.</p>
+     */
+    Stream<Question> streamAll();
+
+    /**
+     * Stream all questions with their answers filled in, ordered by question ID, without
+     * holding them all in memory.
+     * <p>Same contract as {@link #streamAll()}; answers are ordered by ID. Meant for bulk
+     * readers such as exports that need the whole aggregate of each question.</p>
+     */
+    Stream<Question> streamAllWithAnswers();
+
+    /**
+     * Fetch one page of all questions, ordered by ID.
+     *
+     * @param afterId only questions with a greater ID are returned; {@link Page#FIRST} for the first page
+     * @param limit   maximum number of questions on the page, at most {@link Page#MAX_LIMIT}
+     */
+    Page<Question> findAllAfter(int afterId, int limit);
+
+    /**
+     * Fetch one page of ID, title and subject ID of all questions, ordered by ID, without
+     * reading their content or building entities.
+     *
+     * @param afterId only questions with a greater ID are returned; {@link Page#FIRST} for the first page
+     * @param limit   maximum number of questions on the page, at most {@link Page#MAX_LIMIT}
+     */
+    Page<QuestionLightDTO> findAllLightAfter(int afterId, int limit);
+
     /** Fetch all questions that belong to a subject. */
     List<Question> findBySubjectId(int subjectId);
+
+    /**
+     * Fetch one page of the questions of a subject, ordered by ID.
+     *
+     * @param subjectId subject ID
+     * @param afterId   only questions with a greater ID are returned; {@link Page#FIRST} for the first page
+     * @param limit     maximum number of questions on the page, at most {@link Page#MAX_LIMIT}
+     */
+    Page<Question> findBySubjectIdAfter(int subjectId, int afterId, int limit);
+
+    /**
+     * Fetch one page of ID, title and subject ID of the questions of a subject, ordered by
+     * ID, without reading their content or building entities. An unknown subject yields
+     * an empty page.
+     *
+     * @param subjectId subject ID
+     * @param afterId   only questions with a greater ID are returned; {@link Page#FIRST} for the first page
+     * @param limit     maximum number of questions on the page, at most {@link Page#MAX_LIMIT}
+     */
+    Page<QuestionLightDTO> findLightBySubjectIdAfter(int subjectId, int afterId, int limit);
     
     /** Fetch all questions that belong to a subject. */
     List<Question> findBySubject(Subject parent);
 
+    /**
+     * Count the questions of every subject with one grouped query, without reading
+     * any question rows.
+     *
+     * @return number of questions by subject ID; subjects without questions are missing
+     */
+    Map<Integer, Integer> countBySubject();
+
+    /**
+     * Find the ID of the question at position {@code offset} among the questions of a
+     * subject with an ID above {@code afterId}, ordered by ID, reading IDs only. The
+     * lookup seeks to {@code afterId} first, so walking a subject in chunks from bound
+     * to bound does not skip over the chunks before.
+     *
+     * @param subjectId subject ID
+     * @param afterId   {@link Page#FIRST} to start at the first question, else the bound found before
+     * @param offset    0 for the first question after {@code afterId}
+     * @return the question ID, or empty if at most {@code offset} questions follow {@code afterId}
+     */
+    OptionalInt findIdBySubjectIdAfter(int subjectId, int afterId, int offset);
+
     /**
      * Insert a new question.
      * @return generated primary key ID
@@ -30,11 +116,37 @@ public interface QuestionDAO {
     int insert(Question question);
 
     /**
-     * Update an existing question.
-     * @return true if a row was updated
+     * Insert several questions in as few round trips as the driver allows.
+     * <p>The generated IDs are also written back to the given questions.</p>
+     *
+     * @param questions questions to insert; their subjects must be persisted
+     * @return generated primary key IDs, in iteration order
+     */
+    int[] insertAll(Collection<Question> questions);
+
+    /**
+     * Update an existing question if its row still has the version the question was read with,
+     * and advance the version of both. Only the columns of the fields changed since the
+     * question was loaded are written; an unchanged question is not written at all.
+     * @return true if a row was updated or nothing had changed, false if the row does not exist
+     * @throws dao.OptimisticLockException if the row was changed since the question was read
      */
     boolean update(Question question);
 
+    /**
+     * Update several questions in as few round trips as the driver allows.
+     *
+     * Every row must still have the version its entity was read with; versions are
+     * advanced as rows are written, so roll back and reload after a conflict.
+     * Unchanged questions are skipped; the others go out in one batch per combination
+     * of changed columns.
+     *
+     * @param questions questions to update
+     * @return number of rows updated; rows that do not exist are skipped
+     * @throws dao.OptimisticLockException on the first row changed since it was read
+     */
+    int updateAll(Collection<Question> questions);
+
     /**
      * Delete a question by ID.
      * @return true if a row was deleted
@@ -48,4 +160,14 @@ public interface QuestionDAO {
      * @return number of rows deleted (0 if none)
      */
     int deleteBySubjectId(int subjectId);
+
+    /**
+     * Delete the questions of a subject whose ID is at most {@code upToId}; their
+     * answers must be deleted first. Used to delete a large subject in bounded chunks.
+     *
+     * @param subjectId subject ID
+     * @param upToId    the highest question ID deleted
+     * @return number of rows deleted (0 if none)
+     */
+    int deleteBySubjectIdUpTo(int subjectId, int upToId);
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package dao;
 import java.util.List;
 import java.util.Optional;
 import domain.Subject;
+import dto.SubjectLightDTO;
 
 /**
  * DAO for Subject entities.
@@ -12,8 +13,39 @@ public interface SubjectDAO {
     /** Find a subject by its ID. */
     Optional<Subject> findById(int id);
     
+    /**
+     * Find a subject and load its aggregate down to the given depth.
+     *
+     * @param id   subject ID
+     * @param plan how much of the Subject → Questions → Answers graph to load
+     * @return the subject, or empty if no such subject exists
+     */
+    Optional<Subject> findById(int id, FetchPlan plan);
+
     /** Fetch all subjects. */
     List<Subject> findAll();
+
+    /**
+     * Fetch ID and title of all subjects, ordered by ID, without reading their
+     * info or building entities.
+     */
+    List<SubjectLightDTO> findAllLight();
+
+    /**
+     * Fetch one page of all subjects, ordered by ID.
+     *
+     * @param afterId only subjects with a greater ID are returned; {@link Page#FIRST} for the first page
+     * @param limit   maximum number of subjects on the page, at most {@link Page#MAX_LIMIT}
+     */
+    Page<Subject> findAllAfter(int afterId, int limit);
+
+    /**
+     * Fetch all subjects and load their aggregates down to the given depth,
+     * using at most one query per level.
+     *
+     * @param plan how much of the Subject → Questions → Answers graph to load
+     */
+    List<Subject> findAll(FetchPlan plan);
     
     /**
      * Insert a new subject.
@@ -22,8 +54,11 @@ public interface SubjectDAO {
     int insert(Subject subject);
     
     /**
-     * Update an existing subject.
-     * @return true if a row was updated
+     * Update an existing subject if its row still has the version the subject was read with,
+     * and advance the version of both. Only the columns of the fields changed since the
+     * subject was loaded are written; an unchanged subject is not written at all.
+     * @return true if a row was updated or nothing had changed, false if the row does not exist
+     * @throws dao.OptimisticLockException if the row was changed since the subject was read
      */
     boolean update(Subject subject);
     
@@ -0,0 +1,172 @@
+package dao.async;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+
+/**
+ * Runs DAO work off the caller's thread, one unit-of-work per operation, and returns
+ * its result as a {@link CompletableFuture}.
+ * <p>Each operation opens its own {@link DAOFactory} from the provider and closes it
+ * when done, so callers such as the Swing EDT never block on the database. Continue on
+ * the EDT with e.g. {@code future.thenAcceptAsync(result -> ..., SwingUtilities::invokeLater)}.</p>
+ * <ul>
+ *   <li><b>Threads</b>: one virtual thread per operation on a runtime that has them
+ *       (Java 21+), otherwise a cached pool of daemon platform threads.</li>
+ *   <li><b>Bounded concurrency</b>: at most {@code maxConcurrency} operations hold a
+ *       unit-of-work at a time; set it to the connection budget (pool size) so waiting
+ *       happens here rather than in the pool's borrow timeout.</li>
+ *   <li><b>Cancellation</b>: cancelling the returned future skips an operation that has
+ *       not started and interrupts one that is waiting or running. A transaction whose
+ *       future was cancelled, or whose thread was interrupted, is rolled back instead of
+ *       committed once its work returns; only a cancel that arrives while
+ *       {@code commit()} itself runs comes too late to stop it.</li>
+ *   <li><b>Errors</b>: a {@code DataAccessException} (or any other exception) thrown by
+ *       the work completes the future exceptionally with that exception.</li>
+ * </ul>
+ */
+public class AsyncDAOExecutor implements AutoCloseable {
+
+    private static final String DEV_ERR_CANCELLED =
+        "operation cancelled before commit, rolled back";
+
+    /** Matches the default size of the JDBC connection pool. */
+    public static final int DEFAULT_MAX_CONCURRENCY = 10;
+
+    private final DAOFactoryProvider provider;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+
+    public AsyncDAOExecutor(DAOFactoryProvider provider) {
+        this(provider, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    public AsyncDAOExecutor(DAOFactoryProvider provider, int maxConcurrency) {
+        if (maxConcurrency <= 0) throw new IllegalArgumentException("maxConcurrency must be positive");
+        this.provider = provider;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.executor = newExecutor();
+    }
+
+    /**
+     * Runs {@code work} in its own unit-of-work in autocommit mode.
+     *
+     * @return a future completed with the work's result or exception
+     */
+    public <T> CompletableFuture<T> submit(Function<? super DAOFactory, ? extends T> work) {
+        return run(work, false);
+    }
+
+    /**
+     * Runs {@code work} in its own transaction: committed if it returns normally, rolled
+     * back if it throws.
+     *
+     * @return a future completed with the work's result or exception
+     */
+    public <T> CompletableFuture<T> inTransaction(Function<? super DAOFactory, ? extends T> work) {
+        return run(work, true);
+    }
+
+    /** @return the number of operations that could start right now without waiting */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Stops accepting work and waits briefly for running operations to finish.
+     * Operations submitted afterwards fail with a {@link RejectedExecutionException}.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> run(Function<? super DAOFactory, ? extends T> work, boolean transactional) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                if (result.isDone()) return;     // cancelled before it started
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    result.cancel(false);
+                    return;
+                }
+                try {
+                    if (!result.isDone()) result.complete(execute(work, transactional, result));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) task.cancel(true);
+        });
+        return result;
+    }
+
+    private <T> T execute(Function<? super DAOFactory, ? extends T> work, boolean transactional,
+                          CompletableFuture<T> result) {
+        try (DAOFactory daos = provider.open()) {
+            if (!transactional) return work.apply(daos);
+            daos.begin();
+            try {
+                T value = work.apply(daos);
+                // The work may have swallowed the interrupt; nobody waits for this result.
+                if (result.isCancelled() || Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException(DEV_ERR_CANCELLED);
+                }
+                daos.commit();
+                return value;
+            } catch (RuntimeException | Error e) {
+                try {
+                    daos.rollback();
+                } catch (RuntimeException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Uses {@code Executors.newVirtualThreadPerTaskExecutor()} when the runtime has it.
+     * Looked up reflectively because the project compiles against Java 17.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory threads = r -> {
+                Thread t = new Thread(r, "dao-async-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            return Executors.newCachedThreadPool(threads);
+        }
+    }
+}
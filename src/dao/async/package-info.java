@@ -0,0 +1,9 @@
+/**
+ * Asynchronous access to the DAO layer.
+ * <p>
+ * {@link dao.async.AsyncDAOExecutor} runs each operation in its own unit-of-work on a
+ * background thread and hands back a {@code CompletableFuture}, keeping blocking
+ * database calls off the Swing event dispatch thread.
+ * </p>
+ */
+package dao.async;
@@ -0,0 +1,53 @@
+package dao.instrument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry for the counters collected by the instrumenting decorators of this package.
+ * <p>One instance is shared by an {@link InstrumentedDAOFactoryProvider} and, for
+ * per-SQL figures, an {@link InstrumentedConnectionProvider}. It is thread-safe;
+ * {@link #snapshot()} can be taken at any time, e.g. from a debug menu or a timer,
+ * and {@link MetricsSnapshot#toString()} prints it as a table.</p>
+ */
+public class DataAccessMetrics {
+
+    /** Distinct SQL texts tracked; statements beyond that are summed up under {@link #OTHER_SQL}. */
+    public static final int MAX_SQL_STATEMENTS = 1_000;
+    public static final String OTHER_SQL = "<other statements>";
+
+    private final ConcurrentMap<String, OperationMetric> operations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, OperationMetric> statements = new ConcurrentHashMap<>();
+
+    /** @return the metric of a DAO or factory operation, created on first use */
+    OperationMetric operation(String name) {
+        return operations.computeIfAbsent(name, OperationMetric::new);
+    }
+
+    /** @return the metric of a SQL statement, created on first use */
+    OperationMetric statement(String sql) {
+        OperationMetric metric = statements.get(sql);
+        if (metric != null) return metric;
+        if (statements.size() >= MAX_SQL_STATEMENTS) sql = OTHER_SQL;
+        return statements.computeIfAbsent(sql, OperationMetric::new);
+    }
+
+    /** Copies all counters; calls running meanwhile may be partly included. */
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(snapshots(operations), snapshots(statements));
+    }
+
+    /** Sets all counters back to zero. */
+    public void reset() {
+        operations.values().forEach(OperationMetric::reset);
+        statements.values().forEach(OperationMetric::reset);
+    }
+
+    private static List<OperationSnapshot> snapshots(ConcurrentMap<String, OperationMetric> metrics) {
+        List<OperationSnapshot> out = new ArrayList<>(metrics.size());
+        for (OperationMetric m : metrics.values()) out.add(m.snapshot());
+        return out;
+    }
+}
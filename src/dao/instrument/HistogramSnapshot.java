@@ -0,0 +1,69 @@
+package dao.instrument;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable copy of a latency histogram.
+ * <p>Percentiles are reported as the upper bound of the power-of-two bucket they fall
+ * in (capped at the maximum seen), so they overestimate by less than a factor of two.</p>
+ */
+public final class HistogramSnapshot {
+
+    private final long[] buckets;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    HistogramSnapshot(long[] buckets, long count, long totalNanos, long maxNanos) {
+        this.buckets = buckets;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public double getMeanMicros() {
+        return count == 0 ? 0.0 : toMicros(totalNanos) / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the latency below which {@code percentile} percent of the calls completed
+     */
+    public double getPercentileMicros(double percentile) {
+        if (count == 0) return 0.0;
+        long rank = (long) Math.ceil(count * Math.min(Math.max(percentile, 0.0), 100.0) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= Math.max(rank, 1)) return toMicros(Math.min(LatencyHistogram.upperBound(i), maxNanos));
+        }
+        return toMicros(maxNanos);
+    }
+
+    /** @return the number of calls in each bucket; bucket {@code b} holds {@code [2^(b-1), 2^b)} ns */
+    public long[] getBuckets() {
+        return buckets.clone();
+    }
+
+    private static double toMicros(long nanos) {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1fus, p50=%.1fus, p99=%.1fus, max=%.1fus",
+            count, getMeanMicros(), getPercentileMicros(50), getPercentileMicros(99), toMicros(maxNanos));
+    }
+}
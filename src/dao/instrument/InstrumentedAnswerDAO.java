@@ -0,0 +1,217 @@
+package dao.instrument;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import dao.AnswerDAO;
+import domain.Answer;
+import domain.Question;
+
+/**
+ * Times every method of a {@link AnswerDAO} into a {@link DataAccessMetrics}.
+ */
+final class InstrumentedAnswerDAO implements AnswerDAO {
+
+    private final AnswerDAO delegate;
+    private final OperationMetric findById;
+    private final OperationMetric findByQuestionId;
+    private final OperationMetric findByQuestion;
+    private final OperationMetric countByQuestionForSubjectId;
+    private final OperationMetric insert;
+    private final OperationMetric insertAll;
+    private final OperationMetric update;
+    private final OperationMetric updateAll;
+    private final OperationMetric delete;
+    private final OperationMetric deleteAll;
+    private final OperationMetric deleteByQuestionId;
+    private final OperationMetric deleteBySubjectId;
+    private final OperationMetric deleteBySubjectIdUpTo;
+
+    InstrumentedAnswerDAO(AnswerDAO delegate, DataAccessMetrics metrics) {
+        this.delegate = delegate;
+        this.findById = metrics.operation("AnswerDAO.findById");
+        this.findByQuestionId = metrics.operation("AnswerDAO.findByQuestionId");
+        this.findByQuestion = metrics.operation("AnswerDAO.findByQuestion");
+        this.countByQuestionForSubjectId = metrics.operation("AnswerDAO.countByQuestionForSubjectId");
+        this.insert = metrics.operation("AnswerDAO.insert");
+        this.insertAll = metrics.operation("AnswerDAO.insertAll");
+        this.update = metrics.operation("AnswerDAO.update");
+        this.updateAll = metrics.operation("AnswerDAO.updateAll");
+        this.delete = metrics.operation("AnswerDAO.delete");
+        this.deleteAll = metrics.operation("AnswerDAO.deleteAll");
+        this.deleteByQuestionId = metrics.operation("AnswerDAO.deleteByQuestionId");
+        this.deleteBySubjectId = metrics.operation("AnswerDAO.deleteBySubjectId");
+        this.deleteBySubjectIdUpTo = metrics.operation("AnswerDAO.deleteBySubjectIdUpTo");
+    }
+
+    @Override
+    public Optional<Answer> findById(int id) {
+        long t = findById.start();
+        try {
+            Optional<Answer> result = delegate.findById(id);
+            findById.done(t, result.isPresent() ? 1 : 0);
+            return result;
+        } catch (RuntimeException e) {
+            findById.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Answer> findByQuestionId(int questionId) {
+        long t = findByQuestionId.start();
+        try {
+            List<Answer> result = delegate.findByQuestionId(questionId);
+            findByQuestionId.done(t, result.size());
+            return result;
+        } catch (RuntimeException e) {
+            findByQuestionId.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Answer> findByQuestion(Question parent) {
+        long t = findByQuestion.start();
+        try {
+            List<Answer> result = delegate.findByQuestion(parent);
+            findByQuestion.done(t, result.size());
+            return result;
+        } catch (RuntimeException e) {
+            findByQuestion.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> countByQuestionForSubjectId(int subjectId) {
+        long t = countByQuestionForSubjectId.start();
+        try {
+            Map<Integer, Integer> result = delegate.countByQuestionForSubjectId(subjectId);
+            countByQuestionForSubjectId.done(t, result.size());
+            return result;
+        } catch (RuntimeException e) {
+            countByQuestionForSubjectId.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int insert(Answer answer) {
+        long t = insert.start();
+        try {
+            int result = delegate.insert(answer);
+            insert.done(t, 1);
+            return result;
+        } catch (RuntimeException e) {
+            insert.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int[] insertAll(Collection<Answer> answers) {
+        long t = insertAll.start();
+        try {
+            int[] result = delegate.insertAll(answers);
+            insertAll.done(t, result.length);
+            return result;
+        } catch (RuntimeException e) {
+            insertAll.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean update(Answer answer) {
+        long t = update.start();
+        try {
+            boolean result = delegate.update(answer);
+            update.done(t, result ? 1 : 0);
+            return result;
+        } catch (RuntimeException e) {
+            update.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int updateAll(Collection<Answer> answers) {
+        long t = updateAll.start();
+        try {
+            int result = delegate.updateAll(answers);
+            updateAll.done(t, result);
+            return result;
+        } catch (RuntimeException e) {
+            updateAll.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean delete(int id) {
+        long t = delete.start();
+        try {
+            boolean result = delegate.delete(id);
+            delete.done(t, result ? 1 : 0);
+            return result;
+        } catch (RuntimeException e) {
+            delete.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<Integer> ids) {
+        long t = deleteAll.start();
+        try {
+            int result = delegate.deleteAll(ids);
+            deleteAll.done(t, result);
+            return result;
+        } catch (RuntimeException e) {
+            deleteAll.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int deleteByQuestionId(int questionId) {
+        long t = deleteByQuestionId.start();
+        try {
+            int result = delegate.deleteByQuestionId(questionId);
+            deleteByQuestionId.done(t, result);
+            return result;
+        } catch (RuntimeException e) {
+            deleteByQuestionId.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int deleteBySubjectId(int subjectId) {
+        long t = deleteBySubjectId.start();
+        try {
+            int result = delegate.deleteBySubjectId(subjectId);
+            deleteBySubjectId.done(t, result);
+            return result;
+        } catch (RuntimeException e) {
+            deleteBySubjectId.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int deleteBySubjectIdUpTo(int subjectId, int upToQuestionId) {
+        long t = deleteBySubjectIdUpTo.start();
+        try {
+            int result = delegate.deleteBySubjectIdUpTo(subjectId, upToQuestionId);
+            deleteBySubjectIdUpTo.done(t, result);
+            return result;
+        } catch (RuntimeException e) {
+            deleteBySubjectIdUpTo.failed(t);
+            throw e;
+        }
+    }
+}
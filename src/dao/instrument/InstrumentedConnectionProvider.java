@@ -0,0 +1,186 @@
+package dao.instrument;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import dao.ConnectionProvider;
+import dao.jdbc.PooledConnectionProvider;
+
+/**
+ * Decorates a {@link ConnectionProvider} so that every statement executed on its
+ * connections is counted and timed per SQL text in a {@link DataAccessMetrics}.
+ * <p>Connections and statements are wrapped in dynamic proxies: {@code execute*} calls
+ * are timed, rows are counted as {@code ResultSet.next()} returns them, and update
+ * counts are added for writes. {@code getConnection} itself is recorded as
+ * {@code ConnectionProvider.getConnection}, which shows how long the driver takes to
+ * open a physical connection.</p>
+ * <p>The proxies cost an argument array per JDBC call, more than the DAO decorators;
+ * wrap the provider only while per-SQL figures are needed. It belongs below the pool,
+ * i.e. {@code new PooledConnectionProvider(new InstrumentedConnectionProvider(...))}, so
+ * the pool caches the instrumented statements per physical connection. Above the pool
+ * its proxy would hide the pooled connection's statement cache, so a
+ * {@link PooledConnectionProvider} is rejected as delegate; the borrow wait is in
+ * {@link PooledConnectionProvider#getStats()} instead.</p>
+ */
+public class InstrumentedConnectionProvider implements ConnectionProvider {
+
+    private final ConnectionProvider delegate;
+    private final DataAccessMetrics metrics;
+    private final OperationMetric getConnection;
+
+    /**
+     * @throws IllegalArgumentException if {@code delegate} is a {@link PooledConnectionProvider}
+     */
+    public InstrumentedConnectionProvider(ConnectionProvider delegate, DataAccessMetrics metrics) {
+        if (delegate instanceof PooledConnectionProvider) {
+            throw new IllegalArgumentException("instrument the provider below the pool, not the pool itself");
+        }
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.getConnection = metrics.operation("ConnectionProvider.getConnection");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long t = getConnection.start();
+        Connection connection;
+        try {
+            connection = delegate.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            getConnection.failed(t);
+            throw e;
+        }
+        getConnection.done(t, 0);
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Wraps the statements a connection creates.
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object result = InstrumentedConnectionProvider.invoke(target, method, args);
+            if (result instanceof CallableStatement cs) {
+                return proxy(CallableStatement.class, new StatementHandler(cs, metrics.statement((String) args[0])));
+            }
+            if (result instanceof PreparedStatement ps) {
+                return proxy(PreparedStatement.class, new StatementHandler(ps, metrics.statement((String) args[0])));
+            }
+            if (result instanceof Statement st) {
+                return proxy(Statement.class, new StatementHandler(st, null));
+            }
+            return result;
+        }
+    }
+
+    // Times execute* calls; prepared statements have their metric, plain ones look it up per SQL.
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final OperationMetric prepared;
+
+        StatementHandler(Statement target, OperationMetric prepared) {
+            this.target = target;
+            this.prepared = prepared;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (!name.startsWith("execute")) return InstrumentedConnectionProvider.invoke(target, method, args);
+
+            OperationMetric metric = prepared;
+            if (args != null && args.length > 0 && args[0] instanceof String sql) metric = metrics.statement(sql);
+            if (metric == null) return InstrumentedConnectionProvider.invoke(target, method, args);
+
+            long t = metric.start();
+            Object result;
+            try {
+                result = InstrumentedConnectionProvider.invoke(target, method, args);
+            } catch (Throwable e) {
+                metric.failed(t);
+                throw e;
+            }
+            metric.done(t, changedRows(result));
+            if (result instanceof ResultSet rs) {
+                return proxy(ResultSet.class, new ResultSetHandler(rs, metric));
+            }
+            return result;
+        }
+
+        private long changedRows(Object result) {
+            if (result instanceof Integer n) return Math.max(n, 0);
+            if (result instanceof Long n) return Math.max(n, 0);
+            long sum = 0;
+            if (result instanceof int[] counts) for (int n : counts) sum += Math.max(n, 0);
+            if (result instanceof long[] counts) for (long n : counts) sum += Math.max(n, 0);
+            return sum;
+        }
+    }
+
+    // Counts the rows a query returns as they are read.
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final OperationMetric metric;
+
+        ResultSetHandler(ResultSet target, OperationMetric metric) {
+            this.target = target;
+            this.metric = metric;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object result = InstrumentedConnectionProvider.invoke(target, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) metric.addRows(1);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package dao.instrument;
+
+import dao.AnswerDAO;
+import dao.DAOFactory;
+import dao.QuestionDAO;
+import dao.SubjectDAO;
+
+/**
+ * Decorates a {@link DAOFactory}: its DAOs are timed per method, and each transaction
+ * is timed from {@link #begin()} to {@link #commit()} or {@link #rollback()}.
+ * <p>Like the factory it wraps, an instance belongs to one thread.</p>
+ */
+public class InstrumentedDAOFactory implements DAOFactory {
+
+    private final DAOFactory delegate;
+    private final DataAccessMetrics metrics;
+    private final OperationMetric commit;
+    private final OperationMetric rollback;
+    private SubjectDAO subjects;
+    private QuestionDAO questions;
+    private AnswerDAO answers;
+    private long transactionStart = -1;
+
+    public InstrumentedDAOFactory(DAOFactory delegate, DataAccessMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.commit = metrics.operation("Transaction.commit");
+        this.rollback = metrics.operation("Transaction.rollback");
+    }
+
+    @Override
+    public SubjectDAO subjects() {
+        if (subjects == null) subjects = new InstrumentedSubjectDAO(delegate.subjects(), metrics);
+        return subjects;
+    }
+
+    @Override
+    public QuestionDAO questions() {
+        if (questions == null) questions = new InstrumentedQuestionDAO(delegate.questions(), metrics);
+        return questions;
+    }
+
+    @Override
+    public AnswerDAO answers() {
+        if (answers == null) answers = new InstrumentedAnswerDAO(delegate.answers(), metrics);
+        return answers;
+    }
+
+    @Override
+    public void begin() {
+        delegate.begin();
+        transactionStart = System.nanoTime();
+    }
+
+    @Override
+    public void commit() {
+        try {
+            delegate.commit();
+            end(commit, false);
+        } catch (RuntimeException e) {
+            end(commit, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public void rollback() {
+        try {
+            delegate.rollback();
+            end(rollback, false);
+        } catch (RuntimeException e) {
+            end(rollback, true);
+            throw e;
+        }
+    }
+
+    private void end(OperationMetric metric, boolean failed) {
+        if (transactionStart < 0) return;   // commit/rollback outside a transaction
+        if (failed) metric.failed(transactionStart);
+        else metric.done(transactionStart, 0);
+        transactionStart = -1;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,40 @@
+package dao.instrument;
+
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+
+/**
+ * Decorates a {@link DAOFactoryProvider} so that every factory it opens, and every DAO
+ * call made through it, is timed into a shared {@link DataAccessMetrics}.
+ * <p>Wrap the provider once at startup, e.g.
+ * {@code new DefaultQuizService(new InstrumentedDAOFactoryProvider(provider, metrics))}.</p>
+ */
+public class InstrumentedDAOFactoryProvider implements DAOFactoryProvider {
+
+    private final DAOFactoryProvider delegate;
+    private final DataAccessMetrics metrics;
+    private final OperationMetric open;
+
+    public InstrumentedDAOFactoryProvider(DAOFactoryProvider delegate, DataAccessMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.open = metrics.operation("DAOFactoryProvider.open");
+    }
+
+    public DataAccessMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public DAOFactory open() {
+        long t = open.start();
+        try {
+            DAOFactory factory = delegate.open();
+            open.done(t, 0);
+            return new InstrumentedDAOFactory(factory, metrics);
+        } catch (RuntimeException e) {
+            open.failed(t);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package dao.instrument;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+
+import dao.Page;
+import dao.QuestionDAO;
+import domain.Question;
+import domain.Subject;
+import dto.QuestionLightDTO;
+
+/**
+ * Times every method of a {@link QuestionDAO} into a {@link DataAccessMetrics}.
+ * <p>For the streaming methods the latency covers opening the cursor; their rows are
+ * counted as the stream is consumed.</p>
+ */
+final class InstrumentedQuestionDAO implements QuestionDAO {
+
+    private final QuestionDAO delegate;
+    private final OperationMetric findById;
+    private final OperationMetric findAll;
+    private final OperationMetric findAllLight;
+    private final OperationMetric streamAll;
+    private final OperationMetric streamAllWithAnswers;
+    private final OperationMetric findAllAfter;
+    private final OperationMetric findAllLightAfter;
+    private final OperationMetric findBySubjectId;
+    private final OperationMetric findBySubjectIdAfter;
+    private final OperationMetric findLightBySubjectIdAfter;
+    private final OperationMetric findBySubject;
+    private final OperationMetric countBySubject;
+    private final OperationMetric findIdBySubjectIdAfter;
+    private final OperationMetric insert;
+    private final OperationMetric insertAll;
+    private final OperationMetric update;
+    private final OperationMetric updateAll;
+    private final OperationMetric delete;
+    private final OperationMetric deleteBySubjectId;
+    private final OperationMetric deleteBySubjectIdUpTo;
+
+    InstrumentedQuestionDAO(QuestionDAO delegate, DataAccessMetrics metrics) {
+        this.delegate = delegate;
+        this.findById = metrics.operation("QuestionDAO.findById");
+        this.findAll = metrics.operation("QuestionDAO.findAll");
+        this.findAllLight = metrics.operation("QuestionDAO.findAllLight");
+        this.streamAll = metrics.operation("QuestionDAO.streamAll");
+        this.streamAllWithAnswers = metrics.operation("QuestionDAO.streamAllWithAnswers");
+        this.findAllAfter = metrics.operation("QuestionDAO.findAllAfter");
+        this.findAllLightAfter = metrics.operation("QuestionDAO.findAllLightAfter");
+        this.findBySubjectId = metrics.operation("QuestionDAO.findBySubjectId");
+        this.findBySubjectIdAfter = metrics.operation("QuestionDAO.findBySubjectIdAfter");
+        this.findLightBySubjectIdAfter = metrics.operation("QuestionDAO.findLightBySubjectIdAfter");
+        this.findBySubject = metrics.operation("QuestionDAO.findBySubject");
+        this.countBySubject = metrics.operation("QuestionDAO.countBySubject");
+        this.findIdBySubjectIdAfter = metrics.operation("QuestionDAO.findIdBySubjectIdAfter");
+        this.insert = metrics.operation("QuestionDAO.insert");
+        this.insertAll = metrics.operation("QuestionDAO.insertAll");
+        this.update = metrics.operation("QuestionDAO.update");
+        this.updateAll = metrics.operation("QuestionDAO.updateAll");
+        this.delete = metrics.operation("QuestionDAO.delete");
+        this.deleteBySubjectId = metrics.operation("QuestionDAO.deleteBySubjectId");
+        this.deleteBySubjectIdUpTo = metrics.operation("QuestionDAO.deleteBySubjectIdUpTo");
+    }
+
+    @Override
+    public Optional<Question> findById(int id) {
+        long t = findById.start();
+        try {
+            Optional<Question> result = delegate.findById(id);
+            findById.done(t, result.isPresent() ? 1 : 0);
+            return result;
+        } catch (RuntimeException e) {
+            findById.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Question> findAll() {
+        long t = findAll.start();
+        try {
+            List<Question> result = delegate.findAll();
+            findAll.done(t, result.size());
+            return result;
+        } catch (RuntimeException e) {
+            findAll.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<QuestionLightDTO> findAllLight() {
+        long t = findAllLight.start();
+        try {
+            List<QuestionLightDTO> result = delegate.findAllLight();
+            findAllLight.done(t, result.size());
+            return result;
+        } catch (RuntimeException e) {
+            findAllLight.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Question> streamAll() {
+        long t = streamAll.start();
+        try {
+            Stream<Question> result = delegate.streamAll();
+            streamAll.done(t, 0);
+            return result.peek(row -> streamAll.addRows(1));
+        } catch (RuntimeException e) {
+            streamAll.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public Stream<Question> streamAllWithAnswers() {
+        long t = streamAllWithAnswers.start();
+        try {
+            Stream<Question> result = delegate.streamAllWithAnswers();
+            streamAllWithAnswers.done(t, 0);
+            return result.peek(row -> streamAllWithAnswers.addRows(1));
+        } catch (RuntimeException e) {
+            streamAllWithAnswers.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<Question> findAllAfter(int afterId, int limit) {
+        long t = findAllAfter.start();
+        try {
+            Page<Question> result = delegate.findAllAfter(afterId, limit);
+            findAllAfter.done(t, result.getItems().size());
+            return result;
+        } catch (RuntimeException e) {
+            findAllAfter.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<QuestionLightDTO> findAllLightAfter(int afterId, int limit) {
+        long t = findAllLightAfter.start();
+        try {
+            Page<QuestionLightDTO> result = delegate.findAllLightAfter(afterId, limit);
+            findAllLightAfter.done(t, result.getItems().size());
+            return result;
+        } catch (RuntimeException e) {
+            findAllLightAfter.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Question> findBySubjectId(int subjectId) {
+        long t = findBySubjectId.start();
+        try {
+            List<Question> result = delegate.findBySubjectId(subjectId);
+            findBySubjectId.done(t, result.size());
+            return result;
+        } catch (RuntimeException e) {
+            findBySubjectId.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<Question> findBySubjectIdAfter(int subjectId, int afterId, int limit) {
+        long t = findBySubjectIdAfter.start();
+        try {
+            Page<Question> result = delegate.findBySubjectIdAfter(subjectId, afterId, limit);
+            findBySubjectIdAfter.done(t, result.getItems().size());
+            return result;
+        } catch (RuntimeException e) {
+            findBySubjectIdAfter.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<QuestionLightDTO> findLightBySubjectIdAfter(int subjectId, int afterId, int limit) {
+        long t = findLightBySubjectIdAfter.start();
+        try {
+            Page<QuestionLightDTO> result = delegate.findLightBySubjectIdAfter(subjectId, afterId, limit);
+            findLightBySubjectIdAfter.done(t, result.getItems().size());
+            return result;
+        } catch (RuntimeException e) {
+            findLightBySubjectIdAfter.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Question> findBySubject(Subject parent) {
+        long t = findBySubject.start();
+        try {
+            List<Question> result = delegate.findBySubject(parent);
+            findBySubject.done(t, result.size());
+            return result;
+        } catch (RuntimeException e) {
+            findBySubject.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> countBySubject() {
+        long t = countBySubject.start();
+        try {
+            Map<Integer, Integer> result = delegate.countBySubject();
+            countBySubject.done(t, result.size());
+            return result;
+        } catch (RuntimeException e) {
+            countBySubject.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public OptionalInt findIdBySubjectIdAfter(int subjectId, int afterId, int offset) {
+        long t = findIdBySubjectIdAfter.start();
+        try {
+            OptionalInt result = delegate.findIdBySubjectIdAfter(subjectId, afterId, offset);
+            findIdBySubjectIdAfter.done(t, result.isPresent() ? 1 : 0);
+            return result;
+        } catch (RuntimeException e) {
+            findIdBySubjectIdAfter.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int insert(Question question) {
+        long t = insert.start();
+        try {
+            int result = delegate.insert(question);
+            insert.done(t, 1);
+            return result;
+        } catch (RuntimeException e) {
+            insert.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int[] insertAll(Collection<Question> questions) {
+        long t = insertAll.start();
+        try {
+            int[] result = delegate.insertAll(questions);
+            insertAll.done(t, result.length);
+            return result;
+        } catch (RuntimeException e) {
+            insertAll.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean update(Question question) {
+        long t = update.start();
+        try {
+            boolean result = delegate.update(question);
+            update.done(t, result ? 1 : 0);
+            return result;
+        } catch (RuntimeException e) {
+            update.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int updateAll(Collection<Question> questions) {
+        long t = updateAll.start();
+        try {
+            int result = delegate.updateAll(questions);
+            updateAll.done(t, result);
+            return result;
+        } catch (RuntimeException e) {
+            updateAll.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean delete(int id) {
+        long t = delete.start();
+        try {
+            boolean result = delegate.delete(id);
+            delete.done(t, result ? 1 : 0);
+            return result;
+        } catch (RuntimeException e) {
+            delete.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int deleteBySubjectId(int subjectId) {
+        long t = deleteBySubjectId.start();
+        try {
+            int result = delegate.deleteBySubjectId(subjectId);
+            deleteBySubjectId.done(t, result);
+            return result;
+        } catch (RuntimeException e) {
+            deleteBySubjectId.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int deleteBySubjectIdUpTo(int subjectId, int upToId) {
+        long t = deleteBySubjectIdUpTo.start();
+        try {
+            int result = delegate.deleteBySubjectIdUpTo(subjectId, upToId);
+            deleteBySubjectIdUpTo.done(t, result);
+            return result;
+        } catch (RuntimeException e) {
+            deleteBySubjectIdUpTo.failed(t);
+            throw e;
+        }
+    }
+}
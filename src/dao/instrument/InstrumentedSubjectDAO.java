@@ -0,0 +1,157 @@
+package dao.instrument;
+
+import java.util.List;
+import java.util.Optional;
+
+import dao.FetchPlan;
+import dao.Page;
+import dao.SubjectDAO;
+import domain.Subject;
+import dto.SubjectLightDTO;
+
+/**
+ * Times every method of a {@link SubjectDAO} into a {@link DataAccessMetrics}.
+ */
+final class InstrumentedSubjectDAO implements SubjectDAO {
+
+    private final SubjectDAO delegate;
+    private final OperationMetric findById;
+    private final OperationMetric findByIdWithPlan;
+    private final OperationMetric findAll;
+    private final OperationMetric findAllLight;
+    private final OperationMetric findAllAfter;
+    private final OperationMetric findAllWithPlan;
+    private final OperationMetric insert;
+    private final OperationMetric update;
+    private final OperationMetric delete;
+
+    InstrumentedSubjectDAO(SubjectDAO delegate, DataAccessMetrics metrics) {
+        this.delegate = delegate;
+        this.findById = metrics.operation("SubjectDAO.findById");
+        this.findByIdWithPlan = metrics.operation("SubjectDAO.findById(FetchPlan)");
+        this.findAll = metrics.operation("SubjectDAO.findAll");
+        this.findAllLight = metrics.operation("SubjectDAO.findAllLight");
+        this.findAllAfter = metrics.operation("SubjectDAO.findAllAfter");
+        this.findAllWithPlan = metrics.operation("SubjectDAO.findAll(FetchPlan)");
+        this.insert = metrics.operation("SubjectDAO.insert");
+        this.update = metrics.operation("SubjectDAO.update");
+        this.delete = metrics.operation("SubjectDAO.delete");
+    }
+
+    @Override
+    public Optional<Subject> findById(int id) {
+        long t = findById.start();
+        try {
+            Optional<Subject> result = delegate.findById(id);
+            findById.done(t, result.isPresent() ? 1 : 0);
+            return result;
+        } catch (RuntimeException e) {
+            findById.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<Subject> findById(int id, FetchPlan plan) {
+        long t = findByIdWithPlan.start();
+        try {
+            Optional<Subject> result = delegate.findById(id, plan);
+            findByIdWithPlan.done(t, result.isPresent() ? 1 : 0);
+            return result;
+        } catch (RuntimeException e) {
+            findByIdWithPlan.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Subject> findAll() {
+        long t = findAll.start();
+        try {
+            List<Subject> result = delegate.findAll();
+            findAll.done(t, result.size());
+            return result;
+        } catch (RuntimeException e) {
+            findAll.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<SubjectLightDTO> findAllLight() {
+        long t = findAllLight.start();
+        try {
+            List<SubjectLightDTO> result = delegate.findAllLight();
+            findAllLight.done(t, result.size());
+            return result;
+        } catch (RuntimeException e) {
+            findAllLight.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<Subject> findAllAfter(int afterId, int limit) {
+        long t = findAllAfter.start();
+        try {
+            Page<Subject> result = delegate.findAllAfter(afterId, limit);
+            findAllAfter.done(t, result.getItems().size());
+            return result;
+        } catch (RuntimeException e) {
+            findAllAfter.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Subject> findAll(FetchPlan plan) {
+        long t = findAllWithPlan.start();
+        try {
+            List<Subject> result = delegate.findAll(plan);
+            findAllWithPlan.done(t, result.size());
+            return result;
+        } catch (RuntimeException e) {
+            findAllWithPlan.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public int insert(Subject subject) {
+        long t = insert.start();
+        try {
+            int result = delegate.insert(subject);
+            insert.done(t, 1);
+            return result;
+        } catch (RuntimeException e) {
+            insert.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean update(Subject subject) {
+        long t = update.start();
+        try {
+            boolean result = delegate.update(subject);
+            update.done(t, result ? 1 : 0);
+            return result;
+        } catch (RuntimeException e) {
+            update.failed(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean delete(int id) {
+        long t = delete.start();
+        try {
+            boolean result = delegate.delete(id);
+            delete.done(t, result ? 1 : 0);
+            return result;
+        } catch (RuntimeException e) {
+            delete.failed(t);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package dao.instrument;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two buckets.
+ * <p>Bucket {@code b} counts durations in {@code [2^(b-1), 2^b)} nanoseconds (bucket 0
+ * counts zero), so 64 buckets cover every {@code long} and recording is a few atomic
+ * adds without allocation. Percentiles are accurate to a factor of two, which is
+ * enough to tell a cache hit from a round trip from a lock wait.</p>
+ */
+final class LatencyHistogram {
+
+    static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(bucketOf(nanos));
+        totalNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /** @return the exclusive upper bound of the bucket in nanoseconds */
+    static long upperBound(int bucket) {
+        return bucket >= 63 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    /** Copies the counters; concurrent recordings may be partly included. */
+    HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        return new HistogramSnapshot(counts, count, totalNanos.sum(), maxNanos.get());
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+}
@@ -0,0 +1,83 @@
+package dao.instrument;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable copy of a {@link DataAccessMetrics}.
+ */
+public final class MetricsSnapshot {
+
+    private static final int SQL_COLUMN_WIDTH = 80;
+
+    private final List<OperationSnapshot> operations;
+    private final List<OperationSnapshot> statements;
+
+    MetricsSnapshot(List<OperationSnapshot> operations, List<OperationSnapshot> statements) {
+        operations.sort(Comparator.comparing(OperationSnapshot::getName));
+        statements.sort(Comparator.comparingLong(s -> -s.getLatency().getTotalNanos()));
+        this.operations = List.copyOf(operations);
+        this.statements = List.copyOf(statements);
+    }
+
+    /**
+     * @return DAO methods ({@code QuestionDAO.findById}), factory calls
+     *         ({@code DAOFactoryProvider.open}) and transactions
+     *         ({@code Transaction.commit}, {@code Transaction.rollback}; measured from
+     *         {@code begin}), sorted by name
+     */
+    public List<OperationSnapshot> getOperations() {
+        return operations;
+    }
+
+    /** @return one entry per SQL text, most total time first */
+    public List<OperationSnapshot> getStatements() {
+        return statements;
+    }
+
+    public Optional<OperationSnapshot> getOperation(String name) {
+        return operations.stream().filter(o -> o.getName().equals(name)).findFirst();
+    }
+
+    /** Writes the snapshot as two aligned tables, operations and statements; unused entries are left out. */
+    public void dumpTo(Appendable out) throws IOException {
+        out.append(String.format("%-44s %10s %10s %10s %10s %10s %12s %8s%n",
+            "operation", "count", "mean us", "p50 us", "p99 us", "max us", "rows", "errors"));
+        for (OperationSnapshot o : operations) {
+            if (o.getCount() > 0) row(out, o.getName(), o);
+        }
+        if (statements.isEmpty()) return;
+        out.append(String.format("%n%-" + SQL_COLUMN_WIDTH + "s %10s %10s %10s %10s %10s %12s %8s%n",
+            "sql", "count", "mean us", "p50 us", "p99 us", "max us", "rows", "errors"));
+        for (OperationSnapshot s : statements) {
+            if (s.getCount() > 0) row(out, abbreviate(s.getName()), s);
+        }
+    }
+
+    private static void row(Appendable out, String label, OperationSnapshot o) throws IOException {
+        HistogramSnapshot h = o.getLatency();
+        out.append(String.format("%-" + Math.max(44, label.length()) + "s %10d %10.1f %10.1f %10.1f %10.1f %12d %8d%n",
+            label, h.getCount(), h.getMeanMicros(), h.getPercentileMicros(50), h.getPercentileMicros(99),
+            h.getMaxNanos() / 1_000.0, o.getRows(), o.getErrors()));
+    }
+
+    private static String abbreviate(String sql) {
+        String flat = sql.replaceAll("\\s+", " ");
+        if (flat.length() <= SQL_COLUMN_WIDTH) return String.format("%-" + SQL_COLUMN_WIDTH + "s", flat);
+        return flat.substring(0, SQL_COLUMN_WIDTH - 3) + "...";
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            dumpTo(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // StringBuilder does not throw
+        }
+        return sb.toString();
+    }
+}
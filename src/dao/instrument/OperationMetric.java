@@ -0,0 +1,53 @@
+package dao.instrument;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of one instrumented operation: a DAO method, a SQL statement or a
+ * transaction outcome.
+ * <p>Callers resolve their metric once and then only call {@link #start()} and
+ * {@link #done(long, long)} / {@link #failed(long)}, which allocate nothing.</p>
+ */
+final class OperationMetric {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    OperationMetric(String name) {
+        this.name = name;
+    }
+
+    /** @return the start time to pass to {@link #done} or {@link #failed} */
+    long start() {
+        return System.nanoTime();
+    }
+
+    /** Records a successful call that returned or changed {@code rowCount} rows. */
+    void done(long start, long rowCount) {
+        latency.record(System.nanoTime() - start);
+        if (rowCount > 0) rows.add(rowCount);
+    }
+
+    /** Records a call that ended with an exception. */
+    void failed(long start) {
+        latency.record(System.nanoTime() - start);
+        errors.increment();
+    }
+
+    /** Adds rows that were produced after the call returned, e.g. by a stream. */
+    void addRows(long rowCount) {
+        rows.add(rowCount);
+    }
+
+    OperationSnapshot snapshot() {
+        return new OperationSnapshot(name, latency.snapshot(), rows.sum(), errors.sum());
+    }
+
+    void reset() {
+        latency.reset();
+        rows.reset();
+        errors.reset();
+    }
+}
@@ -0,0 +1,49 @@
+package dao.instrument;
+
+/**
+ * Immutable copy of the counters of one operation.
+ */
+public final class OperationSnapshot {
+
+    private final String name;
+    private final HistogramSnapshot latency;
+    private final long rows;
+    private final long errors;
+
+    OperationSnapshot(String name, HistogramSnapshot latency, long rows, long errors) {
+        this.name = name;
+        this.latency = latency;
+        this.rows = rows;
+        this.errors = errors;
+    }
+
+    /** @return e.g. {@code QuestionDAO.findById}, or the SQL text for statement metrics */
+    public String getName() {
+        return name;
+    }
+
+    /** @return the latency of all calls, successful or not */
+    public HistogramSnapshot getLatency() {
+        return latency;
+    }
+
+    /** @return the number of calls */
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    /** @return rows returned by queries plus rows changed by writes */
+    public long getRows() {
+        return rows;
+    }
+
+    /** @return calls that ended with an exception */
+    public long getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + latency + ", rows=" + rows + ", errors=" + errors;
+    }
+}
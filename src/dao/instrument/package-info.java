@@ -0,0 +1,12 @@
+/**
+ * Timing decorators for the data access layer.
+ * <p>
+ * {@link dao.instrument.InstrumentedDAOFactoryProvider} times every DAO method, factory
+ * open and transaction; {@link dao.instrument.InstrumentedConnectionProvider} adds
+ * per-SQL execution counts, latencies and rows. Both record into a shared
+ * {@link dao.instrument.DataAccessMetrics} whose {@code snapshot()} can be read from code
+ * or printed on demand. Recording uses lock-free counters and log2 latency buckets and
+ * allocates nothing per DAO call.
+ * </p>
+ */
+package dao.instrument;
@@ -0,0 +1,153 @@
+package dao.jdbc;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import dao.jdbc.SecondLevelCache.Region;
+import dao.rows.AnswerRow;
+import dao.rows.QuestionRow;
+import dao.rows.SubjectRow;
+import domain.Answer;
+import domain.Question;
+import domain.Subject;
+
+/**
+ * One unit-of-work's view of the {@link SecondLevelCache}, layered under its
+ * {@link IdentityMap}.
+ * <p>Lookups try the identity map first, then the shared cache; a cached row is
+ * materialised and registered in the identity map. Invalidations issued inside a
+ * transaction are queued and applied on {@link #commit()}, or dropped on
+ * {@link #rollback()}. Until then the rows they name bypass the shared cache in both
+ * directions, so uncommitted state is never published to other units-of-work. Outside a
+ * transaction (autocommit) invalidations apply at once.</p>
+ * <p>Without a configured cache every method degrades to the identity map alone.</p>
+ */
+final class CacheSession {
+
+    private final SecondLevelCache cache;
+    private final IdentityMap identityMap;
+
+    private final List<Consumer<SecondLevelCache>> pending = new ArrayList<>();
+    private final Map<Region, Set<Integer>> pendingIds = new EnumMap<>(Region.class);
+    private final Set<Region> pendingRegions = EnumSet.noneOf(Region.class);
+    private boolean inTransaction;
+
+    /** @param cache the shared cache, or null if none is configured */
+    CacheSession(SecondLevelCache cache, IdentityMap identityMap) {
+        this.cache = cache;
+        this.identityMap = identityMap;
+    }
+
+    /** @return the generation to pass to the put methods for rows read from now on */
+    long stamp() {
+        return cache == null ? 0 : cache.generation();
+    }
+
+    /** @return the subject from the identity map or the shared cache, or null */
+    Subject findSubject(int id) {
+        Subject known = identityMap.get(Subject.class, id);
+        if (known != null) return known;
+        SubjectRow row = get(Region.SUBJECT, id, SubjectRow.class);
+        return row == null ? null : identityMap.register(Subject.class, id, row.toSubject());
+    }
+
+    /** @return the question, with its subject, from the identity map or the shared cache, or null */
+    Question findQuestion(int id) {
+        Question known = identityMap.get(Question.class, id);
+        if (known != null) return known;
+        QuestionRow row = get(Region.QUESTION, id, QuestionRow.class);
+        if (row == null) return null;
+        Subject subject = findSubject(row.subjectId);
+        return subject == null ? null : identityMap.register(Question.class, id, row.toQuestion(subject));
+    }
+
+    /** @return the answer, with its question path, from the identity map or the shared cache, or null */
+    Answer findAnswer(int id) {
+        Answer known = identityMap.get(Answer.class, id);
+        if (known != null) return known;
+        AnswerRow row = get(Region.ANSWER, id, AnswerRow.class);
+        if (row == null) return null;
+        Question question = findQuestion(row.questionId);
+        return question == null ? null : identityMap.register(Answer.class, id, row.toAnswer(question));
+    }
+
+    void putSubject(SubjectRow row, long stamp) {
+        put(Region.SUBJECT, row.id, row, stamp);
+    }
+
+    void putQuestion(QuestionRow row, long stamp) {
+        put(Region.QUESTION, row.id, row, stamp);
+    }
+
+    void putAnswer(AnswerRow row, long stamp) {
+        put(Region.ANSWER, row.id, row, stamp);
+    }
+
+    void invalidate(Region region, int id) {
+        if (cache == null) return;
+        if (!inTransaction) {
+            cache.invalidate(region, id);
+            return;
+        }
+        pendingIds.computeIfAbsent(region, r -> new HashSet<>()).add(id);
+        pending.add(c -> c.invalidate(region, id));
+    }
+
+    /** Invalidates every row of {@code region} matching {@code filter}; the region is bypassed until commit. */
+    <T> void invalidateIf(Region region, Class<T> type, Predicate<? super T> filter) {
+        if (cache == null) return;
+        if (!inTransaction) {
+            cache.invalidateIf(region, type, filter);
+            return;
+        }
+        pendingRegions.add(region);
+        pending.add(c -> c.invalidateIf(region, type, filter));
+    }
+
+    void begin() {
+        inTransaction = true;
+    }
+
+    /** Applies the queued invalidations; call after the database commit. */
+    void commit() {
+        if (cache != null) {
+            for (Consumer<SecondLevelCache> p : pending) p.accept(cache);
+        }
+        reset();
+    }
+
+    /** Drops the queued invalidations together with the transaction. */
+    void rollback() {
+        reset();
+    }
+
+    private void reset() {
+        pending.clear();
+        pendingIds.clear();
+        pendingRegions.clear();
+        inTransaction = false;
+    }
+
+    private <T> T get(Region region, int id, Class<T> type) {
+        if (cache == null || isPending(region, id)) return null;
+        return cache.get(region, id, type);
+    }
+
+    private void put(Region region, int id, Object row, long stamp) {
+        if (cache == null || isPending(region, id)) return;
+        cache.put(region, id, row, stamp);
+    }
+
+    private boolean isPending(Region region, int id) {
+        if (pendingRegions.contains(region)) return true;
+        Set<Integer> ids = pendingIds.get(region);
+        return ids != null && ids.contains(id);
+    }
+}
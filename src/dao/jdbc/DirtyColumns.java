@@ -0,0 +1,47 @@
+package dao.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * UPDATE statements that write only the changed columns of an entity, selected by its
+ * dirty-field bits ({@code Question.FIELD_*} and so on).
+ * <p>Bit {@code i} stands for {@code columns[i]}. Each statement advances the version and
+ * checks the one that was read, like a full UPDATE. A table with {@code n} updatable
+ * columns has {@code 2^n - 1} statements, few enough to all stay in the
+ * {@link StatementCache}.</p>
+ */
+final class DirtyColumns {
+
+    private DirtyColumns() {}
+
+    /** @return the UPDATE for every non-zero combination of bits, indexed by the bits; index 0 is null */
+    static String[] updates(String table, String... columns) {
+        String[] sql = new String[1 << columns.length];
+        for (int fields = 1; fields < sql.length; fields++) {
+            StringBuilder sb = new StringBuilder("UPDATE ").append(table).append(" SET ");
+            for (int i = 0; i < columns.length; i++) {
+                if ((fields & (1 << i)) != 0) sb.append(columns[i]).append(" = ?, ");
+            }
+            sql[fields] = sb.append("version = version + 1 WHERE id = ? AND version = ?").toString();
+        }
+        return sql;
+    }
+
+    /**
+     * Groups the items that have changes by their dirty fields, so that each group can go
+     * out as one batch of the same statement; clean items are left out.
+     */
+    static <T> Map<Integer, List<T>> byDirtyFields(Collection<T> items, ToIntFunction<T> dirtyFields) {
+        Map<Integer, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            int fields = dirtyFields.applyAsInt(item);
+            if (fields != 0) groups.computeIfAbsent(fields, f -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,63 @@
+package dao.jdbc;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * First-level cache of one {@link JdbcDAOFactory}: at most one instance per entity
+ * type and ID within a unit-of-work.
+ * <p>The DAOs look entities up here before going to the database and register every
+ * entity they materialise, so repeated lookups return the same instance. Writes keep
+ * the map consistent: {@code update} re-registers the written instance, {@code delete}
+ * evicts it. A rollback clears the map because instances may carry rolled-back state.</p>
+ * <p>Like the unit-of-work it belongs to, this class is not thread-safe.</p>
+ */
+final class IdentityMap {
+
+    private final Map<Class<?>, Map<Integer, Object>> byType = new HashMap<>();
+
+    /** @return the registered instance, or null if none is known */
+    <T> T get(Class<T> type, int id) {
+        Map<Integer, Object> entities = byType.get(type);
+        return entities == null ? null : type.cast(entities.get(id));
+    }
+
+    /**
+     * Registers {@code entity} unless an instance with that ID is already known.
+     *
+     * @return the instance now registered for {@code id}
+     */
+    <T> T register(Class<T> type, int id, T entity) {
+        Object known = entities(type).putIfAbsent(id, entity);
+        return known == null ? entity : type.cast(known);
+    }
+
+    /** Registers {@code entity}, replacing any instance known for {@code id}. */
+    <T> void put(Class<T> type, int id, T entity) {
+        entities(type).put(id, entity);
+    }
+
+    void remove(Class<?> type, int id) {
+        Map<Integer, Object> entities = byType.get(type);
+        if (entities != null) entities.remove(id);
+    }
+
+    /** Evicts every registered instance of {@code type} matching {@code filter}. */
+    <T> void removeIf(Class<T> type, Predicate<? super T> filter) {
+        Map<Integer, Object> entities = byType.get(type);
+        if (entities == null) return;
+        for (Iterator<Object> it = entities.values().iterator(); it.hasNext(); ) {
+            if (filter.test(type.cast(it.next()))) it.remove();
+        }
+    }
+
+    void clear() {
+        byType.clear();
+    }
+
+    private Map<Integer, Object> entities(Class<?> type) {
+        return byType.computeIfAbsent(type, t -> new HashMap<>());
+    }
+}
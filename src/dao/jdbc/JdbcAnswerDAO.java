@@ -2,85 +2,136 @@ package dao.jdbc;
 
 import dao.AnswerDAO;
 import dao.DataAccessException;
+import dao.jdbc.SecondLevelCache.Region;
+import dao.rows.AnswerRow;
 import domain.Answer;
 import domain.Question;
 import domain.Subject;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class JdbcAnswerDAO implements AnswerDAO {
 
 
+    // One round trip each: the whole Answer -> Question -> Subject path comes back joined.
+    // LEFT JOINs keep the "not found" diagnostics of the former per-level queries.
     private static final String SQL_FIND_BY_ID =
-        "SELECT id, content, valid, question_id FROM answers WHERE id = ?";
-    private static final String SQL_FIND_PARENT_QUESTION =
-        "SELECT id, title, content, subject_id FROM questions WHERE id = ?";
+        "SELECT " + JoinedRows.ANSWER_COLUMNS + ", " + JoinedRows.QUESTION_COLUMNS + ", "
+            + JoinedRows.SUBJECT_COLUMNS
+            + " FROM answers a"
+            + " LEFT JOIN questions q ON q.id = a.question_id"
+            + " LEFT JOIN subjects s ON s.id = q.subject_id"
+            + " WHERE a.id = ?";
     private static final String SQL_FIND_BY_QUESTION_ID =
-        "SELECT id, content, valid FROM answers WHERE question_id = ? ORDER BY id";
+        "SELECT " + JoinedRows.QUESTION_COLUMNS + ", " + JoinedRows.SUBJECT_COLUMNS + ", "
+            + JoinedRows.ANSWER_COLUMNS
+            + " FROM questions q"
+            + " LEFT JOIN subjects s ON s.id = q.subject_id"
+            + " LEFT JOIN answers a ON a.question_id = q.id"
+            + " WHERE q.id = ?"
+            + " ORDER BY a.id";
+    // Both joins run on the foreign key indexes; no answer content is read.
+    private static final String SQL_COUNT_BY_QUESTION_FOR_SUBJECT_ID =
+        "SELECT a.question_id, COUNT(*) AS answer_count FROM answers a"
+            + " JOIN questions q ON q.id = a.question_id"
+            + " WHERE q.subject_id = ?"
+            + " GROUP BY a.question_id";
     private static final String SQL_INSERT =
         "INSERT INTO answers (content, valid, question_id) VALUES (?, ?, ?)";
-    private static final String SQL_UPDATE =
-        "UPDATE answers SET content = ?, valid = ?, question_id = ? WHERE id = ?";
+    // Optimistic locking: only the version that was read may be overwritten. Indexed by
+    // Answer.getDirtyFields(), so only the changed columns are written.
+    private static final String[] SQL_UPDATE_FIELDS =
+        DirtyColumns.updates("answers", "content", "valid", "question_id");
+    private static final String SQL_FIND_VERSION =
+        "SELECT version FROM answers WHERE id = ?";
     private static final String SQL_DELETE =
         "DELETE FROM answers WHERE id = ?";
+    // deleteAll appends "(?, ?, ...)": one exact row count per chunk, unlike a JDBC batch.
+    private static final String SQL_DELETE_IN =
+        "DELETE FROM answers WHERE id IN";
     private static final String SQL_DELETE_BY_QUESTION_ID =
         "DELETE FROM answers WHERE question_id = ?";
+    // Multi-table DELETE: MySQL runs it as a join on the (subject_id, id) index instead of
+    // materializing an IN (SELECT ...) subquery.
     private static final String SQL_DELETE_BY_SUBJECT_ID =
-        "DELETE FROM answers WHERE question_id IN (SELECT id FROM questions WHERE subject_id = ?)";
-    private static final String SQL_LOAD_SUBJECT_BY_ID =
-        "SELECT id, title, info FROM subjects WHERE id = ?";
-    private static final String SQL_LOAD_QUESTION_WITH_SUBJECT =
-        "SELECT id, title, content, subject_id FROM questions WHERE id = ?";
+        "DELETE a FROM answers a JOIN questions q ON q.id = a.question_id WHERE q.subject_id = ?";
+    private static final String SQL_DELETE_BY_SUBJECT_ID_UP_TO =
+        "DELETE a FROM answers a JOIN questions q ON q.id = a.question_id WHERE q.subject_id = ? AND q.id <= ?";
 
     //DEV-FACING MESSAGES 
     private static final String DEV_ERR_FIND_BY_ID =
         "findById answerId=%d failed";
-    private static final String DEV_ERR_LOAD_PARENT_QUESTION =
-        "load parent questionId=%d failed";
     private static final String DEV_ERR_FIND_BY_QUESTION_ID =
         "findByQuestionId questionId=%d failed";
+    private static final String DEV_ERR_COUNT_BY_QUESTION_FOR_SUBJECT_ID =
+        "countByQuestionForSubjectId subjectId=%d failed";
     private static final String DEV_ERR_INSERT_ROWS =
         "insert answer affected %d rows";
     private static final String DEV_ERR_INSERT_NO_KEY =
         "insert answer returned no generated key";
     private static final String DEV_ERR_INSERT_FAILED =
         "insert answer failed";
+    private static final String DEV_ERR_INSERT_ALL_FAILED =
+        "batch insert of %d answers failed";
+    private static final String DEV_ERR_UPDATE_ALL_FAILED =
+        "batch update of %d answers failed";
     private static final String DEV_ERR_UPDATE_FAILED =
         "update answerId=%d failed";
     private static final String DEV_ERR_DELETE_FAILED =
         "delete answerId=%d failed";
+    private static final String DEV_ERR_DELETE_ALL_FAILED =
+        "deleteAll failed for %d answers";
     private static final String DEV_ERR_DELETE_BY_QUESTION_FAILED =
         "delete answers by questionId=%d failed";
     private static final String DEV_ERR_DELETE_BY_SUBJECT_FAILED =
         "delete answers by subjectId=%d failed";
+    private static final String DEV_ERR_DELETE_BY_SUBJECT_UP_TO_FAILED =
+        "delete answers by subjectId=%d up to questionId=%d failed";
     private static final String DEV_ERR_SUBJECT_NOT_FOUND =
         "Subject %d not found";
     private static final String DEV_ERR_QUESTION_NOT_FOUND =
         "Question %d not found";
 
-    private final Connection conn;
+    // Statements are owned by the factory's cache: close ResultSets, never the statements.
+    private final StatementCache statements;
+    private final IdentityMap identityMap;
+    private final CacheSession cache;
+    private final int batchSize;
 
-    public JdbcAnswerDAO(Connection conn) {
-        this.conn = conn;
+    public JdbcAnswerDAO(StatementCache statements, IdentityMap identityMap, CacheSession cache,
+                         JdbcSettings settings) {
+        this.statements = statements;
+        this.identityMap = identityMap;
+        this.cache = cache;
+        this.batchSize = settings.getBatchSize();
     }
 
     @Override
     public Optional<Answer> findById(int id) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_ID)) {
+        Answer known = cache.findAnswer(id);
+        if (known != null) return Optional.of(known);
+        try {
+            long stamp = cache.stamp();
+            PreparedStatement ps = statements.prepare(SQL_FIND_BY_ID);
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (!rs.next()) return Optional.empty();
 
-                int aId = rs.getInt("id");
-                String content = rs.getString("content");
-                boolean valid = rs.getBoolean("valid");
-                int qid = rs.getInt("question_id");
-
-                Question q = loadQuestionWithSubject(qid);
-                return Optional.of(new Answer(aId, content, valid, q));
+                if (JoinedRows.questionMissing(rs)) {
+                    throw new DataAccessException(
+                        String.format(DEV_ERR_QUESTION_NOT_FOUND, rs.getInt("a_question_id")));
+                }
+                Question q = JoinedRows.question(rs, mapSubject(rs), identityMap);
+                cache.putSubject(JoinedRows.subjectRow(rs), stamp);
+                cache.putQuestion(JoinedRows.questionRow(rs), stamp);
+                cache.putAnswer(JoinedRows.answerRow(rs), stamp);
+                return Optional.of(JoinedRows.answer(rs, q, identityMap));
             }
         } catch (SQLException e) {
             throw new DataAccessException(String.format(DEV_ERR_FIND_BY_ID, id), e);
@@ -89,38 +140,23 @@ public class JdbcAnswerDAO implements AnswerDAO {
 
     @Override
     public List<Answer> findByQuestionId(int questionId) {
-        Question parent;
-        try (PreparedStatement psQ = conn.prepareStatement(SQL_FIND_PARENT_QUESTION)) {
-            psQ.setInt(1, questionId);
-            try (ResultSet rsQ = psQ.executeQuery()) {
-                if (!rsQ.next()) {
-                    return new ArrayList<>(); 
-                }
-                int sid = rsQ.getInt("subject_id");
-                Subject s = loadSubjectById(sid);
-                parent = new Question(
-                    rsQ.getInt("id"),
-                    rsQ.getString("title"),
-                    rsQ.getString("content"),
-                    s
-                );
-            }
-        } catch (SQLException e) {
-            throw new DataAccessException(String.format(DEV_ERR_LOAD_PARENT_QUESTION, questionId), e);
-        }
-
         List<Answer> out = new ArrayList<>();
-        try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_QUESTION_ID)) {
+        try {
+            long stamp = cache.stamp();
+            PreparedStatement ps = statements.prepare(SQL_FIND_BY_QUESTION_ID);
             ps.setInt(1, questionId);
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    out.add(new Answer(
-                        rs.getInt("id"),
-                        rs.getString("content"),
-                        rs.getBoolean("valid"),
-                        parent
-                    ));
-                }
+                if (!rs.next()) return out;
+
+                // every row repeats the parent columns; build the parent once and share it
+                Question parent = JoinedRows.question(rs, mapSubject(rs), identityMap);
+                cache.putSubject(JoinedRows.subjectRow(rs), stamp);
+                cache.putQuestion(JoinedRows.questionRow(rs), stamp);
+                if (JoinedRows.answerMissing(rs)) return out;
+                do {
+                    cache.putAnswer(JoinedRows.answerRow(rs), stamp);
+                    out.add(JoinedRows.answer(rs, parent, identityMap));
+                } while (rs.next());
             }
             return out;
         } catch (SQLException e) {
@@ -133,18 +169,22 @@ public class JdbcAnswerDAO implements AnswerDAO {
         if (parent == null || parent.getQuestionId() <= 0)
             throw new IllegalArgumentException("Parent Question must be persisted");
 
-        final String sql = "SELECT id, content, valid FROM answers WHERE question_id = ? ORDER BY id";
+        final String sql = "SELECT id, content, valid, version FROM answers WHERE question_id = ? ORDER BY id";
         List<Answer> out = new ArrayList<>();
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try {
+            PreparedStatement ps = statements.prepare(sql);
             ps.setInt(1, parent.getQuestionId());
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    out.add(new Answer(
-                        rs.getInt("id"),
-                        rs.getString("content"),
-                        rs.getBoolean("valid"),
-                        parent          
-                    ));
+                    int id = rs.getInt("id");
+                    Answer known = identityMap.get(Answer.class, id);
+                    if (known == null) {
+                        known = new Answer(id, rs.getString("content"), rs.getBoolean("valid"), parent);
+                        known.setVersion(rs.getInt("version"));
+                        known.markClean();
+                        known = identityMap.register(Answer.class, id, known);
+                    }
+                    out.add(known);
                 }
             }
         } catch (SQLException e) {
@@ -153,16 +193,37 @@ public class JdbcAnswerDAO implements AnswerDAO {
         return out;
     }
 
+    @Override
+    public Map<Integer, Integer> countByQuestionForSubjectId(int subjectId) {
+        Map<Integer, Integer> out = new HashMap<>();
+        try {
+            PreparedStatement ps = statements.prepare(SQL_COUNT_BY_QUESTION_FOR_SUBJECT_ID);
+            ps.setInt(1, subjectId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.put(rs.getInt("question_id"), rs.getInt("answer_count"));
+                }
+            }
+            return out;
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format(DEV_ERR_COUNT_BY_QUESTION_FOR_SUBJECT_ID, subjectId), e);
+        }
+    }
+
     @Override
     public int insert(Answer a) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, a.getAnswerContent());
-            ps.setBoolean(2, a.isCorrect());
-            ps.setInt(3, a.getQuestion().getQuestionId());
+        try {
+            PreparedStatement ps = statements.prepareReturningKeys(SQL_INSERT);
+            bindInsert(ps, a);
             int n = ps.executeUpdate();
             if (n != 1) throw new DataAccessException(String.format(DEV_ERR_INSERT_ROWS, n));
             try (ResultSet keys = ps.getGeneratedKeys()) {
-                if (keys.next()) return keys.getInt(1);
+                if (keys.next()) {
+                    int id = keys.getInt(1);
+                    cache.invalidate(Region.ANSWER, id);
+                    a.markClean();
+                    return id;
+                }
             }
             throw new DataAccessException(DEV_ERR_INSERT_NO_KEY);
         } catch (SQLException e) {
@@ -170,34 +231,133 @@ public class JdbcAnswerDAO implements AnswerDAO {
         }
     }
 
+    @Override
+    public int[] insertAll(Collection<Answer> answers) {
+        try {
+            int[] keys = JdbcBatch.insertAll(statements.prepareReturningKeys(SQL_INSERT),
+                statements.supportsBatchUpdates(), answers, batchSize,
+                this::bindInsert, Answer::setAnswerId);
+            for (Answer a : answers) {
+                a.markClean();
+                cache.invalidate(Region.ANSWER, a.getAnswerId());
+                identityMap.put(Answer.class, a.getAnswerId(), a);
+            }
+            return keys;
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format(DEV_ERR_INSERT_ALL_FAILED, answers.size()), e);
+        }
+    }
+
     @Override
     public boolean update(Answer a) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
-            ps.setString(1, a.getAnswerContent());
-            ps.setBoolean(2, a.isCorrect());
-            ps.setInt(3, a.getQuestion().getQuestionId());
-            ps.setInt(4, a.getAnswerId());
-            return ps.executeUpdate() == 1;
+        if (!a.isDirty()) return true;
+        try {
+            PreparedStatement ps = statements.prepare(SQL_UPDATE_FIELDS[a.getDirtyFields()]);
+            bindUpdate(ps, a);
+            int updated = ps.executeUpdate();
+            cache.invalidate(Region.ANSWER, a.getAnswerId());
+            if (updated != 1) {
+                VersionCheck.requireMissing(statements, SQL_FIND_VERSION, "answers", a.getAnswerId(), a.getVersion());
+                identityMap.remove(Answer.class, a.getAnswerId());
+                return false;
+            }
+            a.setVersion(a.getVersion() + 1);
+            a.markClean();
+            identityMap.put(Answer.class, a.getAnswerId(), a);
+            return true;
         } catch (SQLException e) {
             throw new DataAccessException(String.format(DEV_ERR_UPDATE_FAILED, a.getAnswerId()), e);
         }
     }
 
+    @Override
+    public int updateAll(Collection<Answer> answers) {
+        try {
+            List<Answer> written = new ArrayList<>();
+            List<Answer> missed = new ArrayList<>();
+            List<Answer> unknown = new ArrayList<>();
+            boolean batching = statements.supportsBatchUpdates();
+            int updated = 0;
+            for (Map.Entry<Integer, List<Answer>> group
+                    : DirtyColumns.byDirtyFields(answers, Answer::getDirtyFields).entrySet()) {
+                updated += JdbcBatch.updateAll(statements.prepare(SQL_UPDATE_FIELDS[group.getKey()]),
+                    batching, group.getValue(), batchSize, this::bindUpdate, (a, n) -> {
+                        if (n == JdbcBatch.UNKNOWN) {
+                            unknown.add(a);
+                            return;
+                        }
+                        if (n != 1) {
+                            missed.add(a);
+                            return;
+                        }
+                        a.setVersion(a.getVersion() + 1);
+                        a.markClean();
+                        written.add(a);
+                    });
+                for (Answer a : group.getValue()) cache.invalidate(Region.ANSWER, a.getAnswerId());
+            }
+            for (Answer a : unknown) {
+                // The driver did not say whether the row matched; its version does.
+                if (VersionCheck.wasUpdated(statements, SQL_FIND_VERSION, "answers", a.getAnswerId(),
+                        a.getVersion())) {
+                    a.setVersion(a.getVersion() + 1);
+                    a.markClean();
+                    written.add(a);
+                    updated++;
+                } else {
+                    identityMap.remove(Answer.class, a.getAnswerId());
+                }
+            }
+            for (Answer a : missed) {
+                VersionCheck.requireMissing(statements, SQL_FIND_VERSION, "answers", a.getAnswerId(),
+                    a.getVersion());
+                // the row is gone; a later findById must not return the entity
+                identityMap.remove(Answer.class, a.getAnswerId());
+            }
+            for (Answer a : written) identityMap.put(Answer.class, a.getAnswerId(), a);
+            return updated;
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format(DEV_ERR_UPDATE_ALL_FAILED, answers.size()), e);
+        }
+    }
+
     @Override
     public boolean delete(int id) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
+        try {
+            PreparedStatement ps = statements.prepare(SQL_DELETE);
             ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+            int deleted = ps.executeUpdate();
+            cache.invalidate(Region.ANSWER, id);
+            identityMap.remove(Answer.class, id);
+            return deleted > 0;
         } catch (SQLException e) {
             throw new DataAccessException(String.format(DEV_ERR_DELETE_FAILED, id), e);
         }
     }
 
+    @Override
+    public int deleteAll(Collection<Integer> ids) {
+        try {
+            int deleted = JdbcBatch.executeForIds(statements, SQL_DELETE_IN, ids, batchSize);
+            for (int id : ids) {
+                cache.invalidate(Region.ANSWER, id);
+                identityMap.remove(Answer.class, id);
+            }
+            return deleted;
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format(DEV_ERR_DELETE_ALL_FAILED, ids.size()), e);
+        }
+    }
+
     @Override
     public int deleteByQuestionId(int questionId) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_BY_QUESTION_ID)) {
+        try {
+            PreparedStatement ps = statements.prepare(SQL_DELETE_BY_QUESTION_ID);
             ps.setInt(1, questionId);
-            return ps.executeUpdate();
+            int deleted = ps.executeUpdate();
+            cache.invalidateIf(Region.ANSWER, AnswerRow.class, r -> r.questionId == questionId);
+            identityMap.removeIf(Answer.class, a -> a.getQuestion().getQuestionId() == questionId);
+            return deleted;
         } catch (SQLException e) {
             throw new DataAccessException(String.format(DEV_ERR_DELETE_BY_QUESTION_FAILED, questionId), e);
         }
@@ -205,46 +365,57 @@ public class JdbcAnswerDAO implements AnswerDAO {
 
     @Override
     public int deleteBySubjectId(int subjectId) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_BY_SUBJECT_ID)) {
+        try {
+            PreparedStatement ps = statements.prepare(SQL_DELETE_BY_SUBJECT_ID);
             ps.setInt(1, subjectId);
-            return ps.executeUpdate();
+            int deleted = ps.executeUpdate();
+            // answer rows do not carry the subject: drop them all
+            cache.invalidateIf(Region.ANSWER, AnswerRow.class, r -> true);
+            identityMap.removeIf(Answer.class, a -> a.getQuestion().getSubject().getSubjectId() == subjectId);
+            return deleted;
         } catch (SQLException e) {
             throw new DataAccessException(String.format(DEV_ERR_DELETE_BY_SUBJECT_FAILED, subjectId), e);
         }
     }
 
-    private Subject loadSubjectById(int subjectId) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_LOAD_SUBJECT_BY_ID)) {
+    @Override
+    public int deleteBySubjectIdUpTo(int subjectId, int upToQuestionId) {
+        try {
+            PreparedStatement ps = statements.prepare(SQL_DELETE_BY_SUBJECT_ID_UP_TO);
             ps.setInt(1, subjectId);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) {
-                    throw new DataAccessException(String.format(DEV_ERR_SUBJECT_NOT_FOUND, subjectId));
-                }
-                return new Subject(
-                    rs.getInt("id"),
-                    rs.getString("title"),
-                    rs.getString("info")
-                );
-            }
+            ps.setInt(2, upToQuestionId);
+            int deleted = ps.executeUpdate();
+            cache.invalidateIf(Region.ANSWER, AnswerRow.class, r -> r.questionId <= upToQuestionId);
+            identityMap.removeIf(Answer.class, a -> a.getQuestion().getSubject().getSubjectId() == subjectId
+                && a.getQuestion().getQuestionId() <= upToQuestionId);
+            return deleted;
+        } catch (SQLException e) {
+            throw new DataAccessException(
+                String.format(DEV_ERR_DELETE_BY_SUBJECT_UP_TO_FAILED, subjectId, upToQuestionId), e);
         }
     }
 
-    private Question loadQuestionWithSubject(int questionId) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_LOAD_QUESTION_WITH_SUBJECT)) {
-            ps.setInt(1, questionId);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) {
-                    throw new DataAccessException(String.format(DEV_ERR_QUESTION_NOT_FOUND, questionId));
-                }
-                int sid = rs.getInt("subject_id");
-                Subject s = loadSubjectById(sid);
-                return new Question(
-                    rs.getInt("id"),
-                    rs.getString("title"),
-                    rs.getString("content"),
-                    s
-                );
-            }
+    private void bindInsert(PreparedStatement ps, Answer a) throws SQLException {
+        ps.setString(1, a.getAnswerContent());
+        ps.setBoolean(2, a.isCorrect());
+        ps.setInt(3, a.getQuestion().getQuestionId());
+    }
+
+    /** Binds the dirty columns in the order of {@link #SQL_UPDATE_FIELDS}, then ID and version. */
+    private void bindUpdate(PreparedStatement ps, Answer a) throws SQLException {
+        int fields = a.getDirtyFields();
+        int i = 1;
+        if ((fields & Answer.FIELD_CONTENT) != 0) ps.setString(i++, a.getAnswerContent());
+        if ((fields & Answer.FIELD_CORRECT) != 0) ps.setBoolean(i++, a.isCorrect());
+        if ((fields & Answer.FIELD_QUESTION) != 0) ps.setInt(i++, a.getQuestion().getQuestionId());
+        ps.setInt(i++, a.getAnswerId());
+        ps.setInt(i, a.getVersion());
+    }
+
+    private Subject mapSubject(ResultSet rs) throws SQLException {
+        if (JoinedRows.subjectMissing(rs)) {
+            throw new DataAccessException(String.format(DEV_ERR_SUBJECT_NOT_FOUND, rs.getInt("q_subject_id")));
         }
+        return JoinedRows.subject(rs, identityMap);
     }
 }
@@ -0,0 +1,184 @@
+package dao.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import dao.DataAccessException;
+
+/**
+ * Shared addBatch/executeBatch plumbing for the {@code insertAll}/{@code updateAll}
+ * (and {@code deleteAll}) methods of the Jdbc DAOs.
+ * <p>Items are sent in chunks of {@code batchSize}. With MySQL's
+ * {@code rewriteBatchedStatements=true} each chunk of INSERTs travels as one multi-row
+ * {@code VALUES} statement. If the driver reports no batch support, rows are executed
+ * one by one on the same statement; callers pass {@link StatementCache#supportsBatchUpdates()},
+ * which asks the driver once per unit-of-work.</p>
+ * <p>Drivers may answer a batch with {@link Statement#SUCCESS_NO_INFO} instead of the
+ * number of rows each statement changed. Those items reach the {@link CountReader} as
+ * {@link #UNKNOWN}, never as a guessed count, so that version-checked updates can settle
+ * them themselves.</p>
+ */
+final class JdbcBatch {
+
+    private static final String DEV_ERR_KEY_COUNT =
+        "batch insert returned %d generated keys for %d rows";
+    private static final String DEV_ERR_INSERT_ROWS =
+        "batch insert affected %d rows for item %d";
+
+    /** Update count of an item the driver executed without saying how many rows it changed. */
+    static final int UNKNOWN = -1;
+
+    /** Binds one item's parameters to the statement. */
+    interface Binder<T> {
+        void bind(PreparedStatement ps, T item) throws SQLException;
+    }
+
+    /** Writes a generated key back to the item it belongs to. */
+    interface KeyWriter<T> {
+        void write(T item, int key);
+    }
+
+    /** Receives the update count of one item, or {@link #UNKNOWN}. */
+    interface CountReader<T> {
+        void read(T item, int count);
+    }
+
+    private JdbcBatch() {}
+
+    /**
+     * Inserts all items and writes the generated keys back via {@code keyWriter}.
+     * {@code ps} must have been prepared with {@link Statement#RETURN_GENERATED_KEYS}.
+     *
+     * @return generated keys in iteration order
+     */
+    static <T> int[] insertAll(PreparedStatement ps, boolean batching, Collection<T> items, int batchSize,
+                               Binder<T> binder, KeyWriter<T> keyWriter) throws SQLException {
+        int[] keys = new int[items.size()];
+        if (items.isEmpty()) return keys;
+
+        List<T> chunk = new ArrayList<>(Math.min(batchSize, items.size()));
+        int written = 0;
+        for (T item : items) {
+            binder.bind(ps, item);
+            if (!batching) {
+                int n = ps.executeUpdate();
+                if (n != 1) throw new DataAccessException(String.format(DEV_ERR_INSERT_ROWS, n, written));
+                chunk.add(item);
+                written = readKeys(ps, chunk, keys, written, keyWriter);
+                continue;
+            }
+            ps.addBatch();
+            chunk.add(item);
+            if (chunk.size() == batchSize) {
+                ps.executeBatch();
+                written = readKeys(ps, chunk, keys, written, keyWriter);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            ps.executeBatch();
+            readKeys(ps, chunk, keys, written, keyWriter);
+        }
+        return keys;
+    }
+
+    /**
+     * Executes one UPDATE per item and hands each item's update count to
+     * {@code countReader}; a count the driver reports as {@link Statement#SUCCESS_NO_INFO},
+     * or leaves out, is passed as {@link #UNKNOWN}.
+     *
+     * @return number of rows updated, not counting items whose count is unknown
+     */
+    static <T> int updateAll(PreparedStatement ps, boolean batching, Collection<T> items, int batchSize,
+                             Binder<T> binder, CountReader<T> countReader) throws SQLException {
+        if (items.isEmpty()) return 0;
+
+        List<T> chunk = new ArrayList<>(Math.min(batchSize, items.size()));
+        int updated = 0;
+        for (T item : items) {
+            binder.bind(ps, item);
+            if (!batching) {
+                int n = ps.executeUpdate();
+                countReader.read(item, n);
+                updated += n;
+                continue;
+            }
+            ps.addBatch();
+            chunk.add(item);
+            if (chunk.size() == batchSize) updated += readCounts(ps.executeBatch(), chunk, countReader);
+        }
+        if (!chunk.isEmpty()) updated += readCounts(ps.executeBatch(), chunk, countReader);
+        return updated;
+    }
+
+    /**
+     * Runs {@code sqlPrefix + "(?, ?, ...)"} for the IDs in chunks of {@code batchSize}, e.g.
+     * {@code DELETE FROM answers WHERE id IN}. Each chunk is one statement with one exact
+     * update count, whatever the driver reports for batches. The last chunk is padded with
+     * its final ID, so that every chunk uses the same cached statement.
+     *
+     * @return number of rows changed
+     */
+    static int executeForIds(StatementCache statements, String sqlPrefix, Collection<Integer> ids,
+                             int batchSize) throws SQLException {
+        if (ids.isEmpty()) return 0;
+
+        int chunkSize = Math.min(batchSize, ids.size());
+        StringBuilder sql = new StringBuilder(sqlPrefix).append(" (");
+        for (int i = 0; i < chunkSize; i++) sql.append(i == 0 ? "?" : ", ?");
+        PreparedStatement ps = statements.prepare(sql.append(')').toString());
+        int changed = 0;
+        int i = 0;
+        int last = 0;
+        for (int id : ids) {
+            ps.setInt(++i, id);
+            last = id;
+            if (i == chunkSize) {
+                changed += ps.executeUpdate();
+                i = 0;
+            }
+        }
+        if (i > 0) {
+            while (i < chunkSize) ps.setInt(++i, last);
+            changed += ps.executeUpdate();
+        }
+        return changed;
+    }
+
+    private static <T> int readKeys(PreparedStatement ps, List<T> chunk, int[] keys, int offset,
+                                    KeyWriter<T> keyWriter) throws SQLException {
+        int i = 0;
+        try (ResultSet rs = ps.getGeneratedKeys()) {
+            while (rs.next() && i < chunk.size()) {
+                int key = rs.getInt(1);
+                keyWriter.write(chunk.get(i), key);
+                keys[offset + i] = key;
+                i++;
+            }
+        }
+        if (i != chunk.size()) {
+            throw new DataAccessException(String.format(DEV_ERR_KEY_COUNT, i, chunk.size()));
+        }
+        chunk.clear();
+        return offset + i;
+    }
+
+    private static <T> int readCounts(int[] counts, List<T> chunk, CountReader<T> countReader) {
+        int total = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            int c = i < counts.length ? counts[i] : Statement.SUCCESS_NO_INFO;
+            if (c == Statement.SUCCESS_NO_INFO) {
+                countReader.read(chunk.get(i), UNKNOWN);
+                continue;
+            }
+            countReader.read(chunk.get(i), Math.max(c, 0));
+            total += Math.max(c, 0);
+        }
+        chunk.clear();
+        return total;
+    }
+}
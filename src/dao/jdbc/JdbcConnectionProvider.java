@@ -8,7 +8,7 @@ import dao.ConnectionProvider;
 
 public class JdbcConnectionProvider implements ConnectionProvider {
 	
-	public static final String URL = "jdbc:mysql://localhost:3306/myswing";
+	public static final String URL = "jdbc:mysql://localhost:3306/myswing?useServerPrepStmts=true&rewriteBatchedStatements=true&useCursorFetch=true";
 	public static final String USER = "root";
 	public static final String PASSWORD = "";
 
@@ -6,6 +6,14 @@ import java.sql.SQLException;
 
 public class JdbcDAOFactory implements DAOFactory {
     private final Connection conn;
+    // Shared by all three DAOs; owned by the physical connection when it is pooled.
+    private final StatementCache statements;
+    private final boolean ownsStatements;
+    // First-level cache: one instance per entity and ID for the life of this factory.
+    private final IdentityMap identityMap = new IdentityMap();
+    // View of the provider-wide second-level cache; invalidations wait for commit().
+    private final CacheSession cache;
+    private final JdbcSettings settings;
 
     // Lazily allocate DAO instances so they all share the same Connection.
     private SubjectDAO subjectDAO;
@@ -13,36 +21,64 @@ public class JdbcDAOFactory implements DAOFactory {
     private AnswerDAO answerDAO;
 
     public JdbcDAOFactory(Connection conn) {
+        this(conn, new JdbcSettings());
+    }
+
+    public JdbcDAOFactory(Connection conn, JdbcSettings settings) {
         this.conn = conn;
+        this.settings = settings;
+        if (conn instanceof StatementCachingConnection pooled) {
+            this.statements = pooled.statementCache(settings.getStatementCacheSize(), settings.getSlowQueryLog());
+            this.ownsStatements = false;
+        } else {
+            this.statements = new StatementCache(conn, settings.getStatementCacheSize(), settings.getSlowQueryLog());
+            this.ownsStatements = true;
+        }
+        this.cache = new CacheSession(settings.getSecondLevelCache(), identityMap);
     }
 
     @Override
     public SubjectDAO subjects() {
-        if (subjectDAO == null) subjectDAO = new JdbcSubjectDAO(conn);
+        if (subjectDAO == null) subjectDAO = new JdbcSubjectDAO(statements, identityMap, cache);
         return subjectDAO;
     }
 
     @Override
     public QuestionDAO questions() {
-        if (questionDAO == null) questionDAO = new JdbcQuestionDAO(conn);
+        if (questionDAO == null) questionDAO = new JdbcQuestionDAO(statements, identityMap, cache, settings);
         return questionDAO;
     }
 
     @Override
     public AnswerDAO answers() {
-        if (answerDAO == null) answerDAO = new JdbcAnswerDAO(conn);
+        if (answerDAO == null) answerDAO = new JdbcAnswerDAO(statements, identityMap, cache, settings);
         return answerDAO;
     }
 
+    /**
+     * @return the statement cache this unit-of-work uses, for its hit/miss counters; with a
+     *         pooled Connection it belongs to the physical connection, and the counters
+     *         cover every unit-of-work that ran on it
+     */
+    public StatementCache getStatementCache() {
+        return statements;
+    }
+
     @Override
     public void begin() {
         try {
             if (conn.getAutoCommit()) conn.setAutoCommit(false);
+            cache.begin();
         } catch (SQLException e) {
             throw new DataAccessException("Failed to begin transaction", e);
         }
     }
 
+    /**
+     * Commits and then applies the second-level cache invalidations queued by the
+     * transaction's writes. They are applied even if the commit fails, as the outcome is
+     * unknown and dropping cached rows is always safe.
+     */
     @Override
     public void commit() {
         try {
@@ -50,12 +86,20 @@ public class JdbcDAOFactory implements DAOFactory {
         } catch (SQLException e) {
             throw new DataAccessException("Commit failed", e);
         } finally {
+            cache.commit();
             try { conn.setAutoCommit(true); } catch (SQLException ignored) {}
         }
     }
 
+    /**
+     * Rolls back and clears the identity map: entities changed in memory during the
+     * transaction must not be handed out again as if they were the stored state.
+     * Queued second-level cache invalidations are dropped, nothing was changed.
+     */
     @Override
     public void rollback() {
+        identityMap.clear();
+        cache.rollback();
         try {
             conn.rollback();
         } catch (SQLException e) {
@@ -66,8 +110,24 @@ public class JdbcDAOFactory implements DAOFactory {
         }
     }
 
+    /**
+     * Ends the unit-of-work. Cached statements are closed unless they belong to a pooled
+     * physical connection, open cursors are closed either way, and a transaction that was
+     * neither committed nor rolled back is rolled back first, so no pending changes travel
+     * with the Connection; for a pooled Connection {@code close()} hands it back to the
+     * pool instead of closing it.
+     */
     @Override
     public void close() {
+        if (ownsStatements) statements.close();
+        else statements.releaseUncached();
+        try {
+            if (!conn.getAutoCommit()) {
+                cache.rollback();
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException ignored) {}
         try { conn.close(); } catch (SQLException ignored) {}
     }
 }
@@ -1,9 +1,82 @@
 package dao.jdbc;
 
-public class JdbcDAOFactoryProvider {
+import java.sql.SQLException;
 
-	public JdbcDAOFactoryProvider() {
-		// TODO Auto-generated constructor stub
-	}
+import dao.ConnectionProvider;
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+import dao.DataAccessException;
+import dao.schema.SchemaMigrator;
 
+/**
+ * Opens one {@link JdbcDAOFactory} per unit-of-work on a Connection taken from a
+ * {@link ConnectionProvider}.
+ * <p>With a {@link PooledConnectionProvider} the Connection goes back to the pool
+ * when the factory is closed, so opening a unit-of-work no longer pays for a new
+ * TCP/authentication handshake.</p>
+ * <p>A provider made with a constructor does not own the ConnectionProvider: whoever
+ * creates a pool keeps a reference to it and closes it, which also stops its evictor
+ * thread. {@link #startPooled} is the startup path instead: it creates the pool, brings
+ * the schema up to date and returns a provider that owns the pool and closes it in
+ * {@link #close()}.</p>
+ */
+public class JdbcDAOFactoryProvider implements DAOFactoryProvider, AutoCloseable {
+
+    private static final String DEV_ERR_OPEN =
+        "Could not obtain a connection for a new unit-of-work";
+
+    private final ConnectionProvider connectionProvider;
+    private final JdbcSettings settings;
+    // the pool made by startPooled, closed with this provider; null if the caller owns it
+    private final PooledConnectionProvider ownedPool;
+
+    public JdbcDAOFactoryProvider(ConnectionProvider connectionProvider) {
+        this(connectionProvider, new JdbcSettings());
+    }
+
+    public JdbcDAOFactoryProvider(ConnectionProvider connectionProvider, JdbcSettings settings) {
+        this(connectionProvider, settings, null);
+    }
+
+    private JdbcDAOFactoryProvider(ConnectionProvider connectionProvider, JdbcSettings settings,
+                                   PooledConnectionProvider ownedPool) {
+        this.connectionProvider = connectionProvider;
+        this.settings = settings;
+        this.ownedPool = ownedPool;
+    }
+
+    /**
+     * Starts the data source of the application: creates a {@link PooledConnectionProvider}
+     * with its defaults on {@code connections}, runs {@link SchemaMigrator#migrateAndVerify()},
+     * which logs a warning for every missing index, and returns a provider on the pool.
+     * Call it once at startup and {@link #close()} the provider at shutdown.
+     *
+     * @param connections opens the physical connections, e.g. a {@link JdbcConnectionProvider}
+     * @throws DataAccessException if the migration fails; the pool is closed again
+     */
+    public static JdbcDAOFactoryProvider startPooled(ConnectionProvider connections, JdbcSettings settings) {
+        PooledConnectionProvider pool = new PooledConnectionProvider(connections);
+        try {
+            new SchemaMigrator(pool).migrateAndVerify();
+        } catch (RuntimeException e) {
+            pool.close();
+            throw e;
+        }
+        return new JdbcDAOFactoryProvider(pool, settings, pool);
+    }
+
+    @Override
+    public DAOFactory open() {
+        try {
+            return new JdbcDAOFactory(connectionProvider.getConnection(), settings);
+        } catch (SQLException e) {
+            throw new DataAccessException(DEV_ERR_OPEN, e);
+        }
+    }
+
+    /** Closes the pool made by {@link #startPooled}; a caller's ConnectionProvider is left open. */
+    @Override
+    public void close() {
+        if (ownedPool != null) ownedPool.close();
+    }
 }
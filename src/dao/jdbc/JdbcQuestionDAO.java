@@ -1,77 +1,170 @@
 package dao.jdbc;
 
 import dao.DataAccessException;
+import dao.Page;
 import dao.QuestionDAO;
+import dao.jdbc.SecondLevelCache.Region;
+import dao.rows.QuestionRow;
+import dao.rows.SubjectRow;
 import domain.Question;
 import domain.Subject;
+import dto.QuestionLightDTO;
 
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class JdbcQuestionDAO implements QuestionDAO {
 
     
+    // One round trip: the question comes back with its subject joined in.
     private static final String SQL_FIND_BY_ID =
-        "SELECT id, title, content, subject_id FROM questions WHERE id = ?";
+        "SELECT " + JoinedRows.QUESTION_COLUMNS + ", " + JoinedRows.SUBJECT_COLUMNS
+            + " FROM questions q"
+            + " LEFT JOIN subjects s ON s.id = q.subject_id"
+            + " WHERE q.id = ?";
+    // Used by findAll and streamAll: each row carries its subject, no second query.
     private static final String SQL_FIND_ALL =
-        "SELECT id, title, content, subject_id FROM questions ORDER BY id";
+        "SELECT " + JoinedRows.QUESTION_COLUMNS + ", " + JoinedRows.SUBJECT_COLUMNS
+            + " FROM questions q"
+            + " LEFT JOIN subjects s ON s.id = q.subject_id"
+            + " ORDER BY q.id";
+    // Used by streamAllWithAnswers: consecutive rows of one question are folded into one aggregate.
+    private static final String SQL_FIND_ALL_WITH_ANSWERS =
+        "SELECT " + JoinedRows.QUESTION_COLUMNS + ", " + JoinedRows.SUBJECT_COLUMNS + ", " + JoinedRows.ANSWER_COLUMNS
+            + " FROM questions q"
+            + " LEFT JOIN subjects s ON s.id = q.subject_id"
+            + " LEFT JOIN answers a ON a.question_id = q.id"
+            + " ORDER BY q.id, a.id";
     private static final String SQL_FIND_BY_SUBJECT_ID =
-        "SELECT id, title, content FROM questions WHERE subject_id = ? ORDER BY id";
+        "SELECT id, title, content, version FROM questions WHERE subject_id = ? ORDER BY id";
+    // Projection for the start screen: no content column, no entities.
+    private static final String SQL_FIND_ALL_LIGHT =
+        "SELECT id, title, subject_id FROM questions ORDER BY id";
+    // Keyset pages: seek past the last ID seen instead of OFFSET, fetch one extra row for hasNext.
+    private static final String SQL_FIND_ALL_AFTER =
+        "SELECT " + JoinedRows.QUESTION_COLUMNS + ", " + JoinedRows.SUBJECT_COLUMNS
+            + " FROM questions q"
+            + " LEFT JOIN subjects s ON s.id = q.subject_id"
+            + " WHERE q.id > ?"
+            + " ORDER BY q.id LIMIT ?";
+    private static final String SQL_FIND_BY_SUBJECT_ID_AFTER =
+        "SELECT id, title, content, version FROM questions WHERE subject_id = ? AND id > ? ORDER BY id LIMIT ?";
+    // Light pages for the question list: the same seeks without the content column or a join.
+    private static final String SQL_FIND_ALL_LIGHT_AFTER =
+        "SELECT id, title, subject_id FROM questions WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SQL_FIND_LIGHT_BY_SUBJECT_ID_AFTER =
+        "SELECT id, title, subject_id FROM questions WHERE subject_id = ? AND id > ? ORDER BY id LIMIT ?";
+    // Answered from idx_questions_subject_id alone: one row per subject, no question rows read.
+    private static final String SQL_COUNT_BY_SUBJECT =
+        "SELECT subject_id, COUNT(*) AS question_count FROM questions GROUP BY subject_id";
+    // Seeks into idx_questions_subject_id at (subject_id, id) and walks only the offset
+    // after it; no question row is read, nor the entries of chunks deleted before.
+    private static final String SQL_FIND_ID_BY_SUBJECT_ID_AFTER =
+        "SELECT id FROM questions WHERE subject_id = ? AND id > ? ORDER BY id LIMIT 1 OFFSET ?";
     private static final String SQL_INSERT =
         "INSERT INTO questions (title, content, subject_id) VALUES (?, ?, ?)";
-    private static final String SQL_UPDATE =
-        "UPDATE questions SET title = ?, content = ?, subject_id = ? WHERE id = ?";
+    // Optimistic locking: only the version that was read may be overwritten. Indexed by
+    // Question.getDirtyFields(), so only the changed columns are written.
+    private static final String[] SQL_UPDATE_FIELDS =
+        DirtyColumns.updates("questions", "title", "content", "subject_id");
+    private static final String SQL_FIND_VERSION =
+        "SELECT version FROM questions WHERE id = ?";
     private static final String SQL_DELETE =
         "DELETE FROM questions WHERE id = ?";
     private static final String SQL_DELETE_BY_SUBJECT_ID =
         "DELETE FROM questions WHERE subject_id = ?";
+    private static final String SQL_DELETE_BY_SUBJECT_ID_UP_TO =
+        "DELETE FROM questions WHERE subject_id = ? AND id <= ?";
     private static final String SQL_LOAD_SUBJECT_BY_ID =
-        "SELECT id, title, info FROM subjects WHERE id = ?";
+        "SELECT id, title, info, version FROM subjects WHERE id = ?";
 
     //  DEV MESSAGES
     private static final String DEV_ERR_FIND_BY_ID =
         "findById questionId=%d failed";
     private static final String DEV_ERR_FIND_ALL =
         "findAll questions failed";
+    private static final String DEV_ERR_FIND_ALL_LIGHT =
+        "findAllLight questions failed";
+    private static final String DEV_ERR_STREAM_ALL =
+        "streamAll questions failed";
+    private static final String DEV_ERR_STREAM_ALL_WITH_ANSWERS =
+        "streamAllWithAnswers questions failed";
     private static final String DEV_ERR_FIND_BY_SUBJECT_ID =
         "findBySubjectId subjectId=%d failed";
+    private static final String DEV_ERR_FIND_ALL_AFTER =
+        "findAllAfter afterId=%d limit=%d failed";
+    private static final String DEV_ERR_FIND_BY_SUBJECT_ID_AFTER =
+        "findBySubjectIdAfter subjectId=%d afterId=%d limit=%d failed";
+    private static final String DEV_ERR_FIND_ALL_LIGHT_AFTER =
+        "findAllLightAfter afterId=%d limit=%d failed";
+    private static final String DEV_ERR_FIND_LIGHT_BY_SUBJECT_ID_AFTER =
+        "findLightBySubjectIdAfter subjectId=%d afterId=%d limit=%d failed";
+    private static final String DEV_ERR_COUNT_BY_SUBJECT =
+        "countBySubject questions failed";
+    private static final String DEV_ERR_FIND_ID_BY_SUBJECT_ID_AFTER =
+        "findIdBySubjectIdAfter subjectId=%d afterId=%d offset=%d failed";
     private static final String DEV_ERR_INSERT_AFFECTED_ROWS =
         "insert question affected %d rows";
     private static final String DEV_ERR_INSERT_NO_KEY =
         "insert question returned no generated key";
     private static final String DEV_ERR_INSERT_FAILED =
         "insert question failed";
+    private static final String DEV_ERR_INSERT_ALL_FAILED =
+        "batch insert of %d questions failed";
+    private static final String DEV_ERR_UPDATE_ALL_FAILED =
+        "batch update of %d questions failed";
     private static final String DEV_ERR_UPDATE_FAILED =
         "update questionId=%d failed";
     private static final String DEV_ERR_DELETE_FAILED =
         "delete questionId=%d failed";
     private static final String DEV_ERR_DELETE_BY_SUBJECT_FAILED =
         "delete questions by subjectId=%d failed";
+    private static final String DEV_ERR_DELETE_BY_SUBJECT_UP_TO_FAILED =
+        "delete questions by subjectId=%d up to questionId=%d failed";
     private static final String DEV_ERR_SUBJECT_NOT_FOUND =
         "Subject %d not found";
     private static final String DEV_ERR_SUBJECT_MISSING_FOR_QUESTION =
         "Subject %d missing for question %d";
 
-    private final Connection conn;
+    // Statements are owned by the factory's cache: close ResultSets, never the statements.
+    private final StatementCache statements;
+    private final IdentityMap identityMap;
+    private final CacheSession cache;
+    private final int batchSize;
+    private final int fetchSize;
+    private final int streamSubjectCacheSize;
 
-    public JdbcQuestionDAO(Connection conn) {
-        this.conn = conn;
+    public JdbcQuestionDAO(StatementCache statements, IdentityMap identityMap, CacheSession cache,
+                           JdbcSettings settings) {
+        this.statements = statements;
+        this.identityMap = identityMap;
+        this.cache = cache;
+        this.batchSize = settings.getBatchSize();
+        this.fetchSize = settings.getFetchSize();
+        this.streamSubjectCacheSize = settings.getStreamSubjectCacheSize();
     }
 
     @Override
     public Optional<Question> findById(int id) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_ID)) {
+        Question known = cache.findQuestion(id);
+        if (known != null) return Optional.of(known);
+        try {
+            long stamp = cache.stamp();
+            PreparedStatement ps = statements.prepare(SQL_FIND_BY_ID);
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (!rs.next()) return Optional.empty();
 
-                int qId = rs.getInt("id");
-                String qTitle = rs.getString("title");
-                String qContent = rs.getString("content");
-                int subjectId = rs.getInt("subject_id");
-
-                Subject s = loadSubjectById(subjectId);
-                return Optional.of(new Question(qId, qTitle, qContent, s));
+                if (JoinedRows.subjectMissing(rs)) {
+                    throw new DataAccessException(
+                        String.format(DEV_ERR_SUBJECT_NOT_FOUND, rs.getInt("q_subject_id")));
+                }
+                cache.putSubject(JoinedRows.subjectRow(rs), stamp);
+                cache.putQuestion(JoinedRows.questionRow(rs), stamp);
+                return Optional.of(JoinedRows.question(rs, JoinedRows.subject(rs, identityMap), identityMap));
             }
         } catch (SQLException e) {
             throw new DataAccessException(String.format(DEV_ERR_FIND_BY_ID, id), e);
@@ -80,38 +173,93 @@ public class JdbcQuestionDAO implements QuestionDAO {
 
     @Override
     public List<Question> findAll() {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_ALL);
-             ResultSet rs = ps.executeQuery()) {
+        List<Question> out = new ArrayList<>();
+        try (ResultSet rs = statements.prepare(SQL_FIND_ALL).executeQuery()) {
+            while (rs.next()) {
+                requireSubject(rs);
+                out.add(JoinedRows.question(rs, JoinedRows.subject(rs, identityMap), identityMap));
+            }
+            return out;
+        } catch (SQLException e) {
+            throw new DataAccessException(DEV_ERR_FIND_ALL, e);
+        }
+    }
 
-            List<RowQ> rows = new ArrayList<>();
-            Set<Integer> subjectIds = new HashSet<>();
+    @Override
+    public List<QuestionLightDTO> findAllLight() {
+        List<QuestionLightDTO> out = new ArrayList<>();
+        try (ResultSet rs = statements.prepare(SQL_FIND_ALL_LIGHT).executeQuery()) {
             while (rs.next()) {
-                int sid = rs.getInt("subject_id");
-                rows.add(new RowQ(
+                out.add(new QuestionLightDTO(
                     rs.getInt("id"),
                     rs.getString("title"),
-                    rs.getString("content"),
-                    sid
+                    rs.getInt("subject_id")
                 ));
-                subjectIds.add(sid);
             }
+            return out;
+        } catch (SQLException e) {
+            throw new DataAccessException(DEV_ERR_FIND_ALL_LIGHT, e);
+        }
+    }
 
-            Map<Integer, Subject> subjById = loadSubjectsByIds(subjectIds);
+    @Override
+    public Stream<Question> streamAll() {
+        return stream(SQL_FIND_ALL, false, DEV_ERR_STREAM_ALL);
+    }
 
-            List<Question> out = new ArrayList<>(rows.size());
-            for (RowQ r : rows) {
-                Subject s = subjById.get(r.subjectId);
-                if (s == null) {
-                    throw new DataAccessException(
-                        String.format(DEV_ERR_SUBJECT_MISSING_FOR_QUESTION, r.subjectId, r.id)
-                    );
+    @Override
+    public Stream<Question> streamAllWithAnswers() {
+        return stream(SQL_FIND_ALL_WITH_ANSWERS, true, DEV_ERR_STREAM_ALL_WITH_ANSWERS);
+    }
+
+    private Stream<Question> stream(String sql, boolean withAnswers, String errorMessage) {
+        PreparedStatement ps = null;
+        ResultSet rs;
+        try {
+            ps = statements.prepareUncached(sql, fetchSize);
+            rs = ps.executeQuery();
+        } catch (SQLException e) {
+            if (ps != null) statements.release(ps);
+            throw new DataAccessException(errorMessage, e);
+        }
+        final PreparedStatement cursorStatement = ps;
+        return StreamSupport.stream(new QuestionCursor(rs, withAnswers, errorMessage), false)
+            .onClose(() -> {
+                try { rs.close(); } catch (SQLException ignored) {}
+                statements.release(cursorStatement);
+            });
+    }
+
+    @Override
+    public Page<Question> findAllAfter(int afterId, int limit) {
+        Page.checkRequest(afterId, limit);
+        List<Question> out = new ArrayList<>();
+        try {
+            PreparedStatement ps = statements.prepare(SQL_FIND_ALL_AFTER);
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    requireSubject(rs);
+                    out.add(JoinedRows.question(rs, JoinedRows.subject(rs, identityMap), identityMap));
                 }
-                out.add(new Question(r.id, r.title, r.content, s));
             }
-            return out;
+            return Page.of(out, limit, afterId, Question::getQuestionId);
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format(DEV_ERR_FIND_ALL_AFTER, afterId, limit), e);
+        }
+    }
 
+    @Override
+    public Page<QuestionLightDTO> findAllLightAfter(int afterId, int limit) {
+        Page.checkRequest(afterId, limit);
+        try {
+            PreparedStatement ps = statements.prepare(SQL_FIND_ALL_LIGHT_AFTER);
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit + 1);
+            return Page.of(readLight(ps), limit, afterId, QuestionLightDTO::getQuestionId);
         } catch (SQLException e) {
-            throw new DataAccessException(DEV_ERR_FIND_ALL, e);
+            throw new DataAccessException(String.format(DEV_ERR_FIND_ALL_LIGHT_AFTER, afterId, limit), e);
         }
     }
 
@@ -121,17 +269,17 @@ public class JdbcQuestionDAO implements QuestionDAO {
         try {
             Subject s = loadSubjectById(subjectId); // throws if subject not found
             List<Question> out = new ArrayList<>();
-            try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_SUBJECT_ID)) {
-                ps.setInt(1, subjectId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        out.add(new Question(
-                            rs.getInt("id"),
-                            rs.getString("title"),
-                            rs.getString("content"),
-                            s
-                        ));
-                    }
+            PreparedStatement ps = statements.prepare(SQL_FIND_BY_SUBJECT_ID);
+            ps.setInt(1, subjectId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(register(
+                        rs.getInt("id"),
+                        rs.getString("title"),
+                        rs.getString("content"),
+                        rs.getInt("version"),
+                        s
+                    ));
                 }
             }
             return out;
@@ -140,21 +288,76 @@ public class JdbcQuestionDAO implements QuestionDAO {
         }
     }
     
+    @Override
+    public Page<Question> findBySubjectIdAfter(int subjectId, int afterId, int limit) {
+        Page.checkRequest(afterId, limit);
+        try {
+            Subject s = loadSubjectById(subjectId); // throws if subject not found
+            List<Question> out = new ArrayList<>();
+            PreparedStatement ps = statements.prepare(SQL_FIND_BY_SUBJECT_ID_AFTER);
+            ps.setInt(1, subjectId);
+            ps.setInt(2, afterId);
+            ps.setInt(3, limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(register(
+                        rs.getInt("id"),
+                        rs.getString("title"),
+                        rs.getString("content"),
+                        rs.getInt("version"),
+                        s
+                    ));
+                }
+            }
+            return Page.of(out, limit, afterId, Question::getQuestionId);
+        } catch (SQLException e) {
+            throw new DataAccessException(
+                String.format(DEV_ERR_FIND_BY_SUBJECT_ID_AFTER, subjectId, afterId, limit), e);
+        }
+    }
+
+    @Override
+    public Page<QuestionLightDTO> findLightBySubjectIdAfter(int subjectId, int afterId, int limit) {
+        Page.checkRequest(afterId, limit);
+        try {
+            PreparedStatement ps = statements.prepare(SQL_FIND_LIGHT_BY_SUBJECT_ID_AFTER);
+            ps.setInt(1, subjectId);
+            ps.setInt(2, afterId);
+            ps.setInt(3, limit + 1);
+            return Page.of(readLight(ps), limit, afterId, QuestionLightDTO::getQuestionId);
+        } catch (SQLException e) {
+            throw new DataAccessException(
+                String.format(DEV_ERR_FIND_LIGHT_BY_SUBJECT_ID_AFTER, subjectId, afterId, limit), e);
+        }
+    }
+
+    private static List<QuestionLightDTO> readLight(PreparedStatement ps) throws SQLException {
+        List<QuestionLightDTO> out = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                out.add(new QuestionLightDTO(rs.getInt("id"), rs.getString("title"), rs.getInt("subject_id")));
+            }
+        }
+        return out;
+    }
+
     @Override
     public List<Question> findBySubject(Subject parent) {
         if (parent == null || parent.getSubjectId() <= 0)
             throw new IllegalArgumentException("Parent Subject must be persisted");
 
-        final String sql = "SELECT id, title, content FROM questions WHERE subject_id = ? ORDER BY id";
+        final String sql = "SELECT id, title, content, version FROM questions WHERE subject_id = ? ORDER BY id";
         List<Question> out = new ArrayList<>();
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try {
+            PreparedStatement ps = statements.prepare(sql);
             ps.setInt(1, parent.getSubjectId());
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    out.add(new Question(
+                    out.add(register(
                         rs.getInt("id"),
                         rs.getString("title"),
                         rs.getString("content"),
+                        rs.getInt("version"),
                         parent          // attach the SAME Subject instance
                     ));
                 }
@@ -165,16 +368,50 @@ public class JdbcQuestionDAO implements QuestionDAO {
         return out;
     }
 
+    @Override
+    public Map<Integer, Integer> countBySubject() {
+        Map<Integer, Integer> out = new HashMap<>();
+        try (ResultSet rs = statements.prepare(SQL_COUNT_BY_SUBJECT).executeQuery()) {
+            while (rs.next()) {
+                out.put(rs.getInt("subject_id"), rs.getInt("question_count"));
+            }
+            return out;
+        } catch (SQLException e) {
+            throw new DataAccessException(DEV_ERR_COUNT_BY_SUBJECT, e);
+        }
+    }
+
+    @Override
+    public OptionalInt findIdBySubjectIdAfter(int subjectId, int afterId, int offset) {
+        if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
+        try {
+            PreparedStatement ps = statements.prepare(SQL_FIND_ID_BY_SUBJECT_ID_AFTER);
+            ps.setInt(1, subjectId);
+            ps.setInt(2, afterId);
+            ps.setInt(3, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? OptionalInt.of(rs.getInt("id")) : OptionalInt.empty();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(
+                String.format(DEV_ERR_FIND_ID_BY_SUBJECT_ID_AFTER, subjectId, afterId, offset), e);
+        }
+    }
+
     @Override
     public int insert(Question q) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, q.getQuestionTitle());
-            ps.setString(2, q.getQuestionContent());
-            ps.setInt(3, q.getSubject().getSubjectId());
+        try {
+            PreparedStatement ps = statements.prepareReturningKeys(SQL_INSERT);
+            bindInsert(ps, q);
             int n = ps.executeUpdate();
             if (n != 1) throw new DataAccessException(String.format(DEV_ERR_INSERT_AFFECTED_ROWS, n));
             try (ResultSet keys = ps.getGeneratedKeys()) {
-                if (keys.next()) return keys.getInt(1);
+                if (keys.next()) {
+                    int id = keys.getInt(1);
+                    cache.invalidate(Region.QUESTION, id);
+                    q.markClean();
+                    return id;
+                }
             }
             throw new DataAccessException(DEV_ERR_INSERT_NO_KEY);
         } catch (SQLException e) {
@@ -182,24 +419,106 @@ public class JdbcQuestionDAO implements QuestionDAO {
         }
     }
 
+    @Override
+    public int[] insertAll(Collection<Question> questions) {
+        try {
+            int[] keys = JdbcBatch.insertAll(statements.prepareReturningKeys(SQL_INSERT),
+                statements.supportsBatchUpdates(), questions, batchSize,
+                this::bindInsert, Question::setQuestionId);
+            for (Question q : questions) {
+                q.markClean();
+                cache.invalidate(Region.QUESTION, q.getQuestionId());
+                identityMap.put(Question.class, q.getQuestionId(), q);
+            }
+            return keys;
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format(DEV_ERR_INSERT_ALL_FAILED, questions.size()), e);
+        }
+    }
+
     @Override
     public boolean update(Question q) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
-            ps.setString(1, q.getQuestionTitle());
-            ps.setString(2, q.getQuestionContent());
-            ps.setInt(3, q.getSubject().getSubjectId());
-            ps.setInt(4, q.getQuestionId());
-            return ps.executeUpdate() == 1;
+        if (!q.isDirty()) return true;
+        try {
+            PreparedStatement ps = statements.prepare(SQL_UPDATE_FIELDS[q.getDirtyFields()]);
+            bindUpdate(ps, q);
+            int updated = ps.executeUpdate();
+            cache.invalidate(Region.QUESTION, q.getQuestionId());
+            if (updated != 1) {
+                VersionCheck.requireMissing(statements, SQL_FIND_VERSION, "questions", q.getQuestionId(),
+                    q.getVersion());
+                identityMap.remove(Question.class, q.getQuestionId());
+                return false;
+            }
+            q.setVersion(q.getVersion() + 1);
+            q.markClean();
+            identityMap.put(Question.class, q.getQuestionId(), q);
+            return true;
         } catch (SQLException e) {
             throw new DataAccessException(String.format(DEV_ERR_UPDATE_FAILED, q.getQuestionId()), e);
         }
     }
 
+    @Override
+    public int updateAll(Collection<Question> questions) {
+        try {
+            List<Question> written = new ArrayList<>();
+            List<Question> missed = new ArrayList<>();
+            List<Question> unknown = new ArrayList<>();
+            boolean batching = statements.supportsBatchUpdates();
+            int updated = 0;
+            for (Map.Entry<Integer, List<Question>> group
+                    : DirtyColumns.byDirtyFields(questions, Question::getDirtyFields).entrySet()) {
+                updated += JdbcBatch.updateAll(statements.prepare(SQL_UPDATE_FIELDS[group.getKey()]),
+                    batching, group.getValue(), batchSize, this::bindUpdate, (q, n) -> {
+                        if (n == JdbcBatch.UNKNOWN) {
+                            unknown.add(q);
+                            return;
+                        }
+                        if (n != 1) {
+                            missed.add(q);
+                            return;
+                        }
+                        q.setVersion(q.getVersion() + 1);
+                        q.markClean();
+                        written.add(q);
+                    });
+                for (Question q : group.getValue()) cache.invalidate(Region.QUESTION, q.getQuestionId());
+            }
+            for (Question q : unknown) {
+                // The driver did not say whether the row matched; its version does.
+                if (VersionCheck.wasUpdated(statements, SQL_FIND_VERSION, "questions", q.getQuestionId(),
+                        q.getVersion())) {
+                    q.setVersion(q.getVersion() + 1);
+                    q.markClean();
+                    written.add(q);
+                    updated++;
+                } else {
+                    identityMap.remove(Question.class, q.getQuestionId());
+                }
+            }
+            for (Question q : missed) {
+                VersionCheck.requireMissing(statements, SQL_FIND_VERSION, "questions", q.getQuestionId(),
+                    q.getVersion());
+                // the row is gone; a later findById must not return the entity
+                identityMap.remove(Question.class, q.getQuestionId());
+            }
+            for (Question q : written) identityMap.put(Question.class, q.getQuestionId(), q);
+            return updated;
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format(DEV_ERR_UPDATE_ALL_FAILED, questions.size()), e);
+        }
+    }
+
     @Override
     public boolean delete(int id) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
+        try {
+            PreparedStatement ps = statements.prepare(SQL_DELETE);
             ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+            int deleted = ps.executeUpdate();
+            cache.invalidate(Region.QUESTION, id);
+            identityMap.remove(Question.class, id);
+            return deleted > 0;
         } catch (SQLException e) {
             throw new DataAccessException(String.format(DEV_ERR_DELETE_FAILED, id), e);
         }
@@ -207,54 +526,148 @@ public class JdbcQuestionDAO implements QuestionDAO {
 
     @Override
     public int deleteBySubjectId(int subjectId) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_BY_SUBJECT_ID)) {
+        try {
+            PreparedStatement ps = statements.prepare(SQL_DELETE_BY_SUBJECT_ID);
             ps.setInt(1, subjectId);
-            return ps.executeUpdate();
+            int deleted = ps.executeUpdate();
+            cache.invalidateIf(Region.QUESTION, QuestionRow.class, r -> r.subjectId == subjectId);
+            identityMap.removeIf(Question.class, q -> q.getSubject().getSubjectId() == subjectId);
+            return deleted;
         } catch (SQLException e) {
             throw new DataAccessException(String.format(DEV_ERR_DELETE_BY_SUBJECT_FAILED, subjectId), e);
         }
     }
 
-    private Subject loadSubjectById(int subjectId) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_LOAD_SUBJECT_BY_ID)) {
+    @Override
+    public int deleteBySubjectIdUpTo(int subjectId, int upToId) {
+        try {
+            PreparedStatement ps = statements.prepare(SQL_DELETE_BY_SUBJECT_ID_UP_TO);
             ps.setInt(1, subjectId);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) {
-                    throw new DataAccessException(String.format(DEV_ERR_SUBJECT_NOT_FOUND, subjectId));
-                }
-                return new Subject(
-                    rs.getInt("id"),
-                    rs.getString("title"),
-                    rs.getString("info")
-                );
+            ps.setInt(2, upToId);
+            int deleted = ps.executeUpdate();
+            cache.invalidateIf(Region.QUESTION, QuestionRow.class, r -> r.subjectId == subjectId && r.id <= upToId);
+            identityMap.removeIf(Question.class,
+                q -> q.getSubject().getSubjectId() == subjectId && q.getQuestionId() <= upToId);
+            return deleted;
+        } catch (SQLException e) {
+            throw new DataAccessException(
+                String.format(DEV_ERR_DELETE_BY_SUBJECT_UP_TO_FAILED, subjectId, upToId), e);
+        }
+    }
+
+    private void bindInsert(PreparedStatement ps, Question q) throws SQLException {
+        ps.setString(1, q.getQuestionTitle());
+        ps.setString(2, q.getQuestionContent());
+        ps.setInt(3, q.getSubject().getSubjectId());
+    }
+
+    /** Binds the dirty columns in the order of {@link #SQL_UPDATE_FIELDS}, then ID and version. */
+    private void bindUpdate(PreparedStatement ps, Question q) throws SQLException {
+        int fields = q.getDirtyFields();
+        int i = 1;
+        if ((fields & Question.FIELD_TITLE) != 0) ps.setString(i++, q.getQuestionTitle());
+        if ((fields & Question.FIELD_CONTENT) != 0) ps.setString(i++, q.getQuestionContent());
+        if ((fields & Question.FIELD_SUBJECT) != 0) ps.setInt(i++, q.getSubject().getSubjectId());
+        ps.setInt(i++, q.getQuestionId());
+        ps.setInt(i, q.getVersion());
+    }
+
+    /** @return the question already known to this unit-of-work, else a new registered one */
+    private Question register(int id, String title, String content, int version, Subject subject) {
+        Question known = identityMap.get(Question.class, id);
+        if (known != null) return known;
+        Question q = new Question(id, title, content, subject);
+        q.setVersion(version);
+        q.markClean();
+        return identityMap.register(Question.class, id, q);
+    }
+
+    private Subject loadSubjectById(int subjectId) throws SQLException {
+        Subject known = cache.findSubject(subjectId);
+        if (known != null) return known;
+        long stamp = cache.stamp();
+        PreparedStatement ps = statements.prepare(SQL_LOAD_SUBJECT_BY_ID);
+        ps.setInt(1, subjectId);
+        try (ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) {
+                throw new DataAccessException(String.format(DEV_ERR_SUBJECT_NOT_FOUND, subjectId));
             }
+            SubjectRow row = new SubjectRow(rs.getInt("id"), rs.getString("title"), rs.getString("info"),
+                rs.getInt("version"));
+            cache.putSubject(row, stamp);
+            return identityMap.register(Subject.class, subjectId, row.toSubject());
         }
     }
 
-    private Map<Integer, Subject> loadSubjectsByIds(Set<Integer> ids) throws SQLException {
-        Map<Integer, Subject> out = new HashMap<>();
-        if (ids == null || ids.isEmpty()) return out;
+    private void requireSubject(ResultSet rs) throws SQLException {
+        if (JoinedRows.subjectMissing(rs)) {
+            throw new DataAccessException(String.format(DEV_ERR_SUBJECT_MISSING_FOR_QUESTION,
+                rs.getInt("q_subject_id"), rs.getInt("q_id")));
+        }
+    }
 
-        final String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
-        final String sql = "SELECT id, title, info FROM subjects WHERE id IN (" + placeholders + ")";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            int i = 1;
-            for (Integer id : ids) ps.setInt(i++, id);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    int id = rs.getInt("id");
-                    out.put(id, new Subject(id, rs.getString("title"), rs.getString("info")));
+    /**
+     * Walks the streaming result set one question per {@code tryAdvance}. Questions are not
+     * registered in the identity map, which would grow with the stream; their subjects are
+     * shared through a small LRU instead, so memory stays bounded by the fetch size.
+     * <p>With answers, the rows of one question are consecutive (ORDER BY q.id); the cursor
+     * folds them into a fresh aggregate and stops on the first row of the next question,
+     * which the following {@code tryAdvance} picks up.</p>
+     */
+    private final class QuestionCursor extends Spliterators.AbstractSpliterator<Question> {
+        private final ResultSet rs;
+        private final boolean withAnswers;
+        private final String errorMessage;
+        private final Map<Integer, Subject> subjects;
+        private boolean onRow;
+
+        QuestionCursor(ResultSet rs, boolean withAnswers, String errorMessage) {
+            super(Long.MAX_VALUE, ORDERED | NONNULL);
+            this.rs = rs;
+            this.withAnswers = withAnswers;
+            this.errorMessage = errorMessage;
+            this.subjects = new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Subject> eldest) {
+                    return size() > streamSubjectCacheSize;
                 }
+            };
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Question> action) {
+            try {
+                if (!onRow && !rs.next()) return false;
+                onRow = false;
+                requireSubject(rs);
+                if (!withAnswers) {
+                    Question known = identityMap.get(Question.class, rs.getInt("q_id"));
+                    action.accept(known != null ? known : JoinedRows.questionRow(rs).toQuestion(subject()));
+                    return true;
+                }
+                Question q = JoinedRows.questionRow(rs).toQuestion(subject());
+                do {
+                    if (!JoinedRows.answerMissing(rs)) q.getAnswersList().add(JoinedRows.answerRow(rs).toAnswer(q));
+                    onRow = rs.next();
+                } while (onRow && rs.getInt("q_id") == q.getQuestionId());
+                action.accept(q);
+                return true;
+            } catch (SQLException e) {
+                throw new DataAccessException(errorMessage, e);
             }
         }
-        return out;
-    }
 
-    // Temporarily holds a question’s row data (before building the final Question with a Subject)
-    private static final class RowQ {
-        final int id; final String title; final String content; final int subjectId;
-        RowQ(int id, String title, String content, int subjectId) {
-            this.id = id; this.title = title; this.content = content; this.subjectId = subjectId;
+        private Subject subject() throws SQLException {
+            int id = rs.getInt("s_id");
+            Subject s = identityMap.get(Subject.class, id);
+            if (s == null) s = subjects.get(id);
+            if (s == null) {
+                s = JoinedRows.subjectRow(rs).toSubject();
+                subjects.put(id, s);
+            }
+            return s;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package dao.jdbc;
+
+/**
+ * Tuning settings shared by all {@link JdbcDAOFactory} instances opened through one
+ * {@link JdbcDAOFactoryProvider}.
+ * <p>Configure once at startup, before the provider hands out factories.</p>
+ */
+public class JdbcSettings {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_FETCH_SIZE = 500;
+    public static final int DEFAULT_STREAM_SUBJECT_CACHE_SIZE = 256;
+
+    private int statementCacheSize = StatementCache.DEFAULT_MAX_SIZE;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int streamSubjectCacheSize = DEFAULT_STREAM_SUBJECT_CACHE_SIZE;
+    private SecondLevelCache secondLevelCache;
+    private SlowQueryLog slowQueryLog;
+
+    /**
+     * @return the maximum number of PreparedStatements kept open per pooled connection, or per
+     *         unit-of-work on a Connection that is not pooled
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * @param statementCacheSize the maximum number of PreparedStatements kept open per pooled
+     *                           connection, or per unit-of-work on a Connection that is not pooled
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        if (statementCacheSize <= 0) throw new IllegalArgumentException("statementCacheSize must be positive");
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * @return the number of rows sent per executeBatch() by the insertAll/updateAll methods
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize the number of rows sent per executeBatch() by the insertAll/updateAll methods,
+     *                  and the IDs per DELETE of deleteAll
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the number of rows fetched per round trip by streaming queries
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * @param fetchSize the number of rows fetched per round trip by streaming queries
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) throw new IllegalArgumentException("fetchSize must be positive");
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @return the maximum number of subjects a streaming query keeps for sharing between its rows
+     */
+    public int getStreamSubjectCacheSize() {
+        return streamSubjectCacheSize;
+    }
+
+    /**
+     * @param streamSubjectCacheSize the maximum number of subjects a streaming query keeps for
+     *                               sharing between its rows
+     */
+    public void setStreamSubjectCacheSize(int streamSubjectCacheSize) {
+        if (streamSubjectCacheSize <= 0) throw new IllegalArgumentException("streamSubjectCacheSize must be positive");
+        this.streamSubjectCacheSize = streamSubjectCacheSize;
+    }
+
+    /**
+     * @return the cache shared by all factories of the provider, or null if disabled (the default)
+     */
+    public SecondLevelCache getSecondLevelCache() {
+        return secondLevelCache;
+    }
+
+    /**
+     * @param secondLevelCache the cache shared by all factories of the provider, or null to disable it
+     */
+    public void setSecondLevelCache(SecondLevelCache secondLevelCache) {
+        this.secondLevelCache = secondLevelCache;
+    }
+
+    /**
+     * @return the log slow statements are written to, or null if disabled (the default)
+     */
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    /**
+     * @param slowQueryLog the log slow statements are written to, or null to disable it;
+     *                     only factories opened afterwards use it
+     */
+    public void setSlowQueryLog(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+}
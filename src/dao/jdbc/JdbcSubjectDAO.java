@@ -1,37 +1,70 @@
 package dao.jdbc;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import dao.DataAccessException;
+import dao.FetchPlan;
+import dao.Page;
 import dao.SubjectDAO;
+import dao.jdbc.SecondLevelCache.Region;
+import dao.rows.SubjectRow;
+import domain.Answer;
+import domain.Question;
 import domain.Subject;
+import dto.SubjectLightDTO;
 
 public class JdbcSubjectDAO implements SubjectDAO {
 
-   
+
     private static final String SQL_FIND_BY_ID =
-        "SELECT id, title, info FROM subjects WHERE id = ?";
+        "SELECT id, title, info, version FROM subjects WHERE id = ?";
     private static final String SQL_FIND_ALL =
-        "SELECT id, title, info FROM subjects ORDER BY id";
+        "SELECT id, title, info, version FROM subjects ORDER BY id";
+    private static final String SQL_FIND_ALL_LIGHT =
+        "SELECT id, title FROM subjects ORDER BY id";
+    private static final String SQL_FIND_ALL_AFTER =
+        "SELECT id, title, info, version FROM subjects WHERE id > ? ORDER BY id LIMIT ?";
     private static final String SQL_INSERT =
         "INSERT INTO subjects (title, info) VALUES (?, ?)";
-    private static final String SQL_UPDATE =
-        "UPDATE subjects SET title = ?, info = ? WHERE id = ?";
+    // Optimistic locking: only the version that was read may be overwritten. Indexed by
+    // Subject.getDirtyFields(), so only the changed columns are written.
+    private static final String[] SQL_UPDATE_FIELDS =
+        DirtyColumns.updates("subjects", "title", "info");
+    private static final String SQL_FIND_VERSION =
+        "SELECT version FROM subjects WHERE id = ?";
     private static final String SQL_DELETE =
         "DELETE FROM subjects WHERE id = ?";
 
+    // Aggregate loading: one query per FetchPlan level
+    private static final String SQL_QUESTIONS_OF_SUBJECT =
+        "SELECT id, title, content, subject_id, version FROM questions WHERE subject_id = ? ORDER BY id";
+    private static final String SQL_ANSWERS_OF_SUBJECT =
+        "SELECT a.id, a.content, a.valid, a.question_id, a.version FROM answers a"
+            + " JOIN questions q ON q.id = a.question_id"
+            + " WHERE q.subject_id = ? ORDER BY a.id";
+    private static final String SQL_ALL_QUESTIONS =
+        "SELECT id, title, content, subject_id, version FROM questions ORDER BY id";
+    private static final String SQL_ALL_ANSWERS =
+        "SELECT id, content, valid, question_id, version FROM answers ORDER BY id";
+
 
     private static final String ERR_FIND_BY_ID =
         "Suchen des Themas mit id=%d fehlgeschlagen";
     private static final String ERR_FIND_ALL =
         "Laden aller Themen fehlgeschlagen";
+    private static final String ERR_FIND_ALL_LIGHT =
+        "Laden der Themenübersicht fehlgeschlagen";
+    private static final String ERR_FIND_ALL_AFTER =
+        "Laden der Themen nach id=%d (max. %d) fehlgeschlagen";
+    private static final String ERR_LOAD_AGGREGATE =
+        "Laden der Fragen und Antworten für %d Themen fehlgeschlagen";
     private static final String ERR_INSERT_ROWS =
         "Einfügen des Themas betraf %d Zeilen";
     private static final String ERR_INSERT_NO_KEY =
@@ -43,19 +76,29 @@ public class JdbcSubjectDAO implements SubjectDAO {
     private static final String ERR_DELETE =
         "Löschen des Themas mit id=%d fehlgeschlagen";
 
-    private final Connection conn;
+    // Statements are owned by the factory's cache: close ResultSets, never the statements.
+    private final StatementCache statements;
+    private final IdentityMap identityMap;
+    private final CacheSession cache;
 
-    public JdbcSubjectDAO(Connection conn) {
-        this.conn = conn;
+    public JdbcSubjectDAO(StatementCache statements, IdentityMap identityMap, CacheSession cache) {
+        this.statements = statements;
+        this.identityMap = identityMap;
+        this.cache = cache;
     }
 
     @Override
     public Optional<Subject> findById(int id) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_BY_ID)) {
+        Subject known = cache.findSubject(id);
+        if (known != null) return Optional.of(known);
+        try {
+            long stamp = cache.stamp();
+            PreparedStatement ps = statements.prepare(SQL_FIND_BY_ID);
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return Optional.of(mapRow(rs));
-                return Optional.empty();
+                if (!rs.next()) return Optional.empty();
+                cache.putSubject(readRow(rs), stamp);
+                return Optional.of(mapRow(rs));
             }
         } catch (SQLException e) {
             throw new DataAccessException(String.format(ERR_FIND_BY_ID, id), e);
@@ -65,24 +108,96 @@ public class JdbcSubjectDAO implements SubjectDAO {
     @Override
     public List<Subject> findAll() {
         List<Subject> list = new ArrayList<>();
-        try (PreparedStatement ps = conn.prepareStatement(SQL_FIND_ALL);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) list.add(mapRow(rs));
+        long stamp = cache.stamp();
+        try (ResultSet rs = statements.prepare(SQL_FIND_ALL).executeQuery()) {
+            while (rs.next()) {
+                cache.putSubject(readRow(rs), stamp);
+                list.add(mapRow(rs));
+            }
             return list;
         } catch (SQLException e) {
             throw new DataAccessException(ERR_FIND_ALL, e);
         }
     }
 
+    @Override
+    public List<SubjectLightDTO> findAllLight() {
+        List<SubjectLightDTO> list = new ArrayList<>();
+        try (ResultSet rs = statements.prepare(SQL_FIND_ALL_LIGHT).executeQuery()) {
+            while (rs.next()) list.add(new SubjectLightDTO(rs.getInt("id"), rs.getString("title")));
+            return list;
+        } catch (SQLException e) {
+            throw new DataAccessException(ERR_FIND_ALL_LIGHT, e);
+        }
+    }
+
+    @Override
+    public Page<Subject> findAllAfter(int afterId, int limit) {
+        Page.checkRequest(afterId, limit);
+        List<Subject> list = new ArrayList<>();
+        try {
+            long stamp = cache.stamp();
+            PreparedStatement ps = statements.prepare(SQL_FIND_ALL_AFTER);
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit + 1);   // one extra row tells whether another page follows
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    cache.putSubject(readRow(rs), stamp);
+                    list.add(mapRow(rs));
+                }
+            }
+            return Page.of(list, limit, afterId, Subject::getSubjectId);
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format(ERR_FIND_ALL_AFTER, afterId, limit), e);
+        }
+    }
+
+    @Override
+    public Optional<Subject> findById(int id, FetchPlan plan) {
+        Optional<Subject> found = findById(id);
+        if (found.isEmpty() || !plan.includes(FetchPlan.QUESTIONS)) return found;
+
+        Map<Integer, Subject> byId = Map.of(id, found.get());
+        try {
+            Map<Integer, Question> questions = attachQuestions(SQL_QUESTIONS_OF_SUBJECT, id, byId);
+            if (plan.includes(FetchPlan.ANSWERS)) attachAnswers(SQL_ANSWERS_OF_SUBJECT, id, questions);
+            return found;
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format(ERR_LOAD_AGGREGATE, 1), e);
+        }
+    }
+
+    @Override
+    public List<Subject> findAll(FetchPlan plan) {
+        List<Subject> subjects = findAll();
+        if (subjects.isEmpty() || !plan.includes(FetchPlan.QUESTIONS)) return subjects;
+
+        Map<Integer, Subject> byId = new HashMap<>();
+        for (Subject s : subjects) byId.put(s.getSubjectId(), s);
+        try {
+            Map<Integer, Question> questions = attachQuestions(SQL_ALL_QUESTIONS, null, byId);
+            if (plan.includes(FetchPlan.ANSWERS)) attachAnswers(SQL_ALL_ANSWERS, null, questions);
+            return subjects;
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format(ERR_LOAD_AGGREGATE, subjects.size()), e);
+        }
+    }
+
     @Override
     public int insert(Subject subject) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+        try {
+            PreparedStatement ps = statements.prepareReturningKeys(SQL_INSERT);
             ps.setString(1, subject.getSubjectTitle());
             ps.setString(2, subject.getSubjectInfo());
             int updated = ps.executeUpdate();
             if (updated != 1) throw new DataAccessException(String.format(ERR_INSERT_ROWS, updated));
             try (ResultSet keys = ps.getGeneratedKeys()) {
-                if (keys.next()) return keys.getInt(1);
+                if (keys.next()) {
+                    int id = keys.getInt(1);
+                    cache.invalidate(Region.SUBJECT, id);
+                    subject.markClean();
+                    return id;
+                }
             }
             throw new DataAccessException(ERR_INSERT_NO_KEY);
         } catch (SQLException e) {
@@ -92,11 +207,27 @@ public class JdbcSubjectDAO implements SubjectDAO {
 
     @Override
     public boolean update(Subject subject) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
-            ps.setString(1, subject.getSubjectTitle());
-            ps.setString(2, subject.getSubjectInfo());
-            ps.setInt(3, subject.getSubjectId());
-            return ps.executeUpdate() == 1;
+        if (!subject.isDirty()) return true;
+        try {
+            int fields = subject.getDirtyFields();
+            PreparedStatement ps = statements.prepare(SQL_UPDATE_FIELDS[fields]);
+            int i = 1;
+            if ((fields & Subject.FIELD_TITLE) != 0) ps.setString(i++, subject.getSubjectTitle());
+            if ((fields & Subject.FIELD_INFO) != 0) ps.setString(i++, subject.getSubjectInfo());
+            ps.setInt(i++, subject.getSubjectId());
+            ps.setInt(i, subject.getVersion());
+            int updated = ps.executeUpdate();
+            cache.invalidate(Region.SUBJECT, subject.getSubjectId());
+            if (updated != 1) {
+                VersionCheck.requireMissing(statements, SQL_FIND_VERSION, "subjects", subject.getSubjectId(),
+                    subject.getVersion());
+                identityMap.remove(Subject.class, subject.getSubjectId());
+                return false;
+            }
+            subject.setVersion(subject.getVersion() + 1);
+            subject.markClean();
+            identityMap.put(Subject.class, subject.getSubjectId(), subject);
+            return true;
         } catch (SQLException e) {
             throw new DataAccessException(String.format(ERR_UPDATE, subject.getSubjectId()), e);
         }
@@ -104,19 +235,99 @@ public class JdbcSubjectDAO implements SubjectDAO {
 
     @Override
     public boolean delete(int id) {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
+        try {
+            PreparedStatement ps = statements.prepare(SQL_DELETE);
             ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+            int deleted = ps.executeUpdate();
+            cache.invalidate(Region.SUBJECT, id);
+            identityMap.remove(Subject.class, id);
+            return deleted > 0;
         } catch (SQLException e) {
             throw new DataAccessException(String.format(ERR_DELETE, id), e);
         }
     }
 
+    /**
+     * Runs one questions query and appends every row to its parent's questionsList.
+     * The lists are rebuilt, as the subjects may come from the identity map with
+     * questions already attached.
+     *
+     * @param subjectId bound as the only parameter, or null for a parameterless query
+     * @return the loaded questions by ID, for attaching answers
+     */
+    private Map<Integer, Question> attachQuestions(String sql, Integer subjectId,
+                                                   Map<Integer, Subject> subjects) throws SQLException {
+        Map<Integer, Question> out = new HashMap<>();
+        for (Subject s : subjects.values()) s.setQuestionsList(new ArrayList<>());
+        PreparedStatement ps = statements.prepare(sql);
+        if (subjectId != null) ps.setInt(1, subjectId);
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Subject parent = subjects.get(rs.getInt("subject_id"));
+                if (parent == null) continue;
+                int id = rs.getInt("id");
+                Question q = identityMap.get(Question.class, id);
+                if (q == null) {
+                    q = new Question(
+                        id,
+                        rs.getString("title"),
+                        rs.getString("content"),
+                        parent          // attach the SAME Subject instance
+                    );
+                    q.setVersion(rs.getInt("version"));
+                    q.markClean();
+                    q = identityMap.register(Question.class, id, q);
+                }
+                parent.getQuestionsList().add(q);
+                out.put(id, q);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Runs one answers query and appends every row to its parent's answersList,
+     * rebuilding the lists like {@link #attachQuestions}.
+     *
+     * @param subjectId bound as the only parameter, or null for a parameterless query
+     */
+    private void attachAnswers(String sql, Integer subjectId, Map<Integer, Question> questions) throws SQLException {
+        if (questions.isEmpty()) return;
+        for (Question q : questions.values()) q.setAnswersList(new ArrayList<>());
+        PreparedStatement ps = statements.prepare(sql);
+        if (subjectId != null) ps.setInt(1, subjectId);
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Question parent = questions.get(rs.getInt("question_id"));
+                if (parent == null) continue;
+                int id = rs.getInt("id");
+                Answer a = identityMap.get(Answer.class, id);
+                if (a == null) {
+                    a = new Answer(
+                        id,
+                        rs.getString("content"),
+                        rs.getBoolean("valid"),
+                        parent          // attach the SAME Question instance
+                    );
+                    a.setVersion(rs.getInt("version"));
+                    a.markClean();
+                    a = identityMap.register(Answer.class, id, a);
+                }
+                parent.getAnswersList().add(a);
+            }
+        }
+    }
+
+    private SubjectRow readRow(ResultSet rs) throws SQLException {
+        return new SubjectRow(rs.getInt("id"), rs.getString("title"), rs.getString("info"),
+            rs.getInt("version"));
+    }
+
+    /** @return the subject already known to this unit-of-work, else the row as a new registered one */
     private Subject mapRow(ResultSet rs) throws SQLException {
-        return new Subject(
-            rs.getInt("id"),
-            rs.getString("title"),
-            rs.getString("info")
-        );
+        int id = rs.getInt("id");
+        Subject known = identityMap.get(Subject.class, id);
+        if (known != null) return known;
+        return identityMap.register(Subject.class, id, readRow(rs).toSubject());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package dao.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import dao.rows.AnswerRow;
+import dao.rows.QuestionRow;
+import dao.rows.SubjectRow;
+import domain.Answer;
+import domain.Question;
+import domain.Subject;
+
+/**
+ * Column lists and row mappers for queries that JOIN subjects, questions and answers.
+ * <p>Every joined column is aliased with a table prefix ({@code s_}, {@code q_},
+ * {@code a_}) so one result set row can carry a whole
+ * Answer → Question → Subject path without name clashes.</p>
+ * <p>The mappers resolve through the unit-of-work's {@link IdentityMap}: an entity that
+ * is already known is returned as is, otherwise the row is materialised and registered.</p>
+ */
+final class JoinedRows {
+
+    static final String SUBJECT_COLUMNS =
+        "s.id AS s_id, s.title AS s_title, s.info AS s_info, s.version AS s_version";
+    static final String QUESTION_COLUMNS =
+        "q.id AS q_id, q.title AS q_title, q.content AS q_content, q.subject_id AS q_subject_id,"
+            + " q.version AS q_version";
+    static final String ANSWER_COLUMNS =
+        "a.id AS a_id, a.content AS a_content, a.valid AS a_valid, a.question_id AS a_question_id,"
+            + " a.version AS a_version";
+
+    private JoinedRows() {}
+
+    /** @return true if the LEFT JOINed subject columns of the current row are null */
+    static boolean subjectMissing(ResultSet rs) throws SQLException {
+        rs.getInt("s_id");
+        return rs.wasNull();
+    }
+
+    /** @return true if the LEFT JOINed question columns of the current row are null */
+    static boolean questionMissing(ResultSet rs) throws SQLException {
+        rs.getInt("q_id");
+        return rs.wasNull();
+    }
+
+    /** @return true if the LEFT JOINed answer columns of the current row are null */
+    static boolean answerMissing(ResultSet rs) throws SQLException {
+        rs.getInt("a_id");
+        return rs.wasNull();
+    }
+
+    /** @return the subject columns of the current row as a snapshot for the second-level cache */
+    static SubjectRow subjectRow(ResultSet rs) throws SQLException {
+        return new SubjectRow(rs.getInt("s_id"), rs.getString("s_title"), rs.getString("s_info"),
+            rs.getInt("s_version"));
+    }
+
+    /** @return the question columns of the current row as a snapshot for the second-level cache */
+    static QuestionRow questionRow(ResultSet rs) throws SQLException {
+        return new QuestionRow(rs.getInt("q_id"), rs.getString("q_title"), rs.getString("q_content"),
+            rs.getInt("q_subject_id"), rs.getInt("q_version"));
+    }
+
+    /** @return the answer columns of the current row as a snapshot for the second-level cache */
+    static AnswerRow answerRow(ResultSet rs) throws SQLException {
+        return new AnswerRow(rs.getInt("a_id"), rs.getString("a_content"), rs.getBoolean("a_valid"),
+            rs.getInt("a_question_id"), rs.getInt("a_version"));
+    }
+
+    static Subject subject(ResultSet rs, IdentityMap identityMap) throws SQLException {
+        int id = rs.getInt("s_id");
+        Subject known = identityMap.get(Subject.class, id);
+        if (known != null) return known;
+        Subject s = new Subject(id, rs.getString("s_title"), rs.getString("s_info"));
+        s.setVersion(rs.getInt("s_version"));
+        s.markClean();
+        return identityMap.register(Subject.class, id, s);
+    }
+
+    static Question question(ResultSet rs, Subject subject, IdentityMap identityMap) throws SQLException {
+        int id = rs.getInt("q_id");
+        Question known = identityMap.get(Question.class, id);
+        if (known != null) return known;
+        Question q = new Question(id, rs.getString("q_title"), rs.getString("q_content"), subject);
+        q.setVersion(rs.getInt("q_version"));
+        q.markClean();
+        return identityMap.register(Question.class, id, q);
+    }
+
+    static Answer answer(ResultSet rs, Question question, IdentityMap identityMap) throws SQLException {
+        int id = rs.getInt("a_id");
+        Answer known = identityMap.get(Answer.class, id);
+        if (known != null) return known;
+        Answer a = new Answer(id, rs.getString("a_content"), rs.getBoolean("a_valid"), question);
+        a.setVersion(rs.getInt("a_version"));
+        a.markClean();
+        return identityMap.register(Answer.class, id, a);
+    }
+}
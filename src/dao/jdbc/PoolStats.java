@@ -0,0 +1,111 @@
+package dao.jdbc;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable snapshot of a {@link PooledConnectionProvider}'s counters.
+ * <p>All counters are cumulative since the pool was created; connection counts
+ * reflect the moment the snapshot was taken.</p>
+ */
+public final class PoolStats {
+
+    private final int maxPoolSize;
+    private final int activeConnections;
+    private final int idleConnections;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long destroyedCount;
+    private final long validationFailureCount;
+    private final long totalBorrowWaitNanos;
+    private final long maxBorrowWaitNanos;
+    private final long totalUsageNanos;
+
+    PoolStats(int maxPoolSize, int activeConnections, int idleConnections, long borrowCount,
+              long timeoutCount, long createdCount, long destroyedCount, long validationFailureCount,
+              long totalBorrowWaitNanos, long maxBorrowWaitNanos, long totalUsageNanos) {
+        this.maxPoolSize = maxPoolSize;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.destroyedCount = destroyedCount;
+        this.validationFailureCount = validationFailureCount;
+        this.totalBorrowWaitNanos = totalBorrowWaitNanos;
+        this.maxBorrowWaitNanos = maxBorrowWaitNanos;
+        this.totalUsageNanos = totalUsageNanos;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /** @return connections currently borrowed */
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    /** @return connections currently parked in the pool */
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    /** @return borrows that gave up after the borrow timeout */
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    /** @return physical connections opened */
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    /** @return physical connections closed (expired, broken or failed validation) */
+    public long getDestroyedCount() {
+        return destroyedCount;
+    }
+
+    public long getValidationFailureCount() {
+        return validationFailureCount;
+    }
+
+    public long getTotalBorrowWaitNanos() {
+        return totalBorrowWaitNanos;
+    }
+
+    public long getMaxBorrowWaitNanos() {
+        return maxBorrowWaitNanos;
+    }
+
+    /** @return summed time between borrow and hand-back over all borrows */
+    public long getTotalUsageNanos() {
+        return totalUsageNanos;
+    }
+
+    public double getAverageBorrowWaitMillis() {
+        return borrowCount == 0 ? 0.0 : toMillis(totalBorrowWaitNanos) / borrowCount;
+    }
+
+    public double getAverageUsageMillis() {
+        return borrowCount == 0 ? 0.0 : toMillis(totalUsageNanos) / borrowCount;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "PoolStats[active=%d, idle=%d, max=%d, borrows=%d, timeouts=%d, created=%d, destroyed=%d, "
+                + "validationFailures=%d, avgWait=%.3fms, maxWait=%.3fms, avgUsage=%.3fms]",
+            activeConnections, idleConnections, maxPoolSize, borrowCount, timeoutCount, createdCount,
+            destroyedCount, validationFailureCount, getAverageBorrowWaitMillis(),
+            toMillis(maxBorrowWaitNanos), getAverageUsageMillis());
+    }
+}
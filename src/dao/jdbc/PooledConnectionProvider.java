@@ -0,0 +1,329 @@
+package dao.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import dao.ConnectionProvider;
+
+/**
+ * Bounded connection pool in front of another {@link ConnectionProvider}.
+ * <p>Connections returned by {@link #getConnection()} are thin proxies: calling
+ * {@code close()} on them hands the physical Connection back to the pool instead of
+ * closing it. Idle connections are validated on borrow, evicted after the idle timeout
+ * and retired after their max lifetime. When all connections are in use, callers wait
+ * up to the borrow timeout and then get an {@link SQLTimeoutException}.</p>
+ * <p>Each physical connection keeps the {@link StatementCache} that {@link JdbcDAOFactory}
+ * instances on it use, so a statement prepared in one unit-of-work is reused by the
+ * next ones on the same connection. The cache is closed with the connection.</p>
+ * <p>Wait and usage figures are available via {@link #getStats()}.</p>
+ */
+public class PooledConnectionProvider implements ConnectionProvider, AutoCloseable {
+
+    public static final int DEFAULT_MAX_POOL_SIZE = 10;
+    public static final Duration DEFAULT_BORROW_TIMEOUT = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(10);
+    public static final Duration DEFAULT_MAX_LIFETIME = Duration.ofMinutes(30);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    // A connection handed back this recently is trusted without an isValid() round trip.
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long MAX_EVICTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    // scheduleWithFixedDelay rejects a zero delay, which a 1 ns idle timeout would give.
+    private static final long MIN_EVICTION_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final String SQLSTATE_CONNECTION_EXCEPTION_CLASS = "08";
+
+    // DEV MESSAGES
+    private static final String DEV_ERR_POOL_CLOSED =
+        "Connection pool is closed";
+    private static final String DEV_ERR_BORROW_TIMEOUT =
+        "Timed out after %d ms waiting for a pooled connection (max pool size %d)";
+    private static final String DEV_ERR_INTERRUPTED =
+        "Interrupted while waiting for a pooled connection";
+    private static final String DEV_ERR_HANDLE_RELEASED =
+        "Connection has already been returned to the pool";
+    private static final String DEV_ERR_INVALID_SETTINGS =
+        "maxPoolSize and all timeouts must be positive";
+
+    private final ConnectionProvider delegate;
+    private final int maxPoolSize;
+    private final long borrowTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final long maxLifetimeNanos;
+
+    private final Semaphore permits;
+    // LIFO so the most recently used (warmest) connection is borrowed first
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowWaitNanos = new LongAdder();
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+    private final LongAdder usageNanos = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder validationFailureCount = new LongAdder();
+
+    public PooledConnectionProvider(ConnectionProvider delegate) {
+        this(delegate, DEFAULT_MAX_POOL_SIZE, DEFAULT_BORROW_TIMEOUT, DEFAULT_IDLE_TIMEOUT, DEFAULT_MAX_LIFETIME);
+    }
+
+    /**
+     * @param delegate      creates the physical connections
+     * @param maxPoolSize   upper bound of physical connections (idle + in use)
+     * @param borrowTimeout how long {@link #getConnection()} waits for a free connection
+     * @param idleTimeout   idle connections older than this are closed
+     * @param maxLifetime   connections older than this are retired on their next return or borrow
+     */
+    public PooledConnectionProvider(ConnectionProvider delegate, int maxPoolSize, Duration borrowTimeout,
+                                    Duration idleTimeout, Duration maxLifetime) {
+        if (maxPoolSize <= 0 || borrowTimeout.isNegative() || idleTimeout.isNegative() || idleTimeout.isZero()
+                || maxLifetime.isNegative() || maxLifetime.isZero()) {
+            throw new IllegalArgumentException(DEV_ERR_INVALID_SETTINGS);
+        }
+        this.delegate = delegate;
+        this.maxPoolSize = maxPoolSize;
+        this.borrowTimeoutNanos = borrowTimeout.toNanos();
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.maxLifetimeNanos = maxLifetime.toNanos();
+        this.permits = new Semaphore(maxPoolSize, true);
+
+        long interval = Math.max(Math.min(idleTimeoutNanos / 2, MAX_EVICTION_INTERVAL_NANOS),
+            MIN_EVICTION_INTERVAL_NANOS);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException(DEV_ERR_POOL_CLOSED);
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTimeoutException(String.format(DEV_ERR_BORROW_TIMEOUT,
+                    TimeUnit.NANOSECONDS.toMillis(borrowTimeoutNanos), maxPoolSize));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(DEV_ERR_INTERRUPTED, e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledEntry entry = takeUsableEntry();
+            entry.borrowedAt = System.nanoTime();
+            return (Connection) Proxy.newProxyInstance(
+                PooledConnectionProvider.class.getClassLoader(),
+                new Class<?>[] { Connection.class, StatementCachingConnection.class },
+                new ConnectionHandle(entry));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** @return a point-in-time snapshot of the pool's counters */
+    public PoolStats getStats() {
+        return new PoolStats(
+            maxPoolSize,
+            maxPoolSize - permits.availablePermits(),
+            idle.size(),
+            borrowCount.sum(),
+            timeoutCount.sum(),
+            createdCount.sum(),
+            destroyedCount.sum(),
+            validationFailureCount.sum(),
+            borrowWaitNanos.sum(),
+            maxBorrowWaitNanos.get(),
+            usageNanos.sum()
+        );
+    }
+
+    /** Closes all idle connections; connections still in use are closed when handed back. */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        drainIdle();
+    }
+
+    private PooledEntry takeUsableEntry() throws SQLException {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (isUsable(entry)) return entry;
+            destroy(entry);
+        }
+        Connection physical = delegate.getConnection();
+        createdCount.increment();
+        return new PooledEntry(physical);
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        long now = System.nanoTime();
+        if (isExpired(entry, now)) return false;
+        if (now - entry.lastReturnedAt < VALIDATION_BYPASS_NANOS) return true;
+        try {
+            if (entry.physical.isValid(VALIDATION_TIMEOUT_SECONDS)) return true;
+        } catch (SQLException ignored) {}
+        validationFailureCount.increment();
+        return false;
+    }
+
+    private boolean isExpired(PooledEntry entry, long now) {
+        return now - entry.createdAt >= maxLifetimeNanos
+            || now - entry.lastReturnedAt >= idleTimeoutNanos;
+    }
+
+    private void release(PooledEntry entry) {
+        long now = System.nanoTime();
+        usageNanos.add(now - entry.borrowedAt);
+        try {
+            if (closed || entry.broken || now - entry.createdAt >= maxLifetimeNanos || !resetState(entry)) {
+                destroy(entry);
+                return;
+            }
+            entry.lastReturnedAt = now;
+            idle.offerFirst(entry);
+            if (closed) drainIdle(); // close() may have run between the check above and the offer
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Never let uncommitted work or a manual-commit mode leak into the next borrower.
+    private boolean resetState(PooledEntry entry) {
+        try {
+            Connection c = entry.physical;
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            c.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        for (PooledEntry entry : idle) {
+            if (isExpired(entry, now) && idle.remove(entry)) destroy(entry);
+        }
+    }
+
+    private void drainIdle() {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) destroy(entry);
+    }
+
+    private void destroy(PooledEntry entry) {
+        destroyedCount.increment();
+        if (entry.statements != null) entry.statements.close();
+        try { entry.physical.close(); } catch (SQLException ignored) {}
+    }
+
+    private void recordWait(long waitedNanos) {
+        borrowCount.increment();
+        borrowWaitNanos.add(waitedNanos);
+        maxBorrowWaitNanos.accumulateAndGet(waitedNanos, Math::max);
+    }
+
+    // One physical connection, its statement cache and its bookkeeping timestamps.
+    private static final class PooledEntry {
+        final Connection physical;
+        final long createdAt = System.nanoTime();
+        volatile long lastReturnedAt = createdAt;
+        volatile long borrowedAt;
+        volatile boolean broken;
+        // only touched by the borrower; the idle deque hands it on to the next one
+        StatementCache statements;
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+
+        StatementCache statementCache(int maxSize, SlowQueryLog slowQueryLog) {
+            if (statements != null && !statements.hasSettings(maxSize, slowQueryLog)) {
+                statements.close();
+                statements = null;
+            }
+            if (statements == null) statements = new StatementCache(physical, maxSize, slowQueryLog);
+            return statements;
+        }
+    }
+
+    // The Connection handed to callers; close() returns the physical connection to the pool.
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean released;
+
+        ConnectionHandle(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    if (released) return true;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.physical + "]";
+                case "abort":
+                    entry.broken = true;
+                    break;
+                default:
+                    break;
+            }
+            if (released) throw new SQLException(DEV_ERR_HANDLE_RELEASED);
+            if (method.getDeclaringClass() == StatementCachingConnection.class) {
+                return entry.statementCache((Integer) args[0], (SlowQueryLog) args[1]);
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlEx && isConnectionFailure(sqlEx)) {
+                    entry.broken = true;
+                }
+                throw cause;
+            }
+        }
+
+        private boolean isConnectionFailure(SQLException e) {
+            String state = e.getSQLState();
+            return state != null && state.startsWith(SQLSTATE_CONNECTION_EXCEPTION_CLASS);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package dao.jdbc;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Process-wide cache of subject, question and answer rows, shared by every
+ * {@link JdbcDAOFactory} of one {@link JdbcDAOFactoryProvider} (see
+ * {@link JdbcSettings#setSecondLevelCache}).
+ * <p>Entries are the immutable row snapshots of {@link dao.rows}, never the entities themselves: each
+ * unit-of-work materialises its own instances into its {@link IdentityMap}. The cache is
+ * bounded by {@code maxEntries} (least recently used entries go first) and every entry
+ * expires {@code ttl} after it was stored.</p>
+ * <p>Writes through the DAOs invalidate the affected rows once their transaction commits.
+ * Every invalidation bumps a generation counter, and a row read from the database is
+ * only stored if no invalidation happened since the read started, so a slow reader
+ * cannot put back a row that a concurrent commit has just changed.</p>
+ * <p>Thread-safe; all access goes through one lock.</p>
+ */
+public class SecondLevelCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    enum Region { SUBJECT, QUESTION, ANSWER }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public SecondLevelCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+    }
+
+    public SecondLevelCache(int maxEntries, Duration ttl) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be positive");
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl must be positive");
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= SecondLevelCache.this.maxEntries) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /** @return the current generation; pass it to {@link #put} for rows read from now on */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /** @return the cached row, or null if absent or expired */
+    synchronized <T> T get(Region region, int id, Class<T> type) {
+        Key key = new Key(region, id);
+        Entry e = entries.get(key);
+        if (e != null && e.expiresAt - System.nanoTime() <= 0) {
+            entries.remove(key);
+            expirations++;
+            e = null;
+        }
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return type.cast(e.row);
+    }
+
+    /**
+     * Stores a row read from the database, unless an invalidation happened since
+     * {@code readGeneration} was taken.
+     */
+    synchronized void put(Region region, int id, Object row, long readGeneration) {
+        if (readGeneration != generation) return;
+        entries.put(new Key(region, id), new Entry(row, System.nanoTime() + ttlNanos));
+    }
+
+    synchronized void invalidate(Region region, int id) {
+        generation++;
+        entries.remove(new Key(region, id));
+    }
+
+    /** Drops every row of {@code region} matching {@code filter}. */
+    synchronized <T> void invalidateIf(Region region, Class<T> type, Predicate<? super T> filter) {
+        generation++;
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().region == region && filter.test(type.cast(e.getValue().row))) it.remove();
+        }
+    }
+
+    /** Drops every entry. */
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    /** @return hits / (hits + misses), or 0 if nothing was looked up yet */
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /** @return number of rows currently cached, including expired ones not yet dropped */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+            "SecondLevelCache[size=%d/%d, hits=%d, misses=%d, hitRatio=%.2f, evictions=%d, expirations=%d]",
+            entries.size(), maxEntries, hits, misses, getHitRatio(), evictions, expirations);
+    }
+
+    private static final class Key {
+        final Region region;
+        final int id;
+
+        Key(Region region, int id) {
+            this.region = region;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return id == other.id && region == other.region;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(region, id);
+        }
+    }
+
+    private static final class Entry {
+        final Object row;
+        final long expiresAt;
+
+        Entry(Object row, long expiresAt) {
+            this.row = row;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
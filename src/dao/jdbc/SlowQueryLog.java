@@ -0,0 +1,306 @@
+package dao.jdbc;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in log of statements that take longer than a threshold, written to a rotating
+ * local file.
+ * <p>Enable it with {@link JdbcSettings#setSlowQueryLog}. The {@link StatementCache} then
+ * hands out statements that remember their bound parameters and time each execution;
+ * for queries the time runs until the ResultSet is closed, so slow fetching counts too,
+ * and for streaming cursors until their first row. A slow execution is logged with</p>
+ * <ul>
+ *   <li>the SQL constant of the DAO (e.g. {@code JdbcQuestionDAO.SQL_FIND_ALL}) and its text,</li>
+ *   <li>the bound parameters (strings cut to {@value #MAX_PARAM_LENGTH} characters),</li>
+ *   <li>elapsed time and rows returned or changed,</li>
+ *   <li>the calling DAO method, found with a {@link StackWalker}: for updates only when
+ *       they were slow, for queries when they execute.</li>
+ * </ul>
+ * <p>Writing happens on a background thread. The executing thread only offers an entry
+ * to a bounded queue and never blocks on disk: when the queue is full the entry is
+ * dropped and counted in {@link #getDropped()}. When the file would grow beyond
+ * {@code maxFileBytes} it is renamed to {@code name.1} (older files shift up to
+ * {@code name.<maxFiles>}, the oldest is deleted) and a new file is started.</p>
+ */
+public class SlowQueryLog implements AutoCloseable {
+
+    public static final Duration DEFAULT_THRESHOLD = Duration.ofMillis(100);
+    public static final long DEFAULT_MAX_FILE_BYTES = 10L * 1024 * 1024;
+    public static final int DEFAULT_MAX_FILES = 5;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1_024;
+    static final int MAX_PARAM_LENGTH = 100;
+
+    private static final DateTimeFormatter TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final Entry STOP = new Entry(0, 0, 0, null, null, null);
+
+    private final Path file;
+    private final long thresholdNanos;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final BlockingQueue<Entry> queue;
+    private final Thread writerThread;
+    private final LongAdder logged = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    // SQL text -> constant name, per DAO class; filled on the first slow call of that class.
+    private final Map<Class<?>, Map<String, String>> sqlConstants = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public SlowQueryLog(Path file) {
+        this(file, DEFAULT_THRESHOLD);
+    }
+
+    public SlowQueryLog(Path file, Duration threshold) {
+        this(file, threshold, DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_FILES, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param file          the current log file; rotated files get the suffixes {@code .1} to {@code .<maxFiles>}
+     * @param threshold     executions taking at least this long are logged
+     * @param maxFileBytes  size at which the file is rotated
+     * @param maxFiles      number of rotated files kept besides the current one
+     * @param queueCapacity entries that may wait for the writer before new ones are dropped
+     */
+    public SlowQueryLog(Path file, Duration threshold, long maxFileBytes, int maxFiles, int queueCapacity) {
+        if (threshold.isNegative()) throw new IllegalArgumentException("threshold must not be negative");
+        if (maxFileBytes <= 0) throw new IllegalArgumentException("maxFileBytes must be positive");
+        if (maxFiles < 0) throw new IllegalArgumentException("maxFiles must not be negative");
+        this.file = file.toAbsolutePath();
+        this.thresholdNanos = threshold.toNanos();
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writerThread = new Thread(this::drain, "slow-query-log");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /** @return true if an execution of {@code elapsedNanos} is to be logged */
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos && !closed;
+    }
+
+    /**
+     * Queues one slow execution; called on the executing thread, never blocks.
+     *
+     * @param params bound parameters by index (element 0 unused); copied by the caller
+     */
+    void record(String sql, Object[] params, long elapsedNanos, long rows) {
+        record(sql, params, elapsedNanos, rows, caller());
+    }
+
+    /** Like {@link #record(String, Object[], long, long)}, with the caller looked up earlier. */
+    void record(String sql, Object[] params, long elapsedNanos, long rows, StackWalker.StackFrame caller) {
+        Entry entry = new Entry(System.currentTimeMillis(), elapsedNanos, rows, caller, sql, params);
+        if (!queue.offer(entry)) dropped.increment();
+    }
+
+    /** @return the innermost frame of a Jdbc DAO on the current stack, or null */
+    static StackWalker.StackFrame caller() {
+        return WALKER.walk(frames -> frames
+            .filter(f -> isDao(f.getDeclaringClass()))
+            .findFirst()
+            .orElse(null));
+    }
+
+    private static boolean isDao(Class<?> c) {
+        while (c.getEnclosingClass() != null) c = c.getEnclosingClass();
+        return c.getPackage() == SlowQueryLog.class.getPackage()
+            && c.getSimpleName().startsWith("Jdbc") && c.getSimpleName().endsWith("DAO");
+    }
+
+    /** @return the number of entries written */
+    public long getLogged() {
+        return logged.sum();
+    }
+
+    /** @return the number of entries lost because the writer could not keep up */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /** Writes what is queued and stops the writer thread; later slow calls are ignored. */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            queue.put(STOP);
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---- writer thread ----
+
+    private void drain() {
+        OutputStream out = null;
+        long size = 0;
+        try {
+            for (;;) {
+                Entry entry = queue.poll();
+                if (entry == null) {
+                    if (out != null) out.flush();
+                    entry = queue.take();
+                }
+                if (entry == STOP) break;
+                byte[] line = format(entry).getBytes(StandardCharsets.UTF_8);
+                if (out == null) {
+                    out = open();
+                    size = Files.size(file);
+                }
+                if (size > 0 && size + line.length > maxFileBytes) {
+                    out.close();
+                    rotate();
+                    out = open();
+                    size = 0;
+                }
+                out.write(line);
+                size += line.length;
+                logged.increment();
+            }
+        } catch (InterruptedException e) {
+            // shutting down
+        } catch (IOException e) {
+            System.getLogger(SlowQueryLog.class.getName())
+                .log(System.Logger.Level.WARNING, "Slow query log disabled, cannot write " + file, e);
+            closed = true;
+        } finally {
+            if (out != null) {
+                try { out.close(); } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    private OutputStream open() throws IOException {
+        Path dir = file.getParent();
+        if (dir != null) Files.createDirectories(dir);
+        return new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND));
+    }
+
+    private void rotate() throws IOException {
+        if (maxFiles == 0) {
+            Files.delete(file);
+            return;
+        }
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private String format(Entry e) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(TIMESTAMP.format(Instant.ofEpochMilli(e.timestamp)));
+        sb.append(String.format(" %10.3f ms rows=%d ", e.elapsedNanos / 1_000_000.0, e.rows));
+        if (e.caller == null) {
+            sb.append("? ?");
+        } else {
+            Class<?> dao = e.caller.getDeclaringClass();
+            while (dao.getEnclosingClass() != null) dao = dao.getEnclosingClass();
+            sb.append(dao.getSimpleName()).append('.').append(e.caller.getMethodName()).append(' ');
+            sb.append(constantName(dao, e.sql));
+        }
+        sb.append(" params=[");
+        for (int i = 1; i < e.params.length; i++) {
+            if (i > 1) sb.append(", ");
+            appendParam(sb, e.params[i]);
+        }
+        sb.append("] ").append(e.sql.replaceAll("\\s+", " ")).append(System.lineSeparator());
+        return sb.toString();
+    }
+
+    private static void appendParam(StringBuilder sb, Object p) {
+        if (p instanceof String s) {
+            sb.append('\'');
+            if (s.length() > MAX_PARAM_LENGTH) sb.append(s, 0, MAX_PARAM_LENGTH).append("...");
+            else sb.append(s);
+            sb.append('\'');
+        } else {
+            sb.append(p);
+        }
+    }
+
+    /**
+     * @return the name of the static String field of {@code dao} holding {@code sql}, e.g.
+     *         {@code SQL_FIND_ALL}, or of the String array element, e.g. {@code SQL_UPDATE_FIELDS[3]}; else "?"
+     */
+    private String constantName(Class<?> dao, String sql) {
+        Map<String, String> names = sqlConstants.computeIfAbsent(dao, SlowQueryLog::sqlConstantsOf);
+        int note = sql.indexOf(" -- ");   // batch or cursor note added by SlowQueryStatement
+        return names.getOrDefault(note < 0 ? sql : sql.substring(0, note), "?");
+    }
+
+    private static Map<String, String> sqlConstantsOf(Class<?> dao) {
+        Map<String, String> names = new HashMap<>();
+        for (Field f : dao.getDeclaredFields()) {
+            int m = f.getModifiers();
+            if (!Modifier.isStatic(m) || !Modifier.isFinal(m)) continue;
+            if (f.getType() != String.class && f.getType() != String[].class) continue;
+            try {
+                f.setAccessible(true);
+                Object value = f.get(null);
+                if (value instanceof String s) names.putIfAbsent(s, f.getName());
+                if (value instanceof String[] array) {
+                    for (int i = 0; i < array.length; i++) {
+                        if (array[i] != null) names.putIfAbsent(array[i], f.getName() + "[" + i + "]");
+                    }
+                }
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                // not readable; the entry just shows "?"
+            }
+        }
+        return names;
+    }
+
+    private static final class Entry {
+        final long timestamp;
+        final long elapsedNanos;
+        final long rows;
+        final StackWalker.StackFrame caller;
+        final String sql;
+        final Object[] params;
+
+        Entry(long timestamp, long elapsedNanos, long rows, StackWalker.StackFrame caller, String sql,
+              Object[] params) {
+            this.timestamp = timestamp;
+            this.elapsedNanos = elapsedNanos;
+            this.rows = rows;
+            this.caller = caller;
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package dao.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+
+/**
+ * PreparedStatement wrapper for the {@link SlowQueryLog}: remembers the bound
+ * parameters and times every execution.
+ * <p>Updates and batches are timed around the execute call. Queries are timed from
+ * execute until their ResultSet is closed, and count the rows read on the way. Cursor
+ * statements from {@link StatementCache#prepareUncached} stay open while the caller
+ * consumes the stream, so they are timed from prepare to their first row instead.
+ * Queries look up their calling DAO method when they execute, since the ResultSet may be
+ * closed elsewhere; everything else reaches the log only when over the threshold, and
+ * for the others the overhead is the proxy call and the parameter bookkeeping.</p>
+ */
+final class SlowQueryStatement implements InvocationHandler {
+
+    private static final Object NULL = new Object() {
+        @Override
+        public String toString() {
+            return "NULL";
+        }
+    };
+
+    private final PreparedStatement target;
+    private final String sql;
+    private final SlowQueryLog log;
+    // prepare time of a cursor statement, or -1 for statements timed per execution
+    private final long cursorStart;
+    private Object[] params = new Object[8];
+    private int maxIndex;
+    private int batchRows;
+
+    private SlowQueryStatement(PreparedStatement target, String sql, SlowQueryLog log, long cursorStart) {
+        this.target = target;
+        this.sql = sql;
+        this.log = log;
+        this.cursorStart = cursorStart;
+    }
+
+    static PreparedStatement wrap(PreparedStatement target, String sql, SlowQueryLog log) {
+        return proxy(new SlowQueryStatement(target, sql, log, -1));
+    }
+
+    /** Like {@link #wrap}, for a cursor statement prepared at {@code preparedAt} (a {@link System#nanoTime()}). */
+    static PreparedStatement wrapCursor(PreparedStatement target, String sql, SlowQueryLog log, long preparedAt) {
+        return proxy(new SlowQueryStatement(target, sql, log, preparedAt));
+    }
+
+    private static PreparedStatement proxy(SlowQueryStatement handler) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class }, handler);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "clearParameters":
+                Arrays.fill(params, null);
+                maxIndex = 0;
+                break;
+            case "addBatch":
+                batchRows++;
+                break;
+            case "clearBatch":
+                batchRows = 0;
+                break;
+            case "executeQuery":
+                return executeQuery(method, args);
+            case "execute":
+            case "executeUpdate":
+            case "executeLargeUpdate":
+            case "executeBatch":
+            case "executeLargeBatch":
+                return executeUpdate(method, args);
+            default:
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    bind(index, name, args[1]);
+                }
+                break;
+        }
+        return call(method, args);
+    }
+
+    private void bind(int index, String setter, Object value) {
+        if (index >= params.length) params = Arrays.copyOf(params, Math.max(index + 1, params.length * 2));
+        if (setter.equals("setNull") || value == null) value = NULL;
+        else if (value instanceof byte[] bytes) value = "<" + bytes.length + " bytes>";
+        else if (!(value instanceof String || value instanceof Number || value instanceof Boolean
+            || value instanceof java.util.Date || value instanceof java.time.temporal.Temporal)) {
+            value = "<" + value.getClass().getSimpleName() + ">";   // streams, LOBs: never read them
+        }
+        params[index] = value;
+        maxIndex = Math.max(maxIndex, index);
+    }
+
+    private Object executeUpdate(Method method, Object[] args) throws Throwable {
+        long start = System.nanoTime();
+        Object result = call(method, args);
+        long elapsed = System.nanoTime() - start;
+        int rowsInBatch = batchRows;
+        if (method.getName().contains("Batch")) batchRows = 0;
+        if (log.isSlow(elapsed)) {
+            String text = rowsInBatch > 0 ? sql + " -- batch of " + rowsInBatch + ", parameters of the last row" : sql;
+            log.record(text, boundParams(), elapsed, changedRows(result));
+        }
+        return result;
+    }
+
+    private Object executeQuery(Method method, Object[] args) throws Throwable {
+        StackWalker.StackFrame caller = SlowQueryLog.caller();
+        long start = cursorStart >= 0 ? cursorStart : System.nanoTime();
+        ResultSet rs = (ResultSet) call(method, args);
+        Object[] bound = boundParams();
+        return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+            new TimedResultSet(rs, start, bound, caller));
+    }
+
+    private Object[] boundParams() {
+        return Arrays.copyOf(params, maxIndex + 1);
+    }
+
+    private static long changedRows(Object result) {
+        if (result instanceof Integer n) return Math.max(n, 0);
+        if (result instanceof Long n) return Math.max(n, 0);
+        long sum = 0;
+        if (result instanceof int[] counts) for (int n : counts) sum += Math.max(n, 0);
+        if (result instanceof long[] counts) for (long n : counts) sum += Math.max(n, 0);
+        return sum;
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        return call(target, method, args);
+    }
+
+    // Counts rows and logs the query when it is closed, or a cursor at its first row, if it was slow.
+    private final class TimedResultSet implements InvocationHandler {
+        private final ResultSet rs;
+        private final long start;
+        private final Object[] bound;
+        private final StackWalker.StackFrame caller;
+        private long rows;
+        private boolean done;
+
+        TimedResultSet(ResultSet rs, long start, Object[] bound, StackWalker.StackFrame caller) {
+            this.rs = rs;
+            this.start = start;
+            this.bound = bound;
+            this.caller = caller;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getStatement":
+                    return rs.getStatement();
+                case "close":
+                    finish();
+                    break;
+                default:
+                    break;
+            }
+            Object result = call(rs, method, args);
+            if (method.getName().equals("next")) {
+                if (Boolean.TRUE.equals(result)) rows++;
+                if (cursorStart >= 0) finish();
+            }
+            return result;
+        }
+
+        private void finish() {
+            if (done) return;
+            done = true;
+            long elapsed = System.nanoTime() - start;
+            if (!log.isSlow(elapsed)) return;
+            log.record(cursorStart >= 0 ? sql + " -- cursor, time to first row" : sql, bound, elapsed, rows, caller);
+        }
+    }
+}
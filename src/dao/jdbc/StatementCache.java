@@ -0,0 +1,198 @@
+package dao.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * LRU cache of {@link PreparedStatement}s for one Connection, keyed by SQL text.
+ * <p>Shared by the DAOs of a {@link JdbcDAOFactory}. On a Connection from a
+ * {@link PooledConnectionProvider} the cache belongs to the physical connection: it
+ * outlives the unit-of-work, so each distinct SQL is prepared once per physical
+ * connection, and is closed when the pool retires that connection. On any other
+ * Connection the factory owns the cache and closes it, so statements are prepared once
+ * per unit-of-work. Callers must not close the statements they get from here, only the
+ * ResultSets those produce; the cache closes statements on eviction.</p>
+ * <p>Statements for cursors that outlive a single call are prepared with
+ * {@link #prepareUncached}; those still open when the unit-of-work ends are closed by
+ * {@link #releaseUncached}.</p>
+ * <p>Used by one unit-of-work at a time, this class is not thread-safe.</p>
+ */
+public class StatementCache implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_SIZE = 64;
+
+    private final Connection conn;
+    private final int maxSize;
+    private final SlowQueryLog slowQueryLog;
+    private final LinkedHashMap<StatementKey, PreparedStatement> statements;
+    private final Set<PreparedStatement> uncached = new HashSet<>();
+    // Asked once per unit-of-work instead of on every batch.
+    private Boolean supportsBatchUpdates;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    StatementCache(Connection conn, int maxSize) {
+        this(conn, maxSize, null);
+    }
+
+    /**
+     * @param slowQueryLog if not null, statements are handed out wrapped so that slow
+     *                     executions are logged there
+     */
+    StatementCache(Connection conn, int maxSize, SlowQueryLog slowQueryLog) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be positive");
+        this.conn = conn;
+        this.maxSize = maxSize;
+        this.slowQueryLog = slowQueryLog;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, PreparedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) return false;
+                evictions++;
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /** Returns the cached statement for {@code sql}, preparing it on first use. */
+    PreparedStatement prepare(String sql) throws SQLException {
+        return lookup(sql, false);
+    }
+
+    /** Like {@link #prepare(String)}, for INSERTs whose generated keys are read back. */
+    PreparedStatement prepareReturningKeys(String sql) throws SQLException {
+        return lookup(sql, true);
+    }
+
+    /**
+     * Prepares a forward-only, read-only statement outside the LRU, for a streaming
+     * cursor that keeps it busy. The caller closes it with {@link #release}.
+     */
+    PreparedStatement prepareUncached(String sql, int fetchSize) throws SQLException {
+        long preparedAt = System.nanoTime();
+        PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        if (slowQueryLog != null) ps = SlowQueryStatement.wrapCursor(ps, sql, slowQueryLog, preparedAt);
+        ps.setFetchSize(fetchSize);
+        uncached.add(ps);
+        return ps;
+    }
+
+    /** @return whether the driver supports addBatch/executeBatch; read from its metadata on first use */
+    boolean supportsBatchUpdates() throws SQLException {
+        if (supportsBatchUpdates == null) supportsBatchUpdates = conn.getMetaData().supportsBatchUpdates();
+        return supportsBatchUpdates;
+    }
+
+    /** Closes a statement obtained from {@link #prepareUncached}. */
+    void release(PreparedStatement ps) {
+        uncached.remove(ps);
+        closeQuietly(ps);
+    }
+
+    /** Closes the statements from {@link #prepareUncached} not released yet; cached ones stay open. */
+    void releaseUncached() {
+        for (PreparedStatement ps : uncached) closeQuietly(ps);
+        uncached.clear();
+    }
+
+    /** @return true if the cache was built with these settings */
+    boolean hasSettings(int maxSize, SlowQueryLog slowQueryLog) {
+        return this.maxSize == maxSize && this.slowQueryLog == slowQueryLog;
+    }
+
+    private PreparedStatement lookup(String sql, boolean returnKeys) throws SQLException {
+        StatementKey key = new StatementKey(sql, returnKeys);
+        PreparedStatement ps = statements.get(key);
+        if (ps != null && !ps.isClosed()) {
+            hits++;
+            return ps;
+        }
+        misses++;
+        ps = watch(sql, returnKeys
+            ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+            : conn.prepareStatement(sql));
+        statements.put(key, ps);
+        return ps;
+    }
+
+    private PreparedStatement watch(String sql, PreparedStatement ps) {
+        return slowQueryLog == null ? ps : SlowQueryStatement.wrap(ps, sql, slowQueryLog);
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /** @return hits / (hits + misses), or 0 if nothing was prepared yet */
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /** @return number of statements currently held open */
+    public int size() {
+        return statements.size();
+    }
+
+    /** Closes every cached statement and every uncached one not released yet. */
+    @Override
+    public void close() {
+        for (PreparedStatement ps : statements.values()) closeQuietly(ps);
+        statements.clear();
+        releaseUncached();
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try { ps.close(); } catch (SQLException ignored) {}
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StatementCache[size=%d/%d, hits=%d, misses=%d, evictions=%d]",
+            statements.size(), maxSize, hits, misses, evictions);
+    }
+
+    private static final class StatementKey {
+        final String sql;
+        final boolean returnKeys;
+
+        StatementKey(String sql, boolean returnKeys) {
+            this.sql = sql;
+            this.returnKeys = returnKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StatementKey)) return false;
+            StatementKey other = (StatementKey) o;
+            return returnKeys == other.returnKeys && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, returnKeys);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package dao.jdbc;
+
+/**
+ * Implemented by the Connections a {@link PooledConnectionProvider} hands out, so that
+ * a {@link JdbcDAOFactory} can use the {@link StatementCache} of the physical
+ * connection instead of preparing its statements again in every unit-of-work.
+ */
+interface StatementCachingConnection {
+
+    /**
+     * @return the cache of the physical connection behind this handle, created on first
+     *         use; a cache built for a different size or log is closed and replaced
+     */
+    StatementCache statementCache(int maxSize, SlowQueryLog slowQueryLog);
+}
@@ -0,0 +1,53 @@
+package dao.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import dao.OptimisticLockException;
+
+/**
+ * Tells the two reasons apart why a version-checked {@code UPDATE ... WHERE id = ? AND
+ * version = ?} changed no row: the row is gone, or someone else updated it first.
+ * <p>Only runs after a missed update, or one whose count the driver did not report, so
+ * successful updates stay one statement.</p>
+ */
+final class VersionCheck {
+
+    private VersionCheck() {}
+
+    /**
+     * @param versionSql {@code SELECT version FROM <table> WHERE id = ?}
+     * @throws OptimisticLockException if the row exists with a different version
+     */
+    static void requireMissing(StatementCache statements, String versionSql, String table, int id,
+                               int expectedVersion) throws SQLException {
+        PreparedStatement ps = statements.prepare(versionSql);
+        ps.setInt(1, id);
+        try (ResultSet rs = ps.executeQuery()) {
+            if (rs.next()) throw new OptimisticLockException(table, id, expectedVersion, rs.getInt(1));
+        }
+    }
+
+    /**
+     * Settles a batched update the driver answered with {@link JdbcBatch#UNKNOWN} by
+     * re-reading the version. A row another transaction advanced to exactly
+     * {@code expectedVersion + 1} first reads the same as one this update wrote; drivers
+     * that report their batch counts never take this path.
+     *
+     * @param versionSql {@code SELECT version FROM <table> WHERE id = ?}
+     * @return true if the row holds {@code expectedVersion + 1}, false if it is gone
+     * @throws OptimisticLockException if the row exists with any other version
+     */
+    static boolean wasUpdated(StatementCache statements, String versionSql, String table, int id,
+                              int expectedVersion) throws SQLException {
+        PreparedStatement ps = statements.prepare(versionSql);
+        ps.setInt(1, id);
+        try (ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) return false;
+            int actual = rs.getInt(1);
+            if (actual != expectedVersion + 1) throw new OptimisticLockException(table, id, expectedVersion, actual);
+            return true;
+        }
+    }
+}
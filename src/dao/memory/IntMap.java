@@ -0,0 +1,177 @@
+package dao.memory;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable map from positive int keys to values, stored as a two-level radix array.
+ * <p>Keys are split into a page number ({@code key >>> PAGE_BITS}) and a slot within
+ * the page, so lookups are two array reads without boxing or hashing, and iteration is
+ * in ascending key order. That fits the dense, auto-incremented IDs of the tables.</p>
+ * <p>Changes go through an {@link Editor}, which copies the page directory once and each
+ * page only on its first write; all untouched pages are shared with the original map. A
+ * map is therefore a cheap snapshot: readers holding it never see later writes.</p>
+ *
+ * @param <V> the value type
+ */
+final class IntMap<V> {
+
+    static final int PAGE_BITS = 10;
+    static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int SLOT_MASK = PAGE_SIZE - 1;
+
+    private static final IntMap<?> EMPTY = new IntMap<>(new Object[0][], 0);
+
+    private final Object[][] pages;
+    private final int size;
+
+    private IntMap(Object[][] pages, int size) {
+        this.pages = pages;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> IntMap<V> empty() {
+        return (IntMap<V>) EMPTY;
+    }
+
+    /** @return the value for {@code key}, or null */
+    V get(int key) {
+        return lookup(pages, key);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** @return the values in ascending key order */
+    Iterator<V> iterator() {
+        return iterator(0);
+    }
+
+    /** @return the values with a key greater than {@code afterKey}, in ascending key order */
+    Iterator<V> iterator(int afterKey) {
+        return new ValueIterator<>(pages, afterKey + 1);
+    }
+
+    Editor<V> edit() {
+        return new Editor<>(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V lookup(Object[][] pages, int key) {
+        if (key < 0) return null;
+        int page = key >>> PAGE_BITS;
+        if (page >= pages.length || pages[page] == null) return null;
+        return (V) pages[page][key & SLOT_MASK];
+    }
+
+    /**
+     * Accumulates changes to a map and produces the changed copy with {@link #freeze()}.
+     * Not thread-safe; use one editor per write.
+     */
+    static final class Editor<V> {
+        private Object[][] pages;
+        private boolean[] owned;
+        private int size;
+        private boolean frozen;
+
+        private Editor(IntMap<V> base) {
+            this.pages = base.pages.clone();
+            this.owned = new boolean[pages.length];
+            this.size = base.size;
+        }
+
+        V get(int key) {
+            return lookup(pages, key);
+        }
+
+        /** @return the previous value, or null */
+        V put(int key, V value) {
+            if (key < 0) throw new IllegalArgumentException("key must not be negative: " + key);
+            if (value == null) return remove(key);
+            Object[] page = writablePage(key >>> PAGE_BITS);
+            @SuppressWarnings("unchecked")
+            V old = (V) page[key & SLOT_MASK];
+            page[key & SLOT_MASK] = value;
+            if (old == null) size++;
+            return old;
+        }
+
+        /** @return the removed value, or null */
+        V remove(int key) {
+            if (lookup(pages, key) == null) return null;
+            Object[] page = writablePage(key >>> PAGE_BITS);
+            @SuppressWarnings("unchecked")
+            V old = (V) page[key & SLOT_MASK];
+            page[key & SLOT_MASK] = null;
+            size--;
+            return old;
+        }
+
+        IntMap<V> freeze() {
+            frozen = true;
+            return new IntMap<>(pages, size);
+        }
+
+        private Object[] writablePage(int page) {
+            if (frozen) throw new IllegalStateException("editor already frozen");
+            if (page >= pages.length) {
+                int length = Math.max(page + 1, pages.length + (pages.length >> 1));
+                pages = Arrays.copyOf(pages, length);
+                owned = Arrays.copyOf(owned, length);
+            }
+            if (!owned[page]) {
+                pages[page] = pages[page] == null ? new Object[PAGE_SIZE] : pages[page].clone();
+                owned[page] = true;
+            }
+            return pages[page];
+        }
+    }
+
+    private static final class ValueIterator<V> implements Iterator<V> {
+        private final Object[][] pages;
+        private int key;
+        private V next;
+
+        ValueIterator(Object[][] pages, int fromKey) {
+            this.pages = pages;
+            this.key = Math.max(fromKey, 0);
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public V next() {
+            if (next == null) throw new NoSuchElementException();
+            V v = next;
+            advance();
+            return v;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (key >= 0) {
+                int page = key >>> PAGE_BITS;
+                if (page >= pages.length) return;
+                Object[] p = pages[page];
+                if (p == null) {
+                    key = (page + 1) << PAGE_BITS;  // skip the empty page
+                    continue;
+                }
+                Object v = p[key & SLOT_MASK];
+                key++;
+                if (v != null) {
+                    next = (V) v;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package dao.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import dao.AnswerDAO;
+import dao.OptimisticLockException;
+import dao.rows.AnswerRow;
+import dao.rows.QuestionRow;
+import domain.Answer;
+import domain.Question;
+
+public class MemoryAnswerDAO implements AnswerDAO {
+
+    private final MemoryDAOFactory factory;
+
+    public MemoryAnswerDAO(MemoryDAOFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Optional<Answer> findById(int id) {
+        Tables tables = factory.view();
+        AnswerRow row = tables.answers.get(id);
+        if (row == null) return Optional.empty();
+        return Optional.of(row.toAnswer(question(tables, tables.questions.get(row.questionId))));
+    }
+
+    @Override
+    public List<Answer> findByQuestionId(int questionId) {
+        Tables tables = factory.view();
+        QuestionRow q = tables.questions.get(questionId);
+        if (q == null) return new ArrayList<>();
+        return children(tables, question(tables, q));
+    }
+
+    @Override
+    public List<Answer> findByQuestion(Question parent) {
+        if (parent == null || parent.getQuestionId() <= 0)
+            throw new IllegalArgumentException("Parent Question must be persisted");
+        return children(factory.view(), parent);
+    }
+
+    /** Reads the lengths of the question index; no answer rows are touched. */
+    @Override
+    public Map<Integer, Integer> countByQuestionForSubjectId(int subjectId) {
+        Tables tables = factory.view();
+        Map<Integer, Integer> out = new HashMap<>();
+        for (int questionId : tables.questionIdsOf(subjectId)) {
+            int count = tables.answerIdsOf(questionId).length;
+            if (count > 0) out.put(questionId, count);
+        }
+        return out;
+    }
+
+    @Override
+    public int insert(Answer answer) {
+        int id = factory.database().nextAnswerId();
+        AnswerRow row = AnswerRow.of(id, answer, 0);
+        factory.change(e -> {
+            e.putAnswer(row);
+            return 1;
+        });
+        answer.markClean();
+        return id;
+    }
+
+    @Override
+    public int[] insertAll(Collection<Answer> answers) {
+        int[] keys = new int[answers.size()];
+        List<AnswerRow> rows = new ArrayList<>(answers.size());
+        int i = 0;
+        for (Answer a : answers) {
+            keys[i] = factory.database().nextAnswerId();
+            rows.add(AnswerRow.of(keys[i++], a, 0));
+        }
+        factory.change(e -> {
+            for (AnswerRow row : rows) e.putAnswer(row);
+            return rows.size();
+        });
+        i = 0;
+        for (Answer a : answers) {
+            a.setAnswerId(keys[i++]);
+            a.markClean();
+        }
+        return keys;
+    }
+
+    @Override
+    public boolean update(Answer answer) {
+        if (!answer.isDirty()) return true;
+        int expected = answer.getVersion();
+        AnswerRow row = AnswerRow.of(answer.getAnswerId(), answer, expected + 1);
+        boolean updated = factory.change(e -> {
+            AnswerRow current = e.answer(row.id);
+            if (current == null) return 0;
+            if (current.version != expected) {
+                throw new OptimisticLockException("answers", row.id, expected, current.version);
+            }
+            e.putAnswer(row);
+            return 1;
+        }) == 1;
+        if (updated) {
+            answer.setVersion(row.version);
+            answer.markClean();
+        }
+        return updated;
+    }
+
+    @Override
+    public int updateAll(Collection<Answer> answers) {
+        List<Answer> items = new ArrayList<>(answers.size());
+        for (Answer a : answers) {
+            if (a.isDirty()) items.add(a);
+        }
+        List<AnswerRow> rows = new ArrayList<>(items.size());
+        for (Answer a : items) rows.add(AnswerRow.of(a.getAnswerId(), a, a.getVersion() + 1));
+        boolean[] written = new boolean[rows.size()];
+        int updated = factory.change(e -> {
+            int n = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                AnswerRow row = rows.get(i);
+                AnswerRow current = e.answer(row.id);
+                written[i] = current != null;
+                if (current == null) continue;
+                if (current.version != row.version - 1) {
+                    throw new OptimisticLockException("answers", row.id, row.version - 1, current.version);
+                }
+                e.putAnswer(row);
+                n++;
+            }
+            return n;
+        });
+        for (int i = 0; i < written.length; i++) {
+            if (!written[i]) continue;
+            items.get(i).setVersion(rows.get(i).version);
+            items.get(i).markClean();
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        return factory.change(e -> e.removeAnswer(id) ? 1 : 0) > 0;
+    }
+
+    @Override
+    public int deleteAll(Collection<Integer> ids) {
+        return factory.change(e -> {
+            int deleted = 0;
+            for (int id : ids) {
+                if (e.removeAnswer(id)) deleted++;
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public int deleteByQuestionId(int questionId) {
+        return factory.change(e -> {
+            int[] ids = e.answerIdsOf(questionId);
+            for (int id : ids) e.removeAnswer(id);
+            return ids.length;
+        });
+    }
+
+    @Override
+    public int deleteBySubjectId(int subjectId) {
+        return factory.change(e -> {
+            int deleted = 0;
+            for (int questionId : e.questionIdsOf(subjectId)) {
+                int[] ids = e.answerIdsOf(questionId);
+                for (int id : ids) e.removeAnswer(id);
+                deleted += ids.length;
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public int deleteBySubjectIdUpTo(int subjectId, int upToQuestionId) {
+        return factory.change(e -> {
+            int deleted = 0;
+            for (int questionId : e.questionIdsOf(subjectId)) {
+                if (questionId > upToQuestionId) break;
+                int[] ids = e.answerIdsOf(questionId);
+                for (int id : ids) e.removeAnswer(id);
+                deleted += ids.length;
+            }
+            return deleted;
+        });
+    }
+
+    private static Question question(Tables tables, QuestionRow row) {
+        return row.toQuestion(tables.subjects.get(row.subjectId).toSubject());
+    }
+
+    /** @return the answers of {@code parent}, in ID order, all attached to the same instance */
+    private static List<Answer> children(Tables tables, Question parent) {
+        int[] ids = tables.answerIdsOf(parent.getQuestionId());
+        List<Answer> out = new ArrayList<>(ids.length);
+        for (int id : ids) out.add(tables.answers.get(id).toAnswer(parent));
+        return out;
+    }
+}
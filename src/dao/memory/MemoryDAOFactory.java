@@ -0,0 +1,155 @@
+package dao.memory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import dao.AnswerDAO;
+import dao.DAOFactory;
+import dao.DataAccessException;
+import dao.QuestionDAO;
+import dao.SubjectDAO;
+
+/**
+ * Unit-of-work on a {@link MemoryDatabase}.
+ * <p>Outside a transaction every read sees the latest committed state and every write
+ * is published at once. {@link #begin()} pins a snapshot: until {@link #commit()} or
+ * {@link #rollback()} reads see that snapshot plus this unit-of-work's own writes, and
+ * nothing of those writes is visible to others. Commit publishes them atomically;
+ * rollback just drops them.</p>
+ * <p>Row counts and booleans returned by writes inside a transaction are exact: if
+ * another commit got in first and a write would now affect a different number of rows,
+ * {@link #commit()} fails with a serialization failure and publishes nothing. Reads
+ * inside a transaction see its snapshot and are not checked, like consistent reads in
+ * MySQL's REPEATABLE READ.</p>
+ * <p>Like {@code JdbcDAOFactory}, an instance is meant for one thread at a time.</p>
+ */
+public class MemoryDAOFactory implements DAOFactory {
+
+    private static final String SQLSTATE_SERIALIZATION_FAILURE = "40001";
+
+    // DEV MESSAGES
+    private static final String DEV_ERR_CONFLICT =
+        "A concurrent commit changed rows this transaction wrote; run the transaction again";
+
+    private final MemoryDatabase database;
+
+    // transaction state; txTables is null outside a transaction
+    private Tables txBase;
+    private Tables txTables;
+    private List<MemoryDatabase.Write> txLog;
+
+    private SubjectDAO subjectDAO;
+    private QuestionDAO questionDAO;
+    private AnswerDAO answerDAO;
+
+    public MemoryDAOFactory(MemoryDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public SubjectDAO subjects() {
+        if (subjectDAO == null) subjectDAO = new MemorySubjectDAO(this);
+        return subjectDAO;
+    }
+
+    @Override
+    public QuestionDAO questions() {
+        if (questionDAO == null) questionDAO = new MemoryQuestionDAO(this);
+        return questionDAO;
+    }
+
+    @Override
+    public AnswerDAO answers() {
+        if (answerDAO == null) answerDAO = new MemoryAnswerDAO(this);
+        return answerDAO;
+    }
+
+    MemoryDatabase database() {
+        return database;
+    }
+
+    /** @return the state reads of this unit-of-work see */
+    Tables view() {
+        return txTables != null ? txTables : database.snapshot();
+    }
+
+    /** One change made through a {@link Tables.Editor}; returns the affected row count. */
+    interface Change {
+        int apply(Tables.Editor editor);
+    }
+
+    /**
+     * Applies {@code change} to the transaction, or publishes it at once outside one.
+     * Inside a transaction the change is logged so that, if a concurrent commit wins,
+     * replaying it on the newer state must affect as many rows as it did here; otherwise
+     * the commit fails, since the count was already returned to the caller.
+     *
+     * @return the row count of the change
+     */
+    int change(Change change) {
+        int[] affected = new int[1];
+        MemoryDatabase.Write write = tables -> {
+            Tables.Editor editor = tables.edit();
+            affected[0] = change.apply(editor);
+            return affected[0] == 0 ? tables : editor.freeze();
+        };
+        if (txTables == null) {
+            database.apply(write);
+            return affected[0];
+        }
+        txTables = write.apply(txTables);
+        int returned = affected[0];
+        txLog.add(tables -> {
+            Tables.Editor editor = tables.edit();
+            int replayed = change.apply(editor);
+            if (replayed != returned) throw conflict();
+            return replayed == 0 ? tables : editor.freeze();
+        });
+        return returned;
+    }
+
+    /**
+     * @return the failure of a commit whose writes would affect other rows than they did
+     *         on the transaction's snapshot; reported as a serialization failure (SQLState
+     *         {@code 40001}), so {@code RetryingDAOExecutor} runs the transaction again
+     */
+    private static DataAccessException conflict() {
+        return new DataAccessException(DEV_ERR_CONFLICT, new SQLException(DEV_ERR_CONFLICT, SQLSTATE_SERIALIZATION_FAILURE));
+    }
+
+    @Override
+    public void begin() {
+        if (txTables != null) return;
+        txBase = database.snapshot();
+        txTables = txBase;
+        txLog = new ArrayList<>();
+    }
+
+    @Override
+    public void commit() {
+        if (txTables == null) return;
+        try {
+            if (!txLog.isEmpty()) database.commit(txBase, txTables, txLog);
+        } finally {
+            endTransaction();
+        }
+    }
+
+    @Override
+    public void rollback() {
+        endTransaction();
+    }
+
+    /** Drops a transaction that was neither committed nor rolled back. */
+    @Override
+    public void close() {
+        endTransaction();
+    }
+
+    private void endTransaction() {
+        txBase = null;
+        txTables = null;
+        txLog = null;
+    }
+}
@@ -0,0 +1,32 @@
+package dao.memory;
+
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+
+/**
+ * Opens {@link MemoryDAOFactory} units-of-work on one shared {@link MemoryDatabase}.
+ * <p>A drop-in replacement for {@code JdbcDAOFactoryProvider} in tests, demos and
+ * benchmarks that should not need a running MySQL server.</p>
+ */
+public class MemoryDAOFactoryProvider implements DAOFactoryProvider {
+
+    private final MemoryDatabase database;
+
+    /** Uses a new, empty database. */
+    public MemoryDAOFactoryProvider() {
+        this(new MemoryDatabase());
+    }
+
+    public MemoryDAOFactoryProvider(MemoryDatabase database) {
+        this.database = database;
+    }
+
+    public MemoryDatabase getDatabase() {
+        return database;
+    }
+
+    @Override
+    public DAOFactory open() {
+        return new MemoryDAOFactory(database);
+    }
+}
@@ -0,0 +1,89 @@
+package dao.memory;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Committed state of an in-memory database, shared by all {@link MemoryDAOFactory}
+ * instances opened on it.
+ * <p>The state is one immutable {@link Tables} reference. Readers take it with a single
+ * volatile read and never lock. Writers build the next state from it and publish it with
+ * compare-and-set; if another commit won in between, the write is replayed on top of the
+ * newer state. A replayed transaction write throws if it no longer affects the rows it
+ * affected on the transaction's snapshot (see {@link MemoryDAOFactory}), which fails the
+ * commit. IDs come from per-table sequences, so replayed inserts never collide, and
+ * like auto-increment values they are not reused after a rollback.</p>
+ * <p>Thread-safe.</p>
+ */
+public class MemoryDatabase {
+
+    /**
+     * One write, applied to a state to produce the next one; must be repeatable for
+     * replays, or throw to abort the commit it is replayed for.
+     */
+    interface Write {
+        Tables apply(Tables tables);
+    }
+
+    private final AtomicReference<Tables> committed = new AtomicReference<>(Tables.EMPTY);
+    private final AtomicInteger subjectIds = new AtomicInteger();
+    private final AtomicInteger questionIds = new AtomicInteger();
+    private final AtomicInteger answerIds = new AtomicInteger();
+
+    /** @return the latest committed state */
+    Tables snapshot() {
+        return committed.get();
+    }
+
+    int nextSubjectId() {
+        return subjectIds.incrementAndGet();
+    }
+
+    int nextQuestionId() {
+        return questionIds.incrementAndGet();
+    }
+
+    int nextAnswerId() {
+        return answerIds.incrementAndGet();
+    }
+
+    /** Applies and publishes a single write (autocommit). */
+    void apply(Write write) {
+        for (;;) {
+            Tables base = committed.get();
+            if (committed.compareAndSet(base, write.apply(base))) return;
+        }
+    }
+
+    /**
+     * Publishes the result of a transaction. If nothing was committed since the
+     * transaction's snapshot {@code base}, {@code result} is published as is; otherwise
+     * {@code log} is replayed on the latest state. A write that throws during the replay
+     * aborts the commit; nothing is published.
+     */
+    void commit(Tables base, Tables result, List<Write> log) {
+        if (committed.compareAndSet(base, result)) return;
+        for (;;) {
+            Tables latest = committed.get();
+            Tables next = latest;
+            for (Write w : log) next = w.apply(next);
+            if (committed.compareAndSet(latest, next)) return;
+        }
+    }
+
+    /** @return the number of committed subjects */
+    public int subjectCount() {
+        return committed.get().subjects.size();
+    }
+
+    /** @return the number of committed questions */
+    public int questionCount() {
+        return committed.get().questions.size();
+    }
+
+    /** @return the number of committed answers */
+    public int answerCount() {
+        return committed.get().answers.size();
+    }
+}
@@ -0,0 +1,319 @@
+package dao.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import dao.DataAccessException;
+import dao.OptimisticLockException;
+import dao.Page;
+import dao.QuestionDAO;
+import dao.rows.QuestionRow;
+import dao.rows.SubjectRow;
+import domain.Question;
+import domain.Subject;
+import dto.QuestionLightDTO;
+
+public class MemoryQuestionDAO implements QuestionDAO {
+
+    private static final String DEV_ERR_SUBJECT_NOT_FOUND =
+        "Subject %d not found";
+
+    private final MemoryDAOFactory factory;
+
+    public MemoryQuestionDAO(MemoryDAOFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Optional<Question> findById(int id) {
+        Tables tables = factory.view();
+        QuestionRow row = tables.questions.get(id);
+        if (row == null) return Optional.empty();
+        return Optional.of(row.toQuestion(tables.subjects.get(row.subjectId).toSubject()));
+    }
+
+    @Override
+    public List<Question> findAll() {
+        Tables tables = factory.view();
+        List<Question> out = new ArrayList<>(tables.questions.size());
+        toQuestions(tables, tables.questions.iterator()).forEachRemaining(out::add);
+        return out;
+    }
+
+    @Override
+    public List<QuestionLightDTO> findAllLight() {
+        Tables tables = factory.view();
+        List<QuestionLightDTO> out = new ArrayList<>(tables.questions.size());
+        for (Iterator<QuestionRow> it = tables.questions.iterator(); it.hasNext(); ) {
+            QuestionRow row = it.next();
+            out.add(new QuestionLightDTO(row.id, row.title, row.subjectId));
+        }
+        return out;
+    }
+
+    /** Streams the snapshot current at the call; later writes do not show up in the stream. */
+    @Override
+    public Stream<Question> streamAll() {
+        return stream(factory.view());
+    }
+
+    /** Streams the snapshot current at the call; later writes do not show up in the stream. */
+    @Override
+    public Stream<Question> streamAllWithAnswers() {
+        Tables tables = factory.view();
+        return stream(tables).map(q -> {
+            for (int id : tables.answerIdsOf(q.getQuestionId())) {
+                q.getAnswersList().add(tables.answers.get(id).toAnswer(q));
+            }
+            return q;
+        });
+    }
+
+    @Override
+    public Page<Question> findAllAfter(int afterId, int limit) {
+        Page.checkRequest(afterId, limit);
+        Tables tables = factory.view();
+        List<Question> out = new ArrayList<>();
+        Iterator<Question> it = toQuestions(tables, tables.questions.iterator(afterId));
+        while (it.hasNext() && out.size() <= limit) out.add(it.next());
+        return Page.of(out, limit, afterId, Question::getQuestionId);
+    }
+
+    @Override
+    public Page<QuestionLightDTO> findAllLightAfter(int afterId, int limit) {
+        Page.checkRequest(afterId, limit);
+        Iterator<QuestionRow> it = factory.view().questions.iterator(afterId);
+        List<QuestionLightDTO> out = new ArrayList<>();
+        while (it.hasNext() && out.size() <= limit) {
+            QuestionRow row = it.next();
+            out.add(new QuestionLightDTO(row.id, row.title, row.subjectId));
+        }
+        return Page.of(out, limit, afterId, QuestionLightDTO::getQuestionId);
+    }
+
+    @Override
+    public List<Question> findBySubjectId(int subjectId) {
+        Tables tables = factory.view();
+        return children(tables, subject(tables, subjectId), tables.questionIdsOf(subjectId), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Page<Question> findBySubjectIdAfter(int subjectId, int afterId, int limit) {
+        Page.checkRequest(afterId, limit);
+        Tables tables = factory.view();
+        Subject subject = subject(tables, subjectId);
+        int[] ids = tables.questionIdsOf(subjectId);
+        int from = Arrays.binarySearch(ids, afterId);
+        from = from >= 0 ? from + 1 : -from - 1;
+        List<Question> out = children(tables, subject, ids, from, limit + 1);
+        return Page.of(out, limit, afterId, Question::getQuestionId);
+    }
+
+    @Override
+    public Page<QuestionLightDTO> findLightBySubjectIdAfter(int subjectId, int afterId, int limit) {
+        Page.checkRequest(afterId, limit);
+        Tables tables = factory.view();
+        int[] ids = tables.questionIdsOf(subjectId);
+        int from = Arrays.binarySearch(ids, afterId);
+        from = from >= 0 ? from + 1 : -from - 1;
+        List<QuestionLightDTO> out = new ArrayList<>();
+        for (int i = from; i < ids.length && out.size() <= limit; i++) {
+            QuestionRow row = tables.questions.get(ids[i]);
+            out.add(new QuestionLightDTO(row.id, row.title, row.subjectId));
+        }
+        return Page.of(out, limit, afterId, QuestionLightDTO::getQuestionId);
+    }
+
+    @Override
+    public List<Question> findBySubject(Subject parent) {
+        if (parent == null || parent.getSubjectId() <= 0)
+            throw new IllegalArgumentException("Parent Subject must be persisted");
+        Tables tables = factory.view();
+        return children(tables, parent, tables.questionIdsOf(parent.getSubjectId()), 0, Integer.MAX_VALUE);
+    }
+
+    /** Reads the lengths of the subject index, so the cost grows with the subjects, not the questions. */
+    @Override
+    public Map<Integer, Integer> countBySubject() {
+        Tables tables = factory.view();
+        Map<Integer, Integer> out = new HashMap<>();
+        for (Iterator<SubjectRow> it = tables.subjects.iterator(); it.hasNext(); ) {
+            int subjectId = it.next().id;
+            int count = tables.questionIdsOf(subjectId).length;
+            if (count > 0) out.put(subjectId, count);
+        }
+        return out;
+    }
+
+    @Override
+    public OptionalInt findIdBySubjectIdAfter(int subjectId, int afterId, int offset) {
+        if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
+        int[] ids = factory.view().questionIdsOf(subjectId);
+        int from = Arrays.binarySearch(ids, afterId);
+        from = from >= 0 ? from + 1 : -from - 1;
+        return offset < ids.length - from ? OptionalInt.of(ids[from + offset]) : OptionalInt.empty();
+    }
+
+    @Override
+    public int insert(Question question) {
+        int id = factory.database().nextQuestionId();
+        QuestionRow row = QuestionRow.of(id, question, 0);
+        factory.change(e -> {
+            e.putQuestion(row);
+            return 1;
+        });
+        question.markClean();
+        return id;
+    }
+
+    @Override
+    public int[] insertAll(Collection<Question> questions) {
+        int[] keys = new int[questions.size()];
+        List<QuestionRow> rows = new ArrayList<>(questions.size());
+        int i = 0;
+        for (Question q : questions) {
+            keys[i] = factory.database().nextQuestionId();
+            rows.add(QuestionRow.of(keys[i++], q, 0));
+        }
+        factory.change(e -> {
+            for (QuestionRow row : rows) e.putQuestion(row);
+            return rows.size();
+        });
+        i = 0;
+        for (Question q : questions) {
+            q.setQuestionId(keys[i++]);
+            q.markClean();
+        }
+        return keys;
+    }
+
+    @Override
+    public boolean update(Question question) {
+        if (!question.isDirty()) return true;
+        int expected = question.getVersion();
+        QuestionRow row = QuestionRow.of(question.getQuestionId(), question, expected + 1);
+        boolean updated = factory.change(e -> {
+            QuestionRow current = e.question(row.id);
+            if (current == null) return 0;
+            if (current.version != expected) {
+                throw new OptimisticLockException("questions", row.id, expected, current.version);
+            }
+            e.putQuestion(row);
+            return 1;
+        }) == 1;
+        if (updated) {
+            question.setVersion(row.version);
+            question.markClean();
+        }
+        return updated;
+    }
+
+    @Override
+    public int updateAll(Collection<Question> questions) {
+        List<Question> items = new ArrayList<>(questions.size());
+        for (Question q : questions) {
+            if (q.isDirty()) items.add(q);
+        }
+        List<QuestionRow> rows = new ArrayList<>(items.size());
+        for (Question q : items) rows.add(QuestionRow.of(q.getQuestionId(), q, q.getVersion() + 1));
+        boolean[] written = new boolean[rows.size()];
+        int updated = factory.change(e -> {
+            int n = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                QuestionRow row = rows.get(i);
+                QuestionRow current = e.question(row.id);
+                written[i] = current != null;
+                if (current == null) continue;
+                if (current.version != row.version - 1) {
+                    throw new OptimisticLockException("questions", row.id, row.version - 1, current.version);
+                }
+                e.putQuestion(row);
+                n++;
+            }
+            return n;
+        });
+        for (int i = 0; i < written.length; i++) {
+            if (!written[i]) continue;
+            items.get(i).setVersion(rows.get(i).version);
+            items.get(i).markClean();
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        return factory.change(e -> e.removeQuestion(id) ? 1 : 0) > 0;
+    }
+
+    @Override
+    public int deleteBySubjectId(int subjectId) {
+        return factory.change(e -> {
+            int[] ids = e.questionIdsOf(subjectId);
+            for (int id : ids) e.removeQuestion(id);
+            return ids.length;
+        });
+    }
+
+    @Override
+    public int deleteBySubjectIdUpTo(int subjectId, int upToId) {
+        return factory.change(e -> {
+            int deleted = 0;
+            for (int id : e.questionIdsOf(subjectId)) {
+                if (id > upToId) break;
+                e.removeQuestion(id);
+                deleted++;
+            }
+            return deleted;
+        });
+    }
+
+    private static Subject subject(Tables tables, int subjectId) {
+        SubjectRow row = tables.subjects.get(subjectId);
+        if (row == null) throw new DataAccessException(String.format(DEV_ERR_SUBJECT_NOT_FOUND, subjectId));
+        return row.toSubject();
+    }
+
+    /** @return up to {@code max} questions of {@code ids}, starting at index {@code from}, sharing {@code parent} */
+    private static List<Question> children(Tables tables, Subject parent, int[] ids, int from, int max) {
+        int to = (int) Math.min(ids.length, (long) from + max);
+        List<Question> out = new ArrayList<>(Math.max(to - from, 0));
+        for (int i = from; i < to; i++) out.add(tables.questions.get(ids[i]).toQuestion(parent));
+        return out;
+    }
+
+    private static Stream<Question> stream(Tables tables) {
+        Iterator<Question> it = toQuestions(tables, tables.questions.iterator());
+        return StreamSupport.stream(Spliterators.spliterator(it, tables.questions.size(),
+            Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /** Maps rows to questions; each subject is built once and shared by its questions. */
+    private static Iterator<Question> toQuestions(Tables tables, Iterator<QuestionRow> rows) {
+        Map<Integer, Subject> subjects = new HashMap<>();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Question next() {
+                QuestionRow row = rows.next();
+                Subject subject = subjects.computeIfAbsent(row.subjectId,
+                    id -> tables.subjects.get(id).toSubject());
+                return row.toQuestion(subject);
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package dao.memory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import dao.FetchPlan;
+import dao.OptimisticLockException;
+import dao.Page;
+import dao.SubjectDAO;
+import dao.rows.AnswerRow;
+import dao.rows.QuestionRow;
+import dao.rows.SubjectRow;
+import domain.Question;
+import domain.Subject;
+import dto.SubjectLightDTO;
+
+public class MemorySubjectDAO implements SubjectDAO {
+
+    private final MemoryDAOFactory factory;
+
+    public MemorySubjectDAO(MemoryDAOFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Optional<Subject> findById(int id) {
+        SubjectRow row = factory.view().subjects.get(id);
+        return row == null ? Optional.empty() : Optional.of(row.toSubject());
+    }
+
+    @Override
+    public Optional<Subject> findById(int id, FetchPlan plan) {
+        Tables tables = factory.view();
+        SubjectRow row = tables.subjects.get(id);
+        if (row == null) return Optional.empty();
+        Subject subject = row.toSubject();
+        attach(tables, subject, plan);
+        return Optional.of(subject);
+    }
+
+    @Override
+    public List<Subject> findAll() {
+        return findAll(FetchPlan.SUBJECT);
+    }
+
+    @Override
+    public List<Subject> findAll(FetchPlan plan) {
+        Tables tables = factory.view();
+        List<Subject> list = new ArrayList<>(tables.subjects.size());
+        for (Iterator<SubjectRow> it = tables.subjects.iterator(); it.hasNext(); ) {
+            Subject subject = it.next().toSubject();
+            attach(tables, subject, plan);
+            list.add(subject);
+        }
+        return list;
+    }
+
+    @Override
+    public List<SubjectLightDTO> findAllLight() {
+        Tables tables = factory.view();
+        List<SubjectLightDTO> list = new ArrayList<>(tables.subjects.size());
+        for (Iterator<SubjectRow> it = tables.subjects.iterator(); it.hasNext(); ) {
+            SubjectRow row = it.next();
+            list.add(new SubjectLightDTO(row.id, row.title));
+        }
+        return list;
+    }
+
+    @Override
+    public Page<Subject> findAllAfter(int afterId, int limit) {
+        Page.checkRequest(afterId, limit);
+        List<Subject> list = new ArrayList<>();
+        Iterator<SubjectRow> it = factory.view().subjects.iterator(afterId);
+        while (it.hasNext() && list.size() <= limit) list.add(it.next().toSubject());
+        return Page.of(list, limit, afterId, Subject::getSubjectId);
+    }
+
+    @Override
+    public int insert(Subject subject) {
+        int id = factory.database().nextSubjectId();
+        SubjectRow row = SubjectRow.of(id, subject, 0);
+        factory.change(e -> {
+            e.putSubject(row);
+            return 1;
+        });
+        subject.markClean();
+        return id;
+    }
+
+    @Override
+    public boolean update(Subject subject) {
+        if (!subject.isDirty()) return true;
+        int expected = subject.getVersion();
+        SubjectRow row = SubjectRow.of(subject.getSubjectId(), subject, expected + 1);
+        boolean updated = factory.change(e -> {
+            SubjectRow current = e.subject(row.id);
+            if (current == null) return 0;
+            if (current.version != expected) {
+                throw new OptimisticLockException("subjects", row.id, expected, current.version);
+            }
+            e.putSubject(row);
+            return 1;
+        }) == 1;
+        if (updated) {
+            subject.setVersion(row.version);
+            subject.markClean();
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        return factory.change(e -> e.removeSubject(id) ? 1 : 0) > 0;
+    }
+
+    /** Attaches questions and answers down to the depth of {@code plan}, read from the indexes. */
+    private static void attach(Tables tables, Subject subject, FetchPlan plan) {
+        if (!plan.includes(FetchPlan.QUESTIONS)) return;
+        for (int questionId : tables.questionIdsOf(subject.getSubjectId())) {
+            QuestionRow q = tables.questions.get(questionId);
+            Question question = q.toQuestion(subject);
+            subject.getQuestionsList().add(question);
+            if (!plan.includes(FetchPlan.ANSWERS)) continue;
+            for (int answerId : tables.answerIdsOf(questionId)) {
+                AnswerRow a = tables.answers.get(answerId);
+                question.getAnswersList().add(a.toAnswer(question));
+            }
+        }
+    }
+}
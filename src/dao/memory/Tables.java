@@ -0,0 +1,262 @@
+package dao.memory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import dao.DataAccessException;
+import dao.rows.AnswerRow;
+import dao.rows.QuestionRow;
+import dao.rows.SubjectRow;
+
+/**
+ * One immutable state of the in-memory database: the three tables plus the
+ * subject→questions and question→answers indexes.
+ * <p>Rows are immutable snapshots, so a {@code Tables} instance can be read by any
+ * number of threads without locking. Index entries are sorted {@code int[]} ID arrays.
+ * Foreign keys are enforced like the database does: a child needs an existing parent,
+ * and a parent that still has children cannot be deleted. Rows carry the optimistic
+ * lock version of the Jdbc tables.</p>
+ */
+final class Tables {
+
+    private static final int[] NO_IDS = new int[0];
+
+    private static final String DEV_ERR_SUBJECT_NOT_FOUND =
+        "Subject %d not found";
+    private static final String DEV_ERR_QUESTION_NOT_FOUND =
+        "Question %d not found";
+    private static final String DEV_ERR_SUBJECT_HAS_QUESTIONS =
+        "Subject %d still has %d questions";
+    private static final String DEV_ERR_QUESTION_HAS_ANSWERS =
+        "Question %d still has %d answers";
+
+    static final Tables EMPTY = new Tables(IntMap.empty(), IntMap.empty(), IntMap.empty(),
+        IntMap.empty(), IntMap.empty());
+
+    final IntMap<SubjectRow> subjects;
+    final IntMap<QuestionRow> questions;
+    final IntMap<AnswerRow> answers;
+    private final IntMap<int[]> questionIdsBySubject;
+    private final IntMap<int[]> answerIdsByQuestion;
+
+    private Tables(IntMap<SubjectRow> subjects, IntMap<QuestionRow> questions, IntMap<AnswerRow> answers,
+                   IntMap<int[]> questionIdsBySubject, IntMap<int[]> answerIdsByQuestion) {
+        this.subjects = subjects;
+        this.questions = questions;
+        this.answers = answers;
+        this.questionIdsBySubject = questionIdsBySubject;
+        this.answerIdsByQuestion = answerIdsByQuestion;
+    }
+
+    /** @return the IDs of the subject's questions in ascending order; never null, must not be modified */
+    int[] questionIdsOf(int subjectId) {
+        int[] ids = questionIdsBySubject.get(subjectId);
+        return ids == null ? NO_IDS : ids;
+    }
+
+    /** @return the IDs of the question's answers in ascending order; never null, must not be modified */
+    int[] answerIdsOf(int questionId) {
+        int[] ids = answerIdsByQuestion.get(questionId);
+        return ids == null ? NO_IDS : ids;
+    }
+
+    Editor edit() {
+        return new Editor(this);
+    }
+
+    /**
+     * Applies the changes of one write and produces the next {@code Tables} with {@link #freeze()}.
+     * <p>The child ID lists of the parents a write touches are collected in
+     * {@link ChildIds} buffers and sorted into their new arrays once, in {@code freeze()},
+     * so a bulk insert or delete under one parent costs O(n log n), not a copy per row.</p>
+     */
+    static final class Editor {
+        private final IntMap.Editor<SubjectRow> subjects;
+        private final IntMap.Editor<QuestionRow> questions;
+        private final IntMap.Editor<AnswerRow> answers;
+        private final IntMap.Editor<int[]> questionIdsBySubject;
+        private final IntMap.Editor<int[]> answerIdsByQuestion;
+        private final Map<Integer, ChildIds> questionIdsChanged = new HashMap<>();
+        private final Map<Integer, ChildIds> answerIdsChanged = new HashMap<>();
+
+        private Editor(Tables base) {
+            subjects = base.subjects.edit();
+            questions = base.questions.edit();
+            answers = base.answers.edit();
+            questionIdsBySubject = base.questionIdsBySubject.edit();
+            answerIdsByQuestion = base.answerIdsByQuestion.edit();
+        }
+
+        SubjectRow subject(int id) {
+            return subjects.get(id);
+        }
+
+        QuestionRow question(int id) {
+            return questions.get(id);
+        }
+
+        AnswerRow answer(int id) {
+            return answers.get(id);
+        }
+
+        /** @return the IDs of the subject's questions in ascending order; must not be modified */
+        int[] questionIdsOf(int subjectId) {
+            return ids(questionIdsChanged, questionIdsBySubject, subjectId);
+        }
+
+        /** @return the IDs of the question's answers in ascending order; must not be modified */
+        int[] answerIdsOf(int questionId) {
+            return ids(answerIdsChanged, answerIdsByQuestion, questionId);
+        }
+
+        /** Inserts or replaces a subject. */
+        void putSubject(SubjectRow row) {
+            subjects.put(row.id, row);
+        }
+
+        /** @return true if the subject existed */
+        boolean removeSubject(int id) {
+            int children = childCount(questionIdsChanged, questionIdsBySubject, id);
+            if (children > 0) {
+                throw new DataAccessException(String.format(DEV_ERR_SUBJECT_HAS_QUESTIONS, id, children));
+            }
+            return subjects.remove(id) != null;
+        }
+
+        /** Inserts or replaces a question and keeps the subject index in step. */
+        void putQuestion(QuestionRow row) {
+            if (subjects.get(row.subjectId) == null) {
+                throw new DataAccessException(String.format(DEV_ERR_SUBJECT_NOT_FOUND, row.subjectId));
+            }
+            QuestionRow old = questions.put(row.id, row);
+            if (old != null && old.subjectId == row.subjectId) return;
+            if (old != null) children(questionIdsChanged, questionIdsBySubject, old.subjectId).remove(row.id);
+            children(questionIdsChanged, questionIdsBySubject, row.subjectId).add(row.id);
+        }
+
+        /** @return true if the question existed */
+        boolean removeQuestion(int id) {
+            int children = childCount(answerIdsChanged, answerIdsByQuestion, id);
+            if (children > 0) {
+                throw new DataAccessException(String.format(DEV_ERR_QUESTION_HAS_ANSWERS, id, children));
+            }
+            QuestionRow old = questions.remove(id);
+            if (old == null) return false;
+            children(questionIdsChanged, questionIdsBySubject, old.subjectId).remove(id);
+            return true;
+        }
+
+        /** Inserts or replaces an answer and keeps the question index in step. */
+        void putAnswer(AnswerRow row) {
+            if (questions.get(row.questionId) == null) {
+                throw new DataAccessException(String.format(DEV_ERR_QUESTION_NOT_FOUND, row.questionId));
+            }
+            AnswerRow old = answers.put(row.id, row);
+            if (old != null && old.questionId == row.questionId) return;
+            if (old != null) children(answerIdsChanged, answerIdsByQuestion, old.questionId).remove(row.id);
+            children(answerIdsChanged, answerIdsByQuestion, row.questionId).add(row.id);
+        }
+
+        /** @return true if the answer existed */
+        boolean removeAnswer(int id) {
+            AnswerRow old = answers.remove(id);
+            if (old == null) return false;
+            children(answerIdsChanged, answerIdsByQuestion, old.questionId).remove(id);
+            return true;
+        }
+
+        Tables freeze() {
+            for (Map.Entry<Integer, ChildIds> e : questionIdsChanged.entrySet()) {
+                questionIdsBySubject.put(e.getKey(), e.getValue().freeze());
+            }
+            for (Map.Entry<Integer, ChildIds> e : answerIdsChanged.entrySet()) {
+                answerIdsByQuestion.put(e.getKey(), e.getValue().freeze());
+            }
+            return new Tables(subjects.freeze(), questions.freeze(), answers.freeze(),
+                questionIdsBySubject.freeze(), answerIdsByQuestion.freeze());
+        }
+
+        private static ChildIds children(Map<Integer, ChildIds> changed, IntMap.Editor<int[]> index, int parentId) {
+            return changed.computeIfAbsent(parentId, id -> new ChildIds(index.get(id)));
+        }
+
+        private static int[] ids(Map<Integer, ChildIds> changed, IntMap.Editor<int[]> index, int parentId) {
+            ChildIds buffer = changed.get(parentId);
+            if (buffer != null) return buffer.sorted();
+            int[] ids = index.get(parentId);
+            return ids == null ? NO_IDS : ids;
+        }
+
+        private static int childCount(Map<Integer, ChildIds> changed, IntMap.Editor<int[]> index, int parentId) {
+            return ids(changed, index, parentId).length;
+        }
+    }
+
+    /**
+     * The child IDs of one parent while an {@link Editor} changes them. Additions and
+     * removals are appended to buffers and applied in one sort-and-merge pass when the
+     * sorted IDs are read; the base array of the previous state is never modified.
+     */
+    private static final class ChildIds {
+        private int[] ids;
+        private int[] added = NO_IDS;
+        private int addedCount;
+        private int[] removed = NO_IDS;
+        private int removedCount;
+
+        ChildIds(int[] base) {
+            ids = base == null ? NO_IDS : base;
+        }
+
+        void add(int id) {
+            if (removedCount > 0) merge();
+            if (addedCount == added.length) added = Arrays.copyOf(added, Math.max(8, addedCount * 2));
+            added[addedCount++] = id;
+        }
+
+        void remove(int id) {
+            if (addedCount > 0) merge();
+            if (removedCount == removed.length) removed = Arrays.copyOf(removed, Math.max(8, removedCount * 2));
+            removed[removedCount++] = id;
+        }
+
+        /** @return the IDs in ascending order */
+        int[] sorted() {
+            merge();
+            return ids;
+        }
+
+        /** @return the IDs in ascending order, or null if none are left */
+        int[] freeze() {
+            int[] out = sorted();
+            return out.length == 0 ? null : out;
+        }
+
+        private void merge() {
+            if (addedCount > 0) {
+                Arrays.sort(added, 0, addedCount);
+                int[] out = new int[ids.length + addedCount];
+                int i = 0, j = 0, n = 0;
+                while (i < ids.length || j < addedCount) {
+                    int next = j >= addedCount || (i < ids.length && ids[i] <= added[j]) ? ids[i++] : added[j++];
+                    if (n == 0 || out[n - 1] != next) out[n++] = next;
+                }
+                ids = n == out.length ? out : Arrays.copyOf(out, n);
+                addedCount = 0;
+            }
+            if (removedCount > 0) {
+                Arrays.sort(removed, 0, removedCount);
+                int[] out = new int[ids.length];
+                int j = 0, n = 0;
+                for (int id : ids) {
+                    while (j < removedCount && removed[j] < id) j++;
+                    if (j < removedCount && removed[j] == id) continue;
+                    out[n++] = id;
+                }
+                ids = n == out.length ? out : Arrays.copyOf(out, n);
+                removedCount = 0;
+            }
+        }
+    }
+}
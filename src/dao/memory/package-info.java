@@ -0,0 +1,11 @@
+/**
+ * In-memory implementation of the DAO interfaces.
+ * <p>
+ * {@link dao.memory.MemoryDAOFactoryProvider} is a drop-in replacement for the JDBC
+ * provider that needs no database server: tests and demos run against it, and the
+ * benchmarks use it as the baseline the Jdbc DAOs are measured against. Committed
+ * state is a persistent structure of int-keyed radix arrays, so readers never lock and
+ * every transaction works on its own snapshot.
+ * </p>
+ */
+package dao.memory;
@@ -0,0 +1,20 @@
+package dao.retry;
+
+/**
+ * How a failed database call is treated by {@link RetryingDAOExecutor}; see
+ * {@link TransientFailures#classify(Throwable)}.
+ */
+public enum FailureKind {
+
+    /** Lost a race with other transactions (deadlock, lock wait or pool timeout); the work can be run again. */
+    TRANSIENT,
+
+    /**
+     * The connection broke. Safe to run again, except when it broke during commit: then
+     * it is unknown whether the transaction was committed.
+     */
+    CONNECTION,
+
+    /** Running the same work again fails the same way, e.g. a constraint violation or a version conflict. */
+    PERMANENT
+}
@@ -0,0 +1,83 @@
+package dao.retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How often and how patiently a {@link RetryingDAOExecutor} runs work again after a
+ * transient failure.
+ * <p>Before retry {@code n} (1-based) the executor waits a random time between zero
+ * and {@code min(maxBackoff, initialBackoff * 2^(n-1))} ("full jitter"), so that
+ * transactions that just deadlocked each other do not collide again in lockstep.
+ * Configure before handing the policy to an executor.</p>
+ */
+public class RetryPolicy {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(20);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofMillis(500);
+
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private Duration initialBackoff = DEFAULT_INITIAL_BACKOFF;
+    private Duration maxBackoff = DEFAULT_MAX_BACKOFF;
+
+    /** @return a policy that runs work exactly once */
+    public static RetryPolicy none() {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setMaxAttempts(1);
+        return policy;
+    }
+
+    /**
+     * @return how often work is run at most, the first run included
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param maxAttempts how often work is run at most, the first run included; 1 disables retries
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        if (maxAttempts <= 0) throw new IllegalArgumentException("maxAttempts must be positive");
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * @return the upper bound of the wait before the first retry
+     */
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * @param initialBackoff the upper bound of the wait before the first retry; doubles per retry
+     */
+    public void setInitialBackoff(Duration initialBackoff) {
+        if (initialBackoff.isNegative()) throw new IllegalArgumentException("initialBackoff must not be negative");
+        this.initialBackoff = initialBackoff;
+    }
+
+    /**
+     * @return the upper bound of any single wait
+     */
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * @param maxBackoff the upper bound of any single wait
+     */
+    public void setMaxBackoff(Duration maxBackoff) {
+        if (maxBackoff.isNegative()) throw new IllegalArgumentException("maxBackoff must not be negative");
+        this.maxBackoff = maxBackoff;
+    }
+
+    /** @return the randomized wait in nanoseconds before retry {@code retry} (1-based) */
+    long backoffNanos(int retry) {
+        long cap = maxBackoff.toNanos();
+        long bound = initialBackoff.toNanos() << Math.min(retry - 1, 30);
+        if (bound <= 0 || bound > cap) bound = cap;
+        return bound == 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+}
@@ -0,0 +1,149 @@
+package dao.retry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+
+/**
+ * Runs units of work and runs them again, on a fresh {@link DAOFactory}, when they fail
+ * transiently: a deadlock, a lock wait or pool timeout, or a dropped connection.
+ * <p>Failures are classified by {@link TransientFailures}; permanent ones, e.g. a
+ * constraint violation or an {@code OptimisticLockException}, are thrown at once.
+ * Between attempts the executor sleeps as the {@link RetryPolicy} says. When the
+ * attempts are used up, the last failure is thrown with the earlier ones suppressed.</p>
+ * <ul>
+ *   <li>{@link #read} runs the work in autocommit mode. Only use it for work that
+ *       does not write: an earlier statement may already be committed when a later one
+ *       fails.</li>
+ *   <li>{@link #inTransaction} runs the work in a transaction and retries the whole
+ *       transaction after rolling it back. The work must not have effects outside the
+ *       database, since it can run more than once, and should build the entities it
+ *       writes itself: an entity an earlier attempt wrote is marked clean and would
+ *       not be written again. A connection lost during commit is not retried, because
+ *       the transaction may have been committed.</li>
+ * </ul>
+ * <p>The counters tell how often contention was absorbed and how often it still
+ * reached the caller. The executor is thread-safe.</p>
+ */
+public class RetryingDAOExecutor {
+
+    private final DAOFactoryProvider provider;
+    private final RetryPolicy policy;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public RetryingDAOExecutor(DAOFactoryProvider provider) {
+        this(provider, new RetryPolicy());
+    }
+
+    public RetryingDAOExecutor(DAOFactoryProvider provider, RetryPolicy policy) {
+        this.provider = provider;
+        this.policy = policy;
+    }
+
+    /**
+     * Runs read-only {@code work} in autocommit mode, retrying transient failures.
+     *
+     * @return the work's result
+     */
+    public <T> T read(Function<? super DAOFactory, ? extends T> work) {
+        return run(work, false);
+    }
+
+    /**
+     * Runs {@code work} in its own transaction: committed if it returns normally, rolled
+     * back if it throws. The whole transaction is retried after a transient failure.
+     *
+     * @return the work's result
+     */
+    public <T> T inTransaction(Function<? super DAOFactory, ? extends T> work) {
+        return run(work, true);
+    }
+
+    /** @return the number of times work was run again after a transient failure */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /** @return the number of calls that succeeded only after at least one retry */
+    public long getRecovered() {
+        return recovered.sum();
+    }
+
+    /** @return the number of calls that failed transiently on every attempt, or were interrupted between attempts */
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    private <T> T run(Function<? super DAOFactory, ? extends T> work, boolean transactional) {
+        List<RuntimeException> earlier = null;
+        for (int attempt = 1; ; attempt++) {
+            Attempt outcome = new Attempt();
+            try {
+                T value = execute(work, transactional, outcome);
+                if (attempt > 1) recovered.increment();
+                return value;
+            } catch (RuntimeException e) {
+                boolean retryable = isRetryable(e, outcome);
+                if (!retryable || attempt >= policy.getMaxAttempts() || !backOff(attempt)) {
+                    if (retryable) exhausted.increment();
+                    if (earlier != null) earlier.forEach(e::addSuppressed);
+                    throw e;
+                }
+                if (earlier == null) earlier = new ArrayList<>(policy.getMaxAttempts() - 1);
+                earlier.add(e);
+                retries.increment();
+            }
+        }
+    }
+
+    private static boolean isRetryable(RuntimeException e, Attempt outcome) {
+        FailureKind kind = TransientFailures.classify(e);
+        if (kind == FailureKind.PERMANENT) return false;
+        return !(kind == FailureKind.CONNECTION && outcome.committing);
+    }
+
+    /** @return false if interrupted; the interrupt flag is restored */
+    private boolean backOff(int retry) {
+        long nanos = policy.backoffNanos(retry);
+        if (nanos == 0) return !Thread.currentThread().isInterrupted();
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <T> T execute(Function<? super DAOFactory, ? extends T> work, boolean transactional, Attempt outcome) {
+        try (DAOFactory daos = provider.open()) {
+            if (!transactional) return work.apply(daos);
+            daos.begin();
+            try {
+                T value = work.apply(daos);
+                outcome.committing = true;
+                daos.commit();
+                return value;
+            } catch (RuntimeException | Error e) {
+                try {
+                    daos.rollback();
+                } catch (RuntimeException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            }
+        }
+    }
+
+    // What one attempt got to; a connection lost while committing leaves the outcome unknown.
+    private static final class Attempt {
+        boolean committing;
+    }
+}
@@ -0,0 +1,64 @@
+package dao.retry;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+
+/**
+ * Classifies data access failures by the {@link SQLException}s in their cause chain.
+ * <ul>
+ *   <li>SQLState class {@code 40} (transaction rollback, e.g. MySQL deadlock 1213 as
+ *       {@code 40001}), {@code HYT00}/{@code HYT01} timeouts, MySQL lock wait timeout
+ *       1205 (reported as {@code HY000}) and every {@link SQLTransientException}, which
+ *       includes the borrow timeout of the connection pool, are
+ *       {@link FailureKind#TRANSIENT}.</li>
+ *   <li>SQLState class {@code 08}, MySQL 2006/2013 (server gone, connection lost),
+ *       {@link SQLTransientConnectionException} and {@link SQLRecoverableException} are
+ *       {@link FailureKind#CONNECTION}.</li>
+ *   <li>Everything else is {@link FailureKind#PERMANENT}, including failures without any
+ *       SQLException such as {@code OptimisticLockException}: a version conflict must be
+ *       resolved by the user, not by running the update again.</li>
+ * </ul>
+ */
+public final class TransientFailures {
+
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final int MYSQL_SERVER_GONE = 2006;
+    private static final int MYSQL_CONNECTION_LOST = 2013;
+
+    private TransientFailures() {
+    }
+
+    /** @return the kind of the first SQLException in the cause chain of {@code failure}, or PERMANENT if there is none */
+    public static FailureKind classify(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof SQLException e) return classify(e);
+            if (t.getCause() == t) break;
+        }
+        return FailureKind.PERMANENT;
+    }
+
+    /** @return true if running the work again may succeed */
+    public static boolean isTransient(Throwable failure) {
+        return classify(failure) != FailureKind.PERMANENT;
+    }
+
+    private static FailureKind classify(SQLException e) {
+        if (e instanceof SQLTransientConnectionException || e instanceof SQLRecoverableException) {
+            return FailureKind.CONNECTION;
+        }
+        if (e instanceof SQLTransientException) return FailureKind.TRANSIENT;
+
+        int code = e.getErrorCode();
+        if (code == MYSQL_DEADLOCK || code == MYSQL_LOCK_WAIT_TIMEOUT) return FailureKind.TRANSIENT;
+        if (code == MYSQL_SERVER_GONE || code == MYSQL_CONNECTION_LOST) return FailureKind.CONNECTION;
+
+        String state = e.getSQLState();
+        if (state == null) return FailureKind.PERMANENT;
+        if (state.startsWith("40") || state.equals("HYT00") || state.equals("HYT01")) return FailureKind.TRANSIENT;
+        if (state.startsWith("08")) return FailureKind.CONNECTION;
+        return FailureKind.PERMANENT;
+    }
+}
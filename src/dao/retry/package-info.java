@@ -0,0 +1,10 @@
+/**
+ * Retries of units of work that failed because of contention or a dropped connection.
+ * <p>
+ * {@link dao.retry.TransientFailures} sorts failures into transient and permanent ones
+ * by their SQLState and vendor code; {@link dao.retry.RetryingDAOExecutor} runs reads
+ * and whole transactions again after transient failures, with the jittered exponential
+ * backoff of a {@link dao.retry.RetryPolicy}, and counts retries and give-ups.
+ * </p>
+ */
+package dao.retry;
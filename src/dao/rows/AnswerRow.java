@@ -0,0 +1,33 @@
+package dao.rows;
+
+import domain.Answer;
+import domain.Question;
+
+/** Immutable snapshot of an answers row. */
+public final class AnswerRow {
+    public final int id;
+    public final String content;
+    public final boolean valid;
+    public final int questionId;
+    public final int version;
+
+    public AnswerRow(int id, String content, boolean valid, int questionId, int version) {
+        this.id = id;
+        this.content = content;
+        this.valid = valid;
+        this.questionId = questionId;
+        this.version = version;
+    }
+
+    public static AnswerRow of(int id, Answer a, int version) {
+        return new AnswerRow(id, a.getAnswerContent(), a.isCorrect(), a.getQuestion().getQuestionId(), version);
+    }
+
+    /** @return a new, clean entity with this row's values, attached to {@code question} */
+    public Answer toAnswer(Question question) {
+        Answer a = new Answer(id, content, valid, question);
+        a.setVersion(version);
+        a.markClean();
+        return a;
+    }
+}
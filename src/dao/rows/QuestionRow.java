@@ -0,0 +1,34 @@
+package dao.rows;
+
+import domain.Question;
+import domain.Subject;
+
+/** Immutable snapshot of a questions row. */
+public final class QuestionRow {
+    public final int id;
+    public final String title;
+    public final String content;
+    public final int subjectId;
+    public final int version;
+
+    public QuestionRow(int id, String title, String content, int subjectId, int version) {
+        this.id = id;
+        this.title = title;
+        this.content = content;
+        this.subjectId = subjectId;
+        this.version = version;
+    }
+
+    public static QuestionRow of(int id, Question q, int version) {
+        return new QuestionRow(id, q.getQuestionTitle(), q.getQuestionContent(), q.getSubject().getSubjectId(),
+            version);
+    }
+
+    /** @return a new, clean entity with this row's values, attached to {@code subject} */
+    public Question toQuestion(Subject subject) {
+        Question q = new Question(id, title, content, subject);
+        q.setVersion(version);
+        q.markClean();
+        return q;
+    }
+}
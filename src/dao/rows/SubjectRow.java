@@ -0,0 +1,30 @@
+package dao.rows;
+
+import domain.Subject;
+
+/** Immutable snapshot of a subjects row. */
+public final class SubjectRow {
+    public final int id;
+    public final String title;
+    public final String info;
+    public final int version;
+
+    public SubjectRow(int id, String title, String info, int version) {
+        this.id = id;
+        this.title = title;
+        this.info = info;
+        this.version = version;
+    }
+
+    public static SubjectRow of(int id, Subject s, int version) {
+        return new SubjectRow(id, s.getSubjectTitle(), s.getSubjectInfo(), version);
+    }
+
+    /** @return a new, clean entity with this row's values */
+    public Subject toSubject() {
+        Subject s = new Subject(id, title, info);
+        s.setVersion(version);
+        s.markClean();
+        return s;
+    }
+}
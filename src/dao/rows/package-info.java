@@ -0,0 +1,10 @@
+/**
+ * Immutable snapshots of the subjects, questions and answers rows.
+ * <p>
+ * The in-memory tables store them as their committed state and the second-level
+ * cache of the Jdbc DAOs keeps them between units of work; in both places an entity is
+ * only ever materialised from a row, never shared. Each row carries the optimistic lock
+ * version of its table.
+ * </p>
+ */
+package dao.rows;
@@ -0,0 +1,39 @@
+package dao.schema;
+
+import java.util.List;
+
+/**
+ * An index a hot query relies on: without an index whose leading columns are
+ * {@link #getColumns()}, the query scans the whole table.
+ */
+public final class ExpectedIndex {
+
+    private final String table;
+    private final List<String> columns;
+    private final List<String> usedBy;
+
+    ExpectedIndex(String table, List<String> columns, List<String> usedBy) {
+        this.table = table;
+        this.columns = List.copyOf(columns);
+        this.usedBy = List.copyOf(usedBy);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /** @return the columns the index must start with, in order */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /** @return the DAO methods that would fall back to a full scan without it */
+    public List<String> getUsedBy() {
+        return usedBy;
+    }
+
+    @Override
+    public String toString() {
+        return table + "(" + String.join(", ", columns) + ")";
+    }
+}
@@ -0,0 +1,34 @@
+package dao.schema;
+
+import java.util.List;
+
+/**
+ * One version of the schema: the steps that lead from the previous version to it.
+ * <p>Steps should be idempotent ({@code CREATE TABLE IF NOT EXISTS}, check before
+ * {@code CREATE INDEX}). MySQL commits DDL implicitly, so a migration that fails halfway
+ * is not rolled back; idempotent steps let the next start simply run it again.</p>
+ */
+final class Migration {
+
+    private final int version;
+    private final String description;
+    private final List<SchemaStep> steps;
+
+    Migration(int version, String description, SchemaStep... steps) {
+        this.version = version;
+        this.description = description;
+        this.steps = List.of(steps);
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    List<SchemaStep> getSteps() {
+        return steps;
+    }
+}
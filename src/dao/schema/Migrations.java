@@ -0,0 +1,100 @@
+package dao.schema;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * The migrations of the QuizApp schema, in version order, and the indexes its hot
+ * queries need.
+ * <p>Append new versions at the end; never change a migration that has shipped.</p>
+ */
+final class Migrations {
+
+    static final List<Migration> ALL = List.of(
+        new Migration(1, "subjects, questions, answers with foreign key indexes",
+            sql("CREATE TABLE IF NOT EXISTS subjects ("
+                + " id INT NOT NULL AUTO_INCREMENT,"
+                + " title VARCHAR(255) NOT NULL,"
+                + " info TEXT,"
+                + " PRIMARY KEY (id)"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4"),
+            sql("CREATE TABLE IF NOT EXISTS questions ("
+                + " id INT NOT NULL AUTO_INCREMENT,"
+                + " title VARCHAR(255) NOT NULL,"
+                + " content TEXT NOT NULL,"
+                + " subject_id INT NOT NULL,"
+                + " PRIMARY KEY (id),"
+                + " INDEX idx_questions_subject_id (subject_id, id),"
+                + " CONSTRAINT fk_questions_subject FOREIGN KEY (subject_id) REFERENCES subjects (id)"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4"),
+            sql("CREATE TABLE IF NOT EXISTS answers ("
+                + " id INT NOT NULL AUTO_INCREMENT,"
+                + " content TEXT NOT NULL,"
+                + " valid BOOLEAN NOT NULL DEFAULT FALSE,"
+                + " question_id INT NOT NULL,"
+                + " PRIMARY KEY (id),"
+                + " INDEX idx_answers_question_id (question_id, id),"
+                + " CONSTRAINT fk_answers_question FOREIGN KEY (question_id) REFERENCES questions (id)"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4"),
+            // Tables created by hand before migrations existed: add what IF NOT EXISTS skipped.
+            ensureIndex("questions", "idx_questions_subject_id", "subject_id", "id"),
+            ensureIndex("answers", "idx_answers_question_id", "question_id", "id"),
+            ensureForeignKey("questions", "fk_questions_subject", "subject_id", "subjects"),
+            ensureForeignKey("answers", "fk_answers_question", "question_id", "questions")),
+        new Migration(2, "version columns for optimistic locking",
+            ensureColumn("subjects", "version", "INT NOT NULL DEFAULT 0"),
+            ensureColumn("questions", "version", "INT NOT NULL DEFAULT 0"),
+            ensureColumn("answers", "version", "INT NOT NULL DEFAULT 0"))
+    );
+
+    /**
+     * Indexes verified at startup. InnoDB appends the primary key to every secondary
+     * index, so an index on {@code (subject_id)} also serves {@code ORDER BY id} seeks.
+     */
+    static final List<ExpectedIndex> EXPECTED_INDEXES = List.of(
+        new ExpectedIndex("questions", List.of("subject_id"), List.of(
+            "QuestionDAO.findBySubjectId", "QuestionDAO.findBySubjectIdAfter",
+            "QuestionDAO.findLightBySubjectIdAfter", "QuestionDAO.deleteBySubjectId",
+            "AnswerDAO.deleteBySubjectId", "SubjectDAO.findById(FetchPlan)", "QuestionDAO.countBySubject",
+            "QuestionDAO.findIdBySubjectIdAfter", "AnswerDAO.countByQuestionForSubjectId")),
+        new ExpectedIndex("answers", List.of("question_id"), List.of(
+            "AnswerDAO.findByQuestionId", "AnswerDAO.deleteByQuestionId", "AnswerDAO.deleteBySubjectId",
+            "QuestionDAO.streamAllWithAnswers", "SubjectDAO.findById(FetchPlan)"))
+    );
+
+    private Migrations() {}
+
+    private static SchemaStep sql(String ddl) {
+        return conn -> execute(conn, ddl);
+    }
+
+    private static SchemaStep ensureColumn(String table, String column, String definition) {
+        return conn -> {
+            if (SchemaInspector.columnExists(conn, table, column)) return;
+            execute(conn, "ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        };
+    }
+
+    private static SchemaStep ensureIndex(String table, String name, String... columns) {
+        return conn -> {
+            if (SchemaInspector.hasIndexStartingWith(conn, table, List.of(columns[0]))) return;
+            execute(conn, "CREATE INDEX " + name + " ON " + table + " (" + String.join(", ", columns) + ")");
+        };
+    }
+
+    private static SchemaStep ensureForeignKey(String table, String name, String column, String referencedTable) {
+        return conn -> {
+            if (SchemaInspector.hasForeignKey(conn, table, column, referencedTable)) return;
+            execute(conn, "ALTER TABLE " + table + " ADD CONSTRAINT " + name
+                + " FOREIGN KEY (" + column + ") REFERENCES " + referencedTable + " (id)");
+        };
+    }
+
+    private static void execute(Connection conn, String ddl) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute(ddl);
+        }
+    }
+}
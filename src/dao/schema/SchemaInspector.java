@@ -0,0 +1,79 @@
+package dao.schema;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads tables, indexes and foreign keys through {@link DatabaseMetaData}, so checks
+ * work the same on MySQL, MariaDB and other databases.
+ */
+final class SchemaInspector {
+
+    private SchemaInspector() {}
+
+    static boolean tableExists(Connection conn, String table) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, table, new String[] { "TABLE" })) {
+            return rs.next();
+        }
+    }
+
+    static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * @return true if some index of {@code table}, or its primary key, starts with {@code columns}
+     */
+    static boolean hasIndexStartingWith(Connection conn, String table, List<String> columns) throws SQLException {
+        for (List<String> index : indexes(conn, table)) {
+            if (index.size() >= columns.size() && index.subList(0, columns.size()).equals(lower(columns))) return true;
+        }
+        return false;
+    }
+
+    /** @return the columns of every index of {@code table}, in index order */
+    static List<List<String>> indexes(Connection conn, String table) throws SQLException {
+        Map<String, TreeMap<Short, String>> byName = new TreeMap<>();
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, table, false, true)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (name == null || column == null) continue;   // table statistics row
+                byName.computeIfAbsent(name, n -> new TreeMap<>())
+                    .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+            }
+        }
+        List<List<String>> out = new ArrayList<>();
+        for (TreeMap<Short, String> columns : byName.values()) out.add(new ArrayList<>(columns.values()));
+        return out;
+    }
+
+    /**
+     * @return true if {@code table.column} has a foreign key to {@code referencedTable}
+     */
+    static boolean hasForeignKey(Connection conn, String table, String column, String referencedTable)
+            throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getImportedKeys(conn.getCatalog(), null, table)) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("FKCOLUMN_NAME"))
+                    && referencedTable.equalsIgnoreCase(rs.getString("PKTABLE_NAME"))) return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> lower(List<String> columns) {
+        List<String> out = new ArrayList<>(columns.size());
+        for (String c : columns) out.add(c.toLowerCase(Locale.ROOT));
+        return out;
+    }
+}
@@ -0,0 +1,170 @@
+package dao.schema;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import dao.ConnectionProvider;
+import dao.DataAccessException;
+
+/**
+ * Brings the database schema to the version this build expects and checks the indexes
+ * the DAOs rely on.
+ * <p>Applied versions are recorded in a {@code schema_version} table; each start runs
+ * only the migrations above the recorded version, in order. Call
+ * {@link #migrateAndVerify()} once at startup, before the first unit-of-work is opened;
+ * {@code JdbcDAOFactoryProvider.startPooled} does so.</p>
+ * <p>Two instances starting at once may both try a migration. Steps are idempotent, and
+ * the loser fails on the primary key of {@code schema_version} with a
+ * {@link DataAccessException}; starting it again finds the schema up to date.</p>
+ */
+public class SchemaMigrator {
+
+    private static final Logger LOG = System.getLogger(SchemaMigrator.class.getName());
+
+    private static final String SQL_CREATE_VERSION_TABLE =
+        "CREATE TABLE IF NOT EXISTS schema_version ("
+            + " version INT NOT NULL,"
+            + " description VARCHAR(255) NOT NULL,"
+            + " installed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,"
+            + " execution_ms BIGINT NOT NULL,"
+            + " PRIMARY KEY (version))";
+    private static final String SQL_CURRENT_VERSION =
+        "SELECT MAX(version) FROM schema_version";
+    private static final String SQL_INSERT_VERSION =
+        "INSERT INTO schema_version (version, description, execution_ms) VALUES (?, ?, ?)";
+
+    //  DEV MESSAGES
+    private static final String DEV_ERR_READ_VERSION =
+        "Could not read the schema version";
+    private static final String DEV_ERR_MIGRATION =
+        "Schema migration V%d (%s) failed";
+    private static final String DEV_ERR_TOO_NEW =
+        "Database schema is at V%d, but this build only knows up to V%d";
+    private static final String DEV_ERR_VERIFY =
+        "Could not read the index metadata";
+    private static final String DEV_WARN_MISSING_INDEX =
+        "MISSING INDEX on %s: %s will scan the whole table. Run the schema migration or create the index by hand.";
+    private static final String DEV_WARN_MISSING_TABLE =
+        "MISSING TABLE %s: the DAOs using it will fail.";
+
+    private final ConnectionProvider connectionProvider;
+    private final List<Migration> migrations;
+    private final List<ExpectedIndex> expectedIndexes;
+
+    public SchemaMigrator(ConnectionProvider connectionProvider) {
+        this(connectionProvider, Migrations.ALL, Migrations.EXPECTED_INDEXES);
+    }
+
+    SchemaMigrator(ConnectionProvider connectionProvider, List<Migration> migrations,
+                   List<ExpectedIndex> expectedIndexes) {
+        this.connectionProvider = connectionProvider;
+        this.migrations = migrations;
+        this.expectedIndexes = expectedIndexes;
+    }
+
+    /**
+     * Runs {@link #migrate()}, then {@link #verifyIndexes()}.
+     *
+     * @return the indexes that are still missing; each was logged as a warning
+     */
+    public List<ExpectedIndex> migrateAndVerify() {
+        migrate();
+        return verifyIndexes();
+    }
+
+    /**
+     * Applies all migrations above the recorded version.
+     *
+     * @return the number of migrations applied
+     * @throws DataAccessException if a migration fails, or the database is newer than this build
+     */
+    public int migrate() {
+        try (Connection conn = connectionProvider.getConnection()) {
+            int current = currentVersion(conn);
+            int latest = getLatestVersion();
+            if (current > latest) throw new DataAccessException(String.format(DEV_ERR_TOO_NEW, current, latest));
+            int applied = 0;
+            for (Migration m : migrations) {
+                if (m.getVersion() <= current) continue;
+                apply(conn, m);
+                applied++;
+            }
+            return applied;
+        } catch (SQLException e) {
+            throw new DataAccessException(DEV_ERR_READ_VERSION, e);
+        }
+    }
+
+    /**
+     * @return the version recorded in the database, 0 for an empty database
+     */
+    public int getCurrentVersion() {
+        try (Connection conn = connectionProvider.getConnection()) {
+            return currentVersion(conn);
+        } catch (SQLException e) {
+            throw new DataAccessException(DEV_ERR_READ_VERSION, e);
+        }
+    }
+
+    /** @return the version this build migrates to */
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+
+    /**
+     * Checks that every index a hot query depends on exists, and logs a warning for each
+     * one that does not.
+     *
+     * @return the missing indexes; empty if all are there
+     */
+    public List<ExpectedIndex> verifyIndexes() {
+        List<ExpectedIndex> missing = new ArrayList<>();
+        try (Connection conn = connectionProvider.getConnection()) {
+            for (ExpectedIndex index : expectedIndexes) {
+                if (!SchemaInspector.tableExists(conn, index.getTable())) {
+                    LOG.log(Level.WARNING, String.format(DEV_WARN_MISSING_TABLE, index.getTable()));
+                    missing.add(index);
+                } else if (!SchemaInspector.hasIndexStartingWith(conn, index.getTable(), index.getColumns())) {
+                    LOG.log(Level.WARNING, String.format(DEV_WARN_MISSING_INDEX, index,
+                        String.join(", ", index.getUsedBy())));
+                    missing.add(index);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(DEV_ERR_VERIFY, e);
+        }
+        return missing;
+    }
+
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute(SQL_CREATE_VERSION_TABLE);
+            try (ResultSet rs = st.executeQuery(SQL_CURRENT_VERSION)) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private static void apply(Connection conn, Migration m) {
+        long start = System.nanoTime();
+        try {
+            for (SchemaStep step : m.getSteps()) step.apply(conn);
+            try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_VERSION)) {
+                ps.setInt(1, m.getVersion());
+                ps.setString(2, m.getDescription());
+                ps.setLong(3, (System.nanoTime() - start) / 1_000_000);
+                ps.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format(DEV_ERR_MIGRATION, m.getVersion(), m.getDescription()), e);
+        }
+        LOG.log(Level.INFO, "Applied schema migration V" + m.getVersion() + ": " + m.getDescription());
+    }
+}
@@ -0,0 +1,13 @@
+package dao.schema;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * One step of a {@link Migration}: a DDL statement or a check-then-change done in Java.
+ */
+@FunctionalInterface
+interface SchemaStep {
+
+    void apply(Connection conn) throws SQLException;
+}
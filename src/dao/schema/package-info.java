@@ -0,0 +1,10 @@
+/**
+ * Versioned schema migrations for the JDBC backend.
+ * <p>
+ * {@link dao.schema.SchemaMigrator} creates the tables, foreign key indexes and
+ * constraints the DAOs expect, records the applied version in {@code schema_version},
+ * and warns at startup about indexes whose absence would turn a hot query into a full
+ * table scan.
+ * </p>
+ */
+package dao.schema;
@@ -0,0 +1,107 @@
+package dataExport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Encodes text as UTF-8 into a fixed buffer and writes it to a channel whenever the
+ * buffer is full.
+ * <p>Encoding is done by hand straight into the buffer's array, so appending a field
+ * allocates nothing. Not thread-safe.</p>
+ */
+final class ChannelTextWriter implements Closeable {
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer;
+	private final byte[] bytes;
+	private long bytesWritten;
+
+	ChannelTextWriter(WritableByteChannel channel, int bufferSize) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(bufferSize);
+		this.bytes = buffer.array();
+	}
+
+	ChannelTextWriter append(char c) throws IOException {
+		if (c < 0x80) {
+			if (!buffer.hasRemaining()) flushBuffer();
+			buffer.put((byte) c);
+		} else {
+			appendCodePoint(c);
+		}
+		return this;
+	}
+
+	ChannelTextWriter append(String s) throws IOException {
+		return append(s, 0, s.length());
+	}
+
+	/** Appends {@code s.substring(start, end)} without creating the substring. */
+	ChannelTextWriter append(String s, int start, int end) throws IOException {
+		for (int i = start; i < end; i++) {
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				if (!buffer.hasRemaining()) flushBuffer();
+				bytes[buffer.position()] = (byte) c;
+				buffer.position(buffer.position() + 1);
+			} else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(s.charAt(i + 1))) {
+				appendCodePoint(Character.toCodePoint(c, s.charAt(++i)));
+			} else {
+				appendCodePoint(c);
+			}
+		}
+		return this;
+	}
+
+	ChannelTextWriter append(long value) throws IOException {
+		return append(Long.toString(value));
+	}
+
+	private void appendCodePoint(int cp) throws IOException {
+		if (buffer.remaining() < 4) flushBuffer();
+		if (Character.isSurrogate((char) cp) && cp < 0x10000) cp = '?';   // unpaired surrogate
+		if (cp < 0x800) {
+			buffer.put((byte) (0xC0 | (cp >> 6)));
+			buffer.put((byte) (0x80 | (cp & 0x3F)));
+		} else if (cp < 0x10000) {
+			buffer.put((byte) (0xE0 | (cp >> 12)));
+			buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+			buffer.put((byte) (0x80 | (cp & 0x3F)));
+		} else {
+			buffer.put((byte) (0xF0 | (cp >> 18)));
+			buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+			buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+			buffer.put((byte) (0x80 | (cp & 0x3F)));
+		}
+	}
+
+	/** @return the number of bytes appended so far */
+	long getBytesWritten() {
+		return bytesWritten + buffer.position();
+	}
+
+	/** Writes the buffered bytes to the channel; does not flush or close the channel. */
+	void flush() throws IOException {
+		flushBuffer();
+	}
+
+	private void flushBuffer() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			bytesWritten += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/** Flushes and closes the channel. */
+	@Override
+	public void close() throws IOException {
+		try {
+			flushBuffer();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package dataExport;
+
+import java.io.IOException;
+
+import domain.Answer;
+import domain.Question;
+
+/**
+ * Writes the {@link ExportFormat#CSV} layout.
+ */
+final class CsvRecordWriter implements RecordWriter {
+
+	private static final String HEADER = "subject,title,content,answer,correct";
+
+	private final ChannelTextWriter out;
+
+	CsvRecordWriter(ChannelTextWriter out) {
+		this.out = out;
+	}
+
+	@Override
+	public void begin() throws IOException {
+		out.append(HEADER).append('\n');
+	}
+
+	@Override
+	public void write(Question q) throws IOException {
+		field(q.getSubject().getSubjectTitle());
+		out.append(',');
+		field(q.getQuestionTitle());
+		out.append(',');
+		field(q.getQuestionContent());
+		for (Answer a : q.getAnswersList()) {
+			out.append(',');
+			field(a.getAnswerContent());
+			out.append(',').append(a.isCorrect() ? "true" : "false");
+		}
+		out.append('\n');
+	}
+
+	private void field(String value) throws IOException {
+		if (value == null) return;
+		if (!needsQuotes(value)) {
+			out.append(value);
+			return;
+		}
+		out.append('"');
+		int start = 0;
+		for (int i = value.indexOf('"'); i >= 0; i = value.indexOf('"', start)) {
+			out.append(value, start, i).append("\"\"");
+			start = i + 1;
+		}
+		out.append(value, start, value.length()).append('"');
+	}
+
+	private static boolean needsQuotes(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+		}
+		return false;
+	}
+}
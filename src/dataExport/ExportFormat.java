@@ -0,0 +1,42 @@
+package dataExport;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * File formats written by the {@link QuestionExporter}. Both match the layouts read by
+ * {@code dataImport.QuestionImporter}, so an export can be imported again.
+ */
+public enum ExportFormat {
+
+	/**
+	 * Comma separated values with a header line. Columns: {@code subject, title, content},
+	 * followed by one {@code answer, correct} pair per answer; rows have as many pairs as
+	 * their question has answers. Fields are quoted when needed (RFC 4180).
+	 */
+	CSV,
+
+	/**
+	 * One JSON object per question:
+	 * {@code {"subjectId": 1, "subject": "...", "subjectInfo": "...", "id": 7, "title": "...",
+	 * "content": "...", "answers": [{"id": 9, "content": "...", "correct": true}]}}.
+	 */
+	JSON_LINES;
+
+	/**
+	 * @return the format matching the file extension, ignoring a trailing {@code .gz}
+	 *         ({@code .jsonl}/{@code .json} or anything else as CSV)
+	 */
+	public static ExportFormat forFile(Path file) {
+		String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		if (name.endsWith(".gz")) name = name.substring(0, name.length() - 3);
+		return name.endsWith(".jsonl") || name.endsWith(".json") ? JSON_LINES : CSV;
+	}
+
+	/**
+	 * @return true if the file name ends with {@code .gz}
+	 */
+	public static boolean isGzip(Path file) {
+		return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+	}
+}
@@ -0,0 +1,55 @@
+package dataExport;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one export run.
+ */
+public class ExportReport {
+
+	private final long questionsExported;
+	private final long answersExported;
+	private final long bytesWritten;
+	private final Duration elapsed;
+
+	public ExportReport(long questionsExported, long answersExported, long bytesWritten, Duration elapsed) {
+		this.questionsExported = questionsExported;
+		this.answersExported = answersExported;
+		this.bytesWritten = bytesWritten;
+		this.elapsed = elapsed;
+	}
+
+	public long getQuestionsExported() {
+		return questionsExported;
+	}
+
+	public long getAnswersExported() {
+		return answersExported;
+	}
+
+	/**
+	 * @return the number of bytes handed to the channel, before compression
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	public Duration getElapsed() {
+		return elapsed;
+	}
+
+	/**
+	 * @return questions written per second over the whole run
+	 */
+	public double getRowsPerSecond() {
+		long nanos = elapsed.toNanos();
+		return nanos == 0 ? 0.0 : questionsExported * 1_000_000_000.0 / nanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%,d questions and %,d answers exported, %,.1f MB in %.1f s (%,.0f rows/s)",
+			questionsExported, answersExported, bytesWritten / 1_048_576.0, elapsed.toMillis() / 1000.0,
+			getRowsPerSecond());
+	}
+}
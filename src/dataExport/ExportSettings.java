@@ -0,0 +1,46 @@
+package dataExport;
+
+/**
+ * Tuning settings of a {@link QuestionExporter}.
+ * <p>
+ * How many rows are fetched per database round trip is a setting of the DAO backend,
+ * e.g. {@code JdbcSettings.setFetchSize}; the exporter itself holds one question at a time.
+ * </p>
+ */
+public class ExportSettings {
+
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	private boolean gzip;
+
+	/**
+	 * @return the size in bytes of the buffer written to the channel in one call
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * @param bufferSize the size in bytes of the buffer written to the channel in one call
+	 */
+	public void setBufferSize(int bufferSize) {
+		if (bufferSize < 1024) throw new IllegalArgumentException("bufferSize must be at least 1024");
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * @return true if the output is gzip compressed
+	 */
+	public boolean isGzip() {
+		return gzip;
+	}
+
+	/**
+	 * @param gzip true to gzip compress the output; {@link QuestionExporter#exportTo(java.nio.file.Path)}
+	 *             also compresses files ending with {@code .gz}
+	 */
+	public void setGzip(boolean gzip) {
+		this.gzip = gzip;
+	}
+}
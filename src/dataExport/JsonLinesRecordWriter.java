@@ -0,0 +1,77 @@
+package dataExport;
+
+import java.io.IOException;
+
+import domain.Answer;
+import domain.Question;
+import domain.Subject;
+
+/**
+ * Writes the {@link ExportFormat#JSON_LINES} layout.
+ */
+final class JsonLinesRecordWriter implements RecordWriter {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final ChannelTextWriter out;
+
+	JsonLinesRecordWriter(ChannelTextWriter out) {
+		this.out = out;
+	}
+
+	@Override
+	public void begin() {
+		// no header
+	}
+
+	@Override
+	public void write(Question q) throws IOException {
+		Subject s = q.getSubject();
+		out.append("{\"subjectId\":").append(s.getSubjectId());
+		out.append(",\"subject\":");
+		string(s.getSubjectTitle());
+		out.append(",\"subjectInfo\":");
+		string(s.getSubjectInfo());
+		out.append(",\"id\":").append(q.getQuestionId());
+		out.append(",\"title\":");
+		string(q.getQuestionTitle());
+		out.append(",\"content\":");
+		string(q.getQuestionContent());
+		out.append(",\"answers\":[");
+		boolean first = true;
+		for (Answer a : q.getAnswersList()) {
+			if (!first) out.append(',');
+			first = false;
+			out.append("{\"id\":").append(a.getAnswerId());
+			out.append(",\"content\":");
+			string(a.getAnswerContent());
+			out.append(",\"correct\":").append(a.isCorrect() ? "true" : "false").append('}');
+		}
+		out.append("]}\n");
+	}
+
+	private void string(String value) throws IOException {
+		if (value == null) {
+			out.append("null");
+			return;
+		}
+		out.append('"');
+		int start = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= 0x20 && c != '"' && c != '\\') continue;
+			out.append(value, start, i);
+			start = i + 1;
+			switch (c) {
+				case '"':  out.append("\\\""); break;
+				case '\\': out.append("\\\\"); break;
+				case '\n': out.append("\\n"); break;
+				case '\r': out.append("\\r"); break;
+				case '\t': out.append("\\t"); break;
+				default:
+					out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+			}
+		}
+		out.append(value, start, value.length()).append('"');
+	}
+}
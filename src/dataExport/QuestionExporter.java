@@ -0,0 +1,165 @@
+package dataExport;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+import domain.Question;
+
+/**
+ * Exports all subjects, questions and answers to CSV or JSON Lines.
+ * <p>
+ * Questions are read with {@code QuestionDAO.streamAllWithAnswers()} and written one
+ * at a time, so memory use stays constant however large the question bank is. The
+ * output goes through a fixed buffer to a {@link WritableByteChannel}, optionally gzip
+ * compressed. Subjects without questions are not exported.
+ * </p>
+ * <p>
+ * The export reads inside one transaction, so on a database with snapshot reads (e.g.
+ * InnoDB's REPEATABLE READ) it sees one consistent state even while others write.
+ * </p>
+ */
+public class QuestionExporter {
+
+	private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+	private final DAOFactoryProvider provider;
+	private final ExportSettings settings;
+
+	public QuestionExporter(DAOFactoryProvider provider) {
+		this(provider, new ExportSettings());
+	}
+
+	public QuestionExporter(DAOFactoryProvider provider, ExportSettings settings) {
+		this.provider = provider;
+		this.settings = settings;
+	}
+
+	/**
+	 * Exports to a file, replacing it if it exists. The format is taken from the file
+	 * extension; a {@code .gz} extension turns on compression, see {@link ExportFormat}.
+	 */
+	public ExportReport exportTo(Path file) throws IOException {
+		return exportTo(file, ExportFormat.forFile(file));
+	}
+
+	/**
+	 * Exports to a file in the given format, replacing it if it exists.
+	 * <p>
+	 * The export is written to a temporary file next to {@code file}, forced to disk and
+	 * then moved over {@code file} in one step. If the export fails, the temporary file is
+	 * deleted and a previous {@code file}, e.g. last night's backup, stays as it was.
+	 * </p>
+	 */
+	public ExportReport exportTo(Path file, ExportFormat format) throws IOException {
+		Path target = file.toAbsolutePath();
+		Path temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+		boolean moved = false;
+		try {
+			ExportReport report;
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				report = export(channel, format, settings.isGzip() || ExportFormat.isGzip(file));
+				channel.force(true);
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			moved = true;
+			return report;
+		} finally {
+			if (!moved) Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Exports to {@code channel} in the given format. The channel is not closed.
+	 *
+	 * @throws IOException if writing fails
+	 * @throws dao.DataAccessException if reading fails
+	 */
+	public ExportReport exportTo(WritableByteChannel channel, ExportFormat format) throws IOException {
+		return export(channel, format, settings.isGzip());
+	}
+
+	private ExportReport export(WritableByteChannel channel, ExportFormat format, boolean gzip) throws IOException {
+		long start = System.nanoTime();
+		DiscardableGzipStream gzipStream = gzip
+			? new DiscardableGzipStream(new KeepOpenOutputStream(Channels.newOutputStream(channel)))
+			: null;
+		boolean complete = false;
+		try {
+			ChannelTextWriter out = new ChannelTextWriter(gzip ? Channels.newChannel(gzipStream) : channel,
+				settings.getBufferSize());
+			RecordWriter writer = RecordWriter.create(format, out);
+
+			long questions = 0;
+			long answers = 0;
+			try (DAOFactory f = provider.open()) {
+				f.begin();
+				try (Stream<Question> stream = f.questions().streamAllWithAnswers()) {
+					writer.begin();
+					for (Iterator<Question> it = stream.iterator(); it.hasNext(); ) {
+						Question q = it.next();
+						writer.write(q);
+						questions++;
+						answers += q.getAnswersList().size();
+					}
+				} finally {
+					f.rollback();   // read only; nothing to commit
+				}
+			}
+			out.flush();
+			if (gzipStream != null) gzipStream.close();   // writes the trailer, leaves the channel open
+			complete = true;
+			return new ExportReport(questions, answers, out.getBytesWritten(), Duration.ofNanos(System.nanoTime() - start));
+		} finally {
+			// no trailer after a failure: a cut-off export must not look like a complete one
+			if (!complete && gzipStream != null) gzipStream.discard();
+		}
+	}
+
+	/** GZIPOutputStream whose native deflater can be freed without finishing the stream. */
+	private static final class DiscardableGzipStream extends GZIPOutputStream {
+		DiscardableGzipStream(OutputStream out) throws IOException {
+			super(out, GZIP_BUFFER_SIZE);
+		}
+
+		void discard() {
+			def.end();
+		}
+	}
+
+	/** Passes writes through in bulk and turns close() into flush(), so the caller's channel stays open. */
+	private static final class KeepOpenOutputStream extends FilterOutputStream {
+		KeepOpenOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package dataExport;
+
+import java.io.IOException;
+
+import domain.Question;
+
+/**
+ * Writes one question with its subject and answers per record.
+ */
+interface RecordWriter {
+
+	/** Writes whatever precedes the first record, e.g. a header line. */
+	void begin() throws IOException;
+
+	void write(Question question) throws IOException;
+
+	static RecordWriter create(ExportFormat format, ChannelTextWriter out) {
+		switch (format) {
+			case JSON_LINES: return new JsonLinesRecordWriter(out);
+			case CSV:
+			default:         return new CsvRecordWriter(out);
+		}
+	}
+}
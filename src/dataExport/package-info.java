@@ -0,0 +1,8 @@
+/**
+ * Streaming export of the question bank to CSV and JSON Lines files.
+ * <p>
+ * {@link dataExport.QuestionExporter} is the entry point; its output can be read back
+ * with {@code dataImport.QuestionImporter}.
+ * </p>
+ */
+package dataExport;
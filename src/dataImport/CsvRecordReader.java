@@ -0,0 +1,127 @@
+package dataImport;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import dataImport.ImportRecord.AnswerRecord;
+
+/**
+ * Streaming reader for the {@link ImportFormat#CSV} layout (RFC 4180 quoting).
+ */
+final class CsvRecordReader implements RecordReader {
+
+	private static final String ERR_COLUMNS =
+		"Erwartet werden mindestens die Spalten Thema, Titel und Inhalt";
+	private static final String ERR_ANSWER_PAIR =
+		"Antworten müssen paarweise als Antwort und richtig/falsch angegeben werden";
+	private static final String ERR_CORRECT_FLAG =
+		"Ungültiger Wert für richtig/falsch: \"%s\"";
+	private static final String ERR_UNTERMINATED_QUOTE =
+		"Anführungszeichen wird nicht geschlossen";
+
+	private final PushbackReader in;
+	private final char delimiter;
+	private long line = 1;
+	private boolean headerSkipped;
+
+	CsvRecordReader(Reader in, char delimiter) {
+		this.in = new PushbackReader(in, 1);
+		this.delimiter = delimiter;
+	}
+
+	@Override
+	public ImportRecord next() throws IOException {
+		List<String> row;
+		long start;
+		do {
+			start = line;
+			row = readRow();
+			if (row == null) return null;
+		} while (isBlank(row));
+
+		if (!headerSkipped) {
+			headerSkipped = true;
+			return next();
+		}
+		if (row.size() < 3) throw new RecordFormatException(start, ERR_COLUMNS);
+		if ((row.size() - 3) % 2 != 0) throw new RecordFormatException(start, ERR_ANSWER_PAIR);
+
+		List<AnswerRecord> answers = new ArrayList<>((row.size() - 3) / 2);
+		for (int i = 3; i < row.size(); i += 2) {
+			if (row.get(i).isEmpty() && row.get(i + 1).isEmpty()) continue;   // unused trailing columns
+			answers.add(new AnswerRecord(row.get(i), parseCorrect(start, row.get(i + 1))));
+		}
+		return new ImportRecord(start, row.get(0).strip(), "", row.get(1), row.get(2), answers);
+	}
+
+	/**
+	 * @return the fields of the next row, or null at the end of the input
+	 */
+	private List<String> readRow() throws IOException {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		boolean any = false;
+		long start = line;
+		for (;;) {
+			int c = in.read();
+			if (c == -1) {
+				if (quoted) throw new RecordFormatException(start, ERR_UNTERMINATED_QUOTE);
+				if (!any) return null;
+				fields.add(field.toString());
+				return fields;
+			}
+			any = true;
+			if (quoted) {
+				if (c == '"') {
+					int next = in.read();
+					if (next == '"') {
+						field.append('"');
+					} else {
+						quoted = false;
+						if (next != -1) in.unread(next);
+					}
+				} else {
+					if (c == '\n') line++;
+					field.append((char) c);
+				}
+			} else if (c == '"' && field.length() == 0) {
+				quoted = true;
+			} else if (c == delimiter) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else if (c == '\n') {
+				line++;
+				fields.add(field.toString());
+				return fields;
+			} else if (c != '\r') {
+				field.append((char) c);
+			}
+		}
+	}
+
+	private static boolean parseCorrect(long line, String value) {
+		switch (value.strip().toLowerCase(Locale.ROOT)) {
+			case "true": case "1": case "ja": case "richtig": case "x":
+				return true;
+			case "false": case "0": case "nein": case "falsch": case "":
+				return false;
+			default:
+				throw new RecordFormatException(line, String.format(ERR_CORRECT_FLAG, value));
+		}
+	}
+
+	private static boolean isBlank(List<String> row) {
+		for (String f : row) if (!f.isBlank()) return false;
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
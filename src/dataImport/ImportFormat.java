@@ -0,0 +1,32 @@
+package dataImport;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * File formats understood by the {@link QuestionImporter}.
+ */
+public enum ImportFormat {
+
+	/**
+	 * Comma separated values with a header line. Columns: {@code subject, title, content},
+	 * followed by any number of {@code answer, correct} pairs. Fields may be quoted with
+	 * {@code "}; quoted fields may contain delimiters, line breaks and {@code ""}.
+	 */
+	CSV,
+
+	/**
+	 * One JSON object per line:
+	 * {@code {"subject": "...", "subjectInfo": "...", "title": "...", "content": "...",
+	 * "answers": [{"content": "...", "correct": true}]}}. {@code subjectInfo} is optional.
+	 */
+	JSON_LINES;
+
+	/**
+	 * @return the format matching the file extension ({@code .jsonl}/{@code .json} or anything else as CSV)
+	 */
+	public static ImportFormat forFile(Path file) {
+		String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		return name.endsWith(".jsonl") || name.endsWith(".json") ? JSON_LINES : CSV;
+	}
+}
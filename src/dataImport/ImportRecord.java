@@ -0,0 +1,36 @@
+package dataImport;
+
+import java.util.List;
+
+/**
+ * One question of the import file as parsed, before subjects are resolved.
+ */
+final class ImportRecord {
+
+	final long line;
+	final String subjectTitle;
+	final String subjectInfo;
+	final String title;
+	final String content;
+	final List<AnswerRecord> answers;
+
+	ImportRecord(long line, String subjectTitle, String subjectInfo, String title, String content,
+			List<AnswerRecord> answers) {
+		this.line = line;
+		this.subjectTitle = subjectTitle;
+		this.subjectInfo = subjectInfo;
+		this.title = title;
+		this.content = content;
+		this.answers = answers;
+	}
+
+	static final class AnswerRecord {
+		final String content;
+		final boolean correct;
+
+		AnswerRecord(String content, boolean correct) {
+			this.content = content;
+			this.correct = correct;
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package dataImport;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of one import run: throughput and the records that were rejected.
+ */
+public class ImportReport {
+
+	private final long rowsRead;
+	private final long rowsImported;
+	private final long answersImported;
+	private final long errorCount;
+	private final List<RowError> errors;
+	private final List<String> emptySubjects;
+	private final Duration elapsed;
+
+	public ImportReport(long rowsRead, long rowsImported, long answersImported, long errorCount,
+			List<RowError> errors, List<String> emptySubjects, Duration elapsed) {
+		this.rowsRead = rowsRead;
+		this.rowsImported = rowsImported;
+		this.answersImported = answersImported;
+		this.errorCount = errorCount;
+		this.errors = List.copyOf(errors);
+		this.emptySubjects = List.copyOf(emptySubjects);
+		this.elapsed = elapsed;
+	}
+
+	/**
+	 * @return the number of question records read from the file
+	 */
+	public long getRowsRead() {
+		return rowsRead;
+	}
+
+	/**
+	 * @return the number of questions written and committed
+	 */
+	public long getRowsImported() {
+		return rowsImported;
+	}
+
+	/**
+	 * @return the number of answers written and committed
+	 */
+	public long getAnswersImported() {
+		return answersImported;
+	}
+
+	/**
+	 * @return the number of rejected records, including those not kept in {@link #getErrors()}
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * @return the rejected records, up to {@link ImportSettings#getMaxReportedErrors()}
+	 */
+	public List<RowError> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return the titles of the subjects the import created but put no question in,
+	 *         because all their records were rejected; they stay in the database
+	 */
+	public List<String> getEmptySubjects() {
+		return emptySubjects;
+	}
+
+	public Duration getElapsed() {
+		return elapsed;
+	}
+
+	/**
+	 * @return records read per second over the whole run
+	 */
+	public double getRowsPerSecond() {
+		long nanos = elapsed.toNanos();
+		return nanos == 0 ? 0.0 : rowsRead * 1_000_000_000.0 / nanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%,d rows read, %,d questions and %,d answers imported, %,d errors in %.1f s (%,.0f rows/s)",
+			rowsRead, rowsImported, answersImported, errorCount, elapsed.toMillis() / 1000.0, getRowsPerSecond());
+	}
+}
@@ -0,0 +1,112 @@
+package dataImport;
+
+import dao.retry.RetryPolicy;
+
+/**
+ * Tuning settings of a {@link QuestionImporter}.
+ * <p>
+ * Configure before starting an import; the defaults suit imports of up to a few
+ * million questions.
+ * </p>
+ */
+public class ImportSettings {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1_000;
+	public static final int DEFAULT_MAX_REPORTED_ERRORS = 1_000;
+
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private int validationThreads = Runtime.getRuntime().availableProcessors();
+	private int queueCapacity = 2 * validationThreads;
+	private char csvDelimiter = ',';
+	private int maxReportedErrors = DEFAULT_MAX_REPORTED_ERRORS;
+	private RetryPolicy retryPolicy = new RetryPolicy();
+
+	/**
+	 * @return the number of questions validated, written and committed together
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * @param chunkSize the number of questions validated, written and committed together
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive");
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @return the number of threads running {@code validate()} on parsed chunks
+	 */
+	public int getValidationThreads() {
+		return validationThreads;
+	}
+
+	/**
+	 * @param validationThreads the number of threads running {@code validate()} on parsed chunks
+	 */
+	public void setValidationThreads(int validationThreads) {
+		if (validationThreads <= 0) throw new IllegalArgumentException("validationThreads must be positive");
+		this.validationThreads = validationThreads;
+	}
+
+	/**
+	 * @return the number of chunks that may wait between the reader and the writer;
+	 *         the reader blocks when it is reached
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * @param queueCapacity the number of chunks that may wait between the reader and the writer
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		if (queueCapacity <= 0) throw new IllegalArgumentException("queueCapacity must be positive");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * @return the field delimiter of CSV files
+	 */
+	public char getCsvDelimiter() {
+		return csvDelimiter;
+	}
+
+	/**
+	 * @param csvDelimiter the field delimiter of CSV files, e.g. {@code ';'} for German Excel exports
+	 */
+	public void setCsvDelimiter(char csvDelimiter) {
+		this.csvDelimiter = csvDelimiter;
+	}
+
+	/**
+	 * @return the maximum number of row errors kept in the report; further errors are only counted
+	 */
+	public int getMaxReportedErrors() {
+		return maxReportedErrors;
+	}
+
+	/**
+	 * @param maxReportedErrors the maximum number of row errors kept in the report
+	 */
+	public void setMaxReportedErrors(int maxReportedErrors) {
+		this.maxReportedErrors = maxReportedErrors;
+	}
+
+	/**
+	 * @return how often a chunk is written again after a deadlock, timeout or lost connection
+	 */
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * @param retryPolicy how often a chunk is written again after a deadlock, timeout or lost connection
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		if (retryPolicy == null) throw new IllegalArgumentException("retryPolicy must not be null");
+		this.retryPolicy = retryPolicy;
+	}
+}
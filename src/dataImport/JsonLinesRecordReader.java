@@ -0,0 +1,71 @@
+package dataImport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import dataImport.ImportRecord.AnswerRecord;
+
+/**
+ * Streaming reader for the {@link ImportFormat#JSON_LINES} layout.
+ */
+final class JsonLinesRecordReader implements RecordReader {
+
+	private static final String ERR_NOT_AN_OBJECT = "Jede Zeile muss ein JSON-Objekt sein";
+	private static final String ERR_FIELD_TYPE = "Feld \"%s\" hat den falschen Typ";
+
+	private final BufferedReader in;
+	private long line;
+
+	JsonLinesRecordReader(Reader in) {
+		this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+	}
+
+	@Override
+	public ImportRecord next() throws IOException {
+		String text;
+		do {
+			text = in.readLine();
+			if (text == null) return null;
+			line++;
+		} while (text.isBlank());
+
+		Object parsed = JsonValueParser.parse(text, line);
+		if (!(parsed instanceof Map)) throw new RecordFormatException(line, ERR_NOT_AN_OBJECT);
+		Map<?, ?> obj = (Map<?, ?>) parsed;
+
+		List<AnswerRecord> answers = new ArrayList<>();
+		Object rawAnswers = obj.get("answers");
+		if (rawAnswers != null) {
+			if (!(rawAnswers instanceof List)) throw fieldType("answers");
+			for (Object a : (List<?>) rawAnswers) {
+				if (!(a instanceof Map)) throw fieldType("answers");
+				Map<?, ?> answer = (Map<?, ?>) a;
+				Object correct = answer.get("correct");
+				if (correct != null && !(correct instanceof Boolean)) throw fieldType("correct");
+				answers.add(new AnswerRecord(string(answer, "content"), Boolean.TRUE.equals(correct)));
+			}
+		}
+		String subject = string(obj, "subject");
+		return new ImportRecord(line, subject == null ? null : subject.strip(), string(obj, "subjectInfo"),
+			string(obj, "title"), string(obj, "content"), answers);
+	}
+
+	private String string(Map<?, ?> obj, String field) {
+		Object value = obj.get(field);
+		if (value != null && !(value instanceof String)) throw fieldType(field);
+		return (String) value;
+	}
+
+	private RecordFormatException fieldType(String field) {
+		return new RecordFormatException(line, String.format(ERR_FIELD_TYPE, field));
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -0,0 +1,180 @@
+package dataImport;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON parser for one line of a {@link ImportFormat#JSON_LINES} file.
+ * <p>Objects become {@code Map<String, Object>}, arrays {@code List<Object>}, numbers
+ * {@code Double}; strings, booleans and null map to their Java counterparts.</p>
+ * <p>Nesting is limited to {@link #MAX_DEPTH} levels, so a malformed line cannot
+ * overflow the stack of the reader thread.</p>
+ */
+final class JsonValueParser {
+
+	/** Deepest nesting of objects and arrays accepted; a record needs three levels. */
+	static final int MAX_DEPTH = 64;
+
+	private final String text;
+	private final long line;
+	private int pos;
+	private int depth;
+
+	private JsonValueParser(String text, long line) {
+		this.text = text;
+		this.line = line;
+	}
+
+	/**
+	 * @throws RecordFormatException if {@code text} is not a single JSON value
+	 */
+	static Object parse(String text, long line) {
+		JsonValueParser p = new JsonValueParser(text, line);
+		Object value = p.value();
+		p.skipWhitespace();
+		if (p.pos < text.length()) throw p.error("Unerwartetes Zeichen nach dem JSON-Wert");
+		return value;
+	}
+
+	private Object value() {
+		skipWhitespace();
+		if (pos >= text.length()) throw error("Unerwartetes Zeilenende");
+		char c = text.charAt(pos);
+		switch (c) {
+			case '{': return object();
+			case '[': return array();
+			case '"': return string();
+			case 't': return literal("true", Boolean.TRUE);
+			case 'f': return literal("false", Boolean.FALSE);
+			case 'n': return literal("null", null);
+			default:
+				if (c == '-' || (c >= '0' && c <= '9')) return number();
+				throw error("Unerwartetes Zeichen '" + c + "'");
+		}
+	}
+
+	private Map<String, Object> object() {
+		Map<String, Object> map = new LinkedHashMap<>();
+		enter();
+		skipWhitespace();
+		if (peek() == '}') {
+			pos++;
+			depth--;
+			return map;
+		}
+		for (;;) {
+			skipWhitespace();
+			if (peek() != '"') throw error("Feldname erwartet");
+			String key = string();
+			skipWhitespace();
+			expect(':');
+			map.put(key, value());
+			skipWhitespace();
+			if (peek() == ',') {
+				pos++;
+			} else {
+				expect('}');
+				depth--;
+				return map;
+			}
+		}
+	}
+
+	private List<Object> array() {
+		List<Object> list = new ArrayList<>();
+		enter();
+		skipWhitespace();
+		if (peek() == ']') {
+			pos++;
+			depth--;
+			return list;
+		}
+		for (;;) {
+			list.add(value());
+			skipWhitespace();
+			if (peek() == ',') {
+				pos++;
+			} else {
+				expect(']');
+				depth--;
+				return list;
+			}
+		}
+	}
+
+	/** Steps over the opening bracket of an object or array. */
+	private void enter() {
+		if (++depth > MAX_DEPTH) throw error("JSON-Wert ist zu tief verschachtelt");
+		pos++;
+	}
+
+	private String string() {
+		pos++;
+		StringBuilder sb = new StringBuilder();
+		for (;;) {
+			if (pos >= text.length()) throw error("Zeichenkette wird nicht geschlossen");
+			char c = text.charAt(pos++);
+			if (c == '"') return sb.toString();
+			if (c != '\\') {
+				sb.append(c);
+				continue;
+			}
+			if (pos >= text.length()) throw error("Zeichenkette wird nicht geschlossen");
+			char e = text.charAt(pos++);
+			switch (e) {
+				case '"': case '\\': case '/': sb.append(e); break;
+				case 'b': sb.append('\b'); break;
+				case 'f': sb.append('\f'); break;
+				case 'n': sb.append('\n'); break;
+				case 'r': sb.append('\r'); break;
+				case 't': sb.append('\t'); break;
+				case 'u':
+					if (pos + 4 > text.length()) throw error("Ungültige Unicode-Escape-Sequenz");
+					try {
+						sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+					} catch (NumberFormatException ex) {
+						throw error("Ungültige Unicode-Escape-Sequenz");
+					}
+					pos += 4;
+					break;
+				default:
+					throw error("Ungültige Escape-Sequenz '\\" + e + "'");
+			}
+		}
+	}
+
+	private Double number() {
+		int start = pos;
+		while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) pos++;
+		try {
+			return Double.valueOf(text.substring(start, pos));
+		} catch (NumberFormatException ex) {
+			throw error("Ungültige Zahl");
+		}
+	}
+
+	private Object literal(String word, Object value) {
+		if (!text.startsWith(word, pos)) throw error("Unerwartetes Zeichen '" + text.charAt(pos) + "'");
+		pos += word.length();
+		return value;
+	}
+
+	private void expect(char c) {
+		if (peek() != c) throw error("'" + c + "' erwartet");
+		pos++;
+	}
+
+	private char peek() {
+		return pos < text.length() ? text.charAt(pos) : '\0';
+	}
+
+	private void skipWhitespace() {
+		while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+	}
+
+	private RecordFormatException error(String message) {
+		return new RecordFormatException(line, message + " (Spalte " + (pos + 1) + ")");
+	}
+}
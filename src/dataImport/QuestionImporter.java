@@ -0,0 +1,381 @@
+package dataImport;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import common.OperationResult;
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+import dao.DataAccessException;
+import dao.retry.RetryingDAOExecutor;
+import dao.retry.TransientFailures;
+import domain.Answer;
+import domain.Question;
+import domain.Subject;
+import dto.SubjectLightDTO;
+import dataImport.ImportRecord.AnswerRecord;
+
+/**
+ * Imports question banks (questions with their answers) from CSV or JSON Lines files.
+ * <p>
+ * The file is streamed through a three-stage pipeline, so memory use depends on the
+ * settings, not on the file size:
+ * </p>
+ * <ol>
+ *   <li><b>Read</b>: a reader thread parses records, resolves their subjects and groups
+ *       them into chunks of {@link ImportSettings#getChunkSize()} questions.</li>
+ *   <li><b>Validate</b>: each chunk runs {@code Question.validate()} and
+ *       {@code Answer.validate()} on a pool of {@link ImportSettings#getValidationThreads()}
+ *       threads.</li>
+ *   <li><b>Write</b>: the calling thread takes the chunks in file order and writes each
+ *       one with {@code insertAll} in its own transaction.</li>
+ * </ol>
+ * <p>
+ * At most {@link ImportSettings#getQueueCapacity()} chunks wait between reading and
+ * writing; when the writer falls behind, the reader blocks. Rejected records (parse or
+ * validation errors, database errors) are reported per line in the {@link ImportReport}
+ * and do not stop the import.
+ * </p>
+ * <p>
+ * Database errors are classified by {@link TransientFailures}. A chunk that fails on a
+ * deadlock, a timeout or a lost connection is written again as
+ * {@link ImportSettings#getRetryPolicy()} says; if it still fails, the import stops with
+ * that error instead of blaming the rows. Only a permanent error, e.g. a constraint
+ * violation, makes the writer retry the chunk row by row to find the rows to reject.
+ * </p>
+ * <p>
+ * Subjects are matched by title. Unknown subjects are created on first use, outside the
+ * chunk transactions, so they stay even if a chunk is rolled back. Those that end up
+ * without any question are listed in {@link ImportReport#getEmptySubjects()}. CSV files
+ * carry no subject info; the title is used instead.
+ * </p>
+ */
+public class QuestionImporter {
+
+	private static final String ERR_CHUNK_FAILED =
+		"Speichern fehlgeschlagen: %s";
+
+	private final DAOFactoryProvider provider;
+	private final ImportSettings settings;
+	private final RetryingDAOExecutor executor;
+
+	public QuestionImporter(DAOFactoryProvider provider) {
+		this(provider, new ImportSettings());
+	}
+
+	public QuestionImporter(DAOFactoryProvider provider, ImportSettings settings) {
+		this.provider = provider;
+		this.settings = settings;
+		this.executor = new RetryingDAOExecutor(provider, settings.getRetryPolicy());
+	}
+
+	/**
+	 * Imports a UTF-8 file whose format is taken from its extension, see {@link ImportFormat#forFile(Path)}.
+	 */
+	public ImportReport importFile(Path file) throws IOException {
+		return importFile(file, ImportFormat.forFile(file));
+	}
+
+	/**
+	 * Imports a UTF-8 file in the given format.
+	 */
+	public ImportReport importFile(Path file, ImportFormat format) throws IOException {
+		try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			return importFrom(in, format);
+		}
+	}
+
+	/**
+	 * Imports from {@code in} in the given format. {@code in} is not closed.
+	 *
+	 * @throws IOException         if reading fails; chunks committed before stay in the database
+	 * @throws DataAccessException if the subjects cannot be loaded, or a chunk still fails on a
+	 *                             deadlock, timeout or lost connection after its retries; chunks
+	 *                             committed before stay in the database
+	 */
+	public ImportReport importFrom(Reader in, ImportFormat format) throws IOException {
+		return new Run(RecordReader.open(in, format, settings)).execute();
+	}
+
+	/** State of one import; used by exactly one call of {@link #importFrom}. */
+	private final class Run {
+		private final RecordReader reader;
+		private final Map<String, Subject> subjectsByTitle = new HashMap<>();
+		// created by the reader; read by the writer only after Chunk.END
+		private final List<Subject> createdSubjects = new ArrayList<>();
+		private final Set<Integer> filledSubjectIds = new HashSet<>();
+		private final BlockingQueue<Future<Chunk>> queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+		private final List<RowError> errors = new ArrayList<>();
+		private long errorCount;
+		private long rowsRead;
+		private long rowsImported;
+		private long answersImported;
+
+		Run(RecordReader reader) {
+			this.reader = reader;
+		}
+
+		ImportReport execute() throws IOException {
+			long start = System.nanoTime();
+			loadSubjects();
+
+			ExecutorService validators = Executors.newFixedThreadPool(settings.getValidationThreads(),
+				daemonThreads("quiz-import-validate"));
+			Thread readerThread = new Thread(() -> read(validators), "quiz-import-read");
+			readerThread.setDaemon(true);
+			readerThread.start();
+			try {
+				for (;;) {
+					Chunk chunk = take();
+					if (chunk == Chunk.END) break;
+					write(chunk);
+				}
+			} finally {
+				readerThread.interrupt();
+				validators.shutdownNow();
+			}
+			List<String> emptySubjects = new ArrayList<>();
+			for (Subject s : createdSubjects) {
+				if (!filledSubjectIds.contains(s.getSubjectId())) emptySubjects.add(s.getSubjectTitle());
+			}
+			return new ImportReport(rowsRead, rowsImported, answersImported, errorCount, errors, emptySubjects,
+				Duration.ofNanos(System.nanoTime() - start));
+		}
+
+		private void loadSubjects() {
+			try (DAOFactory f = provider.open()) {
+				for (SubjectLightDTO s : f.subjects().findAllLight()) {
+					subjectsByTitle.putIfAbsent(s.getSubjectTitle(), new Subject(s.getSubjectId(), s.getSubjectTitle(), null));
+				}
+			}
+		}
+
+		// ---- read stage (reader thread) ----
+
+		private void read(ExecutorService validators) {
+			try {
+				Chunk chunk = new Chunk(settings.getChunkSize());
+				for (;;) {
+					try {
+						ImportRecord record = reader.next();
+						if (record == null) break;
+						chunk.add(record, resolveSubject(record, chunk));
+					} catch (RecordFormatException e) {
+						// a rejected line fills the chunk too, so a run of them cannot grow it unbounded
+						chunk.reject(e.getLine(), List.of(e.getMessage()));
+					}
+					if (chunk.isFull()) {
+						queue.put(validators.submit(chunk::validate));
+						chunk = new Chunk(settings.getChunkSize());
+					}
+				}
+				queue.put(validators.submit(chunk::validate));
+				queue.put(CompletableFuture.completedFuture(Chunk.END));
+			} catch (InterruptedException e) {
+				// the writer gave up; nothing left to do
+			} catch (Throwable e) {
+				// whatever went wrong, the writer must hear of it instead of waiting forever
+				try {
+					queue.put(CompletableFuture.failedFuture(e));
+				} catch (InterruptedException ignored) {
+					// the writer gave up already
+				}
+			}
+		}
+
+		/**
+		 * @return the subject for the record, or null after rejecting the record in {@code chunk}
+		 */
+		private Subject resolveSubject(ImportRecord record, Chunk chunk) {
+			Subject known = subjectsByTitle.get(record.subjectTitle);
+			if (known != null) return known;
+
+			String info = record.subjectInfo == null || record.subjectInfo.isBlank()
+				? record.subjectTitle : record.subjectInfo;
+			Subject subject = new Subject(0, record.subjectTitle, info);
+			OperationResult<Void> valid = subject.validate();
+			if (!valid.isSuccess()) {
+				chunk.reject(record.line, valid.getErrors());
+				return null;
+			}
+			try (DAOFactory f = provider.open()) {
+				subject.setSubjectId(f.subjects().insert(subject));
+			} catch (DataAccessException e) {
+				chunk.reject(record.line, List.of(String.format(ERR_CHUNK_FAILED, e.getMessage())));
+				return null;
+			}
+			subjectsByTitle.put(subject.getSubjectTitle(), subject);
+			createdSubjects.add(subject);
+			return subject;
+		}
+
+		// ---- write stage (calling thread) ----
+
+		private Chunk take() throws IOException {
+			try {
+				return queue.take().get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Import interrupted", e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) throw (IOException) cause;
+				if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+				if (cause instanceof Error) throw (Error) cause;
+				throw new IOException(cause);
+			}
+		}
+
+		private void write(Chunk chunk) {
+			rowsRead += chunk.records;
+			List<RowError> rejected = chunk.errors;
+			if (!chunk.questions.isEmpty()) {
+				try {
+					insert(chunk.questions, chunk.answerCount);
+				} catch (DataAccessException e) {
+					// retries are used up or the connection is gone: no row is to blame
+					if (TransientFailures.isTransient(e)) throw e;
+					// one bad row must not cost the whole chunk: retry row by row
+					rejected = new ArrayList<>(rejected);
+					for (int i = 0; i < chunk.questions.size(); i++) {
+						Question q = chunk.questions.get(i);
+						try {
+							insert(List.of(q), q.getAnswersList().size());
+						} catch (DataAccessException rowError) {
+							if (TransientFailures.isTransient(rowError)) throw rowError;
+							rejected.add(new RowError(chunk.lines.get(i),
+								List.of(String.format(ERR_CHUNK_FAILED, rowError.getMessage()))));
+						}
+					}
+					rejected.sort(Comparator.comparingLong(RowError::getLine));
+				}
+			}
+			for (RowError error : rejected) {
+				errorCount++;
+				if (errors.size() < settings.getMaxReportedErrors()) errors.add(error);
+			}
+		}
+
+		/**
+		 * Inserts the questions and their answers in one transaction, run again on transient
+		 * failures; IDs are reset on every attempt, since a rolled back one may have set them.
+		 */
+		private void insert(List<Question> questions, int answerCount) {
+			int answerRows = executor.inTransaction(f -> {
+				for (Question q : questions) q.setQuestionId(0);
+				f.questions().insertAll(questions);
+				List<Answer> answers = new ArrayList<>(answerCount);
+				for (Question q : questions) {
+					for (Answer a : q.getAnswersList()) {
+						a.setAnswerId(0);
+						answers.add(a);
+					}
+				}
+				f.answers().insertAll(answers);
+				return answers.size();
+			});
+			rowsImported += questions.size();
+			answersImported += answerRows;
+			for (Question q : questions) filledSubjectIds.add(q.getSubject().getSubjectId());
+		}
+	}
+
+	/** Up to {@code chunkSize} parsed questions on their way from the reader to the writer. */
+	private static final class Chunk {
+		static final Chunk END = new Chunk(0);
+
+		final List<Question> questions;
+		final List<Long> lines;
+		final List<RowError> errors = new ArrayList<>();
+		private final int capacity;
+		int records;
+		int answerCount;
+
+		Chunk(int capacity) {
+			this.capacity = capacity;
+			this.questions = new ArrayList<>(capacity);
+			this.lines = new ArrayList<>(capacity);
+		}
+
+		boolean isFull() {
+			return records >= capacity;
+		}
+
+		void reject(long line, List<String> messages) {
+			records++;
+			errors.add(new RowError(line, messages));
+		}
+
+		/** Adds the record as a question; a null {@code subject} means it was already rejected. */
+		void add(ImportRecord record, Subject subject) {
+			if (subject == null) return;
+			records++;
+			Question q = new Question(0, record.title, record.content, subject);
+			for (AnswerRecord a : record.answers) {
+				q.getAnswersList().add(new Answer(0, a.content, a.correct, q));
+			}
+			questions.add(q);
+			lines.add(record.line);
+			answerCount += record.answers.size();
+		}
+
+		/** Runs on a validation thread; removes invalid questions and records their errors. */
+		Chunk validate() {
+			List<Question> valid = new ArrayList<>(questions.size());
+			List<Long> validLines = new ArrayList<>(questions.size());
+			int answers = 0;
+			for (int i = 0; i < questions.size(); i++) {
+				Question q = questions.get(i);
+				List<String> messages = new ArrayList<>(q.validate().getErrors());
+				for (Answer a : q.getAnswersList()) {
+					for (String m : a.validate().getErrors()) {
+						if (!messages.contains(m)) messages.add(m);
+					}
+				}
+				if (messages.isEmpty()) {
+					valid.add(q);
+					validLines.add(lines.get(i));
+					answers += q.getAnswersList().size();
+				} else {
+					errors.add(new RowError(lines.get(i), messages));
+				}
+			}
+			questions.clear();
+			questions.addAll(valid);
+			lines.clear();
+			lines.addAll(validLines);
+			answerCount = answers;
+			errors.sort(Comparator.comparingLong(RowError::getLine));
+			return this;
+		}
+	}
+
+	private static ThreadFactory daemonThreads(String name) {
+		AtomicInteger count = new AtomicInteger();
+		return r -> {
+			Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+	}
+}
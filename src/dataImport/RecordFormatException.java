@@ -0,0 +1,21 @@
+package dataImport;
+
+/**
+ * Thrown by a {@link RecordReader} for a record that cannot be parsed. The reader stays
+ * usable and continues with the next record.
+ */
+class RecordFormatException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long line;
+
+	RecordFormatException(long line, String message) {
+		super(message);
+		this.line = line;
+	}
+
+	long getLine() {
+		return line;
+	}
+}
@@ -0,0 +1,26 @@
+package dataImport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads import records one at a time, without buffering the file.
+ */
+interface RecordReader extends Closeable {
+
+	/**
+	 * @return the next record, or null at the end of the input
+	 * @throws RecordFormatException if the next record is malformed; reading may continue
+	 * @throws IOException           if the input cannot be read
+	 */
+	ImportRecord next() throws IOException;
+
+	static RecordReader open(Reader in, ImportFormat format, ImportSettings settings) {
+		switch (format) {
+			case JSON_LINES: return new JsonLinesRecordReader(in);
+			case CSV:
+			default:         return new CsvRecordReader(in, settings.getCsvDelimiter());
+		}
+	}
+}
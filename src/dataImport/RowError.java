@@ -0,0 +1,33 @@
+package dataImport;
+
+import java.util.List;
+
+/**
+ * A record of the import file that was not imported, with the reasons.
+ */
+public class RowError {
+
+	private final long line;
+	private final List<String> messages;
+
+	public RowError(long line, List<String> messages) {
+		this.line = line;
+		this.messages = List.copyOf(messages);
+	}
+
+	/**
+	 * @return the line number the record starts on (1-based)
+	 */
+	public long getLine() {
+		return line;
+	}
+
+	public List<String> getMessages() {
+		return messages;
+	}
+
+	@Override
+	public String toString() {
+		return "Zeile " + line + ": " + String.join("; ", messages);
+	}
+}
@@ -0,0 +1,8 @@
+/**
+ * Bulk import of question banks from CSV and JSON Lines files.
+ * <p>
+ * {@link dataImport.QuestionImporter} is the entry point; it works against any
+ * {@code DAOFactoryProvider} and reports its outcome as an {@link dataImport.ImportReport}.
+ * </p>
+ */
+package dataImport;
@@ -2,6 +2,7 @@ package domain;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import common.OperationResult;
 
@@ -12,6 +13,8 @@ import common.OperationResult;
  * <p>Contains the answer ID, answer text, correctness flag, and a reference to its parent
  * {@link Question}. Enforces programming invariants (non-negative ID, non-null question)
  * and validates user input (non-empty content).</p>
+ * <p>Setters record which stored fields changed (see {@link #getDirtyFields()}), so that
+ * {@code update()} can skip an unchanged answer and write only the changed columns.</p>
  */
 public class Answer {
 
@@ -23,10 +26,20 @@ public class Answer {
 	private static final String USER_ERROR_INVALID_CONTENT = 
 		"Bitte geben Sie den Text für die Antwort ein!";
 	
+	/** Bit of {@link #getDirtyFields()} for the content column. */
+	public static final int FIELD_CONTENT = 1;
+	/** Bit of {@link #getDirtyFields()} for the valid column. */
+	public static final int FIELD_CORRECT = 1 << 1;
+	/** Bit of {@link #getDirtyFields()} for the question_id column. */
+	public static final int FIELD_QUESTION = 1 << 2;
+	public static final int ALL_FIELDS = FIELD_CONTENT | FIELD_CORRECT | FIELD_QUESTION;
+	
 	private int answerId;
 	private String answerContent;
 	private boolean correct;
 	private Question question;
+	private int version;
+	private int dirtyFields = ALL_FIELDS;
 	
 	
     /**
@@ -112,6 +125,13 @@ public class Answer {
 	public int getAnswerId() {
 		return answerId;
 	}
+	
+	/**
+	 * @param answerId the answerId to set
+	 */
+	public void setAnswerId(int answerId) {
+		this.answerId = answerId;
+	}
 
 
 	/**
@@ -121,6 +141,14 @@ public class Answer {
 		return answerContent;
 	}
 
+	/**
+	 * @param answerContent the answerContent to set
+	 */
+	public void setAnswerContent(String answerContent) {
+		if (!Objects.equals(this.answerContent, answerContent)) dirtyFields |= FIELD_CONTENT;
+		this.answerContent = answerContent;
+	}
+
 
 	/**
 	 * @return the correct
@@ -128,6 +156,14 @@ public class Answer {
 	public boolean isCorrect() {
 		return correct;
 	}
+
+	/**
+	 * @param correct the correct flag to set
+	 */
+	public void setCorrect(boolean correct) {
+		if (this.correct != correct) dirtyFields |= FIELD_CORRECT;
+		this.correct = correct;
+	}
 	
 	
 	/**
@@ -137,6 +173,51 @@ public class Answer {
 		return question;
 	}
 
+	/**
+	 * @param question the question to set
+	 */
+	public void setQuestion(Question question) {
+		if (question == null || this.question == null || this.question.getQuestionId() != question.getQuestionId()) {
+			dirtyFields |= FIELD_QUESTION;
+		}
+		this.question = question;
+	}
+
+	/**
+	 * @return the version of the row this entity was read from; {@code update()} only
+	 *         succeeds while the row still has this version. 0 for new entities.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * @param version the version to set
+	 */
+	public void setVersion(int version) {
+		this.version = version;
+	}
+
+	/**
+	 * @return the FIELD_* bits of the fields changed since the entity was loaded or
+	 *         last written by a DAO; a {@code Answer} built by a constructor has all bits set
+	 */
+	public int getDirtyFields() {
+		return dirtyFields;
+	}
+
+	/**
+	 * @return true if {@code update()} has anything to write
+	 */
+	public boolean isDirty() {
+		return dirtyFields != 0;
+	}
+
+	/**
+	 * Marks all fields as stored; called by the DAOs after loading or writing the entity.
+	 */
+	public void markClean() {
+		dirtyFields = 0;
+	}
 
-	
 }
@@ -2,6 +2,7 @@ package domain;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import common.OperationResult;
@@ -16,6 +17,9 @@ import common.OperationResult;
  * or persisted.</p>
  * 
  * <p>The answers list is initialized in the constructor and is never null.</p>
+ * 
+ * <p>Setters record which stored fields changed (see {@link #getDirtyFields()}), so that
+ * {@code update()} can skip an unchanged question and write only the changed columns.</p>
  */
 public class Question {
 	
@@ -29,12 +33,22 @@ public class Question {
 	private static final String DEV_ERROR_INVALID_ID = 
 		"Question ID is negative, which should never happen.";
 	
+	/** Bit of {@link #getDirtyFields()} for the title column. */
+	public static final int FIELD_TITLE = 1;
+	/** Bit of {@link #getDirtyFields()} for the content column. */
+	public static final int FIELD_CONTENT = 1 << 1;
+	/** Bit of {@link #getDirtyFields()} for the subject_id column. */
+	public static final int FIELD_SUBJECT = 1 << 2;
+	public static final int ALL_FIELDS = FIELD_TITLE | FIELD_CONTENT | FIELD_SUBJECT;
+	
 	
 	private int questionId;
 	private String questionTitle; 
 	private String questionContent;
 	private Subject subject;
 	private List<Answer> answersList;
+	private int version;
+	private int dirtyFields = ALL_FIELDS;
 	
 	
     /**
@@ -168,6 +182,7 @@ public class Question {
 	 * @param questionTitle the questionTitle to set
 	 */
 	public void setQuestionTitle(String questionTitle) {
+		if (!Objects.equals(this.questionTitle, questionTitle)) dirtyFields |= FIELD_TITLE;
 		this.questionTitle = questionTitle;
 	}
 
@@ -182,6 +197,7 @@ public class Question {
 	 * @param questionContent the questionContent to set
 	 */
 	public void setQuestionContent(String questionContent) {
+		if (!Objects.equals(this.questionContent, questionContent)) dirtyFields |= FIELD_CONTENT;
 		this.questionContent = questionContent;
 	}
 
@@ -196,6 +212,9 @@ public class Question {
 	 * @param subject the subject to set
 	 */
 	public void setSubject(Subject subject) {
+		if (subject == null || this.subject == null || this.subject.getSubjectId() != subject.getSubjectId()) {
+			dirtyFields |= FIELD_SUBJECT;
+		}
 		this.subject = subject;
 	}
 
@@ -212,7 +231,42 @@ public class Question {
 	public void setAnswersList(List<Answer> answersList) {
 		this.answersList = answersList;
 	}
-	
-	
+
+	/**
+	 * @return the version of the row this entity was read from; {@code update()} only
+	 *         succeeds while the row still has this version. 0 for new entities.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * @param version the version to set
+	 */
+	public void setVersion(int version) {
+		this.version = version;
+	}
+
+	/**
+	 * @return the FIELD_* bits of the fields changed since the entity was loaded or
+	 *         last written by a DAO; a {@code Question} built by a constructor has all bits set
+	 */
+	public int getDirtyFields() {
+		return dirtyFields;
+	}
+
+	/**
+	 * @return true if {@code update()} has anything to write
+	 */
+	public boolean isDirty() {
+		return dirtyFields != 0;
+	}
+
+	/**
+	 * Marks all fields as stored; called by the DAOs after loading or writing the entity.
+	 */
+	public void markClean() {
+		dirtyFields = 0;
+	}
 
 }
@@ -2,6 +2,7 @@ package domain;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import common.OperationResult;
@@ -13,6 +14,10 @@ import common.OperationResult;
  * Question entities. Provides validation methods for service layer usage.
  * The {@code questionsList} is always initialized and never null.
  * </p>
+ * <p>
+ * Setters record which stored fields changed (see {@link #getDirtyFields()}), so that
+ * {@code update()} can skip an unchanged subject and write only the changed columns.
+ * </p>
  */
 public class Subject {	
 
@@ -24,11 +29,19 @@ public class Subject {
 	private static final String USER_ERROR_INVALID_INFO =
 		"Bitte geben Sie eine kurze Beschreibung für das Thema ein!";
 	
+	/** Bit of {@link #getDirtyFields()} for the title column. */
+	public static final int FIELD_TITLE = 1;
+	/** Bit of {@link #getDirtyFields()} for the info column. */
+	public static final int FIELD_INFO = 1 << 1;
+	public static final int ALL_FIELDS = FIELD_TITLE | FIELD_INFO;
+	
 	
 	private int subjectId;
 	private String subjectTitle; 
 	private String subjectInfo;
 	private List<Question> questionsList;
+	private int version;
+	private int dirtyFields = ALL_FIELDS;
 	
 	
 	/**
@@ -125,6 +138,7 @@ public class Subject {
 	 * @param subjectTitle the subjectTitle to set
 	 */
 	public void setSubjectTitle(String subjectTitle) {
+		if (!Objects.equals(this.subjectTitle, subjectTitle)) dirtyFields |= FIELD_TITLE;
 		this.subjectTitle = subjectTitle;
 	}
 
@@ -139,6 +153,7 @@ public class Subject {
 	 * @param subjectInfo the subjectInfo to set
 	 */
 	public void setSubjectInfo(String subjectInfo) {
+		if (!Objects.equals(this.subjectInfo, subjectInfo)) dirtyFields |= FIELD_INFO;
 		this.subjectInfo = subjectInfo;
 	}
 
@@ -156,5 +171,41 @@ public class Subject {
 		this.questionsList = questionsList;
 	}
 
-	
+	/**
+	 * @return the version of the row this entity was read from; {@code update()} only
+	 *         succeeds while the row still has this version. 0 for new entities.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * @param version the version to set
+	 */
+	public void setVersion(int version) {
+		this.version = version;
+	}
+
+	/**
+	 * @return the FIELD_* bits of the fields changed since the entity was loaded or
+	 *         last written by a DAO; a {@code Subject} built by a constructor has all bits set
+	 */
+	public int getDirtyFields() {
+		return dirtyFields;
+	}
+
+	/**
+	 * @return true if {@code update()} has anything to write
+	 */
+	public boolean isDirty() {
+		return dirtyFields != 0;
+	}
+
+	/**
+	 * Marks all fields as stored; called by the DAOs after loading or writing the entity.
+	 */
+	public void markClean() {
+		dirtyFields = 0;
+	}
+
 }
@@ -11,6 +11,7 @@ public class AnswerDTO {
 	private String answerContent;
 	private boolean correct;
 	private int fkQuestionId; //Reference to the Question it belongs to
+	private int version; // optimistic lock version of the answer row, sent back with updates
 	
 	public AnswerDTO(int answerId, String answerContent, boolean correct, int fkQuestionId) {
 		super();
@@ -52,4 +53,12 @@ public class AnswerDTO {
 		this.fkQuestionId = fkQuestionId;
 	}
 
+	public int getVersion() {
+		return version;
+	}
+
+	public void setVersion(int version) {
+		this.version = version;
+	}
+
 }
@@ -10,6 +10,7 @@ public class QuestionDTO {
 	private String questionTitle;
 	private String questionContent;
 	private int fkSubjectId;
+	private int version; // optimistic lock version of the question row, sent back with updates
 
 	
 	public QuestionDTO(int questionId, String questionTitle, String questionContent, int fkSubjectId) {
@@ -60,6 +61,12 @@ public class QuestionDTO {
 		this.fkSubjectId = fkSubjectId;
 	}
 
+	public int getVersion() {
+		return version;
+	}
 
+	public void setVersion(int version) {
+		this.version = version;
+	}
 
 }
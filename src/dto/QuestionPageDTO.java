@@ -0,0 +1,51 @@
+package dto;
+
+import java.util.List;
+
+/**
+ * One page of QuestionLightDTOs for the question list, plus what is needed
+ * to request the next page.
+ */
+public class QuestionPageDTO {
+
+	private List<QuestionLightDTO> questionList;
+	private boolean hasNext;
+	private int lastQuestionId;
+
+	public QuestionPageDTO(List<QuestionLightDTO> questionList, boolean hasNext, int lastQuestionId) {
+		super();
+		this.questionList = questionList;
+		this.hasNext = hasNext;
+		this.lastQuestionId = lastQuestionId;
+	}
+
+	public List<QuestionLightDTO> getQuestionList() {
+		return questionList;
+	}
+
+	public void setQuestionList(List<QuestionLightDTO> questionList) {
+		this.questionList = questionList;
+	}
+
+	/**
+	 * @return true if more questions follow this page
+	 */
+	public boolean hasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+	/**
+	 * @return the ID of the last question on this page, to request the next page with
+	 */
+	public int getLastQuestionId() {
+		return lastQuestionId;
+	}
+
+	public void setLastQuestionId(int lastQuestionId) {
+		this.lastQuestionId = lastQuestionId;
+	}
+}
@@ -5,6 +5,7 @@ public class SubjectDTO {
 	private int subjectId;
 	private String subjectTitle; 
 	private String subjectInfo;
+	private int version; // optimistic lock version of the subject row, sent back with updates
 	
 	public SubjectDTO(int subjectId, String subjectTitle, String subjectInfo) {
 		this.subjectId = subjectId;
@@ -53,7 +54,13 @@ public class SubjectDTO {
 	public void setSubjectInfo(String subjectInfo) {
 		this.subjectInfo = subjectInfo;
 	}
-	
-	
+
+	public int getVersion() {
+		return version;
+	}
+
+	public void setVersion(int version) {
+		this.version = version;
+	}
 
 }
@@ -0,0 +1,65 @@
+package dto;
+
+/**
+ * Outcome or progress of deleting a subject together with its questions and answers.
+ * <p>
+ * A chunked deletion reports one instance per finished chunk with the running totals;
+ * {@link #isCompleted()} is true once the subject itself is gone.
+ * </p>
+ */
+public class SubjectDeletionDTO {
+
+	private int subjectId;
+	private long questionsDeleted;
+	private long answersDeleted;
+	private boolean completed;
+
+	public SubjectDeletionDTO(int subjectId, long questionsDeleted, long answersDeleted, boolean completed) {
+		super();
+		this.subjectId = subjectId;
+		this.questionsDeleted = questionsDeleted;
+		this.answersDeleted = answersDeleted;
+		this.completed = completed;
+	}
+
+	public int getSubjectId() {
+		return subjectId;
+	}
+
+	public void setSubjectId(int subjectId) {
+		this.subjectId = subjectId;
+	}
+
+	/**
+	 * @return the questions deleted so far
+	 */
+	public long getQuestionsDeleted() {
+		return questionsDeleted;
+	}
+
+	public void setQuestionsDeleted(long questionsDeleted) {
+		this.questionsDeleted = questionsDeleted;
+	}
+
+	/**
+	 * @return the answers deleted so far
+	 */
+	public long getAnswersDeleted() {
+		return answersDeleted;
+	}
+
+	public void setAnswersDeleted(long answersDeleted) {
+		this.answersDeleted = answersDeleted;
+	}
+
+	/**
+	 * @return true if the subject row itself has been deleted
+	 */
+	public boolean isCompleted() {
+		return completed;
+	}
+
+	public void setCompleted(boolean completed) {
+		this.completed = completed;
+	}
+}
@@ -11,9 +11,12 @@
  *       containing only essential fields to efficiently initialize UI components like JComboBox and JList.</li>
  *   <li><b>QuizQuestionsInitDTO</b> – aggregates lists of SubjectLightDTOs and QuestionLightDTOs,
  *       providing initial data to populate quiz question panels.</li>
+ *   <li><b>QuestionPageDTO</b> – one keyset page of QuestionLightDTOs for the question list, with whether
+ *       another page follows and the last question ID to continue after.</li>
  *   <li><b>QuestionDTO</b> and <b>AnswerDTO</b> – represent full quiz questions and their answers with all relevant details.</li>
  *   <li><b>QuestionAndAnswersDTO</b> – aggregates a full QuestionDTO with its corresponding list of AnswerDTOs,
  *       used when a user selects a question to view or edit its answers.</li>
+ *   <li><b>SubjectDeletionDTO</b> – counts of a cascading subject deletion, also used for its progress reports.</li>
  * </ul>
  * <p>
  * These DTOs are designed to be simple containers of data, optimized for transferring only the necessary information
@@ -5,7 +5,6 @@ import java.util.Map;
 
 import dto.AnswerDTO;
 import dto.QuestionDTO;
-import dto.QuestionLightDTO;
 import dto.SubjectLightDTO;
 
 /**
@@ -27,10 +26,8 @@ import dto.SubjectLightDTO;
 public class SessionData {
 	
 	private Map<Integer, SubjectLightDTO> subjectLightMap;
-	private Map<Integer, QuestionLightDTO> questionLightMap;
 	private Map<Integer, QuestionDTO> questionMap;
 	
-	private Map<Integer, List<QuestionLightDTO>> questionLightBySubjectIdMap;
 	private Map<Integer, List<AnswerDTO>> answerByQuestionIdMap;
 	
 	
@@ -50,34 +47,6 @@ public class SessionData {
 		this.subjectLightMap = subjectLightMap;
 	}
 	
-	/**
-	 * @return the questionLightMap
-	 */
-	public Map<Integer, QuestionLightDTO> getQuestionLightMap() {
-		return questionLightMap;
-	}
-	
-	/**
-	 * @param questionLightMap the questionLightMap to set
-	 */
-	public void setQuestionLightMap(Map<Integer, QuestionLightDTO> questionLightMap) {
-		this.questionLightMap = questionLightMap;
-	}
-
-	/**
-	 * @return the questionLightBySubjectIdMap
-	 */
-	public Map<Integer, List<QuestionLightDTO>> getQuestionLightBySubjectIdMap() {
-		return questionLightBySubjectIdMap;
-	}
-
-	/**
-	 * @param questionLightBySubjectIdMap the questionLightBySubjectIdMap to set
-	 */
-	public void setQuestionLightBySubjectIdMap(Map<Integer, List<QuestionLightDTO>> questionLightBySubjectIdMap) {
-		this.questionLightBySubjectIdMap = questionLightBySubjectIdMap;
-	}
-
 	/**
 	 * @return the questionMap
 	 */
@@ -3,22 +3,30 @@ package gui.model;
 /**
  * Represents a subject in the GUI layer.
  * 
- * <p>This class holds the subject's ID and title, serving as a
- * lightweight model designed for presentation and interaction
- * in GUI components.</p>
+ * <p>This class holds the subject's ID, title and optionally its
+ * number of questions, serving as a lightweight model designed for
+ * presentation and interaction in GUI components.</p>
  * 
- * <p>The {@code toString()} method returns the subject title,
- * facilitating display in lists and combo boxes.</p>
+ * <p>The {@code toString()} method returns the subject title, followed
+ * by the question count in parentheses if it is known, facilitating
+ * display in lists and combo boxes.</p>
  */
 public class SubjectData {
 
 	private int subjectId;
 	private String subjectTitle;
+	// -1 while the count is unknown
+	private int questionCount;
 	
 	public SubjectData(int subjectId, String subjectTitle) {
+		this(subjectId, subjectTitle, -1);
+	}
+	
+	public SubjectData(int subjectId, String subjectTitle, int questionCount) {
 		super();
 		this.subjectId = subjectId;
 		this.subjectTitle = subjectTitle;
+		this.questionCount = questionCount;
 	}
 
 	public int getSubjectId() {
@@ -37,8 +45,16 @@ public class SubjectData {
 		this.subjectTitle = subjectTitle;
 	}
 
+	public int getQuestionCount() {
+		return questionCount;
+	}
+
+	public void setQuestionCount(int questionCount) {
+		this.questionCount = questionCount;
+	}
+
 	@Override
 	public String toString() {
-		return subjectTitle;
+		return questionCount < 0 ? subjectTitle : subjectTitle + " (" + questionCount + ")";
 	}
 }
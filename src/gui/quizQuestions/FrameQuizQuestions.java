@@ -2,11 +2,16 @@ package gui.quizQuestions;
 
 
 import java.awt.HeadlessException;
+import java.util.Arrays;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 
+import dao.jdbc.JdbcConnectionProvider;
+import dao.jdbc.JdbcDAOFactoryProvider;
+import dao.jdbc.JdbcSettings;
 import gui.model.SessionData;
+import serviceLayer.DefaultQuizService;
 import serviceLayer.FakeQuizService;
 import serviceLayer.QuizService;
 
@@ -45,9 +50,18 @@ public class FrameQuizQuestions extends JFrame {
 
 	// manually injecting quizService and Views inside the panel, instead of creating
 	// them inside the class for more decoupling and testability.
+	// With "--db" the app runs on the MySQL database of JdbcConnectionProvider instead of sample data.
 	public static void main(String[] args) {
 		
-		QuizService quizService = new FakeQuizService();
+		QuizService quizService;
+		if (Arrays.asList(args).contains("--db")) {
+			JdbcDAOFactoryProvider database =
+					JdbcDAOFactoryProvider.startPooled(new JdbcConnectionProvider(), new JdbcSettings());
+			Runtime.getRuntime().addShutdownHook(new Thread(database::close, "quiz-db-shutdown"));
+			quizService = new DefaultQuizService(database);
+		} else {
+			quizService = new FakeQuizService();
+		}
 		QuizQuestionsPanelR panelR = new QuizQuestionsPanelR();
 		QuizQuestionsPanelL panelL = new QuizQuestionsPanelL();
 		MainQuizQuestionsView mainQuizQuestionView = new MainQuizQuestionsView(panelL, panelR);
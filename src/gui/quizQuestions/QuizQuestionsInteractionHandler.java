@@ -6,11 +6,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import common.OperationResult;
 import dto.AnswerDTO;
 import dto.QuestionAndAnswersDTO;
 import dto.QuestionDTO;
 import dto.QuestionLightDTO;
-import dto.QuizQuestionsInitDTO;
+import dto.QuestionPageDTO;
 import dto.SubjectLightDTO;
 import gui.model.AnswerData;
 import gui.model.QuestionData;
@@ -35,19 +36,32 @@ import serviceLayer.QuizService;
  *       populating {@link SessionData} with initial mappings.</li>
  *   <li>Handle subject selection changes by clearing question/answer fields and 
  *       displaying either all questions or those filtered by the selected subject.</li>
+ *   <li>Handle the search field by listing the questions matching its text,
+ *       restricted to the selected subject, most relevant first.</li>
  *   <li>Handle question selection changes by loading question details and answers 
  *       from cache or service layer, then updating the left panel accordingly.</li>
+ *   <li>Handle the save button by sending the edited question and its answers to
+ *       the service layer, which writes only what changed.</li>
  *   <li>Maintain and update cached mappings of subjects, questions, and answers 
  *       in {@link SessionData} for efficient reuse.</li>
  * </ul>
  */
 public class QuizQuestionsInteractionHandler {
 
+	private static final int QUESTION_PAGE_SIZE = 50;
+	private static final int SEARCH_RESULT_LIMIT = 100;
+	private static final String MESSAGE_QUESTION_SAVED = "Die Frage wurde gespeichert.";
+	private static final String MESSAGE_QUESTION_NOT_FOUND = "Die Frage wurde inzwischen gelöscht.";
 
 	private QuizQuestionsPanelL quizQuestionsPanelL;	
 	private QuizQuestionsPanelR quizQuestionsPanelR;
 	private QuizService quizService;	
 	private SessionData sessionData;
+	
+	// paging state of the question list
+	private int listedSubjectId = QuizService.ALL_SUBJECTS;
+	private int lastListedQuestionId;
+	private boolean moreQuestions;
 
 	
 	public QuizQuestionsInteractionHandler(QuizService quizService,
@@ -60,12 +74,14 @@ public class QuizQuestionsInteractionHandler {
 		this.quizQuestionsPanelR = quizQuestionsPanelR;
 	
 		quizQuestionsPanelL.addDeleteQuestionListener(null);
-		quizQuestionsPanelL.addSaveQuestionListener(null);
+		quizQuestionsPanelL.addSaveQuestionListener(e -> onSaveQuestion());
 		
 		quizQuestionsPanelR.addShowSubjectListener(null);
 		quizQuestionsPanelR.addNewQuestionListener(null);
 		quizQuestionsPanelR.addChooseSubjectListener(e -> onSubjectSelected());
 		quizQuestionsPanelR.addChooseQuestionListener(e -> onQuestionSelected());
+		quizQuestionsPanelR.addQuestionsScrolledToEndListener(this::loadNextQuestionPage);
+		quizQuestionsPanelR.addSearchListener(this::onSearchChanged);
 				
 	}
 	
@@ -84,6 +100,12 @@ public class QuizQuestionsInteractionHandler {
 		if (!sessionData.getQuestionMap().containsKey(questionId)) {
 			QuestionAndAnswersDTO questionAndAnswersDTO = 
 					quizService.getQuestionAndAnswersById(questionId);
+			// listed from a page or search result that is older than the deletion
+			if (questionAndAnswersDTO == null) {
+				quizQuestionsPanelL.clearQuestionAndAnswerFields();
+				quizQuestionsPanelL.setMessages(MESSAGE_QUESTION_NOT_FOUND);
+				return;
+			}
 			setQuestionAndAnswerMaps(questionAndAnswersDTO);
 		}
 		
@@ -96,6 +118,51 @@ public class QuizQuestionsInteractionHandler {
 		
 	}
 
+	/**
+	 * Saves the question shown in the left panel together with its answers. The versions
+	 * come from the cached DTOs the question was displayed from, so a question changed by
+	 * someone else in the meantime is reported instead of overwritten; it is then dropped
+	 * from the cache and loaded again on the next selection.
+	 */
+	private void onSaveQuestion() {
+		QuestionData selectedQuestion = 
+			quizQuestionsPanelR.getQuestionsJList().getSelectedValue();
+		if (selectedQuestion == null) return;
+		int questionId = selectedQuestion.getQuestionId();
+		QuestionDTO shown = getQuestion(questionId);
+		if (shown == null) return;
+		
+		QuestionDTO edited = new QuestionDTO(questionId, quizQuestionsPanelL.getQuestionTitle(),
+			quizQuestionsPanelL.getQuestionAreaContent(), shown.getFkSubjectId());
+		edited.setVersion(shown.getVersion());
+		
+		Map<Integer, AnswerDTO> shownAnswers = sessionData.getAnswerByQuestionIdMap()
+			.getOrDefault(questionId, List.of()).stream()
+			.collect(Collectors.toMap(AnswerDTO::getAnswerId, a -> a));
+		List<AnswerDTO> answers = new ArrayList<>();
+		for (AnswerData a : quizQuestionsPanelL.getAnswers()) {
+			AnswerDTO dto = new AnswerDTO(a.getAnswerId(), a.getAnswerContent(), a.isCorrect(), questionId);
+			AnswerDTO old = shownAnswers.get(a.getAnswerId());
+			if (old != null) dto.setVersion(old.getVersion());
+			answers.add(dto);
+		}
+		
+		OperationResult<QuestionAndAnswersDTO> result = 
+			quizService.saveQuestionAggregate(new QuestionAndAnswersDTO(edited, answers));
+		if (!result.isSuccess()) {
+			// only a concurrent change makes the cached copy stale; validation errors keep it
+			if (result.isConflict()) sessionData.getQuestionMap().remove(questionId);
+			quizQuestionsPanelL.setMessages(String.join("\n", result.getErrors()));
+			return;
+		}
+		
+		setQuestionAndAnswerMaps(result.getData());
+		quizQuestionsPanelL.setAnswers(getAnswer(questionId));
+		selectedQuestion.setQuestionTitle(edited.getQuestionTitle());
+		quizQuestionsPanelR.getQuestionsJList().repaint();
+		quizQuestionsPanelL.setMessages(MESSAGE_QUESTION_SAVED);
+	}
+
 	/**
 	 * Handles changes in the selected subject from the right panel's combo box.
 	 * Clears the question and answer fields on the left panel and updates the question
@@ -108,37 +175,91 @@ public class QuizQuestionsInteractionHandler {
 		int subjectId = selectedSubject.getSubjectId();			
 		quizQuestionsPanelL.clearQuestionAndAnswerFields();
 		
-		if (subjectId == -1) {
-			quizQuestionsPanelR.setAllQuestions(getQuestionDataList());
+		if (subjectId == QuizService.ALL_SUBJECTS) {
 			quizQuestionsPanelL.setSubject("Leer");
 		} else { 
-			
 			quizQuestionsPanelL.setSubject(selectedSubject);
-			
-			List<QuestionLightDTO> questionDtoList = sessionData.getQuestionLightBySubjectIdMap()
-					.get(subjectId);
-			List<QuestionData>questionList = questionDtoList.stream()				
-					.map(item -> new QuestionData(item.getQuestionId(), item.getQuestionTitle()))
-					.collect(Collectors.toList());
-			quizQuestionsPanelR.setAllQuestions(questionList);	
 		}
+		showQuestions(subjectId);
+	}
+	
+	/**
+	 * Handles changes of the search text by listing the matching questions of the
+	 * selected subject, or its first page of questions once the field is empty again.
+	 */
+	private void onSearchChanged() {
+		SubjectData selectedSubject = 
+			(SubjectData) quizQuestionsPanelR.getSubjectsComboBox().getSelectedItem();
+		showQuestions(selectedSubject == null ? QuizService.ALL_SUBJECTS : selectedSubject.getSubjectId());
+	}
+	
+	/**
+	 * Replaces the question list with the search results for the text of the search
+	 * field, or with the first page of questions if the field is empty. Search results
+	 * are not paged.
+	 *
+	 * @param subjectId the subject to list, or {@link QuizService#ALL_SUBJECTS}
+	 */
+	private void showQuestions(int subjectId) {
+		String query = quizQuestionsPanelR.getSearchText();
+		if (query.isBlank()) {
+			showFirstQuestionPage(subjectId);
+			return;
+		}
+		listedSubjectId = subjectId;
+		List<QuestionLightDTO> hits = quizService.searchQuestions(query, subjectId, SEARCH_RESULT_LIMIT);
+		quizQuestionsPanelR.setAllQuestions(toQuestionDataList(hits));
+		moreQuestions = false;
+	}
+	
+	/**
+	 * Replaces the question list with the first page of questions of the given subject.
+	 *
+	 * @param subjectId the subject to list, or {@link QuizService#ALL_SUBJECTS}
+	 */
+	private void showFirstQuestionPage(int subjectId) {
+		listedSubjectId = subjectId;
+		QuestionPageDTO page = quizService.getQuestionPage(subjectId, 0, QUESTION_PAGE_SIZE);
+		quizQuestionsPanelR.setAllQuestions(toQuestionDataList(page.getQuestionList()));
+		rememberPage(page);
+	}
+	
+	/**
+	 * Appends the next page of questions, if any, once the user has scrolled
+	 * to the end of the question list.
+	 */
+	private void loadNextQuestionPage() {
+		if (!moreQuestions) return;
+		QuestionPageDTO page = 
+			quizService.getQuestionPage(listedSubjectId, lastListedQuestionId, QUESTION_PAGE_SIZE);
+		quizQuestionsPanelR.appendQuestions(toQuestionDataList(page.getQuestionList()));
+		rememberPage(page);
+	}
+	
+	private void rememberPage(QuestionPageDTO page) {
+		lastListedQuestionId = page.getLastQuestionId();
+		moreQuestions = page.hasNext();
+	}
+	
+	private List<QuestionData> toQuestionDataList(List<QuestionLightDTO> questionDtoList) {
+		return questionDtoList.stream()
+			.map(dto -> new QuestionData(dto.getQuestionId(), dto.getQuestionTitle()))
+			.collect(Collectors.toList());
 	}
 
 	/**
-	 * Initializes the view by requesting initial quiz data from the service layer,
-	 * populating the SessionData with this data, and updating the right panel's
-	 * subject and question lists accordingly.
+	 * Initializes the view by requesting the subjects from the service layer,
+	 * populating the SessionData with them, and updating the right panel's
+	 * subject list and first question page accordingly.
 	 */
 	public void initializeView() {
-		QuizQuestionsInitDTO initDTO = quizService.getQuizQuestionsInitData();		
-		setInitMaps(initDTO);
+		List<SubjectLightDTO> subjectList = quizService.getSubjectLightList();
+		setInitMaps(sessionData, subjectList);
 		
 		List<SubjectData> subjectDataList = getSubjectDataList();
 		quizQuestionsPanelR.setAllSubjects(subjectDataList);
 		
-		List<QuestionData> questionDataList = getQuestionDataList();
-		quizQuestionsPanelR.setAllQuestions(questionDataList);	
-
+		showFirstQuestionPage(QuizService.ALL_SUBJECTS);
 	}
 
 	private List<SubjectData> getSubjectDataList() {
@@ -146,27 +267,17 @@ public class QuizQuestionsInteractionHandler {
 		
 		List<SubjectLightDTO> subjectDTOList = new ArrayList<>(sessionData
 			.getSubjectLightMap().values());
+		// counted by the database, one row per subject; the questions are paged in later
+		Map<Integer, Integer> questionCounts = quizService.getQuestionCountsBySubject();
 		
 		subjectDataList = subjectDTOList.stream()
-			.map(dto -> new SubjectData(dto.getSubjectId(), dto.getSubjectTitle()))
+			.map(dto -> new SubjectData(dto.getSubjectId(), dto.getSubjectTitle(),
+				questionCounts.getOrDefault(dto.getSubjectId(), 0)))
 			.collect(Collectors.toList());
 				
 		return subjectDataList;
 	}
 
-	private List<QuestionData> getQuestionDataList() {
-		List<QuestionData> questionDataList;
-		
-		List<QuestionLightDTO> questionDTOList = new ArrayList<>(sessionData
-			.getQuestionLightMap().values());
-		
-		questionDataList = questionDTOList.stream()
-			.map(dto -> new QuestionData(dto.getQuestionId(), dto.getQuestionTitle()))
-			.collect(Collectors.toList());
-				
-		return questionDataList;
-	}
-	
 	
 	private QuestionDTO getQuestion(int questionId) {
 		// TODO Decide:DTO or Gui Model?
@@ -186,26 +297,22 @@ public class QuizQuestionsInteractionHandler {
 	}
 
 	/**
-	 * Converts and stores initial quiz data received from the service layer into
-	 * SessionData maps for subjects, questions, and answers.
+	 * Stores the subjects received from the service layer into the SessionData
+	 * and prepares the empty maps for the questions and answers loaded later.
+	 * Questions are paged in per subject, so none are held here.
+	 *
+	 * Static and public so that {@code benchmark.DataPathBenchmark} can time the
+	 * mapping without building the panels.
 	 *
-	 * @param initDTO Data transfer object containing initial lists of subjects and questions.
+	 * @param sessionData the session cache to fill
+	 * @param subjectList the lightweight subjects for the start screen
 	 */
-	private void setInitMaps(QuizQuestionsInitDTO initDTO) {
+	public static void setInitMaps(SessionData sessionData, List<SubjectLightDTO> subjectList) {
 		
-		Map<Integer, SubjectLightDTO> subjectLightMap = initDTO.getSubjectList().stream()
+		Map<Integer, SubjectLightDTO> subjectLightMap = subjectList.stream()
 				.collect(Collectors.toMap(SubjectLightDTO::getSubjectId, sub -> sub));
 			sessionData.setSubjectLightMap(subjectLightMap);
 			
-			Map<Integer, QuestionLightDTO> questionLightMap = initDTO.getQuestionList().stream()
-				.collect(Collectors.toMap(QuestionLightDTO::getQuestionId, sub -> sub));
-			sessionData.setQuestionLightMap(questionLightMap);	
-		
-			Map<Integer, List<QuestionLightDTO>> questionBySubjectIdMap = 
-				initDTO.getQuestionList().stream()
-				.collect(Collectors.groupingBy(QuestionLightDTO::getFkSubjectId));
-			sessionData.setQuestionLightBySubjectIdMap(questionBySubjectIdMap);	
-			
 			Map<Integer, QuestionDTO> questionMap = new HashMap<>();
 			sessionData.setQuestionMap(questionMap);
 			
@@ -68,6 +68,9 @@ public class QuizQuestionsPanelL extends JPanel{
 		
 		JButton deleteQuestion, saveQuestion;
 		
+		// IDs of the answers shown in the four answer slots, -1 for an empty slot
+		private final int[] answerIds = { -1, -1, -1, -1 };
+		
 		
 		
 		public QuizQuestionsPanelL() {
@@ -381,11 +384,11 @@ public class QuizQuestionsPanelL extends JPanel{
 		
 		
 		/**
-		 * Sets the subject label with the string representation of a SubjectData.
+		 * Sets the subject label with the title of a SubjectData.
 		 * @param subjectData the SubjectData whose title to display
 		 */
 		public void setSubject(SubjectData subjectData) {		
-			subjectValueLabel.setText(subjectData.toString());			
+			subjectValueLabel.setText(subjectData.getSubjectTitle());			
 		}
 		
 		/**
@@ -416,6 +419,28 @@ public class QuizQuestionsPanelL extends JPanel{
 			questionArea.setText(questionContent);			
 		}
 		
+		/**
+		 * @return the edited question title, trimmed
+		 */
+		public String getQuestionTitle() {
+			return titleField.getText().trim();
+		}
+		
+		/**
+		 * @return the edited question text, trimmed
+		 */
+		public String getQuestionAreaContent() {
+			return questionArea.getText().trim();
+		}
+		
+		/**
+		 * Shows feedback such as validation errors in the message area.
+		 * @param text the message to display, one message per line
+		 */
+		public void setMessages(String text) {
+			messages.setText(text);
+		}
+		
 		
 		/**
 		 * Populates the answer fields and corresponding checkboxes based on
@@ -436,10 +461,16 @@ public class QuizQuestionsPanelL extends JPanel{
 		    for (int i = 0; i < 4; i++) {
 		        fields[i].setText(list.get(i).getAnswerContent());
 		        checks[i].setSelected(list.get(i).isCorrect());
+		        answerIds[i] = list.get(i).getAnswerId();
 		    }
 		}
 		
 		
+		/**
+		 * Collects the filled answer slots. An answer keeps the ID of the answer that was
+		 * shown in its slot; answers typed into an empty slot get ID 0 (new).
+		 * @return the answers to save
+		 */
 		public List<AnswerData> getAnswers() {
 		    List<AnswerData> answersList = new ArrayList<>();
 
@@ -449,7 +480,7 @@ public class QuizQuestionsPanelL extends JPanel{
 		    for (int i = 0; i < fields.length; i++) {
 		        String content = fields[i].getText().trim();
 		        boolean correct = checks[i].isSelected();
-		        AnswerData answer = createAnswerDataIfValid(content, correct);
+		        AnswerData answer = createAnswerDataIfValid(Math.max(answerIds[i], 0), content, correct);
 		        if (answer != null) {
 		            answersList.add(answer);
 		        }
@@ -458,9 +489,9 @@ public class QuizQuestionsPanelL extends JPanel{
 		}
 		
 		
-		private AnswerData createAnswerDataIfValid(String answerContent, boolean correct) {
+		private AnswerData createAnswerDataIfValid(int answerId, String answerContent, boolean correct) {
 			if(!answerContent.isBlank() || correct) {
-				return new AnswerData(answerContent, correct);				
+				return new AnswerData(answerId, answerContent, correct);				
 			}
 			return null;
 		}
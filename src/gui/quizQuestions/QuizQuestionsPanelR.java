@@ -8,6 +8,7 @@ import java.awt.event.ActionListener;
 import java.util.List;
 
 import javax.swing.BorderFactory;
+import javax.swing.BoundedRangeModel;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.DefaultListModel;
 import javax.swing.JButton;
@@ -15,7 +16,12 @@ import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JList;
 import javax.swing.JPanel;
+import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionListener;
 
 import gui.GuiStyler;
@@ -26,8 +32,9 @@ import gui.model.SubjectData;
  * Right-side JPanel for the QuizQuestions tab UI.
  * <p>
  * Contains graphical components for browsing and selecting quiz content,
- * including a subject selection drop-down (JComboBox) and a question list (JList),
- * as well as controls for creating new questions or viewing subject details.
+ * including a subject selection drop-down (JComboBox), a search field and a
+ * question list (JList), as well as controls for creating new questions or
+ * viewing subject details.
  * </p>
  * <p>
  * The panel provides methods to populate its lists with {@code SubjectData}
@@ -50,11 +57,16 @@ public class QuizQuestionsPanelR extends JPanel {
 	private static final String QUESTION_TEXT = "Fragen zum Thema";
 	private static final String NEW_QUESTION_BUTTON_TEXT = "Neue Frage";
 	private static final String SHOW_SUBJECT_BUTTON_TEXT = "Thema anzeigen";
+	private static final String SEARCH_FIELD_TOOLTIP = "Fragen und Antworten durchsuchen";
+	// wait for a typing pause before searching
+	private static final int SEARCH_DELAY_MS = 200;
 	
 	JComboBox<SubjectData> subjectsComboBox;	
 	JLabel questionsLabel;
 	JButton showSubjectButton, newQuestionButton;
+	JTextField searchField;
 	JList<QuestionData> questionsJList; 
+	JScrollPane questionsScrollPane;
 
 
 	
@@ -90,6 +102,11 @@ public class QuizQuestionsPanelR extends JPanel {
 		subjectsComboBox = new JComboBox<SubjectData>(comboBoxModel);
 		GuiStyler.setComboBoxStyle(subjectsComboBox);
 		
+		searchField = new JTextField();
+		GuiStyler.setDefaultFieldStyle(searchField, GuiStyler.FieldSize.LONG);
+		searchField.setEditable(true);
+		searchField.setToolTipText(SEARCH_FIELD_TOOLTIP);
+		
 		DefaultListModel<QuestionData> questionListModel =
 			new DefaultListModel<QuestionData>();
 		questionsJList = new JList<QuestionData>(questionListModel); 
@@ -116,11 +133,17 @@ public class QuizQuestionsPanelR extends JPanel {
 		
 		gbc.gridy = 1;
 		gbc.gridx = 0;
+		gbc.gridwidth = 2;	
+		gbc.anchor = GridBagConstraints.BASELINE_LEADING;
+		this.add(searchField,gbc);
+		
+		gbc.gridy = 2;
+		gbc.gridx = 0;
 		gbc.gridwidth = 1;	
 		gbc.anchor = GridBagConstraints.BASELINE_LEADING;
 		this.add(questionsLabel,gbc);
 		
-		gbc.gridy = 1;
+		gbc.gridy = 2;
 		gbc.gridx = 1;
 		gbc.gridwidth = 1;	
 		gbc.anchor = GridBagConstraints.BASELINE_LEADING;
@@ -128,17 +151,17 @@ public class QuizQuestionsPanelR extends JPanel {
 		wrapper.add(showSubjectButton);
 		this.add(wrapper,gbc);
 		
-		gbc.gridy = 2;
+		gbc.gridy = 3;
 		gbc.gridx = 0;
 		gbc.gridwidth = 2;	
 		gbc.anchor = GridBagConstraints.BASELINE_LEADING;
 		questionsJList.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-		JScrollPane scrollPane = new JScrollPane(questionsJList);
-		scrollPane.setPreferredSize(new Dimension(380,385));
-		scrollPane.setBorder(null);
-		this.add(scrollPane,gbc);
+		questionsScrollPane = new JScrollPane(questionsJList);
+		questionsScrollPane.setPreferredSize(new Dimension(380,385));
+		questionsScrollPane.setBorder(null);
+		this.add(questionsScrollPane,gbc);
 		
-		gbc.gridy = 3;
+		gbc.gridy = 4;
 		gbc.gridx = 1;
 		gbc.gridwidth = 1;	
 		gbc.anchor = GridBagConstraints.BASELINE_LEADING;
@@ -176,6 +199,42 @@ public class QuizQuestionsPanelR extends JPanel {
 		subjectsComboBox.addActionListener(listener);
 	}
 	
+	/**
+	 * Registers a listener to be notified when the text of the search field has changed.
+	 * <p>
+	 * Fires once the user pauses typing for {@value #SEARCH_DELAY_MS} ms, not on every
+	 * keystroke.
+	 * </p>
+	 *
+	 * @param listener the Runnable to run with the new text in {@link #getSearchText()}
+	 */
+	public void addSearchListener(Runnable listener) {
+		
+		Timer delay = new Timer(SEARCH_DELAY_MS, e -> listener.run());
+		delay.setRepeats(false);
+		searchField.getDocument().addDocumentListener(new DocumentListener() {
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				delay.restart();
+			}
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				delay.restart();
+			}
+			@Override
+			public void changedUpdate(DocumentEvent e) {
+				// attribute changes only
+			}
+		});
+	}
+	
+	/**
+	 * @return the current text of the search field, never null
+	 */
+	public String getSearchText() {
+		return searchField.getText();
+	}
+	
 	/**
 	 * Registers a listener to be notified when a question is selected from the list.
 	 * <p>
@@ -194,12 +253,35 @@ public class QuizQuestionsPanelR extends JPanel {
 		});
 	}
 	
+	/**
+	 * Registers a listener to be notified when the question list has been
+	 * scrolled to its end, e.g. to load the next page of questions.
+	 * <p>
+	 * Only fires once the user releases the scroll bar (ignores intermediate
+	 * adjusting events).
+	 * </p>
+	 *
+	 * @param listener the Runnable to run when the end of the list is reached
+	 */
+	public void addQuestionsScrolledToEndListener(Runnable listener) {
+		
+		JScrollBar scrollBar = questionsScrollPane.getVerticalScrollBar();
+		scrollBar.addAdjustmentListener(e -> {
+			if (e.getValueIsAdjusting()) return;
+			BoundedRangeModel range = scrollBar.getModel();
+			if (range.getValue() + range.getExtent() >= range.getMaximum()) {
+				listener.run();
+			}
+		});
+	}
+	
 	
 	/**
 	 * Replaces all entries in the subject combo box with the provided list of subjects.
 	 * <p>
 	 * Adds an extra synthetic entry representing "All Subjects" with an ID of {@code -1}
-	 * before appending the given subjects. Uses a new {@link DefaultComboBoxModel}
+	 * before appending the given subjects. If every subject carries its question
+	 * count, that entry shows their sum. Uses a new {@link DefaultComboBoxModel}
 	 * for each call to avoid residual state and potential data inconsistencies.
 	 * </p>
 	 *
@@ -208,7 +290,9 @@ public class QuizQuestionsPanelR extends JPanel {
 	public void setAllSubjects(List<SubjectData> subjectDataList) {
 		
 		DefaultComboBoxModel<SubjectData> comboBoxModel = new DefaultComboBoxModel<>();
-		SubjectData allSubjects = new SubjectData(-1, "Alle Themen");			
+		boolean countsKnown = subjectDataList.stream().allMatch(s -> s.getQuestionCount() >= 0);
+		int total = subjectDataList.stream().mapToInt(SubjectData::getQuestionCount).sum();
+		SubjectData allSubjects = new SubjectData(-1, "Alle Themen", countsKnown ? total : -1);			
 		comboBoxModel.addElement(allSubjects);
 		comboBoxModel.addAll(subjectDataList);		
 		subjectsComboBox.setModel(comboBoxModel);						
@@ -229,6 +313,19 @@ public class QuizQuestionsPanelR extends JPanel {
 		questionListModel.addAll(questionDataList);
 		questionsJList.setModel(questionListModel);
 	}
+	
+	/**
+	 * Appends the provided questions to the end of the question list,
+	 * keeping the current entries and selection.
+	 *
+	 * @param questionDataList the questions to append
+	 */
+	public void appendQuestions(List<QuestionData> questionDataList) {
+		
+		DefaultListModel<QuestionData> questionListModel =
+			(DefaultListModel<QuestionData>) questionsJList.getModel();
+		questionListModel.addAll(questionDataList);
+	}
 	// If i want to add items individually I need to check if the model is empty.
 	//Interestingly when we create a ComboBox a DefaultComboBoxModel is created
 	//so it's no use to check if it's null. I need the cast because .getModel() 
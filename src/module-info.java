@@ -7,4 +7,5 @@
 module QuizApp {
 	requires java.desktop;
 	requires java.sql;
+	requires jdk.management;
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package search;
+
+import java.util.Arrays;
+
+/**
+ * Map from document number to a float, for the documents one search touches.
+ * <p>
+ * Open addressing with linear probing over two parallel arrays, sized from the
+ * postings the search reads, so a search allocates in proportion to the documents it
+ * matches, not to the size of the index. Values start at 0 and are only added to.
+ * </p>
+ * <p>
+ * Not thread-safe; one instance per search.
+ * </p>
+ */
+final class DocFloatMap {
+
+	private static final int EMPTY = -1;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private int[] docs;
+	private float[] values;
+	private int mask;
+	private int size;
+
+	/**
+	 * @param expectedDocs the number of documents that will probably be added; more are allowed
+	 */
+	DocFloatMap(int expectedDocs) {
+		allocate(capacityFor(expectedDocs));
+	}
+
+	/** Adds {@code delta} to the value of {@code doc}, adding the document if it is new. */
+	void add(int doc, float delta) {
+		int slot = slotOf(doc);
+		if (docs[slot] == EMPTY) {
+			if (2 * (size + 1) > docs.length && docs.length < MAX_CAPACITY) {
+				rehash(docs.length * 2);
+				slot = slotOf(doc);
+			}
+			docs[slot] = doc;
+			size++;
+		}
+		values[slot] += delta;
+	}
+
+	/** @return the number of documents added */
+	int size() {
+		return size;
+	}
+
+	/** @return the number of slots; iterate them with {@link #docAt} and {@link #valueAt} */
+	int capacity() {
+		return docs.length;
+	}
+
+	/** @return the document in {@code slot}, or -1 if the slot is empty */
+	int docAt(int slot) {
+		return docs[slot];
+	}
+
+	float valueAt(int slot) {
+		return values[slot];
+	}
+
+	private int slotOf(int doc) {
+		int h = doc * 0x9E3779B9;
+		int slot = (h ^ (h >>> 16)) & mask;
+		while (docs[slot] != EMPTY && docs[slot] != doc) slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldDocs = docs;
+		float[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldDocs.length; i++) {
+			if (oldDocs[i] == EMPTY) continue;
+			int slot = slotOf(oldDocs[i]);
+			docs[slot] = oldDocs[i];
+			values[slot] = oldValues[i];
+		}
+	}
+
+	private void allocate(int capacity) {
+		docs = new int[capacity];
+		Arrays.fill(docs, EMPTY);
+		values = new float[capacity];
+		mask = capacity - 1;
+	}
+
+	/** @return a power of two at least twice {@code expectedDocs}, so probes stay short */
+	private static int capacityFor(int expectedDocs) {
+		int n = Math.max(4, Math.min(expectedDocs, MAX_CAPACITY / 2));
+		return Integer.highestOneBit(2 * n - 1) << 1;
+	}
+}
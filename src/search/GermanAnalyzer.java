@@ -0,0 +1,86 @@
+package search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits German text into the terms of the {@link QuestionIndex}.
+ * <p>
+ * A term is a run of letters and digits. Terms are lower-cased and folded so that
+ * spellings without special characters find the same words: ä, ö and ü become ae,
+ * oe and ue, ß becomes ss, and other accented letters lose their accent (é → e).
+ * "Größe" and "Groesse" thus both become {@code groesse}. Very common words such as
+ * articles and conjunctions are dropped; they would match almost every question.
+ * </p>
+ * <p>
+ * Questions and queries go through the same analyzer, so both sides agree on every term.
+ * </p>
+ */
+public final class GermanAnalyzer {
+
+	/** Terms longer than this are cut; nobody searches for them in full. */
+	static final int MAX_TERM_LENGTH = 40;
+
+	private static final Set<String> STOP_WORDS = Set.of(
+		"der", "die", "das", "den", "dem", "des", "ein", "eine", "einen", "einem", "einer", "eines",
+		"und", "oder", "aber", "als", "am", "an", "auf", "aus", "bei", "bis", "durch", "fuer", "im",
+		"in", "ist", "mit", "nach", "nicht", "sind", "so", "von", "vom", "wie", "zu", "zum", "zur",
+		"es", "sich", "auch", "wird", "werden", "kann", "welche", "welcher", "welches");
+
+	private GermanAnalyzer() {}
+
+	/**
+	 * @param text any text, may be null
+	 * @return the terms of {@code text} in order of appearance, with repetitions
+	 */
+	public static List<String> terms(String text) {
+		List<String> terms = new ArrayList<>();
+		if (text == null) return terms;
+		StringBuilder term = new StringBuilder(16);
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				fold(c, term);
+			} else if (term.length() > 0) {
+				add(term, terms);
+			}
+		}
+		if (term.length() > 0) add(term, terms);
+		return terms;
+	}
+
+	/**
+	 * @return true if {@code text} ends inside a word, i.e. its last term may still be
+	 *         typed on and is searched as a prefix
+	 */
+	static boolean endsInTerm(String text) {
+		return !text.isEmpty() && Character.isLetterOrDigit(text.charAt(text.length() - 1));
+	}
+
+	private static void add(StringBuilder term, List<String> terms) {
+		if (term.length() > MAX_TERM_LENGTH) term.setLength(MAX_TERM_LENGTH);
+		String s = term.toString();
+		if (!STOP_WORDS.contains(s)) terms.add(s);
+		term.setLength(0);
+	}
+
+	private static void fold(char c, StringBuilder out) {
+		if (c < 0x80) {
+			out.append(c >= 'A' && c <= 'Z' ? (char) (c + 32) : c);
+			return;
+		}
+		switch (c) {
+			case 'ä', 'Ä' -> out.append("ae");
+			case 'ö', 'Ö' -> out.append("oe");
+			case 'ü', 'Ü' -> out.append("ue");
+			case 'ß', 'ẞ' -> out.append("ss");
+			default -> {
+				// é -> e + combining accent: keep the base letter only
+				String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+				out.append(Character.toLowerCase(decomposed.charAt(0)));
+			}
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package search;
+
+import java.util.Arrays;
+
+/**
+ * The documents containing one term, with the term's weighted frequency in each,
+ * compressed into a byte array.
+ * <p>
+ * Documents are appended in ascending order, so each entry stores the gap to the
+ * previous document instead of the document number itself. Gaps and frequencies are
+ * written as variable-length integers, seven bits per byte with the high bit marking
+ * that another byte follows; most entries take two bytes instead of eight.
+ * </p>
+ * <p>
+ * Not thread-safe; guarded by the lock of the {@link QuestionIndex}.
+ * </p>
+ */
+final class PostingList {
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	private byte[] bytes = new byte[INITIAL_CAPACITY];
+	private int length;
+	private int lastDoc = -1;
+	private int docCount;
+
+	/**
+	 * @param doc  the document number; must be greater than all documents added before
+	 * @param freq the weighted frequency of the term in the document, at least 1
+	 */
+	void add(int doc, int freq) {
+		if (doc <= lastDoc) throw new IllegalArgumentException("doc " + doc + " not after " + lastDoc);
+		ensureCapacity(10);
+		writeVarint(doc - lastDoc);
+		writeVarint(freq);
+		lastDoc = doc;
+		docCount++;
+	}
+
+	/** @return the number of documents, including deleted ones not compacted away yet */
+	int docCount() {
+		return docCount;
+	}
+
+	/** @return the bytes the entries take */
+	int byteSize() {
+		return length;
+	}
+
+	Reader reader() {
+		return new Reader();
+	}
+
+	private void ensureCapacity(int extra) {
+		if (length + extra > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+	}
+
+	private void writeVarint(int value) {
+		while ((value & ~0x7F) != 0) {
+			bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		bytes[length++] = (byte) value;
+	}
+
+	/** Decodes the entries in document order. */
+	final class Reader {
+		private int pos;
+		private int doc = -1;
+		private int freq;
+
+		/** @return true if positioned on the next entry, false at the end */
+		boolean next() {
+			if (pos >= length) return false;
+			doc += readVarint();
+			freq = readVarint();
+			return true;
+		}
+
+		int doc() {
+			return doc;
+		}
+
+		int freq() {
+			return freq;
+		}
+
+		private int readVarint() {
+			int value = 0;
+			for (int shift = 0; ; shift += 7) {
+				byte b = bytes[pos++];
+				value |= (b & 0x7F) << shift;
+				if (b >= 0) return value;
+			}
+		}
+	}
+}
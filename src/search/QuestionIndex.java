@@ -0,0 +1,423 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the titles, contents and answers of the questions,
+ * answering ranked multi-term queries.
+ * <p>
+ * Every indexed question is a document with a document number in the order it was
+ * indexed. The term dictionary is sorted, so the last term of a query can be matched
+ * as a prefix while the user is still typing; each term points to a compressed
+ * {@link PostingList} of the documents containing it.
+ * </p>
+ * <p>
+ * The index is updated incrementally: {@link #put} indexes a question as a new document
+ * and marks its previous document as deleted, {@link #remove} only marks. Deleted
+ * documents are skipped when searching and dropped by a compaction once they make up a
+ * quarter of all documents, so a save costs the size of one question, not of the index.
+ * The documents of each subject are listed as well, so removing a subject, or a chunk
+ * of one, visits only that subject's documents.
+ * </p>
+ * <p>
+ * Results are ranked with BM25: a term counts more the rarer it is across questions
+ * and the more often it occurs in a question, with diminishing returns, relative to the
+ * question's length. A term in the title counts {@value #TITLE_WEIGHT} times. Scores are
+ * summed in a {@link DocFloatMap} sized from the postings read, so a search costs the
+ * number of matching documents, not the number of documents in the index.
+ * </p>
+ * <p>
+ * Thread-safe: searches run in parallel, updates exclusively.
+ * </p>
+ */
+public class QuestionIndex {
+
+	/** Subject ID for {@link #search} that stands for "all subjects". */
+	public static final int ALL_SUBJECTS = -1;
+
+	static final int TITLE_WEIGHT = 3;
+	// BM25 parameters: saturation of the term frequency and strength of length normalization
+	private static final float K1 = 1.2f;
+	private static final float B = 0.75f;
+	// the last query term matches at most this many dictionary terms as a prefix
+	private static final int MAX_PREFIX_TERMS = 64;
+	// compaction is not worth it for a handful of deleted documents
+	private static final int MIN_DELETED_FOR_COMPACTION = 64;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final TreeMap<String, PostingList> postings = new TreeMap<>();
+	private final Map<Integer, Integer> docByQuestionId = new HashMap<>();
+	// per subject ID, its documents in ascending order; deleted ones linger until compaction
+	private final Map<Integer, DocList> docsBySubject = new HashMap<>();
+	private final BitSet deleted = new BitSet();
+	// per document number
+	private int[] questionIds = new int[16];
+	private int[] subjectIds = new int[16];
+	private int[] lengths = new int[16];
+	private String[] titles = new String[16];
+	private int docCount;
+	private int deletedCount;
+	private long liveLength;
+
+	/**
+	 * Indexes a question, replacing what was indexed for it before.
+	 *
+	 * @param questionId the question ID
+	 * @param subjectId  the ID of the question's subject
+	 * @param title      the title, also returned with the hits
+	 * @param content    the question text
+	 * @param answers    the answer texts
+	 */
+	public void put(int questionId, int subjectId, String title, String content, Collection<String> answers) {
+		Map<String, Integer> freqs = new HashMap<>();
+		for (String term : GermanAnalyzer.terms(title)) freqs.merge(term, TITLE_WEIGHT, Integer::sum);
+		for (String term : GermanAnalyzer.terms(content)) freqs.merge(term, 1, Integer::sum);
+		for (String answer : answers) {
+			for (String term : GermanAnalyzer.terms(answer)) freqs.merge(term, 1, Integer::sum);
+		}
+		int length = 0;
+		for (int f : freqs.values()) length += f;
+
+		lock.writeLock().lock();
+		try {
+			markDeleted(questionId);
+			int doc = docCount++;
+			ensureCapacity(docCount);
+			questionIds[doc] = questionId;
+			subjectIds[doc] = subjectId;
+			lengths[doc] = length;
+			titles[doc] = title;
+			docsBySubject.computeIfAbsent(subjectId, s -> new DocList()).add(doc);
+			for (Map.Entry<String, Integer> e : freqs.entrySet()) {
+				postings.computeIfAbsent(e.getKey(), t -> new PostingList()).add(doc, e.getValue());
+			}
+			docByQuestionId.put(questionId, doc);
+			liveLength += length;
+			compactIfWorthIt();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return true if the question was indexed
+	 */
+	public boolean remove(int questionId) {
+		lock.writeLock().lock();
+		try {
+			boolean removed = markDeleted(questionId);
+			compactIfWorthIt();
+			return removed;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes all questions of a subject, e.g. after the subject was deleted.
+	 *
+	 * @return the number of questions removed
+	 */
+	public int removeSubject(int subjectId) {
+		return removeSubjectUpTo(subjectId, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Removes the questions of a subject whose ID is at most {@code upToQuestionId}, e.g.
+	 * after one chunk of a subject was deleted.
+	 *
+	 * @return the number of questions removed
+	 */
+	public int removeSubjectUpTo(int subjectId, int upToQuestionId) {
+		lock.writeLock().lock();
+		try {
+			DocList docs = docsBySubject.get(subjectId);
+			if (docs == null) return 0;
+			// drop deleted documents from the list on the way, so the next chunk does not visit them again
+			int removed = 0;
+			int kept = 0;
+			for (int i = 0; i < docs.size; i++) {
+				int doc = docs.docs[i];
+				if (deleted.get(doc)) continue;
+				if (questionIds[doc] <= upToQuestionId && markDeleted(questionIds[doc])) {
+					removed++;
+					continue;
+				}
+				docs.docs[kept++] = doc;
+			}
+			docs.size = kept;
+			if (kept == 0) docsBySubject.remove(subjectId);
+			compactIfWorthIt();
+			return removed;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the questions matching any of the query's terms, best first. A question
+	 * matching more of the terms, or rarer ones, ranks higher. If the query ends inside
+	 * a word, that word also matches longer terms starting with it.
+	 *
+	 * @param query     the words to search for
+	 * @param subjectId only questions of this subject are returned, or {@link #ALL_SUBJECTS}
+	 * @param limit     the maximum number of hits
+	 * @return the hits, highest score first, ties by question ID; empty if the query has no terms
+	 */
+	public List<SearchHit> search(String query, int subjectId, int limit) {
+		List<String> terms = new ArrayList<>(new LinkedHashSet<>(GermanAnalyzer.terms(query)));
+		if (terms.isEmpty() || limit <= 0) return List.of();
+		boolean prefix = GermanAnalyzer.endsInTerm(query)
+			&& terms.get(terms.size() - 1).equals(lastTerm(query));
+
+		lock.readLock().lock();
+		try {
+			int live = docCount - deletedCount;
+			if (live == 0) return List.of();
+			List<PostingList> exact = new ArrayList<>(terms.size());
+			List<PostingList> expanded = List.of();
+			for (int i = 0; i < terms.size(); i++) {
+				String term = terms.get(i);
+				if (prefix && i == terms.size() - 1) {
+					expanded = withPrefix(term);
+				} else {
+					PostingList list = postings.get(term);
+					if (list != null) exact.add(list);
+				}
+			}
+			Accumulator acc = new Accumulator(subjectId, Math.max(1f, (float) liveLength / live),
+				expectedDocs(exact, expanded));
+			for (PostingList list : exact) add(acc, list, live);
+			if (!expanded.isEmpty()) addMerged(acc, expanded, live);
+			return top(acc, limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/** @return the number of indexed questions */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return docCount - deletedCount;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/** @return the number of distinct terms in the dictionary */
+	public int getTermCount() {
+		lock.readLock().lock();
+		try {
+			return postings.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/** @return the bytes taken by the compressed postings */
+	public long getPostingsBytes() {
+		lock.readLock().lock();
+		try {
+			long bytes = 0;
+			for (PostingList list : postings.values()) bytes += list.byteSize();
+			return bytes;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Drops the deleted documents from the postings and renumbers the others; normally
+	 * done automatically.
+	 */
+	public void compact() {
+		lock.writeLock().lock();
+		try {
+			if (deletedCount == 0) return;
+			int[] newDoc = new int[docCount];
+			int live = 0;
+			for (int doc = 0; doc < docCount; doc++) {
+				if (deleted.get(doc)) {
+					newDoc[doc] = -1;
+					continue;
+				}
+				newDoc[doc] = live;
+				questionIds[live] = questionIds[doc];
+				subjectIds[live] = subjectIds[doc];
+				lengths[live] = lengths[doc];
+				titles[live] = titles[doc];
+				live++;
+			}
+			Arrays.fill(titles, live, docCount, null);
+			docsBySubject.clear();
+			for (int doc = 0; doc < live; doc++) {
+				docsBySubject.computeIfAbsent(subjectIds[doc], s -> new DocList()).add(doc);
+			}
+			// renumbering keeps the order, so the rewritten lists stay ascending
+			for (var it = postings.entrySet().iterator(); it.hasNext(); ) {
+				Map.Entry<String, PostingList> e = it.next();
+				PostingList compacted = new PostingList();
+				PostingList.Reader r = e.getValue().reader();
+				while (r.next()) {
+					if (newDoc[r.doc()] >= 0) compacted.add(newDoc[r.doc()], r.freq());
+				}
+				if (compacted.docCount() == 0) it.remove();
+				else e.setValue(compacted);
+			}
+			docByQuestionId.replaceAll((questionId, doc) -> newDoc[doc]);
+			docCount = live;
+			deletedCount = 0;
+			deleted.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private boolean markDeleted(int questionId) {
+		Integer doc = docByQuestionId.remove(questionId);
+		if (doc == null) return false;
+		deleted.set(doc);
+		deletedCount++;
+		liveLength -= lengths[doc];
+		return true;
+	}
+
+	private void compactIfWorthIt() {
+		if (deletedCount >= MIN_DELETED_FOR_COMPACTION && deletedCount * 4 >= docCount) compact();
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= questionIds.length) return;
+		int n = Math.max(capacity, questionIds.length * 2);
+		questionIds = Arrays.copyOf(questionIds, n);
+		subjectIds = Arrays.copyOf(subjectIds, n);
+		lengths = Arrays.copyOf(lengths, n);
+		titles = Arrays.copyOf(titles, n);
+	}
+
+	private List<PostingList> withPrefix(String prefix) {
+		SortedMap<String, PostingList> matches = postings.subMap(prefix, prefix + Character.MAX_VALUE);
+		List<PostingList> lists = new ArrayList<>(Math.min(matches.size(), MAX_PREFIX_TERMS));
+		for (PostingList list : matches.values()) {
+			if (lists.size() == MAX_PREFIX_TERMS) break;
+			lists.add(list);
+		}
+		return lists;
+	}
+
+	/** @return how many documents the lists hold together, at most all documents */
+	private int expectedDocs(List<PostingList> exact, List<PostingList> expanded) {
+		long sum = 0;
+		for (PostingList list : exact) sum += list.docCount();
+		for (PostingList list : expanded) sum += list.docCount();
+		return (int) Math.min(sum, docCount);
+	}
+
+	/** @return the last term of {@code query} even if it is a stop word, or null */
+	private static String lastTerm(String query) {
+		int start = query.length();
+		while (start > 0 && Character.isLetterOrDigit(query.charAt(start - 1))) start--;
+		List<String> terms = GermanAnalyzer.terms(query.substring(start));
+		return terms.isEmpty() ? null : terms.get(0);
+	}
+
+	/** Scores the documents of one term; deleted documents still count for its rarity until compacted. */
+	private void add(Accumulator acc, PostingList list, int live) {
+		int df = Math.min(list.docCount(), live);
+		float idf = (float) Math.log(1 + (live - df + 0.5) / (df + 0.5));
+		PostingList.Reader r = list.reader();
+		while (r.next()) {
+			if (!deleted.get(r.doc())) acc.add(r.doc(), r.freq(), idf);
+		}
+	}
+
+	/**
+	 * Scores the expansions of a prefix as one term, so a question containing several
+	 * of them is not counted several times and their rarity is that of all together.
+	 */
+	private void addMerged(Accumulator acc, List<PostingList> lists, int live) {
+		if (lists.size() == 1) {
+			add(acc, lists.get(0), live);
+			return;
+		}
+		DocFloatMap freqs = new DocFloatMap(expectedDocs(lists, List.of()));
+		for (PostingList list : lists) {
+			PostingList.Reader r = list.reader();
+			while (r.next()) {
+				if (!deleted.get(r.doc())) freqs.add(r.doc(), r.freq());
+			}
+		}
+		int df = freqs.size();
+		float idf = (float) Math.log(1 + (live - df + 0.5) / (df + 0.5));
+		for (int slot = 0; slot < freqs.capacity(); slot++) {
+			int doc = freqs.docAt(slot);
+			if (doc >= 0) acc.add(doc, freqs.valueAt(slot), idf);
+		}
+	}
+
+	private List<SearchHit> top(Accumulator acc, int limit) {
+		Comparator<SearchHit> worstFirst = Comparator.comparingDouble(SearchHit::getScore)
+			.thenComparing(Comparator.comparingInt(SearchHit::getQuestionId).reversed());
+		PriorityQueue<SearchHit> best = new PriorityQueue<>(Math.min(limit, acc.scores.size()) + 1, worstFirst);
+		for (int slot = 0; slot < acc.scores.capacity(); slot++) {
+			int doc = acc.scores.docAt(slot);
+			if (doc < 0) continue;
+			float score = acc.scores.valueAt(slot);
+			if (best.size() == limit) {
+				// only hits that make it into the top get an object
+				SearchHit worst = best.peek();
+				if (score < worst.getScore()
+					|| (score == worst.getScore() && questionIds[doc] > worst.getQuestionId())) continue;
+				best.poll();
+			}
+			best.add(new SearchHit(questionIds[doc], subjectIds[doc], titles[doc], score));
+		}
+		List<SearchHit> hits = new ArrayList<>(best);
+		hits.sort(worstFirst.reversed());
+		return hits;
+	}
+
+	/** The BM25 scores of one search, for the documents scored so far. */
+	private final class Accumulator {
+		final DocFloatMap scores;
+		private final int subjectId;
+		private final float avgLength;
+
+		Accumulator(int subjectId, float avgLength, int expectedDocs) {
+			this.subjectId = subjectId;
+			this.avgLength = avgLength;
+			this.scores = new DocFloatMap(expectedDocs);
+		}
+
+		void add(int doc, float tf, float idf) {
+			if (subjectId != ALL_SUBJECTS && subjectIds[doc] != subjectId) return;
+			float norm = K1 * (1 - B + B * lengths[doc] / avgLength);
+			scores.add(doc, idf * tf * (K1 + 1) / (tf + norm));
+		}
+	}
+
+	/** Growable list of document numbers. */
+	private static final class DocList {
+		int[] docs = new int[4];
+		int size;
+
+		void add(int doc) {
+			if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+			docs[size++] = doc;
+		}
+	}
+}
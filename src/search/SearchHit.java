@@ -0,0 +1,41 @@
+package search;
+
+/**
+ * One question found by {@link QuestionIndex#search}, with what a result list shows of it.
+ */
+public final class SearchHit {
+
+	private final int questionId;
+	private final int subjectId;
+	private final String questionTitle;
+	private final float score;
+
+	SearchHit(int questionId, int subjectId, String questionTitle, float score) {
+		this.questionId = questionId;
+		this.subjectId = subjectId;
+		this.questionTitle = questionTitle;
+		this.score = score;
+	}
+
+	public int getQuestionId() {
+		return questionId;
+	}
+
+	public int getSubjectId() {
+		return subjectId;
+	}
+
+	public String getQuestionTitle() {
+		return questionTitle;
+	}
+
+	/** @return the BM25 relevance; only comparable between hits of the same search */
+	public float getScore() {
+		return score;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("SearchHit[questionId=%d, score=%.3f, title=%s]", questionId, score, questionTitle);
+	}
+}
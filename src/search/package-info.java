@@ -0,0 +1,10 @@
+/**
+ * Full-text search over the questions.
+ * <p>
+ * {@link search.QuestionIndex} is an in-memory inverted index over question titles,
+ * contents and answers with compressed postings, updated question by question and
+ * ranking hits with BM25. {@link search.GermanAnalyzer} turns text into its terms,
+ * folding umlauts and ß so that "Größe" and "Groesse" match.
+ * </p>
+ */
+package search;
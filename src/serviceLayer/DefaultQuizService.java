@@ -1,33 +1,130 @@
 package serviceLayer;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import common.OperationResult;
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+import dao.DataAccessException;
+import dao.OptimisticLockException;
+import dao.Page;
+import dao.retry.RetryPolicy;
+import dao.retry.RetryingDAOExecutor;
+import domain.Answer;
+import domain.Question;
+import domain.Subject;
+import dto.AnswerDTO;
 import dto.QuestionAndAnswersDTO;
+import dto.QuestionDTO;
+import dto.QuestionLightDTO;
+import dto.QuestionPageDTO;
 import dto.QuizQuestionsInitDTO;
+import dto.SubjectDTO;
+import dto.SubjectDeletionDTO;
+import dto.SubjectLightDTO;
+import search.QuestionIndex;
 
 /**
- * Placeholder for the default (real) quiz service implementation.
+ * Default (real) quiz service implementation backed by the DAO layer.
+ * <p>
+ * Every operation opens its own unit-of-work through the injected
+ * {@link DAOFactoryProvider} and closes it before returning. Units of work run
+ * through a {@link RetryingDAOExecutor}, so a deadlock or a dropped connection
+ * is retried instead of reaching the user.
+ * Operations not implemented yet return empty or null data.
+ * </p>
  * <p>
- * Intended to be replaced with actual data access and business logic
- * in the future. Currently returns empty or null data.
+ * The service does not own its data source. Whoever starts the application
+ * gets a provider from {@code JdbcDAOFactoryProvider.startPooled(...)}, which
+ * creates the connection pool and runs {@code SchemaMigrator.migrateAndVerify()},
+ * passes it here and closes it at shutdown.
  * </p>
  */
 public class DefaultQuizService implements QuizService{
 
-	public DefaultQuizService() {
-		// TODO Auto-generated constructor stub
-			
+	private static final String USER_ERROR_SUBJECT_NOT_FOUND =
+		"Das Thema wurde nicht gefunden.";
+	private static final String USER_ERROR_DELETE_FAILED =
+		"Das Thema konnte nicht gelöscht werden: %s";
+	private static final String USER_ERROR_DELETE_INTERRUPTED =
+		"Das Löschen wurde abgebrochen, %d Fragen wurden bereits gelöscht.";
+	private static final String USER_ERROR_QUESTION_NOT_FOUND =
+		"Die Frage wurde nicht gefunden.";
+	private static final String USER_ERROR_CONCURRENT_CHANGE =
+		"Der Datensatz wurde inzwischen von jemand anderem geändert. Bitte neu laden und erneut bearbeiten.";
+	private static final String USER_ERROR_SAVE_FAILED =
+		"Die Änderungen konnten nicht gespeichert werden: %s";
+
+	private final RetryingDAOExecutor executor;
+	// built on the first search, then kept up to date by the writes of this service
+	private volatile QuestionIndex searchIndex;
+	// guards indexUpdatesDuringBuild, which is non-null while an index is being built
+	private final Object indexUpdateLock = new Object();
+	private List<Consumer<QuestionIndex>> indexUpdatesDuringBuild;
+
+	/**
+	 * @param daoFactoryProvider opens one DAOFactory per operation
+	 */
+	public DefaultQuizService(DAOFactoryProvider daoFactoryProvider) {
+		this(daoFactoryProvider, new RetryPolicy());
 	}
 
+	/**
+	 * @param daoFactoryProvider opens one DAOFactory per operation
+	 * @param retryPolicy        how transient failures are retried
+	 */
+	public DefaultQuizService(DAOFactoryProvider daoFactoryProvider, RetryPolicy retryPolicy) {
+		this.executor = new RetryingDAOExecutor(daoFactoryProvider, retryPolicy);
+	}
+
+	/**
+	 * @return the executor running the operations, for its retry counters
+	 */
+	public RetryingDAOExecutor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Loads the subject and question lists through the light projections, so
+	 * question content is never read.
+	 * 
+	 * @return a {@link dto.QuizQuestionsInitDTO} with all subjects and questions
+	 */
 	public QuizQuestionsInitDTO getQuizQuestionsInitData() {
 		
-		
-		QuizQuestionsInitDTO initDTO = new QuizQuestionsInitDTO(null, null);
-		return initDTO;
+		return executor.read(daos -> {
+			List<SubjectLightDTO> subjectList = daos.subjects().findAllLight();
+			List<QuestionLightDTO> questionList = daos.questions().findAllLight();
+			return new QuizQuestionsInitDTO(subjectList, questionList);
+		});
 	}
 
+	/** One row per subject; the start screen pages its questions in later. */
+	@Override
+	public List<SubjectLightDTO> getSubjectLightList() {
+		return executor.read(daos -> daos.subjects().findAllLight());
+	}
+
+	/**
+	 * Loads the question and its answers with the versions needed to save them again.
+	 * 
+	 * @return the question and its answers, or null if the question does not exist
+	 */
 	@Override
 	public QuestionAndAnswersDTO getQuestionAndAnswersById(int questionId) {
-		// TODO Auto-generated method stub
-		return null;
+		
+		return executor.read(daos -> daos.questions().findById(questionId)
+			.map(q -> toQuestionAndAnswersDTO(q, daos.answers().findByQuestionId(questionId)))
+			.orElse(null));
 	}
 
 	@Override
@@ -35,4 +132,399 @@ public class DefaultQuizService implements QuizService{
 		// TODO Auto-generated method stub
 		return null;
 	}
+
+	@Override
+	public QuestionPageDTO getQuestionPage(int subjectId, int afterQuestionId, int pageSize) {
+		
+		int limit = Math.min(pageSize, Page.MAX_LIMIT);
+		return executor.read(daos -> {
+			// light projections: the list shows titles only, so no content is read
+			Page<QuestionLightDTO> page = (subjectId == ALL_SUBJECTS)
+				? daos.questions().findAllLightAfter(afterQuestionId, limit)
+				: daos.questions().findLightBySubjectIdAfter(subjectId, afterQuestionId, limit);
+			return new QuestionPageDTO(page.getItems(), page.hasNext(), page.getLastId());
+		});
+	}
+
+	/** One grouped query; the result has a row per subject, not per question. */
+	@Override
+	public Map<Integer, Integer> getQuestionCountsBySubject() {
+		return executor.read(daos -> daos.questions().countBySubject());
+	}
+
+	@Override
+	public Map<Integer, Integer> getAnswerCountsByQuestion(int subjectId) {
+		return executor.read(daos -> daos.answers().countByQuestionForSubjectId(subjectId));
+	}
+
+	/**
+	 * Answered from an in-memory {@link QuestionIndex}, without a query to the database.
+	 * The index is built from all questions on the first search and afterwards updated
+	 * by the saves and deletes of this service; questions written elsewhere, e.g. by an
+	 * import, are found after {@link #rebuildSearchIndex()}.
+	 */
+	@Override
+	public List<QuestionLightDTO> searchQuestions(String query, int subjectId, int limit) {
+		int filter = (subjectId == ALL_SUBJECTS) ? QuestionIndex.ALL_SUBJECTS : subjectId;
+		return searchIndex().search(query, filter, limit).stream()
+			.map(hit -> new QuestionLightDTO(hit.getQuestionId(), hit.getQuestionTitle(), hit.getSubjectId()))
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Indexes all questions again, streaming them with their answers in one read.
+	 */
+	public synchronized void rebuildSearchIndex() {
+		buildSearchIndex();
+	}
+
+	private QuestionIndex searchIndex() {
+		QuestionIndex index = searchIndex;
+		if (index == null) {
+			synchronized (this) {
+				index = searchIndex;
+				if (index == null) index = buildSearchIndex();
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Builds a new index and publishes it. Writes that commit while the questions are
+	 * streamed may be missed by the stream, so their index updates are collected and
+	 * applied to the new index before it replaces the old one; updates are idempotent,
+	 * so one the stream already saw does no harm. Called with the monitor held, so only
+	 * one build runs at a time.
+	 */
+	private QuestionIndex buildSearchIndex() {
+		synchronized (indexUpdateLock) {
+			indexUpdatesDuringBuild = new ArrayList<>();
+		}
+		QuestionIndex built = null;
+		try {
+			// a fresh index per attempt, so a retried read does not index twice
+			built = executor.read(daos -> {
+				QuestionIndex index = new QuestionIndex();
+				try (Stream<Question> questions = daos.questions().streamAllWithAnswers()) {
+					questions.forEach(q -> index.put(q.getQuestionId(), q.getSubject().getSubjectId(),
+						q.getQuestionTitle(), q.getQuestionContent(),
+						q.getAnswersList().stream().map(Answer::getAnswerContent).collect(Collectors.toList())));
+				}
+				return index;
+			});
+			return built;
+		} finally {
+			synchronized (indexUpdateLock) {
+				if (built != null) {
+					for (Consumer<QuestionIndex> update : indexUpdatesDuringBuild) update.accept(built);
+					searchIndex = built;
+				}
+				indexUpdatesDuringBuild = null;
+			}
+		}
+	}
+
+	/** @return true if the index is built or being built, so that writes must update it */
+	private boolean isIndexed() {
+		synchronized (indexUpdateLock) {
+			return searchIndex != null || indexUpdatesDuringBuild != null;
+		}
+	}
+
+	/** Applies a committed write to the search index, and to the one being built, if any. */
+	private void updateIndex(Consumer<QuestionIndex> update) {
+		QuestionIndex index;
+		synchronized (indexUpdateLock) {
+			if (indexUpdatesDuringBuild != null) indexUpdatesDuringBuild.add(update);
+			index = searchIndex;
+		}
+		if (index != null) update.accept(index);
+	}
+
+	/** Updates the search index with a question as it was saved. */
+	private void indexSaved(QuestionAndAnswersDTO saved) {
+		QuestionDTO q = saved.getQuestion();
+		List<String> answers = saved.getAnswersList().stream().map(AnswerDTO::getAnswerContent).collect(Collectors.toList());
+		updateIndex(index -> index.put(q.getQuestionId(), q.getFkSubjectId(), q.getQuestionTitle(),
+			q.getQuestionContent(), answers));
+	}
+
+	/**
+	 * Runs three statements in one transaction, children first because the foreign
+	 * keys restrict: the answers of the subject (a join on the subject's questions),
+	 * its questions and the subject itself.
+	 */
+	@Override
+	public OperationResult<SubjectDeletionDTO> deleteSubject(int subjectId) {
+		
+		SubjectDeletionDTO deleted;
+		try {
+			// a missing subject has no questions either, so nothing was deleted then
+			deleted = executor.inTransaction(daos -> {
+				int answers = daos.answers().deleteBySubjectId(subjectId);
+				int questions = daos.questions().deleteBySubjectId(subjectId);
+				return daos.subjects().delete(subjectId)
+					? new SubjectDeletionDTO(subjectId, questions, answers, true) : null;
+			});
+		} catch (DataAccessException e) {
+			return OperationResult.failure(List.of(String.format(USER_ERROR_DELETE_FAILED, e.getMessage())));
+		}
+		if (deleted == null) return OperationResult.failure(List.of(USER_ERROR_SUBJECT_NOT_FOUND));
+		updateIndex(index -> index.removeSubject(subjectId));
+		return OperationResult.success(deleted);
+	}
+
+	/**
+	 * Each chunk looks up the ID of the first question after it, reading IDs only and
+	 * seeking past the bound of the chunk before, then deletes the answers and questions
+	 * before that ID in one transaction and drops them from the search index. The final transaction deletes what is left,
+	 * including questions added in the meantime, and the subject.
+	 */
+	@Override
+	public OperationResult<SubjectDeletionDTO> deleteSubjectInChunks(int subjectId, int chunkSize,
+			Duration pause, Consumer<SubjectDeletionDTO> progress) {
+		if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+		Objects.requireNonNull(pause, "pause must not be null, use Duration.ZERO for none");
+		
+		long questions = 0;
+		long answers = 0;
+		int bound = Page.FIRST;
+		try {
+			if (executor.read(daos -> daos.subjects().findById(subjectId)).isEmpty()) {
+				return OperationResult.failure(List.of(USER_ERROR_SUBJECT_NOT_FOUND));
+			}
+			for (;;) {
+				// the rows of earlier chunks are gone, so the next chunk starts right after the
+				// last bound; the last one, up to chunkSize questions, goes with the subject below
+				int afterId = bound;
+				long[] deleted = executor.inTransaction(daos -> {
+					OptionalInt nextChunk = daos.questions().findIdBySubjectIdAfter(subjectId, afterId, chunkSize);
+					if (nextChunk.isEmpty()) return null;
+					int upToId = nextChunk.getAsInt() - 1;
+					return new long[] {
+						daos.answers().deleteBySubjectIdUpTo(subjectId, upToId),
+						daos.questions().deleteBySubjectIdUpTo(subjectId, upToId),
+						upToId };
+				});
+				if (deleted == null) break;
+				answers += deleted[0];
+				questions += deleted[1];
+				// committed: keep the index in step even if a later chunk fails
+				int upToId = (int) deleted[2];
+				bound = upToId;
+				updateIndex(index -> index.removeSubjectUpTo(subjectId, upToId));
+				if (progress != null) progress.accept(new SubjectDeletionDTO(subjectId, questions, answers, false));
+				if (!pause.isZero()) Thread.sleep(pause.toMillis());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return OperationResult.failure(List.of(String.format(USER_ERROR_DELETE_INTERRUPTED, questions)));
+		} catch (DataAccessException e) {
+			return OperationResult.failure(List.of(String.format(USER_ERROR_DELETE_FAILED, e.getMessage())));
+		}
+		
+		OperationResult<SubjectDeletionDTO> last = deleteSubject(subjectId);
+		if (!last.isSuccess()) return last;
+		SubjectDeletionDTO done = new SubjectDeletionDTO(subjectId,
+			questions + last.getData().getQuestionsDeleted(), answers + last.getData().getAnswersDeleted(), true);
+		if (progress != null) progress.accept(done);
+		return OperationResult.success(done);
+	}
+
+	
+	@Override
+	public OperationResult<SubjectDTO> updateSubject(SubjectDTO dto) {
+		
+		OperationResult<Void> valid = toSubject(dto).validate();
+		if (!valid.isSuccess()) return OperationResult.failure(valid.getErrors());
+		
+		Subject saved;
+		try {
+			// built per attempt: update() marks the entity clean, so a retry must start from
+			// a dirty entity with the version the user loaded
+			saved = executor.inTransaction(daos -> {
+				Subject subject = toSubject(dto);
+				return daos.subjects().update(subject) ? subject : null;
+			});
+		} catch (OptimisticLockException e) {
+			return OperationResult.conflict(List.of(USER_ERROR_CONCURRENT_CHANGE));
+		} catch (DataAccessException e) {
+			return OperationResult.failure(List.of(String.format(USER_ERROR_SAVE_FAILED, e.getMessage())));
+		}
+		if (saved == null) return OperationResult.failure(List.of(USER_ERROR_SUBJECT_NOT_FOUND));
+		dto.setVersion(saved.getVersion());
+		return OperationResult.success(dto);
+	}
+	
+	@Override
+	public OperationResult<QuestionDTO> updateQuestion(QuestionDTO dto) {
+		
+		OperationResult<Void> valid = toQuestion(dto).validate();
+		if (!valid.isSuccess()) return OperationResult.failure(valid.getErrors());
+		
+		Question saved;
+		try {
+			// built per attempt, like the subject in updateSubject
+			saved = executor.inTransaction(daos -> {
+				Question question = toQuestion(dto);
+				return daos.questions().update(question) ? question : null;
+			});
+		} catch (OptimisticLockException e) {
+			return OperationResult.conflict(List.of(USER_ERROR_CONCURRENT_CHANGE));
+		} catch (DataAccessException e) {
+			return OperationResult.failure(List.of(String.format(USER_ERROR_SAVE_FAILED, e.getMessage())));
+		}
+		if (saved == null) return OperationResult.failure(List.of(USER_ERROR_QUESTION_NOT_FOUND));
+		dto.setVersion(saved.getVersion());
+		if (isIndexed()) {
+			// the answers are not part of the DTO: index the question as stored
+			try {
+				QuestionAndAnswersDTO stored = getQuestionAndAnswersById(dto.getQuestionId());
+				if (stored != null) indexSaved(stored);
+			} catch (DataAccessException e) {
+				// the save went through; the index only lags until the next save or rebuild
+			}
+		}
+		return OperationResult.success(dto);
+	}
+
+	
+	/**
+	 * Reads the stored question and answers inside the transaction and applies the edits
+	 * to them through their setters, so the DAOs write only the changed columns. New
+	 * answers go out with one {@code insertAll}, changed ones with one {@code updateAll}
+	 * and removed ones with one {@code deleteAll}; unchanged rows are not written.
+	 * Whenever anything changed, the question row is updated too,
+	 * which advances its version: two users saving the same question thus always
+	 * conflict on the question, even if they only edited different answers.
+	 */
+	@Override
+	public OperationResult<QuestionAndAnswersDTO> saveQuestionAggregate(QuestionAndAnswersDTO aggregate) {
+		
+		List<String> errors = validate(toQuestion(aggregate.getQuestion()), aggregate.getAnswersList());
+		if (!errors.isEmpty()) return OperationResult.failure(errors);
+		
+		QuestionAndAnswersDTO saved;
+		try {
+			// entities are built per attempt, so a retry starts from the versions the user loaded
+			saved = executor.inTransaction(daos -> {
+				Question question = toQuestion(aggregate.getQuestion());
+				List<Answer> answers = new ArrayList<>(aggregate.getAnswersList().size());
+				for (AnswerDTO dto : aggregate.getAnswersList()) answers.add(toAnswer(dto, question));
+				return saveAggregate(daos, question, answers) ? toQuestionAndAnswersDTO(question, answers) : null;
+			});
+		} catch (OptimisticLockException e) {
+			return OperationResult.conflict(List.of(USER_ERROR_CONCURRENT_CHANGE));
+		} catch (DataAccessException e) {
+			return OperationResult.failure(List.of(String.format(USER_ERROR_SAVE_FAILED, e.getMessage())));
+		}
+		if (saved == null) return OperationResult.failure(List.of(USER_ERROR_QUESTION_NOT_FOUND));
+		indexSaved(saved);
+		return OperationResult.success(saved);
+	}
+	
+	/**
+	 * Writes the difference between the edited and the stored aggregate.
+	 * 
+	 * @return false if the question does not exist (any more)
+	 */
+	private static boolean saveAggregate(DAOFactory daos, Question question, List<Answer> answers) {
+		
+		if (question.getQuestionId() == 0) {
+			question.setQuestionId(daos.questions().insert(question));
+			daos.answers().insertAll(answers);
+			return true;
+		}
+		
+		Question stored = daos.questions().findById(question.getQuestionId()).orElse(null);
+		if (stored == null) return false;
+		
+		Map<Integer, Answer> storedAnswers = new HashMap<>();
+		for (Answer a : daos.answers().findByQuestionId(question.getQuestionId())) storedAnswers.put(a.getAnswerId(), a);
+		
+		List<Answer> inserts = new ArrayList<>();
+		List<Answer> edits = new ArrayList<>();
+		List<Answer> updates = new ArrayList<>();
+		for (Answer a : answers) {
+			if (a.getAnswerId() == 0) {
+				inserts.add(a);
+				continue;
+			}
+			Answer old = storedAnswers.remove(a.getAnswerId());
+			if (old == null) throw new OptimisticLockException("answers", a.getAnswerId(), a.getVersion(), -1);
+			old.setAnswerContent(a.getAnswerContent());
+			old.setCorrect(a.isCorrect());
+			if (old.isDirty()) {
+				old.setVersion(a.getVersion());
+				edits.add(a);
+				updates.add(old);
+			} else {
+				a.setVersion(old.getVersion());
+			}
+		}
+		List<Integer> deletes = new ArrayList<>(storedAnswers.keySet());
+		
+		stored.setQuestionTitle(question.getQuestionTitle());
+		stored.setQuestionContent(question.getQuestionContent());
+		stored.setSubject(question.getSubject());
+		if (!stored.isDirty() && inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty()) {
+			question.setVersion(stored.getVersion());
+			return true;
+		}
+		
+		// first, so that a conflicting save stops before any answer is written; if only
+		// answers changed, the edited question rewrites its unchanged columns to advance the version
+		stored.setVersion(question.getVersion());
+		Question written = stored.isDirty() ? stored : question;
+		if (!daos.questions().update(written)) return false;
+		question.setVersion(written.getVersion());
+		if (!deletes.isEmpty()) daos.answers().deleteAll(deletes);
+		if (!updates.isEmpty()) daos.answers().updateAll(updates);
+		for (int i = 0; i < edits.size(); i++) edits.get(i).setVersion(updates.get(i).getVersion());
+		if (!inserts.isEmpty()) daos.answers().insertAll(inserts);
+		return true;
+	}
+	
+	private static List<String> validate(Question question, List<AnswerDTO> answers) {
+		List<String> errors = new ArrayList<>(question.validate().getErrors());
+		for (AnswerDTO dto : answers) {
+			for (String error : toAnswer(dto, question).validate().getErrors()) {
+				if (!errors.contains(error)) errors.add(error);
+			}
+		}
+		return errors;
+	}
+	
+	private static Subject toSubject(SubjectDTO dto) {
+		Subject subject = new Subject(dto.getSubjectId(), dto.getSubjectTitle(), dto.getSubjectInfo());
+		subject.setVersion(dto.getVersion());
+		return subject;
+	}
+	
+	private static Question toQuestion(QuestionDTO dto) {
+		Question question = new Question(dto.getQuestionId(), dto.getQuestionTitle(), dto.getQuestionContent(),
+			new Subject(dto.getFkSubjectId(), null, null));
+		question.setVersion(dto.getVersion());
+		return question;
+	}
+	
+	private static Answer toAnswer(AnswerDTO dto, Question question) {
+		Answer answer = new Answer(dto.getAnswerId(), dto.getAnswerContent(), dto.isCorrect(), question);
+		answer.setVersion(dto.getVersion());
+		return answer;
+	}
+	
+	private static QuestionAndAnswersDTO toQuestionAndAnswersDTO(Question question, List<Answer> answers) {
+		QuestionDTO questionDTO = new QuestionDTO(question.getQuestionId(), question.getQuestionTitle(),
+			question.getQuestionContent(), question.getSubject().getSubjectId());
+		questionDTO.setVersion(question.getVersion());
+		List<AnswerDTO> answerDTOs = new ArrayList<>(answers.size());
+		for (Answer a : answers) {
+			AnswerDTO answerDTO = new AnswerDTO(a.getAnswerId(), a.getAnswerContent(), a.isCorrect(),
+				question.getQuestionId());
+			answerDTO.setVersion(a.getVersion());
+			answerDTOs.add(answerDTO);
+		}
+		return new QuestionAndAnswersDTO(questionDTO, answerDTOs);
+	}
 }
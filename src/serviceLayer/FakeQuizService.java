@@ -1,15 +1,25 @@
 package serviceLayer;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+import common.OperationResult;
 import dto.AnswerDTO;
 import dto.QuestionDTO;
 import dto.QuestionAndAnswersDTO;
 import dto.QuestionLightDTO;
+import dto.QuestionPageDTO;
 import dto.QuizQuestionsInitDTO;
+import dto.SubjectDTO;
+import dto.SubjectDeletionDTO;
 import dto.SubjectLightDTO;
+import search.QuestionIndex;
 
 /**
  * A fake implementation of {@link QuizService} that generates
@@ -25,6 +35,11 @@ import dto.SubjectLightDTO;
  */
 public class FakeQuizService implements QuizService{
 
+	// IDs handed out to saved new questions and answers, above all generated ones
+	private int nextSavedId = 10_000;
+	// the generated question titles, built on the first search
+	private QuestionIndex searchIndex;
+
 	public FakeQuizService() {
 		// TODO Auto-generated constructor stub
 			
@@ -38,6 +53,11 @@ public class FakeQuizService implements QuizService{
 		return initDTO;
 	}
 
+	@Override
+	public List<SubjectLightDTO> getSubjectLightList() {
+		return generateSubjectLightList();
+	}
+
 	/**
 	 * Generates a list of 100 fake questions (5 per subject) with IDs and titles.
 	 * 
@@ -71,6 +91,78 @@ public class FakeQuizService implements QuizService{
 		}
 		return subjectList;
 	}
+
+	/**
+	 * Returns one page of the generated questions, filtered by subject.
+	 * 
+	 * @param subjectId       the subject to filter by, or {@link QuizService#ALL_SUBJECTS}
+	 * @param afterQuestionId only questions with a greater ID are returned
+	 * @param pageSize        the maximum number of questions on the page
+	 * @return a {@link dto.QuestionPageDTO} with the generated questions
+	 */
+	@Override
+	public QuestionPageDTO getQuestionPage(int subjectId, int afterQuestionId, int pageSize) {
+		List<QuestionLightDTO> fetched = generateQuestionLightList().stream()
+			.filter(q -> subjectId == ALL_SUBJECTS || q.getFkSubjectId() == subjectId)
+			.filter(q -> q.getQuestionId() > afterQuestionId)
+			.limit(pageSize + 1L)
+			.collect(Collectors.toList());
+		
+		boolean hasNext = fetched.size() > pageSize;
+		List<QuestionLightDTO> page = hasNext ? fetched.subList(0, pageSize) : fetched;
+		int lastQuestionId = page.isEmpty() ? afterQuestionId : page.get(page.size() - 1).getQuestionId();
+		return new QuestionPageDTO(page, hasNext, lastQuestionId);
+	}
+
+	/**
+	 * Counts the generated questions per subject.
+	 * 
+	 * @return 5 for each of the 20 generated subjects
+	 */
+	@Override
+	public Map<Integer, Integer> getQuestionCountsBySubject() {
+		Map<Integer, Integer> counts = new HashMap<>();
+		for (QuestionLightDTO q : generateQuestionLightList()) {
+			counts.merge(q.getFkSubjectId(), 1, Integer::sum);
+		}
+		return counts;
+	}
+
+	/**
+	 * Counts the generated answers of the questions of a subject.
+	 * 
+	 * @param subjectId the subject whose questions are counted
+	 * @return 4 for each generated question of the subject
+	 */
+	@Override
+	public Map<Integer, Integer> getAnswerCountsByQuestion(int subjectId) {
+		Map<Integer, Integer> counts = new HashMap<>();
+		for (QuestionLightDTO q : generateQuestionLightList()) {
+			if (q.getFkSubjectId() == subjectId) counts.put(q.getQuestionId(), 4);
+		}
+		return counts;
+	}
+
+	/**
+	 * Searches the titles of the generated questions, and of questions saved since.
+	 */
+	@Override
+	public List<QuestionLightDTO> searchQuestions(String query, int subjectId, int limit) {
+		return searchIndex().search(query, subjectId == ALL_SUBJECTS ? QuestionIndex.ALL_SUBJECTS : subjectId, limit)
+			.stream()
+			.map(hit -> new QuestionLightDTO(hit.getQuestionId(), hit.getQuestionTitle(), hit.getSubjectId()))
+			.collect(Collectors.toList());
+	}
+
+	private QuestionIndex searchIndex() {
+		if (searchIndex == null) {
+			searchIndex = new QuestionIndex();
+			for (QuestionLightDTO q : generateQuestionLightList()) {
+				searchIndex.put(q.getQuestionId(), q.getFkSubjectId(), q.getQuestionTitle(), null, List.of());
+			}
+		}
+		return searchIndex;
+	}
 //
 //	public QuizQuestionsInitDTO getQuestionListForQuizQuestions() {		
 //
@@ -99,6 +191,65 @@ public class FakeQuizService implements QuizService{
 		return qAndA;
 	}
 
+	/**
+	 * Pretends to delete a subject; the generated data does not change.
+	 * 
+	 * @return the counts a generated subject has: 5 questions with 4 answers each
+	 */
+	@Override
+	public OperationResult<SubjectDeletionDTO> deleteSubject(int subjectId) {
+		return OperationResult.success(new SubjectDeletionDTO(subjectId, 5, 20, true));
+	}
+
+	/**
+	 * Same as {@link #deleteSubject(int)}, reporting a single chunk.
+	 */
+	@Override
+	public OperationResult<SubjectDeletionDTO> deleteSubjectInChunks(int subjectId, int chunkSize,
+			Duration pause, Consumer<SubjectDeletionDTO> progress) {
+		OperationResult<SubjectDeletionDTO> result = deleteSubject(subjectId);
+		if (progress != null) progress.accept(result.getData());
+		return result;
+	}
+
+	/**
+	 * Accepts every change and counts the version up, as if nobody else were editing.
+	 */
+	@Override
+	public OperationResult<SubjectDTO> updateSubject(SubjectDTO subject) {
+		subject.setVersion(subject.getVersion() + 1);
+		return OperationResult.success(subject);
+	}
+
+	/**
+	 * Accepts every change and counts the version up, as if nobody else were editing.
+	 */
+	@Override
+	public OperationResult<QuestionDTO> updateQuestion(QuestionDTO question) {
+		question.setVersion(question.getVersion() + 1);
+		return OperationResult.success(question);
+	}
+
+	/**
+	 * Accepts the edited question as it is: new rows get made-up IDs and every
+	 * version counts up; the generated data does not change.
+	 */
+	@Override
+	public OperationResult<QuestionAndAnswersDTO> saveQuestionAggregate(QuestionAndAnswersDTO aggregate) {
+		QuestionDTO question = aggregate.getQuestion();
+		if (question.getQuestionId() == 0) question.setQuestionId(nextSavedId++);
+		question.setVersion(question.getVersion() + 1);
+		for (AnswerDTO answer : aggregate.getAnswersList()) {
+			if (answer.getAnswerId() == 0) answer.setAnswerId(nextSavedId++);
+			answer.setFkQuestionId(question.getQuestionId());
+			answer.setVersion(answer.getVersion() + 1);
+		}
+		searchIndex().put(question.getQuestionId(), question.getFkSubjectId(), question.getQuestionTitle(),
+			question.getQuestionContent(),
+			aggregate.getAnswersList().stream().map(AnswerDTO::getAnswerContent).collect(Collectors.toList()));
+		return OperationResult.success(aggregate);
+	}
+
 	/**
 	 * Generates a fake question DTO based on the given question ID.
 	 * 
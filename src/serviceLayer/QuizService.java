@@ -1,8 +1,19 @@
 package serviceLayer;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
 import common.OperationResult;
 import dto.QuestionAndAnswersDTO;
+import dto.QuestionDTO;
+import dto.QuestionLightDTO;
+import dto.QuestionPageDTO;
 import dto.QuizQuestionsInitDTO;
+import dto.SubjectDTO;
+import dto.SubjectDeletionDTO;
+import dto.SubjectLightDTO;
 
 /**
  * Interface defining the contract for quiz-related service operations.
@@ -17,6 +28,9 @@ import dto.QuizQuestionsInitDTO;
  */
 public interface QuizService {
 
+	/** Subject ID that stands for "all subjects" in subject filters. */
+	int ALL_SUBJECTS = -1;
+
 	//TODO: At the moment I just added the real methods as final top not break functionality.
 	// the old methods must be later deleted and the new ones renamed and the default implementation
 	// must be removed too!
@@ -32,6 +46,14 @@ public interface QuizService {
 	default OperationResult<QuizQuestionsInitDTO> getQuizQuestionsInitDataFinal() {
 		return null;
 	}
+	
+	/**
+     * Retrieves the subjects for the start screen without any questions; those are
+     * loaded page by page with {@link #getQuestionPage}.
+     * 
+     * @return a list of {@link dto.SubjectLightDTO}, one per subject
+     */
+	List<SubjectLightDTO> getSubjectLightList();
 	 
 	
 	/**
@@ -59,4 +81,127 @@ public interface QuizService {
 	default OperationResult<QuestionAndAnswersDTO> getQuestionAndAnswersBySubjectFinal(int subjectId) {
 		return null;
 	}
+	
+	
+	/**
+     * Retrieves one page of lightweight questions, ordered by question ID.
+     * <p>
+     * Pages are addressed by the last question ID already shown rather than by
+     * an offset, so loading a page costs the same however far the user has scrolled.
+     * </p>
+     * 
+     * @param subjectId       the subject to list questions of, or {@link #ALL_SUBJECTS}
+     * @param afterQuestionId the last question ID of the previous page, or 0 for the first page
+     * @param pageSize        the maximum number of questions on the page; larger sizes are cut
+     *                        to {@link dao.Page#MAX_LIMIT}
+     * @return a {@link dto.QuestionPageDTO} with the questions and whether more follow
+     */
+	QuestionPageDTO getQuestionPage(int subjectId, int afterQuestionId, int pageSize);
+	
+	/**
+     * Retrieves the number of questions of every subject without loading the questions,
+     * e.g. to show them next to the subject titles.
+     * 
+     * @return the question count by subject ID; subjects without questions are missing
+     */
+	Map<Integer, Integer> getQuestionCountsBySubject();
+	
+	/**
+     * Retrieves the number of answers of each question of a subject without loading
+     * the answers.
+     * 
+     * @param subjectId the subject whose questions are counted
+     * @return the answer count by question ID; questions without answers are missing
+     */
+	Map<Integer, Integer> getAnswerCountsByQuestion(int subjectId);
+	
+	/**
+     * Searches the titles, texts and answers of the questions for the words of a query
+     * and returns the best matches first.
+     * <p>
+     * Case does not matter, and umlauts and ß also match their spellings with ae, oe,
+     * ue and ss. The last word also matches longer words starting with it, so the
+     * results can follow the user's typing.
+     * </p>
+     * 
+     * @param query     the words to search for
+     * @param subjectId the subject to search in, or {@link #ALL_SUBJECTS}
+     * @param limit     the maximum number of questions returned
+     * @return the matching questions, most relevant first; empty if the query has no searchable words
+     */
+	List<QuestionLightDTO> searchQuestions(String query, int subjectId, int limit);
+	
+	
+	/**
+     * Deletes a subject with all its questions and answers in one transaction:
+     * either everything is gone afterwards or nothing changed.
+     * <p>
+     * The transaction locks all rows of the subject until it commits; use
+     * {@link #deleteSubjectInChunks} for subjects with many thousands of answers.
+     * </p>
+     * 
+     * @param subjectId the subject to delete
+     * @return the numbers of deleted questions and answers, or the errors if nothing was deleted
+     */
+	OperationResult<SubjectDeletionDTO> deleteSubject(int subjectId);
+	
+	/**
+     * Deletes a subject with all its questions and answers in a series of short
+     * transactions of {@code chunkSize} questions each, pausing between them, so that
+     * no transaction holds locks on a large part of the tables for long.
+     * <p>
+     * Each chunk deletes its answers and questions together, so no orphaned rows
+     * remain if the deletion stops early; it can simply be started again. The subject
+     * itself is deleted with the last chunk.
+     * </p>
+     * 
+     * @param subjectId the subject to delete
+     * @param chunkSize questions deleted per transaction
+     * @param pause     wait between two chunks; {@link Duration#ZERO} for none, not null
+     * @param progress  called with the running totals after each chunk, may be null
+     * @return the numbers of deleted questions and answers, or the errors if the deletion stopped
+     */
+	OperationResult<SubjectDeletionDTO> deleteSubjectInChunks(int subjectId, int chunkSize, Duration pause,
+			Consumer<SubjectDeletionDTO> progress);
+
+	
+	/**
+     * Saves the title and info of a subject, provided nobody else changed it since it
+     * was loaded: {@link SubjectDTO#getVersion()} must still be the version of the row.
+     * <p>
+     * If someone else saved in between, nothing is written and the result is a failure
+     * asking the user to reload, so that no change is silently overwritten. Only that
+     * failure is marked {@link OperationResult#isConflict()}; after validation errors
+     * the loaded copy is still current.
+     * </p>
+     * 
+     * @param subject the edited subject with the version it was loaded with
+     * @return the subject carrying its new version, or the errors if nothing was saved
+     */
+	OperationResult<SubjectDTO> updateSubject(SubjectDTO subject);
+	
+	/**
+     * Saves the title, content and subject of a question, provided nobody else changed
+     * it since it was loaded; see {@link #updateSubject(SubjectDTO)}.
+     * 
+     * @param question the edited question with the version it was loaded with
+     * @return the question carrying its new version, or the errors if nothing was saved
+     */
+	OperationResult<QuestionDTO> updateQuestion(QuestionDTO question);
+	
+	/**
+     * Saves a question together with its answers as edited in the question editor,
+     * writing only the rows that differ from the stored state, all in one transaction.
+     * <p>
+     * A question ID of 0 saves a new question. Answers with ID 0 are inserted,
+     * answers whose content or correctness changed are updated, and stored answers
+     * missing from the list are deleted. The versions the question and answers were
+     * loaded with are checked as in {@link #updateQuestion(QuestionDTO)}.
+     * </p>
+     * 
+     * @param aggregate the edited question and its answers
+     * @return the saved question and answers with the IDs of new rows and their
+     *         current versions, or the errors if nothing was saved
+     */
+	OperationResult<QuestionAndAnswersDTO> saveQuestionAggregate(QuestionAndAnswersDTO aggregate);
 }
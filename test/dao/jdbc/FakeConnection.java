@@ -0,0 +1,83 @@
+package dao.jdbc;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A physical Connection without a database: records transaction calls and hands out
+ * PreparedStatements that only know whether they were closed.
+ */
+final class FakeConnection {
+
+    final Connection connection;
+    final List<PreparedStatement> prepared = new ArrayList<>();
+    boolean autoCommit = true;
+    boolean closed;
+    int rollbacks;
+    // thrown by the next prepareStatement call, then cleared
+    SQLException failNextPrepare;
+
+    FakeConnection() {
+        connection = (Connection) Proxy.newProxyInstance(FakeConnection.class.getClassLoader(),
+            new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "prepareStatement":
+                        if (failNextPrepare != null) {
+                            SQLException e = failNextPrepare;
+                            failNextPrepare = null;
+                            throw e;
+                        }
+                        PreparedStatement ps = statement();
+                        prepared.add(ps);
+                        return ps;
+                    case "getAutoCommit":
+                        return autoCommit;
+                    case "setAutoCommit":
+                        autoCommit = (Boolean) args[0];
+                        return null;
+                    case "rollback":
+                        rollbacks++;
+                        return null;
+                    case "close":
+                        closed = true;
+                        return null;
+                    case "isClosed":
+                        return closed;
+                    case "isValid":
+                        return !closed;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "FakeConnection";
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    private static PreparedStatement statement() {
+        boolean[] closed = new boolean[1];
+        return (PreparedStatement) Proxy.newProxyInstance(FakeConnection.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        closed[0] = true;
+                        return null;
+                    case "isClosed":
+                        return closed[0];
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return null;
+                }
+            });
+    }
+}
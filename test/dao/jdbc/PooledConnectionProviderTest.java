@@ -0,0 +1,213 @@
+package dao.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dao.instrument.DataAccessMetrics;
+import dao.instrument.InstrumentedConnectionProvider;
+
+class PooledConnectionProviderTest {
+
+    private static final String SQL = "SELECT questionTitle FROM questions WHERE questionId = ?";
+
+    private final List<FakeConnection> physical = new ArrayList<>();
+    private PooledConnectionProvider pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = pool(2, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void returnedConnectionIsBorrowedAgain() throws SQLException {
+        pool.getConnection().close();
+        pool.getConnection().close();
+
+        assertEquals(1, physical.size());
+        assertEquals(2, pool.getStats().getBorrowCount());
+        assertEquals(1, pool.getStats().getIdleConnections());
+        assertEquals(0, pool.getStats().getActiveConnections());
+    }
+
+    @Test
+    void borrowTimesOutWhenAllConnectionsAreInUse() throws SQLException {
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        try {
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+        } finally {
+            a.close();
+            b.close();
+        }
+        assertEquals(1, pool.getStats().getTimeoutCount());
+        pool.getConnection().close();
+    }
+
+    @Test
+    void pendingTransactionIsRolledBackOnReturn() throws SQLException {
+        Connection c = pool.getConnection();
+        c.setAutoCommit(false);
+        c.close();
+
+        assertEquals(1, physical.get(0).rollbacks);
+        assertTrue(physical.get(0).autoCommit);
+    }
+
+    @Test
+    void releasedHandleCannotBeUsed() throws SQLException {
+        Connection c = pool.getConnection();
+        c.close();
+        c.close();
+
+        assertTrue(c.isClosed());
+        assertThrows(SQLException.class, () -> c.prepareStatement(SQL));
+        assertEquals(1, pool.getStats().getIdleConnections());
+    }
+
+    @Test
+    void brokenConnectionIsNotReturnedToThePool() throws SQLException {
+        Connection c = pool.getConnection();
+        physical.get(0).failNextPrepare = new SQLException("Communications link failure", "08S01");
+        assertThrows(SQLException.class, () -> c.prepareStatement(SQL));
+        c.close();
+
+        assertTrue(physical.get(0).closed);
+        assertEquals(0, pool.getStats().getIdleConnections());
+        pool.getConnection().close();
+        assertEquals(2, physical.size());
+    }
+
+    @Test
+    void closeClosesIdleConnectionsAndRejectsBorrowing() throws SQLException {
+        Connection inUse = pool.getConnection();
+        pool.getConnection().close();
+        pool.close();
+
+        assertTrue(physical.get(1).closed);
+        assertFalse(physical.get(0).closed);
+        assertThrows(SQLException.class, pool::getConnection);
+        inUse.close();
+        assertTrue(physical.get(0).closed);
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> pool(0, Duration.ofMillis(50)));
+        assertThrows(IllegalArgumentException.class, () -> new PooledConnectionProvider(
+            () -> new FakeConnection().connection, 1, Duration.ofMillis(50), Duration.ZERO, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void statementsArePreparedOncePerPhysicalConnection() throws SQLException {
+        PreparedStatement first;
+        StatementCache cache;
+        try (JdbcDAOFactory factory = new JdbcDAOFactory(pool.getConnection())) {
+            cache = factory.getStatementCache();
+            first = cache.prepare(SQL);
+        }
+        assertFalse(first.isClosed());
+
+        try (JdbcDAOFactory factory = new JdbcDAOFactory(pool.getConnection())) {
+            assertSame(cache, factory.getStatementCache());
+            assertSame(first, factory.getStatementCache().prepare(SQL));
+        }
+        assertEquals(1, physical.size());
+        assertEquals(1, physical.get(0).prepared.size());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void cursorsAreClosedWhenTheUnitOfWorkEnds() throws SQLException {
+        PreparedStatement cursor;
+        try (JdbcDAOFactory factory = new JdbcDAOFactory(pool.getConnection())) {
+            factory.getStatementCache().prepare(SQL);
+            cursor = factory.getStatementCache().prepareUncached(SQL, 100);
+        }
+        assertTrue(cursor.isClosed());
+        assertFalse(physical.get(0).prepared.get(0).isClosed());
+    }
+
+    @Test
+    void statementsAreClosedWithTheirPhysicalConnection() throws SQLException {
+        PreparedStatement cached;
+        try (JdbcDAOFactory factory = new JdbcDAOFactory(pool.getConnection())) {
+            cached = factory.getStatementCache().prepare(SQL);
+        }
+        pool.close();
+
+        assertTrue(cached.isClosed());
+        assertTrue(physical.get(0).closed);
+    }
+
+    @Test
+    void otherSettingsGetAFreshCache() throws SQLException {
+        StatementCache first;
+        try (JdbcDAOFactory factory = new JdbcDAOFactory(pool.getConnection())) {
+            first = factory.getStatementCache();
+            first.prepare(SQL);
+        }
+        JdbcSettings settings = new JdbcSettings();
+        settings.setStatementCacheSize(8);
+        try (JdbcDAOFactory factory = new JdbcDAOFactory(pool.getConnection(), settings)) {
+            assertNotSame(first, factory.getStatementCache());
+        }
+        assertTrue(physical.get(0).prepared.get(0).isClosed());
+    }
+
+    @Test
+    void connectionsNotFromAPoolKeepAStatementCachePerUnitOfWork() throws SQLException {
+        FakeConnection plain = new FakeConnection();
+        PreparedStatement ps;
+        try (JdbcDAOFactory factory = new JdbcDAOFactory(plain.connection)) {
+            ps = factory.getStatementCache().prepare(SQL);
+        }
+        assertTrue(ps.isClosed());
+        assertTrue(plain.closed);
+    }
+
+    @Test
+    void instrumentedConnectionsBelowThePoolKeepTheStatementCache() throws SQLException {
+        DataAccessMetrics metrics = new DataAccessMetrics();
+        try (PooledConnectionProvider instrumented = new PooledConnectionProvider(
+                new InstrumentedConnectionProvider(() -> new FakeConnection().connection, metrics),
+                1, Duration.ofMillis(50), Duration.ofMinutes(10), Duration.ofMinutes(30))) {
+            StatementCache cache;
+            try (JdbcDAOFactory factory = new JdbcDAOFactory(instrumented.getConnection())) {
+                cache = factory.getStatementCache();
+            }
+            try (JdbcDAOFactory factory = new JdbcDAOFactory(instrumented.getConnection())) {
+                assertSame(cache, factory.getStatementCache());
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new InstrumentedConnectionProvider(pool, metrics));
+    }
+
+    private PooledConnectionProvider pool(int maxPoolSize, Duration borrowTimeout) {
+        return new PooledConnectionProvider(() -> {
+            FakeConnection c = new FakeConnection();
+            physical.add(c);
+            return c.connection;
+        }, maxPoolSize, borrowTimeout, Duration.ofMinutes(10), Duration.ofMinutes(30));
+    }
+}
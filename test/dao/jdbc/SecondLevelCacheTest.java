@@ -0,0 +1,134 @@
+package dao.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import dao.jdbc.SecondLevelCache.Region;
+import dao.rows.QuestionRow;
+import dao.rows.SubjectRow;
+import domain.Question;
+import domain.Subject;
+
+class SecondLevelCacheTest {
+
+    private final SecondLevelCache cache = new SecondLevelCache(3, Duration.ofMinutes(1));
+
+    @Test
+    void storedRowIsFoundUntilInvalidated() {
+        cache.put(Region.SUBJECT, 1, subjectRow(1), cache.generation());
+
+        assertNotNull(cache.get(Region.SUBJECT, 1, SubjectRow.class));
+        cache.invalidate(Region.SUBJECT, 1);
+        assertNull(cache.get(Region.SUBJECT, 1, SubjectRow.class));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void rowReadBeforeAnInvalidationIsNotStored() {
+        long readGeneration = cache.generation();
+        cache.invalidate(Region.SUBJECT, 1);
+        cache.put(Region.SUBJECT, 1, subjectRow(1), readGeneration);
+
+        assertNull(cache.get(Region.SUBJECT, 1, SubjectRow.class));
+    }
+
+    @Test
+    void leastRecentlyUsedRowIsEvictedFirst() {
+        for (int id = 1; id <= 3; id++) cache.put(Region.SUBJECT, id, subjectRow(id), cache.generation());
+        cache.get(Region.SUBJECT, 1, SubjectRow.class);
+        cache.put(Region.SUBJECT, 4, subjectRow(4), cache.generation());
+
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(Region.SUBJECT, 2, SubjectRow.class));
+        assertNotNull(cache.get(Region.SUBJECT, 1, SubjectRow.class));
+    }
+
+    @Test
+    void rowExpiresAfterTheTtl() throws InterruptedException {
+        SecondLevelCache shortLived = new SecondLevelCache(10, Duration.ofNanos(1));
+        shortLived.put(Region.SUBJECT, 1, subjectRow(1), shortLived.generation());
+        Thread.sleep(1);
+
+        assertNull(shortLived.get(Region.SUBJECT, 1, SubjectRow.class));
+        assertEquals(1, shortLived.getExpirations());
+    }
+
+    @Test
+    void everyUnitOfWorkMaterialisesItsOwnInstances() {
+        cache.put(Region.SUBJECT, 1, subjectRow(1), cache.generation());
+        CacheSession first = new CacheSession(cache, new IdentityMap());
+        CacheSession second = new CacheSession(cache, new IdentityMap());
+
+        Subject a = first.findSubject(1);
+        assertSame(a, first.findSubject(1));
+        assertNotSame(a, second.findSubject(1));
+        assertEquals("Mathe 1", a.getSubjectTitle());
+    }
+
+    @Test
+    void invalidationInATransactionWaitsForCommit() {
+        cache.put(Region.SUBJECT, 1, subjectRow(1), cache.generation());
+        CacheSession writer = new CacheSession(cache, new IdentityMap());
+        CacheSession reader = new CacheSession(cache, new IdentityMap());
+
+        writer.begin();
+        writer.invalidate(Region.SUBJECT, 1);
+        // the writer bypasses the cache for the row it changed, others still see it
+        assertNull(writer.findSubject(1));
+        writer.putSubject(subjectRow(1), writer.stamp());
+        assertNotNull(reader.findSubject(1));
+
+        writer.commit();
+        assertNull(cache.get(Region.SUBJECT, 1, SubjectRow.class));
+    }
+
+    @Test
+    void rollbackDropsQueuedInvalidations() {
+        cache.put(Region.SUBJECT, 1, subjectRow(1), cache.generation());
+        CacheSession session = new CacheSession(cache, new IdentityMap());
+
+        session.begin();
+        session.invalidate(Region.SUBJECT, 1);
+        session.rollback();
+
+        assertNotNull(cache.get(Region.SUBJECT, 1, SubjectRow.class));
+    }
+
+    @Test
+    void invalidateIfDropsMatchingRowsOnly() {
+        cache.put(Region.QUESTION, 10, new QuestionRow(10, "Frage", "Inhalt", 1, 1), cache.generation());
+        cache.put(Region.QUESTION, 11, new QuestionRow(11, "Frage", "Inhalt", 2, 1), cache.generation());
+
+        cache.invalidateIf(Region.QUESTION, QuestionRow.class, row -> row.subjectId == 1);
+
+        assertNull(cache.get(Region.QUESTION, 10, QuestionRow.class));
+        assertNotNull(cache.get(Region.QUESTION, 11, QuestionRow.class));
+    }
+
+    @Test
+    void cachedQuestionComesWithItsSubject() {
+        cache.put(Region.SUBJECT, 1, subjectRow(1), cache.generation());
+        cache.put(Region.QUESTION, 10, new QuestionRow(10, "Frage", "Inhalt", 1, 3), cache.generation());
+        CacheSession session = new CacheSession(cache, new IdentityMap());
+
+        Question q = session.findQuestion(10);
+
+        assertSame(session.findSubject(1), q.getSubject());
+        assertEquals(3, q.getVersion());
+        assertFalse(q.isDirty());
+    }
+
+    private static SubjectRow subjectRow(int id) {
+        return new SubjectRow(id, "Mathe " + id, "Grundlagen", 1);
+    }
+}
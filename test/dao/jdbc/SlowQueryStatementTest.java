@@ -0,0 +1,96 @@
+package dao.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SlowQueryStatementTest {
+
+    private static final String SQL = "SELECT questionTitle FROM questions";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void queryIsTimedUntilItsResultSetIsClosed() throws SQLException, IOException {
+        SlowQueryLog log = new SlowQueryLog(dir.resolve("slow.log"), Duration.ZERO);
+        PreparedStatement ps = SlowQueryStatement.wrap(statement(3), SQL, log);
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                // read all rows
+            }
+        }
+
+        List<String> lines = lines(log);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("rows=3 "), lines.get(0));
+    }
+
+    @Test
+    void cursorIsTimedToItsFirstRow() throws SQLException, IOException {
+        SlowQueryLog log = new SlowQueryLog(dir.resolve("slow.log"), Duration.ZERO);
+        PreparedStatement ps = SlowQueryStatement.wrapCursor(statement(3), SQL, log, System.nanoTime());
+        ResultSet rs = ps.executeQuery();
+        assertTrue(rs.next());
+
+        // the stream is still open; the entry is already queued
+        List<String> lines = lines(log);
+        rs.next();
+        rs.close();
+
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("rows=1 "), lines.get(0));
+        assertTrue(lines.get(0).endsWith(SQL + " -- cursor, time to first row"), lines.get(0));
+    }
+
+    // closes the log, which writes what is queued
+    private static List<String> lines(SlowQueryLog log) throws IOException {
+        log.close();
+        return Files.readAllLines(log.getFile());
+    }
+
+    private static PreparedStatement statement(int rows) {
+        return (PreparedStatement) Proxy.newProxyInstance(SlowQueryStatementTest.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "executeQuery":
+                        return resultSet(rows);
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    private static ResultSet resultSet(int rows) {
+        int[] read = new int[1];
+        return (ResultSet) Proxy.newProxyInstance(SlowQueryStatementTest.class.getClassLoader(),
+            new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next":
+                        return read[0]++ < rows;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return null;
+                }
+            });
+    }
+}
@@ -0,0 +1,80 @@
+package dao.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dao.DAOFactory;
+import dao.DataAccessException;
+import dao.retry.FailureKind;
+import dao.retry.TransientFailures;
+import domain.Question;
+import domain.Subject;
+
+class MemoryDAOFactoryTest {
+
+    private MemoryDAOFactoryProvider provider;
+    private Subject math;
+    private Subject german;
+
+    @BeforeEach
+    void setUp() {
+        provider = new MemoryDAOFactoryProvider();
+        math = new Subject(0, "Mathe", "Grundlagen");
+        german = new Subject(0, "Deutsch", "Grammatik");
+        try (DAOFactory daos = provider.open()) {
+            math.setSubjectId(daos.subjects().insert(math));
+            german.setSubjectId(daos.subjects().insert(german));
+            daos.questions().insert(new Question(0, "Primzahl", "Ist 7 prim?", math));
+        }
+    }
+
+    @Test
+    void commitFailsWhenAConcurrentCommitChangedTheRowsItWrote() {
+        try (DAOFactory tx = provider.open(); DAOFactory other = provider.open()) {
+            tx.begin();
+            assertEquals(1, tx.questions().deleteBySubjectId(math.getSubjectId()));
+
+            other.questions().insert(new Question(0, "Teiler", "Was teilt 12?", math));
+
+            DataAccessException e = assertThrows(DataAccessException.class, tx::commit);
+            assertEquals(FailureKind.TRANSIENT, TransientFailures.classify(e));
+        }
+        assertEquals(2, provider.getDatabase().questionCount());
+    }
+
+    @Test
+    void commitReplaysWritesThatAConcurrentCommitDidNotTouch() {
+        try (DAOFactory tx = provider.open(); DAOFactory other = provider.open()) {
+            tx.begin();
+            assertEquals(1, tx.questions().deleteBySubjectId(math.getSubjectId()));
+
+            other.questions().insert(new Question(0, "Artikel", "der, die oder das?", german));
+
+            tx.commit();
+        }
+        try (DAOFactory daos = provider.open()) {
+            assertTrue(daos.questions().findBySubjectId(math.getSubjectId()).isEmpty());
+            assertEquals(1, daos.questions().findBySubjectId(german.getSubjectId()).size());
+        }
+    }
+
+    @Test
+    void commitFailsWhenARowItDeletedIsAlreadyGone() {
+        int id;
+        try (DAOFactory daos = provider.open()) {
+            id = daos.questions().findBySubjectId(math.getSubjectId()).get(0).getQuestionId();
+        }
+        try (DAOFactory tx = provider.open(); DAOFactory other = provider.open()) {
+            tx.begin();
+            assertTrue(tx.questions().delete(id));
+
+            assertTrue(other.questions().delete(id));
+
+            assertThrows(DataAccessException.class, tx::commit);
+        }
+    }
+}
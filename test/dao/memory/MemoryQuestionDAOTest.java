@@ -0,0 +1,152 @@
+package dao.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dao.DAOFactory;
+import dao.OptimisticLockException;
+import dao.Page;
+import domain.Question;
+import domain.Subject;
+
+class MemoryQuestionDAOTest {
+
+    private MemoryDAOFactoryProvider provider;
+    private Subject subject;
+
+    @BeforeEach
+    void setUp() {
+        provider = new MemoryDAOFactoryProvider();
+        subject = new Subject(0, "Mathe", "Grundlagen");
+        try (DAOFactory daos = provider.open()) {
+            subject.setSubjectId(daos.subjects().insert(subject));
+        }
+    }
+
+    @Test
+    void updateAllWritesDirtyQuestionsAndAdvancesVersions() {
+        Question a = insert("A");
+        Question b = insert("B");
+        try (DAOFactory daos = provider.open()) {
+            Question loadedA = daos.questions().findById(a.getQuestionId()).orElseThrow();
+            Question loadedB = daos.questions().findById(b.getQuestionId()).orElseThrow();
+            int version = loadedA.getVersion();
+            loadedA.setQuestionTitle("A2");
+
+            assertEquals(1, daos.questions().updateAll(List.of(loadedA, loadedB)));
+            assertEquals(version + 1, loadedA.getVersion());
+            assertFalse(loadedA.isDirty());
+        }
+        try (DAOFactory daos = provider.open()) {
+            Question stored = daos.questions().findById(a.getQuestionId()).orElseThrow();
+            assertEquals("A2", stored.getQuestionTitle());
+        }
+    }
+
+    @Test
+    void updateAllSkipsDeletedQuestions() {
+        Question kept = insert("A");
+        Question gone = insert("B");
+        try (DAOFactory daos = provider.open()) {
+            Question loadedKept = daos.questions().findById(kept.getQuestionId()).orElseThrow();
+            Question loadedGone = daos.questions().findById(gone.getQuestionId()).orElseThrow();
+            int goneVersion = loadedGone.getVersion();
+            assertTrue(daos.questions().delete(gone.getQuestionId()));
+
+            loadedKept.setQuestionTitle("A2");
+            loadedGone.setQuestionTitle("B2");
+            assertEquals(1, daos.questions().updateAll(List.of(loadedKept, loadedGone)));
+
+            // a row that was not written keeps its state and must not come back
+            assertTrue(loadedGone.isDirty());
+            assertEquals(goneVersion, loadedGone.getVersion());
+            assertTrue(daos.questions().findById(gone.getQuestionId()).isEmpty());
+        }
+    }
+
+    @Test
+    void updateAllWithStaleVersionThrowsAndWritesNothing() {
+        Question a = insert("A");
+        Question b = insert("B");
+        try (DAOFactory daos = provider.open()) {
+            Question loadedA = daos.questions().findById(a.getQuestionId()).orElseThrow();
+            Question loadedB = daos.questions().findById(b.getQuestionId()).orElseThrow();
+            Question other = daos.questions().findById(b.getQuestionId()).orElseThrow();
+            other.setQuestionTitle("B-other");
+            assertTrue(daos.questions().update(other));
+
+            loadedA.setQuestionTitle("A2");
+            loadedB.setQuestionTitle("B2");
+            daos.begin();
+            assertThrows(OptimisticLockException.class, () -> daos.questions().updateAll(List.of(loadedA, loadedB)));
+            daos.rollback();
+        }
+        try (DAOFactory daos = provider.open()) {
+            assertEquals("A", daos.questions().findById(a.getQuestionId()).orElseThrow().getQuestionTitle());
+            assertEquals("B-other", daos.questions().findById(b.getQuestionId()).orElseThrow().getQuestionTitle());
+        }
+    }
+
+    @Test
+    void pageLimitAboveMaxIsRejected() {
+        insert("A");
+        try (DAOFactory daos = provider.open()) {
+            assertEquals(1, daos.questions().findBySubjectIdAfter(subject.getSubjectId(), Page.FIRST, Page.MAX_LIMIT)
+                .getItems().size());
+            assertThrows(IllegalArgumentException.class,
+                () -> daos.questions().findBySubjectIdAfter(subject.getSubjectId(), Page.FIRST, Integer.MAX_VALUE));
+            assertThrows(IllegalArgumentException.class,
+                () -> daos.questions().findAllLightAfter(Page.FIRST, Page.MAX_LIMIT + 1));
+        }
+    }
+
+    @Test
+    void mixedWritesInOneTransactionKeepSubjectListsSorted() {
+        Subject other = new Subject(0, "Physik", "Mechanik");
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) questions.add(new Question(0, "Q" + i, "Inhalt", subject));
+        try (DAOFactory daos = provider.open()) {
+            other.setSubjectId(daos.subjects().insert(other));
+            daos.begin();
+            int[] ids = daos.questions().insertAll(questions);
+
+            assertTrue(daos.questions().delete(ids[7]));
+            Question moved = daos.questions().findById(ids[2]).orElseThrow();
+            moved.setSubject(other);
+            assertTrue(daos.questions().update(moved));
+            assertEquals(2, daos.questions().deleteBySubjectIdUpTo(subject.getSubjectId(), ids[1]));
+            Question late = new Question(0, "Q10", "Inhalt", subject);
+            int lateId = daos.questions().insert(late);
+
+            assertEquals(OptionalInt.of(ids[3]), daos.questions().findIdBySubjectIdAfter(subject.getSubjectId(), Page.FIRST, 0));
+            daos.commit();
+
+            List<Integer> expected = List.of(ids[3], ids[4], ids[5], ids[6], ids[8], ids[9], lateId);
+            assertEquals(expected, idsOf(daos.questions().findBySubjectId(subject.getSubjectId())));
+            assertEquals(List.of(ids[2]), idsOf(daos.questions().findBySubjectId(other.getSubjectId())));
+            assertEquals(OptionalInt.of(ids[5]), daos.questions().findIdBySubjectIdAfter(subject.getSubjectId(), ids[3], 1));
+            assertEquals(OptionalInt.empty(), daos.questions().findIdBySubjectIdAfter(subject.getSubjectId(), ids[9], 1));
+        }
+    }
+
+    private static List<Integer> idsOf(List<Question> questions) {
+        return questions.stream().map(Question::getQuestionId).toList();
+    }
+
+    private Question insert(String title) {
+        Question question = new Question(0, title, "Inhalt " + title, subject);
+        try (DAOFactory daos = provider.open()) {
+            question.setQuestionId(daos.questions().insert(question));
+        }
+        return question;
+    }
+}
@@ -0,0 +1,173 @@
+package dao.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dao.AnswerDAO;
+import dao.DAOFactory;
+import dao.DataAccessException;
+import dao.OptimisticLockException;
+import dao.QuestionDAO;
+import dao.SubjectDAO;
+import dao.memory.MemoryDAOFactoryProvider;
+import domain.Subject;
+
+class RetryingDAOExecutorTest {
+
+    private MemoryDAOFactoryProvider provider;
+    private RetryPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        provider = new MemoryDAOFactoryProvider();
+        policy = new RetryPolicy();
+        policy.setMaxAttempts(3);
+        policy.setInitialBackoff(Duration.ZERO);
+    }
+
+    @Test
+    void transientFailureIsRetriedInAFreshTransaction() {
+        RetryingDAOExecutor executor = new RetryingDAOExecutor(provider, policy);
+        AtomicInteger attempts = new AtomicInteger();
+
+        int id = executor.inTransaction(daos -> {
+            int subjectId = daos.subjects().insert(new Subject(0, "Mathe", "Grundlagen"));
+            if (attempts.incrementAndGet() == 1) throw failure("40001", 1213);
+            return subjectId;
+        });
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, executor.getRetries());
+        assertEquals(1, executor.getRecovered());
+        try (DAOFactory daos = provider.open()) {
+            // the insert of the failed attempt was rolled back
+            assertEquals(1, daos.subjects().findAll().size());
+            assertTrue(daos.subjects().findById(id).isPresent());
+        }
+    }
+
+    @Test
+    void permanentFailureIsThrownAtOnce() {
+        RetryingDAOExecutor executor = new RetryingDAOExecutor(provider, policy);
+        AtomicInteger attempts = new AtomicInteger();
+        OptimisticLockException conflict = new OptimisticLockException("subjects", 1, 1, 2);
+
+        OptimisticLockException thrown = assertThrows(OptimisticLockException.class, () -> executor.inTransaction(daos -> {
+            attempts.incrementAndGet();
+            throw conflict;
+        }));
+
+        assertSame(conflict, thrown);
+        assertEquals(1, attempts.get());
+        assertEquals(0, executor.getRetries());
+    }
+
+    @Test
+    void exhaustedAttemptsThrowTheLastFailureWithTheEarlierOnesSuppressed() {
+        RetryingDAOExecutor executor = new RetryingDAOExecutor(provider, policy);
+        AtomicInteger attempts = new AtomicInteger();
+
+        DataAccessException thrown = assertThrows(DataAccessException.class, () -> executor.read(daos -> {
+            attempts.incrementAndGet();
+            throw failure("HY000", 1205);
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(2, thrown.getSuppressed().length);
+        assertEquals(1, executor.getExhausted());
+    }
+
+    @Test
+    void connectionLostDuringCommitIsNotRetried() {
+        RetryingDAOExecutor executor = new RetryingDAOExecutor(LostOnCommit::new, policy);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(DataAccessException.class, () -> executor.inTransaction(daos -> attempts.incrementAndGet()));
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, executor.getRetries());
+    }
+
+    @Test
+    void connectionLostBeforeCommitIsRetried() {
+        RetryingDAOExecutor executor = new RetryingDAOExecutor(provider, policy);
+        AtomicInteger attempts = new AtomicInteger();
+
+        executor.inTransaction(daos -> {
+            if (attempts.incrementAndGet() == 1) throw failure("08S01", 0);
+            return null;
+        });
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void failuresAreClassifiedBySQLStateAndVendorCode() {
+        assertEquals(FailureKind.TRANSIENT, TransientFailures.classify(failure("40001", 1213)));
+        assertEquals(FailureKind.TRANSIENT, TransientFailures.classify(failure("HY000", 1205)));
+        assertEquals(FailureKind.CONNECTION, TransientFailures.classify(failure("08S01", 0)));
+        assertEquals(FailureKind.CONNECTION, TransientFailures.classify(failure("HY000", 2013)));
+        assertEquals(FailureKind.PERMANENT, TransientFailures.classify(failure("23000", 1062)));
+        assertEquals(FailureKind.PERMANENT, TransientFailures.classify(new DataAccessException("no SQL cause")));
+    }
+
+    @Test
+    void backoffStaysWithinTheCap() {
+        RetryPolicy capped = new RetryPolicy();
+        capped.setInitialBackoff(Duration.ofMillis(10));
+        capped.setMaxBackoff(Duration.ofMillis(50));
+        for (int retry = 1; retry <= 40; retry++) {
+            long nanos = capped.backoffNanos(retry);
+            assertTrue(nanos >= 0 && nanos <= Duration.ofMillis(50).toNanos(), "retry " + retry + ": " + nanos);
+        }
+    }
+
+    private static DataAccessException failure(String sqlState, int errorCode) {
+        return new DataAccessException("failed", new SQLException("failed", sqlState, errorCode));
+    }
+
+    /** A unit-of-work whose connection drops while committing. */
+    private static final class LostOnCommit implements DAOFactory {
+
+        @Override
+        public SubjectDAO subjects() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public QuestionDAO questions() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AnswerDAO answers() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void commit() {
+            throw failure("08S01", 2013);
+        }
+
+        @Override
+        public void rollback() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
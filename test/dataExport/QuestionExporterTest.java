@@ -0,0 +1,151 @@
+package dataExport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Proxy;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+import dao.DataAccessException;
+import dao.QuestionDAO;
+import dao.memory.MemoryDAOFactoryProvider;
+import dataImport.ImportFormat;
+import dataImport.ImportReport;
+import dataImport.QuestionImporter;
+import domain.Answer;
+import domain.Question;
+import domain.Subject;
+
+/**
+ * Exports a question bank and imports it into an empty database again; both layouts must
+ * survive quotes, delimiters, line breaks and non-ASCII text.
+ */
+class QuestionExporterTest {
+
+	private MemoryDAOFactoryProvider source;
+
+	@BeforeEach
+	void setUp() {
+		source = new MemoryDAOFactoryProvider();
+		try (DAOFactory daos = source.open()) {
+			Subject math = new Subject(0, "Mathe", "Grundlagen");
+			math.setSubjectId(daos.subjects().insert(math));
+			Subject german = new Subject(0, "Deutsch, \"Grammatik\"", "Satzbau");
+			german.setSubjectId(daos.subjects().insert(german));
+			insert(daos, math, "Primzahl", "Ist 7 prim?", "Ja", "Nein");
+			insert(daos, math, "Brüche", "Was ist 1/2 + 1/4?\nKürzen nicht vergessen.", "3/4", "2/6");
+			insert(daos, german, "Kommas, \"Zitate\"", "Pfad C:\\temp \u00fcberall", "Richtig, \"so\"", "Falsch");
+		}
+	}
+
+	@Test
+	void jsonLinesExportImportsAgainUnchanged() throws IOException {
+		roundTrip(ExportFormat.JSON_LINES, ImportFormat.JSON_LINES);
+	}
+
+	@Test
+	void csvExportImportsAgainUnchanged() throws IOException {
+		roundTrip(ExportFormat.CSV, ImportFormat.CSV);
+	}
+
+	@Test
+	void failedExportKeepsThePreviousFile(@TempDir Path dir) throws IOException {
+		Path backup = dir.resolve("fragen.jsonl.gz");
+		Files.writeString(backup, "gestern");
+		// reading breaks after the first question
+		DAOFactoryProvider failing = () -> {
+			DAOFactory daos = source.open();
+			QuestionDAO questions = (QuestionDAO) Proxy.newProxyInstance(QuestionDAO.class.getClassLoader(),
+				new Class<?>[] { QuestionDAO.class }, (proxy, method, args) -> {
+					Object result = method.invoke(daos.questions(), args);
+					if (!method.getName().equals("streamAllWithAnswers")) return result;
+					int[] seen = new int[1];
+					return ((Stream<?>) result).peek(q -> {
+						if (++seen[0] == 2) throw new DataAccessException("Verbindung verloren");
+					});
+				});
+			return (DAOFactory) Proxy.newProxyInstance(DAOFactory.class.getClassLoader(),
+				new Class<?>[] { DAOFactory.class },
+				(proxy, method, args) -> method.getName().equals("questions") ? questions : method.invoke(daos, args));
+		};
+
+		assertThrows(DataAccessException.class, () -> new QuestionExporter(failing).exportTo(backup));
+
+		assertEquals("gestern", Files.readString(backup));
+		try (Stream<Path> files = Files.list(dir)) {
+			assertEquals(List.of(backup), files.collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	void exportReplacesThePreviousFile(@TempDir Path dir) throws IOException {
+		Path backup = dir.resolve("fragen.jsonl.gz");
+		Files.writeString(backup, "gestern");
+
+		new QuestionExporter(source).exportTo(backup);
+
+		try (Reader in = new InputStreamReader(new GZIPInputStream(Files.newInputStream(backup)), StandardCharsets.UTF_8)) {
+			assertEquals(3, new QuestionImporter(new MemoryDAOFactoryProvider())
+				.importFrom(in, ImportFormat.JSON_LINES).getRowsImported());
+		}
+		try (Stream<Path> files = Files.list(dir)) {
+			assertEquals(List.of(backup), files.collect(Collectors.toList()));
+		}
+	}
+
+	private void roundTrip(ExportFormat exportFormat, ImportFormat importFormat) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ExportReport exported = new QuestionExporter(source).exportTo(Channels.newChannel(bytes), exportFormat);
+		assertEquals(3, exported.getQuestionsExported());
+		assertEquals(6, exported.getAnswersExported());
+		assertEquals(bytes.size(), exported.getBytesWritten());
+
+		MemoryDAOFactoryProvider target = new MemoryDAOFactoryProvider();
+		ImportReport imported;
+		try (Reader in = new InputStreamReader(new ByteArrayInputStream(bytes.toByteArray()), StandardCharsets.UTF_8)) {
+			imported = new QuestionImporter(target).importFrom(in, importFormat);
+		}
+		assertEquals(0, imported.getErrorCount(), () -> imported.getErrors().toString());
+		assertEquals(3, imported.getRowsImported());
+		List<String> stored = dump(target);
+		assertEquals(dump(source), stored);
+		assertEquals("Deutsch, \"Grammatik\" | Kommas, \"Zitate\" | Pfad C:\\temp \u00fcberall | Richtig, \"so\"=true, Falsch=false",
+			stored.get(0));
+	}
+
+	private static void insert(DAOFactory daos, Subject subject, String title, String content, String correct, String wrong) {
+		Question question = new Question(0, title, content, subject);
+		question.setQuestionId(daos.questions().insert(question));
+		daos.answers().insertAll(List.of(new Answer(0, correct, true, question), new Answer(0, wrong, false, question)));
+	}
+
+	/** @return one line per question, without IDs, which differ between the databases */
+	private static List<String> dump(DAOFactoryProvider provider) {
+		try (DAOFactory daos = provider.open(); Stream<Question> questions = daos.questions().streamAllWithAnswers()) {
+			return questions.map(q -> q.getSubject().getSubjectTitle() + " | " + q.getQuestionTitle() + " | "
+					+ q.getQuestionContent() + " | " + q.getAnswersList().stream()
+						.map(a -> a.getAnswerContent() + "=" + a.isCorrect())
+						.collect(Collectors.joining(", ")))
+				.sorted()
+				.collect(Collectors.toList());
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package dataImport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dao.AnswerDAO;
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+import dao.DataAccessException;
+import dao.QuestionDAO;
+import dao.SubjectDAO;
+import dao.memory.MemoryDAOFactoryProvider;
+import dao.retry.RetryPolicy;
+
+class QuestionImporterTest {
+
+	private static final String RECORD =
+		"{\"subject\":\"Mathe\",\"title\":\"%s\",\"content\":\"Ist 7 prim?\","
+		+ "\"answers\":[{\"content\":\"Ja\",\"correct\":true},{\"content\":\"Nein\",\"correct\":false}]}\n";
+
+	private MemoryDAOFactoryProvider provider;
+	private QuestionImporter importer;
+
+	@BeforeEach
+	void setUp() {
+		provider = new MemoryDAOFactoryProvider();
+		importer = new QuestionImporter(provider);
+	}
+
+	@Test
+	void deeplyNestedLineIsRejectedAndTheImportGoesOn() {
+		String input = String.format(RECORD, "Primzahl 1") + "[".repeat(200_000) + "\n" + String.format(RECORD, "Primzahl 2");
+
+		ImportReport report = assertTimeoutPreemptively(Duration.ofSeconds(10),
+			() -> importer.importFrom(new StringReader(input), ImportFormat.JSON_LINES));
+
+		assertEquals(2, report.getRowsImported());
+		assertEquals(1, report.getErrorCount());
+		assertEquals(2, report.getErrors().get(0).getLine());
+	}
+
+	@Test
+	void nestingUpToTheLimitIsAccepted() {
+		String nested = "[".repeat(JsonValueParser.MAX_DEPTH) + "]".repeat(JsonValueParser.MAX_DEPTH);
+		JsonValueParser.parse(nested, 1);
+		assertThrows(RecordFormatException.class, () -> JsonValueParser.parse("[" + nested + "]", 1));
+	}
+
+	@Test
+	void errorOnTheReaderThreadReachesTheCaller() {
+		Reader failing = new Reader() {
+			@Override
+			public int read(char[] buffer, int offset, int length) {
+				throw new StackOverflowError();
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+
+		assertTimeoutPreemptively(Duration.ofSeconds(10),
+			() -> assertThrows(StackOverflowError.class, () -> importer.importFrom(failing, ImportFormat.JSON_LINES)));
+	}
+
+	@Test
+	void deadlockedChunkIsWrittenAgain() throws IOException {
+		FailingCommits failing = new FailingCommits(provider, 1, "40001");
+
+		ImportReport report = importer(failing).importFrom(new StringReader(twoRecords()), ImportFormat.JSON_LINES);
+
+		assertEquals(2, report.getRowsImported());
+		assertEquals(0, report.getErrorCount());
+		assertEquals(0, failing.remaining);
+	}
+
+	@Test
+	void lostConnectionStopsTheImportInsteadOfRejectingRows() {
+		FailingCommits failing = new FailingCommits(provider, Integer.MAX_VALUE, "08S01");
+
+		assertThrows(DataAccessException.class,
+			() -> importer(failing).importFrom(new StringReader(twoRecords()), ImportFormat.JSON_LINES));
+		assertEquals(0, provider.getDatabase().questionCount());
+	}
+
+	@Test
+	void permanentChunkFailureIsRetriedRowByRow() throws IOException {
+		// the chunk and then its first row fail with a constraint violation
+		FailingCommits failing = new FailingCommits(provider, 2, "23000");
+
+		ImportReport report = importer(failing).importFrom(new StringReader(twoRecords()), ImportFormat.JSON_LINES);
+
+		assertEquals(1, report.getRowsImported());
+		assertEquals(1, report.getErrorCount());
+		assertEquals(1, report.getErrors().get(0).getLine());
+	}
+
+	@Test
+	void createdSubjectWithoutQuestionsIsReported() throws IOException {
+		String input = String.format(RECORD, "Primzahl")
+			+ "{\"subject\":\"Physik\",\"title\":\"\",\"content\":\"Was ist Kraft?\",\"answers\":[]}\n";
+
+		ImportReport report = importer.importFrom(new StringReader(input), ImportFormat.JSON_LINES);
+
+		assertEquals(1, report.getRowsImported());
+		assertEquals(2, provider.getDatabase().subjectCount());
+		assertEquals(List.of("Physik"), report.getEmptySubjects());
+	}
+
+	private static String twoRecords() {
+		return String.format(RECORD, "Primzahl 1") + String.format(RECORD, "Primzahl 2");
+	}
+
+	private static QuestionImporter importer(DAOFactoryProvider provider) {
+		RetryPolicy policy = new RetryPolicy();
+		policy.setInitialBackoff(Duration.ZERO);
+		ImportSettings settings = new ImportSettings();
+		settings.setRetryPolicy(policy);
+		return new QuestionImporter(provider, settings);
+	}
+
+	/** Fails the next {@code remaining} commits with the given SQLState instead of committing. */
+	private static final class FailingCommits implements DAOFactoryProvider {
+
+		private final DAOFactoryProvider target;
+		private final String sqlState;
+		private int remaining;
+
+		FailingCommits(DAOFactoryProvider target, int remaining, String sqlState) {
+			this.target = target;
+			this.remaining = remaining;
+			this.sqlState = sqlState;
+		}
+
+		@Override
+		public DAOFactory open() {
+			DAOFactory daos = target.open();
+			return new DAOFactory() {
+				@Override
+				public SubjectDAO subjects() {
+					return daos.subjects();
+				}
+
+				@Override
+				public QuestionDAO questions() {
+					return daos.questions();
+				}
+
+				@Override
+				public AnswerDAO answers() {
+					return daos.answers();
+				}
+
+				@Override
+				public void begin() {
+					daos.begin();
+				}
+
+				@Override
+				public void commit() {
+					if (remaining > 0) {
+						remaining--;
+						throw new DataAccessException("commit failed", new SQLException("commit failed", sqlState));
+					}
+					daos.commit();
+				}
+
+				@Override
+				public void rollback() {
+					daos.rollback();
+				}
+
+				@Override
+				public void close() {
+					daos.close();
+				}
+			};
+		}
+	}
+}
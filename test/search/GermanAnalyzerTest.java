@@ -0,0 +1,49 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class GermanAnalyzerTest {
+
+	@Test
+	void umlautsAndSharpSAreFoldedLikeTheirSpellingsWithout() {
+		assertEquals(List.of("groesse", "uebung", "oel"), GermanAnalyzer.terms("Größe, Übung: Öl"));
+		assertEquals(GermanAnalyzer.terms("Größe"), GermanAnalyzer.terms("GROESSE"));
+		assertEquals(List.of("strasse", "strasse"), GermanAnalyzer.terms("Straße STRAẞE"));
+	}
+
+	@Test
+	void otherAccentsAreDropped() {
+		assertEquals(List.of("cafe", "facade"), GermanAnalyzer.terms("Café Façade"));
+	}
+
+	@Test
+	void stopWordsAreDroppedAndRepetitionsKept() {
+		assertEquals(List.of("katze", "jagt", "katze"), GermanAnalyzer.terms("Die Katze jagt die Katze"));
+		assertEquals(List.of("was", "7", "x2"), GermanAnalyzer.terms("Was ist 7 und x2?"));
+	}
+
+	@Test
+	void longTermsAreCut() {
+		String term = GermanAnalyzer.terms("a".repeat(100)).get(0);
+		assertEquals(GermanAnalyzer.MAX_TERM_LENGTH, term.length());
+	}
+
+	@Test
+	void nullAndPunctuationHaveNoTerms() {
+		assertTrue(GermanAnalyzer.terms(null).isEmpty());
+		assertTrue(GermanAnalyzer.terms(" ,.-!? ").isEmpty());
+	}
+
+	@Test
+	void textEndingInsideAWordEndsInATerm() {
+		assertTrue(GermanAnalyzer.endsInTerm("Photosyn"));
+		assertFalse(GermanAnalyzer.endsInTerm("Photosynthese "));
+		assertFalse(GermanAnalyzer.endsInTerm(""));
+	}
+}
@@ -0,0 +1,120 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class QuestionIndexTest {
+
+	private final QuestionIndex index = new QuestionIndex();
+
+	@Test
+	void queryWithoutUmlautsFindsTheUmlautSpelling() {
+		index.put(1, 1, "Größe", "Wie groß ist die Erde?", List.of());
+
+		assertEquals(List.of(1), ids(index.search("groesse", QuestionIndex.ALL_SUBJECTS, 10)));
+		assertEquals(List.of(1), ids(index.search("GROSS ", QuestionIndex.ALL_SUBJECTS, 10)));
+	}
+
+	@Test
+	void lastWordIsMatchedAsPrefixOnlyWhileTyping() {
+		index.put(1, 1, "Photosynthese", "Was braucht eine Pflanze?", List.of("Licht"));
+
+		assertEquals(List.of(1), ids(index.search("photo", QuestionIndex.ALL_SUBJECTS, 10)));
+		assertTrue(index.search("photo ", QuestionIndex.ALL_SUBJECTS, 10).isEmpty());
+		assertEquals(List.of(1), ids(index.search("photo licht", QuestionIndex.ALL_SUBJECTS, 10)));
+	}
+
+	@Test
+	void prefixExpansionsAreScoredAsOneTerm() {
+		index.put(1, 1, "Zelle", "Zellkern und Zellwand", List.of());
+		index.put(2, 1, "Zelle", "Mitose", List.of());
+
+		List<SearchHit> hits = index.search("zell", QuestionIndex.ALL_SUBJECTS, 10);
+
+		assertEquals(List.of(1, 2), ids(hits));
+		// three expansions in question 1 add up as one term with diminishing returns
+		assertTrue(hits.get(0).getScore() < 2 * hits.get(1).getScore(), hits.toString());
+	}
+
+	@Test
+	void titlesAndRareTermsRankHigher() {
+		index.put(1, 1, "Mitose", "Wie teilt sich eine Zelle?", List.of());
+		index.put(2, 1, "Zellteilung", "Was passiert bei der Mitose?", List.of());
+		index.put(3, 1, "Zellteilung", "Was passiert bei der Meiose?", List.of());
+
+		assertEquals(List.of(1, 2), ids(index.search("mitose", QuestionIndex.ALL_SUBJECTS, 10)));
+		// "meiose" is rarer than "zellteilung", so the question with both comes first
+		assertEquals(List.of(3, 2), ids(index.search("zellteilung meiose", QuestionIndex.ALL_SUBJECTS, 10)));
+	}
+
+	@Test
+	void equalScoresAreOrderedByQuestionIdAndCutToTheLimit() {
+		for (int id = 5; id >= 1; id--) index.put(id, 1, "Frage", "Inhalt", List.of());
+
+		assertEquals(List.of(1, 2, 3), ids(index.search("frage", QuestionIndex.ALL_SUBJECTS, 3)));
+	}
+
+	@Test
+	void subjectFilterKeepsOtherSubjectsOut() {
+		index.put(1, 1, "Frage", "Inhalt", List.of());
+		index.put(2, 2, "Frage", "Inhalt", List.of());
+
+		assertEquals(List.of(2), ids(index.search("frage", 2, 10)));
+	}
+
+	@Test
+	void putReplacesTheQuestionsPreviousDocument() {
+		index.put(1, 1, "Primzahl", "Ist 7 prim?", List.of());
+		index.put(1, 2, "Teiler", "Was teilt 12?", List.of());
+
+		assertTrue(index.search("primzahl", QuestionIndex.ALL_SUBJECTS, 10).isEmpty());
+		assertEquals(List.of(1), ids(index.search("teiler", 2, 10)));
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void compactionDropsDeletedDocumentsAndRenumbersTheRest() {
+		for (int id = 1; id <= 200; id++) index.put(id, id % 2, "Frage " + id, "Inhalt q" + id, List.of());
+		int terms = index.getTermCount();
+
+		for (int id = 1; id <= 100; id++) index.remove(id);
+		// compacted once on the way, after 64 removals
+		assertTrue(index.getTermCount() < terms);
+		index.compact();
+
+		// the terms only the removed questions had are gone: their numbers and "q" terms
+		assertEquals(100, index.size());
+		assertEquals(terms - 200, index.getTermCount());
+		assertTrue(index.search("q50", QuestionIndex.ALL_SUBJECTS, 10).isEmpty());
+		SearchHit hit = index.search("q150", QuestionIndex.ALL_SUBJECTS, 10).get(0);
+		assertEquals(150, hit.getQuestionId());
+		assertEquals("Frage 150", hit.getQuestionTitle());
+		assertEquals(50, index.search("frage", 1, 200).size());
+
+		// the renumbered subject lists still find the right documents
+		assertEquals(25, index.removeSubjectUpTo(1, 150));
+		assertEquals(25, index.removeSubject(1));
+		assertEquals(List.of(200), ids(index.search("q200", QuestionIndex.ALL_SUBJECTS, 10)));
+		assertEquals(50, index.size());
+	}
+
+	@Test
+	void removeSubjectUpToRemovesOnlyThatSubjectUpToTheId() {
+		for (int id = 1; id <= 10; id++) index.put(id, 1, "Frage", "Inhalt", List.of());
+		index.put(11, 2, "Frage", "Inhalt", List.of());
+		index.put(3, 1, "Frage neu", "Inhalt", List.of());
+
+		assertEquals(4, index.removeSubjectUpTo(1, 4));
+		assertEquals(0, index.removeSubjectUpTo(1, 4));
+		assertEquals(3, index.removeSubjectUpTo(1, 7));
+		assertEquals(List.of(8, 9, 10, 11), ids(index.search("frage", QuestionIndex.ALL_SUBJECTS, 10)));
+	}
+
+	private static List<Integer> ids(List<SearchHit> hits) {
+		return hits.stream().map(SearchHit::getQuestionId).toList();
+	}
+}
@@ -0,0 +1,326 @@
+package serviceLayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import common.OperationResult;
+import dao.AnswerDAO;
+import dao.DAOFactory;
+import dao.DAOFactoryProvider;
+import dao.DataAccessException;
+import dao.QuestionDAO;
+import dao.SubjectDAO;
+import dao.memory.MemoryDAOFactoryProvider;
+import dao.retry.RetryPolicy;
+import domain.Answer;
+import domain.Question;
+import domain.Subject;
+import dto.AnswerDTO;
+import dto.QuestionAndAnswersDTO;
+import dto.QuestionDTO;
+import dto.QuestionPageDTO;
+import dto.SubjectDTO;
+import dto.SubjectDeletionDTO;
+
+/**
+ * Runs {@link DefaultQuizService} against the in-memory backend, so the writes go
+ * through the same transactions and version checks as with MySQL.
+ */
+class DefaultQuizServiceTest {
+
+	private MemoryDAOFactoryProvider provider;
+	private DefaultQuizService service;
+	private int subjectId;
+
+	@BeforeEach
+	void setUp() {
+		provider = new MemoryDAOFactoryProvider();
+		service = new DefaultQuizService(provider);
+		try (DAOFactory daos = provider.open()) {
+			Subject subject = new Subject(0, "Mathe", "Grundlagen");
+			subjectId = daos.subjects().insert(subject);
+		}
+	}
+
+	@Test
+	void saveQuestionAggregateInsertsNewQuestionWithAnswers() {
+		OperationResult<QuestionAndAnswersDTO> result = service.saveQuestionAggregate(newAggregate("Primzahl", "Ist 7 prim?"));
+
+		assertTrue(result.isSuccess());
+		int questionId = result.getData().getQuestion().getQuestionId();
+		assertNotEquals(0, questionId);
+		QuestionAndAnswersDTO stored = service.getQuestionAndAnswersById(questionId);
+		assertEquals("Primzahl", stored.getQuestion().getQuestionTitle());
+		assertEquals(2, stored.getAnswersList().size());
+		for (AnswerDTO a : stored.getAnswersList()) assertNotEquals(0, a.getAnswerId());
+	}
+
+	@Test
+	void saveQuestionAggregateWithStaleVersionIsConflict() {
+		QuestionAndAnswersDTO loaded = service.saveQuestionAggregate(newAggregate("Primzahl", "Ist 7 prim?")).getData();
+		int questionId = loaded.getQuestion().getQuestionId();
+		QuestionAndAnswersDTO other = service.getQuestionAndAnswersById(questionId);
+
+		other.getQuestion().setQuestionTitle("Primzahlen");
+		assertTrue(service.saveQuestionAggregate(other).isSuccess());
+
+		loaded.getQuestion().setQuestionTitle("Teiler");
+		loaded.getAnswersList().get(0).setAnswerContent("Nein");
+		OperationResult<QuestionAndAnswersDTO> result = service.saveQuestionAggregate(loaded);
+
+		assertFalse(result.isSuccess());
+		assertTrue(result.isConflict());
+		QuestionAndAnswersDTO stored = service.getQuestionAndAnswersById(questionId);
+		assertEquals("Primzahlen", stored.getQuestion().getQuestionTitle());
+		assertEquals("Ja", stored.getAnswersList().get(0).getAnswerContent());
+	}
+
+	@Test
+	void saveQuestionAggregateAdvancesVersionWhenOnlyAnswersChange() {
+		QuestionAndAnswersDTO loaded = service.saveQuestionAggregate(newAggregate("Primzahl", "Ist 7 prim?")).getData();
+		int version = loaded.getQuestion().getVersion();
+
+		loaded.getAnswersList().get(1).setAnswerContent("Vielleicht");
+		OperationResult<QuestionAndAnswersDTO> result = service.saveQuestionAggregate(loaded);
+
+		assertTrue(result.isSuccess());
+		assertTrue(result.getData().getQuestion().getVersion() > version);
+		QuestionAndAnswersDTO stored = service.getQuestionAndAnswersById(loaded.getQuestion().getQuestionId());
+		assertEquals(result.getData().getQuestion().getVersion(), stored.getQuestion().getVersion());
+	}
+
+	@Test
+	void saveQuestionAggregateValidationErrorIsNoConflict() {
+		OperationResult<QuestionAndAnswersDTO> result = service.saveQuestionAggregate(newAggregate(" ", "Ist 7 prim?"));
+
+		assertFalse(result.isSuccess());
+		assertFalse(result.isConflict());
+		assertFalse(result.getErrors().isEmpty());
+	}
+
+	@Test
+	void updateSubjectWritesTheEditWhenRetriedAfterTransientCommitFailure() {
+		FailingCommits failing = new FailingCommits(provider, 1);
+		DefaultQuizService retrying = new DefaultQuizService(failing, noBackoff());
+		SubjectDTO dto = new SubjectDTO(subjectId, "Mathematik", "Grundlagen");
+
+		OperationResult<SubjectDTO> result = retrying.updateSubject(dto);
+
+		assertTrue(result.isSuccess());
+		assertEquals(0, failing.remaining);
+		assertEquals(1, retrying.getExecutor().getRecovered());
+		try (DAOFactory daos = provider.open()) {
+			Subject stored = daos.subjects().findById(subjectId).orElseThrow();
+			assertEquals("Mathematik", stored.getSubjectTitle());
+			assertEquals(stored.getVersion(), result.getData().getVersion());
+		}
+	}
+
+	@Test
+	void updateQuestionWritesTheEditWhenRetriedAfterTransientCommitFailure() {
+		QuestionDTO loaded = service.saveQuestionAggregate(newAggregate("Primzahl", "Ist 7 prim?")).getData().getQuestion();
+		FailingCommits failing = new FailingCommits(provider, 1);
+		DefaultQuizService retrying = new DefaultQuizService(failing, noBackoff());
+
+		loaded.setQuestionTitle("Primzahlen");
+		OperationResult<QuestionDTO> result = retrying.updateQuestion(loaded);
+
+		assertTrue(result.isSuccess());
+		assertEquals(0, failing.remaining);
+		QuestionAndAnswersDTO stored = service.getQuestionAndAnswersById(loaded.getQuestionId());
+		assertEquals("Primzahlen", stored.getQuestion().getQuestionTitle());
+		assertEquals(stored.getQuestion().getVersion(), result.getData().getVersion());
+	}
+
+	@Test
+	void saveQuestionAggregateWritesTheEditWhenRetriedAfterTransientCommitFailure() {
+		QuestionAndAnswersDTO loaded = service.saveQuestionAggregate(newAggregate("Primzahl", "Ist 7 prim?")).getData();
+		FailingCommits failing = new FailingCommits(provider, 1);
+		DefaultQuizService retrying = new DefaultQuizService(failing, noBackoff());
+
+		loaded.getAnswersList().get(1).setAnswerContent("Vielleicht");
+		OperationResult<QuestionAndAnswersDTO> result = retrying.saveQuestionAggregate(loaded);
+
+		assertTrue(result.isSuccess());
+		assertEquals(0, failing.remaining);
+		QuestionAndAnswersDTO stored = service.getQuestionAndAnswersById(loaded.getQuestion().getQuestionId());
+		assertEquals("Vielleicht", stored.getAnswersList().get(1).getAnswerContent());
+	}
+
+	@Test
+	void saveCommittedWhileTheIndexIsBuiltIsFound() {
+		QuestionAndAnswersDTO loaded = service.saveQuestionAggregate(newAggregate("Primzahl", "Ist 7 prim?")).getData();
+		DefaultQuizService[] racing = new DefaultQuizService[1];
+		// the save commits right after the build took its snapshot of the questions
+		DAOFactoryProvider saveDuringBuild = () -> {
+			DAOFactory daos = provider.open();
+			QuestionDAO questions = (QuestionDAO) Proxy.newProxyInstance(QuestionDAO.class.getClassLoader(),
+				new Class<?>[] { QuestionDAO.class }, (proxy, method, args) -> {
+					Object result = method.invoke(daos.questions(), args);
+					if (method.getName().equals("streamAllWithAnswers")) {
+						loaded.getQuestion().setQuestionTitle("Teiler");
+						assertTrue(racing[0].saveQuestionAggregate(loaded).isSuccess());
+					}
+					return result;
+				});
+			return (DAOFactory) Proxy.newProxyInstance(DAOFactory.class.getClassLoader(),
+				new Class<?>[] { DAOFactory.class },
+				(proxy, method, args) -> method.getName().equals("questions") ? questions : method.invoke(daos, args));
+		};
+		racing[0] = new DefaultQuizService(saveDuringBuild);
+
+		assertEquals(1, racing[0].searchQuestions("Teiler", QuizService.ALL_SUBJECTS, 10).size());
+		assertTrue(racing[0].searchQuestions("Primzahl", QuizService.ALL_SUBJECTS, 10).isEmpty());
+	}
+
+	@Test
+	void questionPageSizeIsCutToTheLargestPage() {
+		insertQuestions(3);
+
+		QuestionPageDTO page = service.getQuestionPage(subjectId, 0, Integer.MAX_VALUE);
+
+		assertEquals(3, page.getQuestionList().size());
+		assertFalse(page.hasNext());
+	}
+
+	@Test
+	void deleteSubjectInChunksDeletesEverythingAndReportsProgress() {
+		insertQuestions(25);
+		assertEquals(25, service.searchQuestions("Frage", QuizService.ALL_SUBJECTS, 100).size());
+
+		List<SubjectDeletionDTO> progress = new ArrayList<>();
+		OperationResult<SubjectDeletionDTO> result = service.deleteSubjectInChunks(subjectId, 10, Duration.ZERO, progress::add);
+
+		assertTrue(result.isSuccess());
+		assertEquals(25, result.getData().getQuestionsDeleted());
+		assertEquals(50, result.getData().getAnswersDeleted());
+		assertTrue(result.getData().isCompleted());
+		assertEquals(3, progress.size());
+		assertFalse(progress.get(0).isCompleted());
+		assertTrue(progress.get(progress.size() - 1).isCompleted());
+		assertTrue(service.searchQuestions("Frage", QuizService.ALL_SUBJECTS, 100).isEmpty());
+		try (DAOFactory daos = provider.open()) {
+			assertTrue(daos.subjects().findById(subjectId).isEmpty());
+		}
+	}
+
+	@Test
+	void deleteSubjectInChunksKeepsRemainingQuestionsWhenInterrupted() {
+		insertQuestions(25);
+		assertEquals(25, service.searchQuestions("Frage", QuizService.ALL_SUBJECTS, 100).size());
+
+		Thread.currentThread().interrupt();
+		OperationResult<SubjectDeletionDTO> result;
+		try {
+			result = service.deleteSubjectInChunks(subjectId, 10, Duration.ofMillis(1), null);
+		} finally {
+			assertTrue(Thread.interrupted());
+		}
+
+		assertFalse(result.isSuccess());
+		assertEquals(15, service.searchQuestions("Frage", QuizService.ALL_SUBJECTS, 100).size());
+		try (DAOFactory daos = provider.open()) {
+			assertTrue(daos.subjects().findById(subjectId).isPresent());
+			assertEquals(15, daos.questions().findBySubjectId(subjectId).size());
+		}
+	}
+
+	@Test
+	void deleteSubjectInChunksRejectsMissingPause() {
+		assertThrows(NullPointerException.class, () -> service.deleteSubjectInChunks(subjectId, 10, null, null));
+		assertThrows(IllegalArgumentException.class, () -> service.deleteSubjectInChunks(subjectId, 0, Duration.ZERO, null));
+	}
+
+	private static RetryPolicy noBackoff() {
+		RetryPolicy policy = new RetryPolicy();
+		policy.setInitialBackoff(Duration.ZERO);
+		return policy;
+	}
+
+	/** Fails the next {@code remaining} commits with a deadlock instead of committing. */
+	private static final class FailingCommits implements DAOFactoryProvider {
+
+		private final DAOFactoryProvider target;
+		private int remaining;
+
+		FailingCommits(DAOFactoryProvider target, int remaining) {
+			this.target = target;
+			this.remaining = remaining;
+		}
+
+		@Override
+		public DAOFactory open() {
+			DAOFactory daos = target.open();
+			return new DAOFactory() {
+				@Override
+				public SubjectDAO subjects() {
+					return daos.subjects();
+				}
+
+				@Override
+				public QuestionDAO questions() {
+					return daos.questions();
+				}
+
+				@Override
+				public AnswerDAO answers() {
+					return daos.answers();
+				}
+
+				@Override
+				public void begin() {
+					daos.begin();
+				}
+
+				@Override
+				public void commit() {
+					if (remaining > 0) {
+						remaining--;
+						throw new DataAccessException("commit failed",
+							new SQLException("Deadlock found when trying to get lock", "40001", 1213));
+					}
+					daos.commit();
+				}
+
+				@Override
+				public void rollback() {
+					daos.rollback();
+				}
+
+				@Override
+				public void close() {
+					daos.close();
+				}
+			};
+		}
+	}
+
+	private QuestionAndAnswersDTO newAggregate(String title, String content) {
+		return new QuestionAndAnswersDTO(new QuestionDTO(0, title, content, subjectId),
+			new ArrayList<>(List.of(new AnswerDTO(0, "Ja", true, 0), new AnswerDTO(0, "Nein", false, 0))));
+	}
+
+	private void insertQuestions(int count) {
+		try (DAOFactory daos = provider.open()) {
+			Subject subject = daos.subjects().findById(subjectId).orElseThrow();
+			for (int i = 1; i <= count; i++) {
+				Question question = new Question(0, "Frage " + i, "Inhalt " + i, subject);
+				question.setQuestionId(daos.questions().insert(question));
+				daos.answers().insertAll(List.of(
+					new Answer(0, "Ja", true, question), new Answer(0, "Nein", false, question)));
+			}
+		}
+	}
+}